@@ -0,0 +1,151 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.benchmarks;
+
+import java.lang.constant.ConstantDesc;
+
+import java.util.Optional;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_CODE;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_COMP;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_UTIL;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_OPENS_MODEL;
+
+/**
+ * Benchmarks {@link Lang#describeConstable(TypeMirror)}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = { ADD_EXPORTS_CODE, ADD_EXPORTS_COMP, ADD_EXPORTS_UTIL, ADD_OPENS_MODEL })
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class DescribeConstableBenchmark {
+
+  private TypeMirror declaredType;
+
+  private TypeMirror arrayType;
+
+  private TypeMirror primitiveType;
+
+  /**
+   * Creates a new {@link DescribeConstableBenchmark}.
+   */
+  public DescribeConstableBenchmark() {
+    super();
+  }
+
+  /**
+   * Creates the types under test.
+   */
+  @Setup(Level.Trial)
+  public final void setup() {
+    // Wrapped types describe themselves, so use unwrapped types to measure Lang's own dispatch.
+    this.declaredType = Lang.unwrap(Lang.declaredType("java.lang.String"));
+    this.arrayType = Lang.unwrap(Lang.arrayTypeOf(this.declaredType));
+    this.primitiveType = Lang.unwrap(Lang.primitiveType(TypeKind.INT));
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on a declared type from a single thread.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(1)
+  public final Optional<? extends ConstantDesc> describeDeclaredType() {
+    return Lang.describeConstable(this.declaredType);
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on a declared type from as many threads as there are available
+   * processors.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final Optional<? extends ConstantDesc> describeDeclaredTypeContended() {
+    return Lang.describeConstable(this.declaredType);
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on an array type from a single thread.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(1)
+  public final Optional<? extends ConstantDesc> describeArrayType() {
+    return Lang.describeConstable(this.arrayType);
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on an array type from as many threads as there are available
+   * processors.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final Optional<? extends ConstantDesc> describeArrayTypeContended() {
+    return Lang.describeConstable(this.arrayType);
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on a primitive type from a single thread.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(1)
+  public final Optional<? extends ConstantDesc> describePrimitiveType() {
+    return Lang.describeConstable(this.primitiveType);
+  }
+
+  /**
+   * Benchmarks {@link Lang#describeConstable(TypeMirror)} on a primitive type from as many threads as there are
+   * available processors.
+   *
+   * @return the {@link ConstantDesc}, if any
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final Optional<? extends ConstantDesc> describePrimitiveTypeContended() {
+    return Lang.describeConstable(this.primitiveType);
+  }
+
+}
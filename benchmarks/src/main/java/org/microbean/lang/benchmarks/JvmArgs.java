@@ -0,0 +1,32 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.benchmarks;
+
+// Arguments appended to every forked benchmark JVM. The benchmarks run on the class path, so javac internals used by
+// org.microbean.lang.Lang must be exported to the unnamed module.
+final class JvmArgs {
+
+  static final String ADD_EXPORTS_CODE = "--add-exports=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED";
+
+  static final String ADD_EXPORTS_COMP = "--add-exports=jdk.compiler/com.sun.tools.javac.comp=ALL-UNNAMED";
+
+  static final String ADD_EXPORTS_UTIL = "--add-exports=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED";
+
+  static final String ADD_OPENS_MODEL = "--add-opens=jdk.compiler/com.sun.tools.javac.model=ALL-UNNAMED";
+
+  private JvmArgs() {
+    super();
+  }
+
+}
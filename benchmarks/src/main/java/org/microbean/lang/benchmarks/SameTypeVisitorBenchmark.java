@@ -0,0 +1,146 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.type.DeclaredType;
+
+import org.microbean.lang.Lang;
+
+import org.microbean.lang.visitor.SameTypeVisitor;
+import org.microbean.lang.visitor.Visitors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_CODE;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_COMP;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_UTIL;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_OPENS_MODEL;
+
+/**
+ * Benchmarks {@link SameTypeVisitor}.
+ *
+ * <p>Two distinct but equal {@code java.util.Map<java.lang.String, ? extends java.lang.Number>} types are compared.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = { ADD_EXPORTS_CODE, ADD_EXPORTS_COMP, ADD_EXPORTS_UTIL, ADD_OPENS_MODEL })
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class SameTypeVisitorBenchmark {
+
+  private DeclaredType t;
+
+  private DeclaredType s;
+
+  /**
+   * Creates a new {@link SameTypeVisitorBenchmark}.
+   */
+  public SameTypeVisitorBenchmark() {
+    super();
+  }
+
+  /**
+   * Creates the types under test.
+   */
+  @Setup(Level.Trial)
+  public final void setup() {
+    this.t = map();
+    this.s = map();
+  }
+
+  /**
+   * Benchmarks {@link SameTypeVisitor#visit(javax.lang.model.type.TypeMirror, javax.lang.model.type.TypeMirror)} from a
+   * single thread.
+   *
+   * @param v the current thread's {@link VisitorsState}; must not be {@code null}
+   *
+   * @return the result of the comparison
+   */
+  @Benchmark
+  @Threads(1)
+  public final Boolean sameType(final VisitorsState v) {
+    return v.visitors.sameTypeVisitor().visit(this.t, this.s);
+  }
+
+  /**
+   * Benchmarks {@link SameTypeVisitor#visit(javax.lang.model.type.TypeMirror, javax.lang.model.type.TypeMirror)} from
+   * as many threads as there are available processors.
+   *
+   * @param v the current thread's {@link VisitorsState}; must not be {@code null}
+   *
+   * @return the result of the comparison
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final Boolean sameTypeContended(final VisitorsState v) {
+    return v.visitors.sameTypeVisitor().visit(this.t, this.s);
+  }
+
+  private static final DeclaredType map() {
+    return Lang.declaredType(Lang.typeElement("java.util.Map"),
+                             Lang.declaredType("java.lang.String"),
+                             Lang.wildcardType(Lang.declaredType("java.lang.Number"), null));
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * Per-thread {@link Visitors}, since visitors are not safe for concurrent use by multiple threads.
+   */
+  @State(Scope.Thread)
+  public static class VisitorsState {
+
+    /**
+     * The {@link Visitors} belonging to the current thread.
+     */
+    public Visitors visitors;
+
+    /**
+     * Creates a new {@link VisitorsState}.
+     */
+    public VisitorsState() {
+      super();
+    }
+
+    /**
+     * Creates a new {@link Visitors} for the current thread.
+     */
+    @Setup(Level.Trial)
+    public final void setup() {
+      this.visitors = new Visitors(Lang.typeAndElementSource());
+    }
+
+  }
+
+}
@@ -0,0 +1,97 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.element.TypeElement;
+
+import org.microbean.lang.Lang;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_CODE;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_COMP;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_UTIL;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_OPENS_MODEL;
+
+/**
+ * Benchmarks {@link Lang#typeElement(CharSequence)}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = { ADD_EXPORTS_CODE, ADD_EXPORTS_COMP, ADD_EXPORTS_UTIL, ADD_OPENS_MODEL })
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class TypeElementBenchmark {
+
+  /**
+   * The canonical name of the {@link TypeElement} to look up.
+   */
+  @Param({ "java.lang.String", "java.util.concurrent.ConcurrentHashMap" })
+  public String canonicalName;
+
+  /**
+   * Creates a new {@link TypeElementBenchmark}.
+   */
+  public TypeElementBenchmark() {
+    super();
+  }
+
+  /**
+   * Initializes {@link Lang} and completes the {@link TypeElement} under test so that only lookups are measured.
+   */
+  @Setup(Level.Trial)
+  public final void setup() {
+    Lang.typeElement(this.canonicalName).getKind();
+  }
+
+  /**
+   * Benchmarks {@link Lang#typeElement(CharSequence)} from a single thread.
+   *
+   * @return the {@link TypeElement} found
+   */
+  @Benchmark
+  @Threads(1)
+  public final TypeElement typeElement() {
+    return Lang.typeElement(this.canonicalName);
+  }
+
+  /**
+   * Benchmarks {@link Lang#typeElement(CharSequence)} from as many threads as there are available processors.
+   *
+   * @return the {@link TypeElement} found
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final TypeElement typeElementContended() {
+    return Lang.typeElement(this.canonicalName);
+  }
+
+}
@@ -0,0 +1,149 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_CODE;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_COMP;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_EXPORTS_UTIL;
+import static org.microbean.lang.benchmarks.JvmArgs.ADD_OPENS_MODEL;
+
+/**
+ * Benchmarks {@link Lang#subtype(TypeMirror, TypeMirror)}, {@link Lang#assignable(TypeMirror, TypeMirror)} and {@link
+ * Lang#erasure(TypeMirror)}.
+ *
+ * <p>The payload type is {@code java.util.ArrayList<java.lang.String>} and the receiver type is {@code
+ * java.util.Collection<? extends java.lang.CharSequence>}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = { ADD_EXPORTS_CODE, ADD_EXPORTS_COMP, ADD_EXPORTS_UTIL, ADD_OPENS_MODEL })
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class TypeRelationBenchmark {
+
+  private DeclaredType payload;
+
+  private DeclaredType receiver;
+
+  /**
+   * Creates a new {@link TypeRelationBenchmark}.
+   */
+  public TypeRelationBenchmark() {
+    super();
+  }
+
+  /**
+   * Creates the types under test.
+   */
+  @Setup(Level.Trial)
+  public final void setup() {
+    this.payload = Lang.declaredType(Lang.typeElement("java.util.ArrayList"), Lang.declaredType("java.lang.String"));
+    this.receiver =
+      Lang.declaredType(Lang.typeElement("java.util.Collection"),
+                        Lang.wildcardType(Lang.declaredType("java.lang.CharSequence"), null));
+    if (!Lang.subtype(this.payload, this.receiver)) {
+      throw new AssertionError();
+    }
+  }
+
+  /**
+   * Benchmarks {@link Lang#subtype(TypeMirror, TypeMirror)} from a single thread.
+   *
+   * @return the result of the subtype check
+   */
+  @Benchmark
+  @Threads(1)
+  public final boolean subtype() {
+    return Lang.subtype(this.payload, this.receiver);
+  }
+
+  /**
+   * Benchmarks {@link Lang#subtype(TypeMirror, TypeMirror)} from as many threads as there are available processors.
+   *
+   * @return the result of the subtype check
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final boolean subtypeContended() {
+    return Lang.subtype(this.payload, this.receiver);
+  }
+
+  /**
+   * Benchmarks {@link Lang#assignable(TypeMirror, TypeMirror)} from a single thread.
+   *
+   * @return the result of the assignability check
+   */
+  @Benchmark
+  @Threads(1)
+  public final boolean assignable() {
+    return Lang.assignable(this.payload, this.receiver);
+  }
+
+  /**
+   * Benchmarks {@link Lang#assignable(TypeMirror, TypeMirror)} from as many threads as there are available processors.
+   *
+   * @return the result of the assignability check
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final boolean assignableContended() {
+    return Lang.assignable(this.payload, this.receiver);
+  }
+
+  /**
+   * Benchmarks {@link Lang#erasure(TypeMirror)} from a single thread.
+   *
+   * @return the erasure of the payload type
+   */
+  @Benchmark
+  @Threads(1)
+  public final TypeMirror erasure() {
+    return Lang.erasure(this.payload);
+  }
+
+  /**
+   * Benchmarks {@link Lang#erasure(TypeMirror)} from as many threads as there are available processors.
+   *
+   * @return the erasure of the payload type
+   */
+  @Benchmark
+  @Threads(Threads.MAX)
+  public final TypeMirror erasureContended() {
+    return Lang.erasure(this.payload);
+  }
+
+}
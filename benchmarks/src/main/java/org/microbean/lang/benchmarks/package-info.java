@@ -0,0 +1,24 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+/**
+ * Provides <a href="https://github.com/openjdk/jmh" target="_top">JMH</a> benchmarks for microBean™ Lang.
+ *
+ * <p>Build with {@code mvn -pl benchmarks -am package} and run with {@code java -jar
+ * benchmarks/target/benchmarks.jar}. Each benchmark has a single-threaded variant and a {@code Contended} variant that
+ * runs with as many threads as there are available processors.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_parent">Laird Nelson</a>
+ */
+package org.microbean.lang.benchmarks;
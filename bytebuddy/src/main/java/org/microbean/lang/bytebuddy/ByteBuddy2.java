@@ -51,40 +51,34 @@ public final class ByteBuddy2 {
   }
 
   public final TypeDescription typeDescription(final TypeMirror t) {
-    CompletionLock.acquire();
-    try {
-      return switch (t.getKind()) {
-      case NONE -> null;
+    // Only reads of t itself are guarded, and only until t is completed; see CompletionLock#guard(TypeMirror,
+    // Supplier). The type pool caches its resolutions and acquires the lock itself on a cache miss.
+    return switch (CompletionLock.guard(t, t::getKind)) {
+    case NONE -> null;
 
-      case BOOLEAN -> TypeDefinition.Sort.describe(boolean.class).asErasure();
-      case BYTE -> TypeDefinition.Sort.describe(byte.class).asErasure();
-      case CHAR -> TypeDefinition.Sort.describe(char.class).asErasure();
-      case DOUBLE -> TypeDefinition.Sort.describe(double.class).asErasure();
-      case FLOAT -> TypeDefinition.Sort.describe(float.class).asErasure();
-      case INT -> TypeDefinition.Sort.describe(int.class).asErasure();
-      case LONG -> TypeDefinition.Sort.describe(long.class).asErasure();
-      case SHORT -> TypeDefinition.Sort.describe(short.class).asErasure();
+    case BOOLEAN -> TypeDefinition.Sort.describe(boolean.class).asErasure();
+    case BYTE -> TypeDefinition.Sort.describe(byte.class).asErasure();
+    case CHAR -> TypeDefinition.Sort.describe(char.class).asErasure();
+    case DOUBLE -> TypeDefinition.Sort.describe(double.class).asErasure();
+    case FLOAT -> TypeDefinition.Sort.describe(float.class).asErasure();
+    case INT -> TypeDefinition.Sort.describe(int.class).asErasure();
+    case LONG -> TypeDefinition.Sort.describe(long.class).asErasure();
+    case SHORT -> TypeDefinition.Sort.describe(short.class).asErasure();
 
-      case VOID -> TypeDefinition.Sort.describe(void.class).asErasure();
+    case VOID -> TypeDefinition.Sort.describe(void.class).asErasure();
 
-      case ARRAY -> TypeDescription.ArrayProjection.of(typeDescription(((ArrayType)t).getComponentType()));
+    case ARRAY -> TypeDescription.ArrayProjection.of(typeDescription(CompletionLock.guard(t, ((ArrayType)t)::getComponentType)));
 
-      case DECLARED -> typeDescription((QualifiedNameable)((DeclaredType)t).asElement());
+    case DECLARED -> typeDescription((QualifiedNameable)CompletionLock.guard(t, ((DeclaredType)t)::asElement));
 
-      default -> throw new IllegalArgumentException("t: " + t + "; kind: " + t.getKind());
-      };
-    } finally {
-      CompletionLock.release();
-    }
+    default -> throw new IllegalArgumentException("t: " + t + "; kind: " + t.getKind());
+    };
   }
 
   public final TypeDescription typeDescription(final QualifiedNameable qn) {
-    CompletionLock.acquire();
-    try {
-      return this.typeDescription(qn.getQualifiedName().toString());
-    } finally {
-      CompletionLock.release();
-    }
+    // Only the name read is guarded. The type pool caches its resolutions, and acquires the lock itself on a cache miss,
+    // so a hit here is lock-free once qn is completed.
+    return this.typeDescription(CompletionLock.guard(qn, () -> qn.getQualifiedName().toString()));
   }
 
   public final TypeDescription typeDescription(final String name) { // TODO: better named name; maybe canonical name following JLS?
@@ -0,0 +1,237 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.bytebuddy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.TypeElement;
+
+import net.bytebuddy.ClassFileVersion;
+
+import net.bytebuddy.pool.TypePool;
+
+import org.microbean.lang.CompletionLock;
+import org.microbean.lang.Lang;
+
+/**
+ * A {@link TypePool.Default} that produces {@link net.bytebuddy.description.type.TypeDescription}s from a precomputed,
+ * memory-mapped token store, without consulting class files or the {@code javax.lang.model.*} machinery at all.
+ *
+ * <p>A token store is written, typically at build time, by the {@link #write(Path, Iterable)} method. It records the
+ * same modifiers, signatures and field, method and record component tokens that a {@link TypeElementTypePool} would
+ * produce for the same types. Annotation tokens are not recorded, just as they are not produced by a {@link
+ * TypeElementTypePool}.</p>
+ *
+ * <p>Types are looked up by binary name (e.g. {@code java.util.Map$Entry}) and, where it differs, by canonical name
+ * (e.g. {@code java.util.Map.Entry}). A name that is not in the store is resolved by this pool's parent, if any.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #write(Path, Iterable)
+ *
+ * @see TypeElementTypePool
+ */
+public final class TokenStoreTypePool extends TypeDataTypePool {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int MAGIC = 0x4D424C54;
+
+  private static final short VERSION = 1;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  // The mapped store. Never read from directly; duplicate() it first so that concurrent readers don't share a position.
+  private final ByteBuffer store;
+
+  // Names to offsets of their records in the store.
+  private final Map<String, Integer> directory;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link TokenStoreTypePool}.
+   *
+   * @param store the {@link Path} to a token store written by the {@link #write(Path, Iterable)} method; must not be
+   * {@code null}
+   *
+   * @exception NullPointerException if {@code store} is {@code null}
+   *
+   * @exception IOException if the token store could not be read
+   *
+   * @see #TokenStoreTypePool(ClassFileVersion, TypePool.CacheProvider, Path, TypePool)
+   */
+  public TokenStoreTypePool(final Path store) throws IOException {
+    this(ClassFileVersion.ofThisVm(), new TypePool.CacheProvider.Simple(), store, null);
+  }
+
+  /**
+   * Creates a new {@link TokenStoreTypePool}.
+   *
+   * @param classFileVersion a {@link ClassFileVersion}; may be {@code null} in which case the return value of an
+   * invocation of {@link ClassFileVersion#ofThisVm()} will be used instead
+   *
+   * @param cacheProvider a {@link TypePool.CacheProvider}; may be {@code null} in which case a new {@link
+   * TypePool.CacheProvider.Simple} will be used instead
+   *
+   * @param store the {@link Path} to a token store written by the {@link #write(Path, Iterable)} method; must not be
+   * {@code null}
+   *
+   * @param parent a {@link TypePool} to consult for types not in the token store; may be {@code null}
+   *
+   * @exception NullPointerException if {@code store} is {@code null}
+   *
+   * @exception IOException if the token store could not be read
+   */
+  public TokenStoreTypePool(final ClassFileVersion classFileVersion,
+                            final TypePool.CacheProvider cacheProvider,
+                            final Path store,
+                            final TypePool parent) throws IOException {
+    super(classFileVersion, cacheProvider, parent);
+    final MappedByteBuffer b;
+    try (final FileChannel fc = FileChannel.open(store, StandardOpenOption.READ)) {
+      // The mapping remains valid after the channel is closed.
+      b = fc.map(FileChannel.MapMode.READ_ONLY, 0L, fc.size());
+    }
+    try {
+      if (b.getInt() != MAGIC || b.getShort() != VERSION) {
+        throw new IOException("Not a token store: " + store);
+      }
+      final int size = b.getInt();
+      final Map<String, Integer> directory = HashMap.newHashMap(size);
+      for (int i = 0; i < size; i++) {
+        final byte[] bytes = new byte[b.getInt()];
+        b.get(bytes);
+        directory.put(new String(bytes, StandardCharsets.UTF_8), Integer.valueOf(b.getInt()));
+      }
+      this.store = b.slice();
+      this.directory = Collections.unmodifiableMap(directory);
+    } catch (final BufferUnderflowException e) {
+      throw new IOException("Truncated token store: " + store, e);
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns an immutable {@link Set} of the names of the types in this {@link TokenStoreTypePool}'s token store.
+   *
+   * @return an immutable {@link Set} of names; never {@code null}
+   */
+  public final Set<String> names() {
+    return this.directory.keySet();
+  }
+
+  @Override // TypePool.Default
+  protected final Resolution doDescribe(final String name) {
+    final Integer offset = this.directory.get(name);
+    return offset == null ? new Resolution.Illegal(name) : this.resolution(TypeData.read(this.store.duplicate().position(offset.intValue())));
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Writes a token store describing the supplied {@link TypeElement}s to the supplied {@link Path}, replacing any file
+   * that is already there.
+   *
+   * <p>All of the {@link TypeElement}s are read under a single acquisition of the {@link CompletionLock}.</p>
+   *
+   * @param store the {@link Path} to write; must not be {@code null}
+   *
+   * @param typeElements the {@link TypeElement}s to describe; must not be {@code null}; must have been {@linkplain
+   * Lang#wrap(javax.lang.model.element.Element) wrapped}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @exception IOException if the token store could not be written
+   *
+   * @see #TokenStoreTypePool(Path)
+   */
+  public static final void write(final Path store, final Iterable<? extends TypeElement> typeElements) throws IOException {
+    final ByteArrayOutputStream records = new ByteArrayOutputStream();
+    final Map<String, Integer> directory = new LinkedHashMap<>();
+    CompletionLock.acquire();
+    try {
+      final DataOutputStream out = new DataOutputStream(records);
+      for (final TypeElement e : typeElements) {
+        final Integer offset = Integer.valueOf(out.size());
+        final String binaryName = Lang.binaryName(e).toString();
+        if (directory.putIfAbsent(binaryName, offset) == null) {
+          directory.putIfAbsent(e.getQualifiedName().toString(), offset);
+          TypeData.of(e).write(out);
+        }
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    try (final OutputStream os = Files.newOutputStream(store);
+         final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeInt(directory.size());
+      for (final Map.Entry<String, Integer> e : directory.entrySet()) {
+        final byte[] bytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeInt(e.getValue().intValue());
+      }
+      records.writeTo(out);
+    }
+  }
+
+}
@@ -0,0 +1,456 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.bytebuddy;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+
+import org.microbean.lang.element.DelegatingElement;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+// An immutable, model-free snapshot of everything TypeDataTypePool needs to build a LazyTypeDescription for a type.
+//
+// Binary names in this mess are JVM binary names, not JLS binary names. Raph calls them "internal names" which isn't a
+// thing.
+record TypeData(int actualModifiers,
+                int modifiers,
+                String internalName,
+                String superClassName,
+                List<String> interfaceNames,
+                String genericSignature,
+                Containment containment,
+                String declaringTypeName,
+                List<String> declaredTypeDescriptors,
+                boolean anonymous,
+                List<FieldData> fields,
+                List<MethodData> methods,
+                List<RecordComponentData> recordComponents,
+                List<String> permittedSubclassNames) {
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  final void write(final DataOutput out) throws IOException {
+    out.writeInt(this.actualModifiers());
+    out.writeInt(this.modifiers());
+    writeString(out, this.internalName());
+    writeString(out, this.superClassName());
+    writeStrings(out, this.interfaceNames());
+    writeString(out, this.genericSignature());
+    this.containment().write(out);
+    writeString(out, this.declaringTypeName());
+    writeStrings(out, this.declaredTypeDescriptors());
+    out.writeBoolean(this.anonymous());
+    out.writeInt(this.fields().size());
+    for (final FieldData f : this.fields()) {
+      f.write(out);
+    }
+    out.writeInt(this.methods().size());
+    for (final MethodData m : this.methods()) {
+      m.write(out);
+    }
+    out.writeInt(this.recordComponents().size());
+    for (final RecordComponentData r : this.recordComponents()) {
+      r.write(out);
+    }
+    writeStrings(out, this.permittedSubclassNames());
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Reads a TypeData written by write(DataOutput) from the current position of b.
+  static final TypeData read(final ByteBuffer b) {
+    final int actualModifiers = b.getInt();
+    final int modifiers = b.getInt();
+    final String internalName = readString(b);
+    final String superClassName = readString(b);
+    final List<String> interfaceNames = readStrings(b);
+    final String genericSignature = readString(b);
+    final Containment containment = Containment.read(b);
+    final String declaringTypeName = readString(b);
+    final List<String> declaredTypeDescriptors = readStrings(b);
+    final boolean anonymous = b.get() != 0;
+    final List<FieldData> fields = new ArrayList<>();
+    for (int i = b.getInt(); i > 0; i--) {
+      fields.add(FieldData.read(b));
+    }
+    final List<MethodData> methods = new ArrayList<>();
+    for (int i = b.getInt(); i > 0; i--) {
+      methods.add(MethodData.read(b));
+    }
+    final List<RecordComponentData> recordComponents = new ArrayList<>();
+    for (int i = b.getInt(); i > 0; i--) {
+      recordComponents.add(RecordComponentData.read(b));
+    }
+    final List<String> permittedSubclassNames = readStrings(b);
+    return
+      new TypeData(actualModifiers,
+                   modifiers,
+                   internalName,
+                   superClassName,
+                   interfaceNames,
+                   genericSignature,
+                   containment,
+                   declaringTypeName,
+                   declaredTypeDescriptors,
+                   anonymous,
+                   Collections.unmodifiableList(fields),
+                   Collections.unmodifiableList(methods),
+                   Collections.unmodifiableList(recordComponents),
+                   permittedSubclassNames);
+  }
+
+  // Snapshots the supplied (wrapped) TypeElement. Callers should hold the CompletionLock for efficiency.
+  static final TypeData of(final TypeElement e) {
+    assert e instanceof DelegatingElement;
+    return
+      new TypeData((int)Lang.modifiers(e), // "actualModifiers"
+                   (int)Lang.modifiers(e), // "modifiers"
+                   Lang.binaryName(e).toString(), // "internalName"
+                   binaryName(e.getSuperclass()), // "superClassName"
+                   interfaceBinaryNames(e), // "interfaceName" (yes, singular for some reason)
+                   Lang.elementSignature(e), // "genericSignature"; ASM just calls it a "signature" and seems to be expecting a *type* signature in the JVM parlance
+                   Containment.of(e),
+                   declaringTypeBinaryName(e),
+                   declaredTypeDescriptors(e),
+                   e.getNestingKind() == NestingKind.ANONYMOUS,
+                   fields(e),
+                   methods(e),
+                   recordComponents(e),
+                   permittedSubclassBinaryNames(e));
+  }
+
+  private static final String binaryName(final TypeMirror t) {
+    assert t instanceof DelegatingTypeMirror;
+    return switch (t.getKind()) {
+    case DECLARED -> Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString();
+    case NONE -> null; // or empty string?
+    case TYPEVAR -> binaryName(Lang.erasure(t)); // e.g. <X extends Throwable> ... throws X
+    default -> throw new IllegalArgumentException("t: " + t);
+    };
+  }
+
+  private static final List<String> interfaceBinaryNames(final TypeElement e) {
+    final List<? extends TypeMirror> ifaces = e.getInterfaces();
+    if (ifaces.isEmpty()) {
+      return List.of();
+    }
+    final List<String> l = new ArrayList<>(ifaces.size());
+    for (final TypeMirror iface : ifaces) {
+      l.add(binaryName(iface));
+    }
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final String declaringTypeBinaryName(final TypeElement e) {
+    // TODO: triple check: getEnclosingType()? or getEnclosingElement.asType()?
+    final TypeMirror t = ((DeclaredType)e.asType()).getEnclosingType();
+    if (t == null || t.getKind() == TypeKind.NONE) {
+      return null;
+    }
+    return Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString();
+  }
+
+  private static final List<String> declaredTypeDescriptors(final Element e) {
+    final ArrayList<String> l = new ArrayList<>();
+    for (final Element ee : e.getEnclosedElements()) {
+      if (ee.getKind().isDeclaredType()) {
+        l.add(Lang.elementDescriptor(ee));
+      }
+    }
+    l.trimToSize();
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final List<FieldData> fields(final Element e) {
+    final ArrayList<FieldData> l = new ArrayList<>();
+    for (final Element ee : e.getEnclosedElements()) {
+      if (ee.getKind().isField()) {
+        l.add(FieldData.of((VariableElement)ee));
+      }
+    }
+    l.trimToSize();
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final List<MethodData> methods(final Element e) {
+    final ArrayList<MethodData> l = new ArrayList<>();
+    for (final Element ee : e.getEnclosedElements()) {
+      if (ee.getKind().isExecutable()) {
+        l.add(MethodData.of((ExecutableElement)ee));
+      }
+    }
+    l.trimToSize();
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final List<RecordComponentData> recordComponents(final Element e) {
+    final ArrayList<RecordComponentData> l = new ArrayList<>();
+    for (final Element ee : e.getEnclosedElements()) {
+      if (ee.getKind() == ElementKind.RECORD_COMPONENT) {
+        l.add(RecordComponentData.of((RecordComponentElement)ee));
+      }
+    }
+    l.trimToSize();
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final List<String> permittedSubclassBinaryNames(final TypeElement e) {
+    final List<? extends TypeMirror> ts = e.getPermittedSubclasses();
+    if (ts.isEmpty()) {
+      return List.of();
+    }
+    final List<String> l = new ArrayList<>(ts.size());
+    for (final TypeMirror t : ts) {
+      l.add(Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString());
+    }
+    return Collections.unmodifiableList(l);
+  }
+
+  private static final void writeString(final DataOutput out, final String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static final String readString(final ByteBuffer b) {
+    final int length = b.getInt();
+    if (length < 0) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    b.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final void writeStrings(final DataOutput out, final List<String> ss) throws IOException {
+    out.writeInt(ss.size());
+    for (final String s : ss) {
+      writeString(out, s);
+    }
+  }
+
+  private static final List<String> readStrings(final ByteBuffer b) {
+    final int size = b.getInt();
+    if (size == 0) {
+      return List.of();
+    }
+    final List<String> l = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      l.add(readString(b));
+    }
+    return Collections.unmodifiableList(l);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // Where a type is declared: at the top level (SELF_CONTAINED), within a method, or within another type.
+  static final record Containment(Kind kind, String typeName, String methodName, String methodDescriptor, boolean local) {
+
+    private static final Containment SELF_CONTAINED = new Containment(Kind.SELF_CONTAINED, null, null, null, false);
+
+    private final void write(final DataOutput out) throws IOException {
+      out.writeByte(this.kind().ordinal());
+      writeString(out, this.typeName());
+      writeString(out, this.methodName());
+      writeString(out, this.methodDescriptor());
+      out.writeBoolean(this.local());
+    }
+
+    private static final Containment read(final ByteBuffer b) {
+      final Kind kind = Kind.values()[b.get()];
+      final String typeName = readString(b);
+      final String methodName = readString(b);
+      final String methodDescriptor = readString(b);
+      final boolean local = b.get() != 0;
+      return kind == Kind.SELF_CONTAINED ? SELF_CONTAINED : new Containment(kind, typeName, methodName, methodDescriptor, local);
+    }
+
+    private static final Containment of(final Element e) {
+      final TypeElement ee = (TypeElement)e.getEnclosingElement();
+      if (ee == null) {
+        return SELF_CONTAINED;
+      }
+      return switch (ee.getKind()) {
+      case METHOD ->
+        new Containment(Kind.WITHIN_METHOD,
+                        Lang.binaryName((TypeElement)ee.getEnclosingElement()).toString(),
+                        ee.getSimpleName().toString(), // TODO: maybe? needs to be method's "internal name" which is just its "unqualified name" (4.2.2 JVM)
+                        Lang.elementDescriptor(ee),
+                        false);
+      case ANNOTATION_TYPE, CLASS, ENUM, INTERFACE, RECORD ->
+        new Containment(Kind.WITHIN_TYPE,
+                        Lang.binaryName(ee).toString(),
+                        null,
+                        null,
+                        ee.getNestingKind() == NestingKind.LOCAL); // TODO: this is for the enclosing element, yes?
+      case PACKAGE -> SELF_CONTAINED;
+      default -> throw new IllegalStateException(); // I guess?
+      };
+    }
+
+    static enum Kind {
+      SELF_CONTAINED,
+      WITHIN_METHOD,
+      WITHIN_TYPE;
+    }
+
+  }
+
+  static final record FieldData(String name, int modifiers, String descriptor, String genericSignature) {
+
+    private final void write(final DataOutput out) throws IOException {
+      writeString(out, this.name());
+      out.writeInt(this.modifiers());
+      writeString(out, this.descriptor());
+      writeString(out, this.genericSignature());
+    }
+
+    private static final FieldData read(final ByteBuffer b) {
+      return new FieldData(readString(b), b.getInt(), readString(b), readString(b));
+    }
+
+    private static final FieldData of(final VariableElement e) {
+      if (!e.getKind().isField()) {
+        throw new IllegalArgumentException("e: " + e);
+      }
+      return new FieldData(e.getSimpleName().toString(), (int)Lang.modifiers(e), Lang.elementDescriptor(e), Lang.elementSignature(e));
+    }
+
+  }
+
+  static final record MethodData(String name,
+                                 int modifiers,
+                                 String descriptor,
+                                 String genericSignature,
+                                 List<String> exceptionNames,
+                                 List<ParameterData> parameters) {
+
+    private final void write(final DataOutput out) throws IOException {
+      writeString(out, this.name());
+      out.writeInt(this.modifiers());
+      writeString(out, this.descriptor());
+      writeString(out, this.genericSignature());
+      writeStrings(out, this.exceptionNames());
+      out.writeInt(this.parameters().size());
+      for (final ParameterData p : this.parameters()) {
+        writeString(out, p.name());
+        out.writeInt(p.modifiers() == null ? 0 : p.modifiers().intValue());
+      }
+    }
+
+    private static final MethodData read(final ByteBuffer b) {
+      final String name = readString(b);
+      final int modifiers = b.getInt();
+      final String descriptor = readString(b);
+      final String genericSignature = readString(b);
+      final List<String> exceptionNames = readStrings(b);
+      final int size = b.getInt();
+      final List<ParameterData> parameters = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        final String parameterName = readString(b);
+        final int parameterModifiers = b.getInt();
+        parameters.add(new ParameterData(parameterName, parameterModifiers == 0 ? null : Integer.valueOf(parameterModifiers)));
+      }
+      return new MethodData(name, modifiers, descriptor, genericSignature, exceptionNames, Collections.unmodifiableList(parameters));
+    }
+
+    private static final MethodData of(final ExecutableElement e) {
+      final List<? extends TypeMirror> thrownTypes = e.getThrownTypes();
+      final List<String> exceptionNames;
+      if (thrownTypes.isEmpty()) {
+        exceptionNames = List.of();
+      } else {
+        final List<String> l = new ArrayList<>(thrownTypes.size());
+        for (final TypeMirror t : thrownTypes) {
+          l.add(binaryName(t));
+        }
+        exceptionNames = Collections.unmodifiableList(l);
+      }
+      final ArrayList<ParameterData> parameters = new ArrayList<>();
+      for (final VariableElement p : e.getParameters()) {
+        final int modifiers = (int)Lang.modifiers(p);
+        parameters.add(new ParameterData(p.getSimpleName().toString(), modifiers == 0 ? null : Integer.valueOf(modifiers)));
+      }
+      parameters.trimToSize();
+      return
+        new MethodData(e.getSimpleName().toString(),
+                       (int)Lang.modifiers(e),
+                       Lang.elementDescriptor(e),
+                       Lang.elementSignature(e),
+                       exceptionNames,
+                       Collections.unmodifiableList(parameters));
+    }
+
+  }
+
+  static final record ParameterData(String name, Integer modifiers) {}
+
+  static final record RecordComponentData(String name, String descriptor, String genericSignature) {
+
+    private final void write(final DataOutput out) throws IOException {
+      writeString(out, this.name());
+      writeString(out, this.descriptor());
+      writeString(out, this.genericSignature());
+    }
+
+    private static final RecordComponentData read(final ByteBuffer b) {
+      return new RecordComponentData(readString(b), readString(b), readString(b));
+    }
+
+    private static final RecordComponentData of(final RecordComponentElement e) {
+      return new RecordComponentData(e.getSimpleName().toString(), Lang.elementDescriptor(e), Lang.elementSignature(e));
+    }
+
+  }
+
+}
@@ -0,0 +1,269 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.bytebuddy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import net.bytebuddy.ClassFileVersion;
+
+import net.bytebuddy.description.annotation.AnnotationValue;
+
+import net.bytebuddy.dynamic.ClassFileLocator;
+
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * A {@link TypePool.Default} that produces {@link net.bytebuddy.description.type.TypeDescription}s from {@link
+ * TypeData} snapshots, however they were obtained.
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see TypeElementTypePool
+ *
+ * @see TokenStoreTypePool
+ */
+abstract class TypeDataTypePool extends TypePool.Default {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final ClassFileVersion classFileVersion;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  TypeDataTypePool(final ClassFileVersion classFileVersion,
+                   final TypePool.CacheProvider cacheProvider,
+                   final TypePool parent) {
+    super(cacheProvider == null ? new TypePool.CacheProvider.Simple() : cacheProvider,
+          ClassFileLocator.NoOp.INSTANCE,
+          TypePool.Default.ReaderMode.FAST /* actually irrelevant */,
+          parent == null ? TypePool.Empty.INSTANCE : parent);
+    this.classFileVersion = classFileVersion == null ? ClassFileVersion.ofThisVm() : classFileVersion;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  // Returns a new Resolution describing the type represented by the supplied TypeData.
+  final Resolution resolution(final TypeData td) {
+    return new Resolution.Simple(new TypeDescription(td));
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private final class TypeDescription extends LazyTypeDescription {
+
+
+    /*
+     * Static fields.
+     */
+
+
+    private static final String[] EMPTY_STRING_ARRAY = new String[0];
+
+
+    /*
+     * Constructors.
+     */
+
+
+    private TypeDescription(final TypeData td) {
+      super(TypeDataTypePool.this,
+            td.actualModifiers(),
+            td.modifiers(),
+            td.internalName(),
+            td.superClassName(),
+            td.interfaceNames().toArray(EMPTY_STRING_ARRAY),
+            td.genericSignature(),
+            typeContainment(td.containment()),
+            td.declaringTypeName(),
+            td.declaredTypeDescriptors(),
+            td.anonymous(),
+            null, // nestHostBinaryName
+            List.of(), // nestMemberBinaryNames
+            Map.of(), // superclassAnnotationTokens
+            Map.of(), // interfaceAnnotationTokens
+            Map.of(), // typeVariableAnnotationTokens
+            Map.of(), // typeVariableBoundsAnnotationTokens
+            List.of(), // annotationTokens
+            fieldTokens(td.fields()),
+            methodTokens(td.methods()),
+            recordComponentTokens(td.recordComponents()),
+            td.permittedSubclassNames(),
+            classFileVersion);
+    }
+
+
+    /*
+     * Static methods.
+     */
+
+
+    private static final TypeContainment typeContainment(final TypeData.Containment c) {
+      return switch (c.kind()) {
+      case SELF_CONTAINED -> TypeContainment.SelfContained.INSTANCE;
+      case WITHIN_METHOD -> new TypeContainment.WithinMethod(c.typeName(), c.methodName(), c.methodDescriptor()) {};
+      case WITHIN_TYPE -> new TypeContainment.WithinType(c.typeName(), c.local()) {};
+      };
+    }
+
+    private static final List<FieldToken> fieldTokens(final List<? extends TypeData.FieldData> fs) {
+      if (fs.isEmpty()) {
+        return List.of();
+      }
+      final List<FieldToken> l = new ArrayList<>(fs.size());
+      for (final TypeData.FieldData f : fs) {
+        l.add(new FieldToken(f.name(),
+                             f.modifiers(),
+                             f.descriptor(),
+                             f.genericSignature(),
+                             Map.of(), // TODO: typeAnnotationTokens
+                             List.of()) {}); // TODO: annotationTokens
+      }
+      return Collections.unmodifiableList(l);
+    }
+
+    private static final List<MethodToken> methodTokens(final List<? extends TypeData.MethodData> ms) {
+      if (ms.isEmpty()) {
+        return List.of();
+      }
+      final List<MethodToken> l = new ArrayList<>(ms.size());
+      for (final TypeData.MethodData m : ms) {
+        final List<MethodTokenSubclass.ParameterTokenSubclass> parameterTokens = new ArrayList<>(m.parameters().size());
+        for (final TypeData.ParameterData p : m.parameters()) {
+          parameterTokens.add(new MethodTokenSubclass.ParameterTokenSubclass(p.name(), p.modifiers()));
+        }
+        l.add(new MethodTokenSubclass(m.name(),
+                                      m.modifiers(),
+                                      m.descriptor(),
+                                      m.genericSignature(),
+                                      m.exceptionNames().toArray(EMPTY_STRING_ARRAY),
+                                      Map.of(), // typeVariableAnnotationTokens (Map<Integer, Map<String, List<AnnotationToken>>>)
+                                      Map.of(), // typeVariableBoundAnnotationTokens
+                                      Map.of(), // returnTypeAnnotationTokens
+                                      Map.of(), // parameterTypeAnnotationTokens
+                                      Map.of(), // exceptionTypeAnnotationTokens
+                                      Map.of(), // receiverTypeAnnotationTokens
+                                      List.of(), // annotationTokens
+                                      Map.of(), // parameterAnnotationTokens
+                                      Collections.unmodifiableList(parameterTokens),
+                                      null)); // defaultValue
+      }
+      return Collections.unmodifiableList(l);
+    }
+
+    private static final List<RecordComponentToken> recordComponentTokens(final List<? extends TypeData.RecordComponentData> rs) {
+      if (rs.isEmpty()) {
+        return List.of();
+      }
+      final List<RecordComponentToken> l = new ArrayList<>(rs.size());
+      for (final TypeData.RecordComponentData r : rs) {
+        l.add(new RecordComponentToken(r.name(),
+                                       r.descriptor(),
+                                       r.genericSignature(),
+                                       Map.of(),
+                                       List.of()) {}); // annotationTokens
+      }
+      return Collections.unmodifiableList(l);
+    }
+
+
+    /*
+     * Inner and nested classes.
+     */
+
+
+    private static final class MethodTokenSubclass extends MethodToken {
+
+
+      /*
+       * Constructors.
+       */
+
+
+      @SuppressWarnings("unchecked")
+      private MethodTokenSubclass(final String name,
+                                  final int modifiers,
+                                  final String descriptor,
+                                  final String genericSignature,
+                                  final String[] exceptionName,
+                                  final Map<Integer, Map<String, List<AnnotationToken>>> typeVariableAnnotationTokens,
+                                  final Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> typeVariableBoundAnnotationTokens,
+                                  final Map<String, List<AnnotationToken>> returnTypeAnnotationTokens,
+                                  final Map<Integer, Map<String, List<AnnotationToken>>> parameterTypeAnnotationTokens,
+                                  final Map<Integer, Map<String, List<AnnotationToken>>> exceptionTypeAnnotationTokens,
+                                  final Map<String, List<AnnotationToken>> receiverTypeAnnotationTokens,
+                                  final List<AnnotationToken> annotationTokens,
+                                  final Map<Integer, List<AnnotationToken>> parameterAnnotationTokens,
+                                  final List<? extends ParameterToken> parameterTokens,
+                                  final AnnotationValue<?,?> defaultValue) {
+        super(name,
+              modifiers,
+              descriptor,
+              genericSignature,
+              exceptionName,
+              typeVariableAnnotationTokens,
+              typeVariableBoundAnnotationTokens,
+              returnTypeAnnotationTokens,
+              parameterTypeAnnotationTokens,
+              exceptionTypeAnnotationTokens,
+              receiverTypeAnnotationTokens,
+              annotationTokens,
+              parameterAnnotationTokens,
+              (List<ParameterToken>)parameterTokens,
+              defaultValue);
+      }
+
+
+      /*
+       * Inner and nested classes.
+       */
+
+
+      private static final class ParameterTokenSubclass extends ParameterToken {
+
+
+        /*
+         * Constructors.
+         */
+
+
+        private ParameterTokenSubclass(final String name, final Integer modifiers) {
+          super(name, modifiers);
+        }
+
+      }
+
+    }
+
+  }
+
+}
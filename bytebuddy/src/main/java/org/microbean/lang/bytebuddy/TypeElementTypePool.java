@@ -13,50 +13,40 @@
  */
 package org.microbean.lang.bytebuddy;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.lang.model.element.Element;
-import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.ExecutableElement;
-import javax.lang.model.element.NestingKind;
-import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
-import javax.lang.model.element.VariableElement;
-
-import javax.lang.model.type.DeclaredType;
-import javax.lang.model.type.TypeKind;
-import javax.lang.model.type.TypeMirror;
-import javax.lang.model.type.TypeVariable;
 
 import net.bytebuddy.ClassFileVersion;
 
-import net.bytebuddy.description.annotation.AnnotationValue;
-
-import net.bytebuddy.dynamic.ClassFileLocator;
-
 import net.bytebuddy.pool.TypePool;
 
+import org.microbean.lang.CompletionLock;
 import org.microbean.lang.Lang;
 import org.microbean.lang.TypeAndElementSource;
 
-import org.microbean.lang.element.DelegatingElement;
-
-import org.microbean.lang.type.DelegatingTypeMirror;
-
 /**
  * A {@link TypePool.Default} that produces {@link net.bytebuddy.description.type.TypeDescription}s from {@code
  * javax.lang.model.*} constructs.
  *
  * <p>Notably, this approach does not cause classloading to occur.</p>
  *
+ * <p>Resolved {@link net.bytebuddy.description.type.TypeDescription}s are cached by this pool's {@link
+ * TypePool.CacheProvider}, and cache hits do not acquire the {@link CompletionLock}. The {@link #preload(Collection)}
+ * and {@link #preload(PackageElement)} methods populate the cache in bulk, under a single lock acquisition, so that
+ * many threads can subsequently describe the same types without contending with one another.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
  *
  * @see #doDescribe(String)
  */
-public final class TypeElementTypePool extends TypePool.Default {
+public final class TypeElementTypePool extends TypeDataTypePool {
 
 
   /*
@@ -64,8 +54,6 @@ public final class TypeElementTypePool extends TypePool.Default {
    */
 
 
-  private final ClassFileVersion classFileVersion;
-
   private final TypeAndElementSource tes;
 
 
@@ -138,10 +126,7 @@ public final class TypeElementTypePool extends TypePool.Default {
   public TypeElementTypePool(final ClassFileVersion classFileVersion,
                              final TypePool.CacheProvider cacheProvider,
                              final TypeAndElementSource tes) {
-    super(cacheProvider == null ? new TypePool.CacheProvider.Simple() : cacheProvider,
-          ClassFileLocator.NoOp.INSTANCE,
-          TypePool.Default.ReaderMode.FAST /* actually irrelevant */);
-    this.classFileVersion = classFileVersion == null ? ClassFileVersion.ofThisVm() : classFileVersion;
+    super(classFileVersion, cacheProvider, null);
     this.tes = tes == null ? Lang.typeAndElementSource() : tes;
   }
 
@@ -151,357 +136,102 @@ public final class TypeElementTypePool extends TypePool.Default {
    */
 
 
-  @Override // TypePool.Default
-  protected final Resolution doDescribe(final String name) {
-    final TypeElement e = this.tes.typeElement(name);
-    return e == null ? new Resolution.Illegal(name) : new Resolution.Simple(new TypeDescription(e));
-  }
-
-
-  /*
-   * Inner and nested classes.
+  /**
+   * Eagerly resolves the types bearing the supplied names, all under a single acquisition of the {@link
+   * CompletionLock}, and caches the results under their binary names so that subsequent calls to {@link
+   * #describe(String)} for any of them are served from this {@link TypeElementTypePool}'s cache without any locking.
+   *
+   * <p>Each resulting {@link net.bytebuddy.description.type.TypeDescription} is an immutable snapshot of
+   * tokens. Names that have already been cached, or that do not denote a type, are skipped.</p>
+   *
+   * @param names the canonical names of the types to resolve; must not be {@code null}
+   *
+   * @return the number of types newly cached
+   *
+   * @exception NullPointerException if {@code names} is {@code null}
+   *
+   * @see #preload(PackageElement)
    */
-
-
-  private final class TypeDescription extends LazyTypeDescription {
-
-
-    /*
-     * Static fields.
-     */
-
-
-    private static final String[] EMPTY_STRING_ARRAY = new String[0];
-
-
-    /*
-     * Constructors.
-     */
-
-
-    // Binary names in this mess are JVM binary names, not JLS binary names. Raph calls them "internal names" which
-    // isn't a thing.
-    private TypeDescription(final TypeElement e) {
-      super(TypeElementTypePool.this,
-            actualModifiers(e),
-            modifiers(e),
-            Lang.binaryName(e).toString(), // "internalName"
-            binaryName(e.getSuperclass()), // "superClassName"
-            interfaceBinaryNames(e), // "interfaceName" (yes, singular for some reason)
-            genericSignature(e), // "genericSignature"; ASM just calls it a "signature" and seems to be expecting a *type* signature in the JVM parlance
-            typeContainment(e),
-            declaringTypeBinaryName(e),
-            declaredTypeDescriptors(e),
-            e.getNestingKind() == NestingKind.ANONYMOUS,
-            nestHostBinaryName(e),
-            nestMemberBinaryNames(e),
-            superclassAnnotationTokens(e),
-            interfaceAnnotationTokens(e),
-            typeVariableAnnotationTokens(e),
-            typeVariableBoundsAnnotationTokens(e),
-            annotationTokens(e),
-            fieldTokens(e),
-            methodTokens(e),
-            recordComponentTokens(e),
-            permittedSubclassBinaryNames(e),
-            classFileVersion);
-    }
-
-
-    /*
-     * Static methods.
-     */
-
-
-    private static final String binaryName(final TypeMirror t) {
-      assert t instanceof DelegatingTypeMirror;
-      return switch (t.getKind()) {
-      case DECLARED -> Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString();
-      case NONE -> null; // or empty string?
-      case TYPEVAR -> Lang.binaryName((TypeElement)((TypeVariable)t).asElement()).toString();
-      default -> throw new IllegalArgumentException("t: " + t);
-      };
-    }
-
-    private static final int actualModifiers(final Element e) {
-      assert e instanceof DelegatingElement;
-      return (int)Lang.modifiers(e);
-    }
-
-    private static final int modifiers(final Element e) {
-      assert e instanceof DelegatingElement;
-      return (int)Lang.modifiers(e);
-    }
-
-    private static final String[] interfaceBinaryNames(final TypeElement e) {
-      assert e instanceof DelegatingElement;
-      final List<? extends TypeMirror> ifaces = e.getInterfaces();
-      if (ifaces.isEmpty()) {
-        return EMPTY_STRING_ARRAY;
-      }
-      final String[] rv = new String[ifaces.size()];
-      for (int i = 0; i < rv.length; i++) {
-        rv[i] = binaryName(ifaces.get(i));
-      }
-      return rv;
-    }
-
-    private static final String genericSignature(final Element e) {
-      return Lang.elementSignature(e);
-    }
-
-    private static final TypeContainment typeContainment(final Element e) {
-      assert e instanceof DelegatingElement;
-      final TypeElement ee = (TypeElement)e.getEnclosingElement();
-      if (ee == null) {
-        return TypeContainment.SelfContained.INSTANCE;
-      }
-      return switch (ee.getKind()) {
-      case METHOD ->
-        new TypeContainment.WithinMethod(Lang.binaryName((TypeElement)ee.getEnclosingElement()).toString(),
-                                         ee.getSimpleName().toString(), // TODO: maybe? needs to be method's "internal name" which is just its "unqualified name" (4.2.2 JVM)
-                                         Lang.descriptor(ee.asType())) {};
-      case ANNOTATION_TYPE, CLASS, ENUM, INTERFACE, RECORD ->
-        new TypeContainment.WithinType(Lang.binaryName(ee).toString(),
-                                       ee.getNestingKind() == NestingKind.LOCAL) {}; // TODO: this is for the enclosing element, yes?
-      case PACKAGE -> TypeContainment.SelfContained.INSTANCE;
-      default -> throw new IllegalStateException(); // I guess?
-      };
-    }
-
-    private static final String declaringTypeBinaryName(final TypeElement e) {
-      assert e instanceof DelegatingElement;
-      // TODO: triple check: getEnclosingType()? or getEnclosingElement.asType()?
-      final TypeMirror t = ((DeclaredType)e.asType()).getEnclosingType();
-      if (t == null || t.getKind() == TypeKind.NONE) {
-        return null;
-      }
-      return Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString();
-    }
-
-    private static final List<String> declaredTypeDescriptors(final Element e) {
-      assert e instanceof DelegatingElement;
-      final ArrayList<String> l = new ArrayList<>();
-      for (final Element ee : e.getEnclosedElements()) {
-        if (ee.getKind().isDeclaredType()) {
-          l.add(Lang.descriptor(ee.asType()));
-        }
-      }
-      l.trimToSize();
-      return Collections.unmodifiableList(l);
-    }
-
-    private static final String nestHostBinaryName(final Element e) {
-      return null;
-    }
-
-    private static final List<String> nestMemberBinaryNames(final Element e) {
-      return List.of();
-    }
-
-    private static final Map<String, List<AnnotationToken>> superclassAnnotationTokens(final Element e) {
-      return Map.of();
-    }
-
-    private static final Map<Integer, Map<String, List<AnnotationToken>>> interfaceAnnotationTokens(final Element e) {
-      return Map.of();
-    }
-
-    private static final Map<Integer, Map<String, List<AnnotationToken>>> typeVariableAnnotationTokens(final Element e) {
-      return Map.of();
-    }
-
-    private static final Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> typeVariableBoundsAnnotationTokens(final Element e) {
-      return Map.of();
-    }
-
-    private static final List<AnnotationToken> annotationTokens(final Element e) {
-      return List.of();
-    }
-
-    private static final List<FieldToken> fieldTokens(final Element e) {
-      assert e instanceof DelegatingElement;
-      final ArrayList<FieldToken> l = new ArrayList<>();
-      for (final Element ee : e.getEnclosedElements()) {
-        if (ee.getKind().isField()) {
-          l.add(fieldToken((VariableElement)ee));
-        }
-      }
-      l.trimToSize();
-      return Collections.unmodifiableList(l);
-    }
-
-    private static final List<MethodToken> methodTokens(final Element e) {
-      assert e instanceof DelegatingElement;
-      final ArrayList<MethodToken> l = new ArrayList<>();
-      for (final Element ee : e.getEnclosedElements()) {
-        if (ee.getKind().isExecutable()) {
-          l.add(methodToken((ExecutableElement)ee));
-        }
-      }
-      l.trimToSize();
-      return Collections.unmodifiableList(l);
-    }
-
-    private static final List<RecordComponentToken> recordComponentTokens(final Element e) {
-      assert e instanceof DelegatingElement;
-      final ArrayList<RecordComponentToken> l = new ArrayList<>();
-      for (final Element ee : e.getEnclosedElements()) {
-        if (ee.getKind() == ElementKind.RECORD_COMPONENT) {
-          l.add(recordComponentToken((RecordComponentElement)ee));
+  public final int preload(final Collection<? extends CharSequence> names) {
+    final Map<String, Resolution> resolutions = new LinkedHashMap<>();
+    CompletionLock.acquire();
+    try {
+      for (final CharSequence cs : names) {
+        final String name = cs.toString();
+        if (this.cacheProvider.find(name) == null) {
+          final TypeElement e = this.tes.typeElement(name);
+          if (e != null) {
+            // describe(String) is called with binary names (java.util.Map$Entry), not canonical ones
+            // (java.util.Map.Entry), so that is what the resolution is cached under.
+            final String binaryName = Lang.binaryName(e).toString();
+            if (!resolutions.containsKey(binaryName) && this.cacheProvider.find(binaryName) == null) {
+              resolutions.put(binaryName, this.resolution(TypeData.of(e)));
+            }
+          }
         }
       }
-      l.trimToSize();
-      return Collections.unmodifiableList(l);
-    }
-
-    private static final List<String> permittedSubclassBinaryNames(final TypeElement e) {
-      assert e instanceof DelegatingElement;
-      final List<? extends TypeMirror> ts = e.getPermittedSubclasses();
-      if (ts.isEmpty()) {
-        return List.of();
-      }
-      final List<String> l = new ArrayList<>(ts.size());
-      for (final TypeMirror t : ts) {
-        l.add(Lang.binaryName((TypeElement)((DeclaredType)t).asElement()).toString());
-      }
-      return Collections.unmodifiableList(l);
-    }
-
-    private static final FieldToken fieldToken(final VariableElement e) {
-      assert e instanceof DelegatingElement;
-      if (!e.getKind().isField()) {
-        throw new IllegalArgumentException("e: " + e);
-      }
-      return
-        new FieldToken(e.getSimpleName().toString(),
-                       (int)Lang.modifiers(e),
-                       Lang.descriptor(e.asType()),
-                       genericSignature(e),
-                       Map.of(), // TODO: typeAnnotationTokens
-                       List.of()) {}; // TODO: annotationTokens
+    } finally {
+      CompletionLock.release();
     }
+    return this.register(resolutions);
+  }
 
-    private static final MethodToken methodToken(final ExecutableElement e) {
-      assert e instanceof DelegatingElement;
-      final List<? extends TypeMirror> thrownTypes = e.getThrownTypes();
-      final String[] exceptionBinaryNames;
-      if (thrownTypes.isEmpty()) {
-        exceptionBinaryNames = EMPTY_STRING_ARRAY;
-      } else {
-        exceptionBinaryNames = new String[thrownTypes.size()];
-        for (int i = 0; i < exceptionBinaryNames.length; i++) {
-          exceptionBinaryNames[i] = Lang.binaryName((TypeElement)((DeclaredType)thrownTypes.get(i)).asElement()).toString();
+  /**
+   * Eagerly resolves every type (including every member type, recursively) declared in the supplied package, all under
+   * a single acquisition of the {@link CompletionLock}, and caches the results under their binary names so that
+   * subsequent calls to {@link #describe(String)} for any of them are served from this {@link TypeElementTypePool}'s
+   * cache without any locking.
+   *
+   * @param p the package whose types should be resolved; must not be {@code null} and must come from this {@link
+   * TypeElementTypePool}'s {@link TypeAndElementSource}
+   *
+   * @return the number of types newly cached
+   *
+   * @exception NullPointerException if {@code p} is {@code null}
+   *
+   * @see #preload(Collection)
+   */
+  public final int preload(final PackageElement p) {
+    final Map<String, Resolution> resolutions = new LinkedHashMap<>();
+    CompletionLock.acquire();
+    try {
+      final Deque<Element> q = new ArrayDeque<>(p.getEnclosedElements());
+      while (!q.isEmpty()) {
+        final Element e = q.removeFirst();
+        if (e.getKind().isDeclaredType()) {
+          final TypeElement te = (TypeElement)e;
+          final String name = Lang.binaryName(te).toString();
+          if (this.cacheProvider.find(name) == null) {
+            resolutions.put(name, this.resolution(TypeData.of(te)));
+          }
+          q.addAll(te.getEnclosedElements());
         }
       }
-      final ArrayList<MethodTokenSubclass.ParameterTokenSubclass> parameterTokens = new ArrayList<>();
-      for (final VariableElement p : e.getParameters()) {
-        parameterTokens.add(parameterToken(p));
-      }
-      parameterTokens.trimToSize();
-      return
-        new MethodTokenSubclass(e.getSimpleName().toString(),
-                                (int)Lang.modifiers(e),
-                                Lang.descriptor(e.asType()),
-                                genericSignature(e),
-                                exceptionBinaryNames,
-                                Map.of(), // typeVariableAnnotationTokens (Map<Integer, Map<String, List<AnnotationToken>>>)
-                                Map.of(), // typeVariableBoundAnnotationTokens
-                                Map.of(), // returnTypeAnnotationTokens
-                                Map.of(), // parameterTypeAnnotationTokens
-                                Map.of(), // exceptionTypeAnnotationTokens
-                                Map.of(), // receiverTypeAnnotationTokens
-                                List.of(), // annotationTokens
-                                Map.of(), // parameterAnnotationTokens
-                                Collections.unmodifiableList(parameterTokens),
-                                null); // defaultValue
-    }
-
-    private static final MethodTokenSubclass.ParameterTokenSubclass parameterToken(final VariableElement e) {
-      assert e instanceof DelegatingElement;
-      final int modifiers = (int)Lang.modifiers(e);
-      return new MethodTokenSubclass.ParameterTokenSubclass(e.getSimpleName().toString(), modifiers == 0 ? null : Integer.valueOf(modifiers));
-    }
-
-    private static final RecordComponentToken recordComponentToken(final RecordComponentElement e) {
-      assert e instanceof DelegatingElement;
-      return
-        new RecordComponentToken(e.getSimpleName().toString(),
-                                 Lang.descriptor(e.asType()),
-                                 genericSignature(e),
-                                 Map.of(),
-                                 List.of()) {}; // annotationTokens
+    } finally {
+      CompletionLock.release();
     }
+    return this.register(resolutions);
+  }
 
+  @Override // TypePool.Default
+  protected final Resolution doDescribe(final String name) {
+    // Build the whole description under one lock acquisition rather than one per Lang call.
+    return CompletionLock.guard(() -> {
+        final TypeElement e = this.tes.typeElement(name);
+        return e == null ? new Resolution.Illegal(name) : this.resolution(TypeData.of(e));
+      });
+  }
 
-    /*
-     * Inner and nested classes.
-     */
-
-
-    private static final class MethodTokenSubclass extends MethodToken {
-
-
-      /*
-       * Constructors.
-       */
-
-
-      @SuppressWarnings("unchecked")
-      private MethodTokenSubclass(final String name,
-                                  final int modifiers,
-                                  final String descriptor,
-                                  final String genericSignature,
-                                  final String[] exceptionName,
-                                  final Map<Integer, Map<String, List<AnnotationToken>>> typeVariableAnnotationTokens,
-                                  final Map<Integer, Map<Integer, Map<String, List<AnnotationToken>>>> typeVariableBoundAnnotationTokens,
-                                  final Map<String, List<AnnotationToken>> returnTypeAnnotationTokens,
-                                  final Map<Integer, Map<String, List<AnnotationToken>>> parameterTypeAnnotationTokens,
-                                  final Map<Integer, Map<String, List<AnnotationToken>>> exceptionTypeAnnotationTokens,
-                                  final Map<String, List<AnnotationToken>> receiverTypeAnnotationTokens,
-                                  final List<AnnotationToken> annotationTokens,
-                                  final Map<Integer, List<AnnotationToken>> parameterAnnotationTokens,
-                                  final List<? extends ParameterToken> parameterTokens,
-                                  final AnnotationValue<?,?> defaultValue) {
-        super(name,
-              modifiers,
-              descriptor,
-              genericSignature,
-              exceptionName,
-              typeVariableAnnotationTokens,
-              typeVariableBoundAnnotationTokens,
-              returnTypeAnnotationTokens,
-              parameterTypeAnnotationTokens,
-              exceptionTypeAnnotationTokens,
-              receiverTypeAnnotationTokens,
-              annotationTokens,
-              parameterAnnotationTokens,
-              (List<ParameterToken>)parameterTokens,
-              defaultValue);
-      }
-
-
-      /*
-       * Inner and nested classes.
-       */
-
-
-      private static final class ParameterTokenSubclass extends ParameterToken {
-
-
-        /*
-         * Constructors.
-         */
-
-
-        private ParameterTokenSubclass(final String name, final Integer modifiers) {
-          super(name, modifiers);
-        }
-
+  private final int register(final Map<? extends String, ? extends Resolution> resolutions) {
+    int registered = 0;
+    for (final Map.Entry<? extends String, ? extends Resolution> e : resolutions.entrySet()) {
+      final Resolution r = e.getValue();
+      // CacheProvider#register(String, Resolution) returns whichever Resolution won any race.
+      if (this.cacheProvider.register(e.getKey(), r) == r) {
+        ++registered;
       }
-
     }
-
+    return registered;
   }
 
 }
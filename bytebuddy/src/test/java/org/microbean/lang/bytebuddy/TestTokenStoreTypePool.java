@@ -0,0 +1,97 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.bytebuddy;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import net.bytebuddy.description.method.MethodDescription;
+
+import net.bytebuddy.description.type.TypeDescription;
+
+import net.bytebuddy.pool.TypePool;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.microbean.lang.Lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestTokenStoreTypePool {
+
+  private TestTokenStoreTypePool() {
+    super();
+  }
+
+  @Test
+  final void testRoundTrip(@TempDir final Path dir) throws IOException {
+    final Path store = dir.resolve("types.tok");
+    TokenStoreTypePool.write(store, List.of(Lang.typeElement("java.lang.Integer"),
+                                            Lang.typeElement("java.util.Map.Entry"),
+                                            Lang.typeElement("java.lang.Record")));
+    final TokenStoreTypePool tp = new TokenStoreTypePool(store);
+    assertTrue(tp.names().contains("java.util.Map$Entry"));
+    assertTrue(tp.names().contains("java.util.Map.Entry"));
+    assertFalse(tp.describe("java.lang.String").isResolved());
+
+    final TypePool reference = new TypeElementTypePool();
+    for (final String name : List.of("java.lang.Integer", "java.util.Map.Entry", "java.lang.Record")) {
+      final TypeDescription expected = reference.describe(name).resolve();
+      final TypeDescription actual = tp.describe(name).resolve();
+      assertEquals(expected.getName(), actual.getName());
+      assertEquals(expected.getModifiers(), actual.getModifiers());
+      assertEquals(expected.getDeclaredFields().size(), actual.getDeclaredFields().size());
+      assertEquals(expected.getDeclaredMethods().size(), actual.getDeclaredMethods().size());
+      for (int i = 0; i < expected.getDeclaredMethods().size(); i++) {
+        final MethodDescription em = expected.getDeclaredMethods().get(i);
+        final MethodDescription am = actual.getDeclaredMethods().get(i);
+        assertEquals(em.getInternalName(), am.getInternalName());
+        assertEquals(em.getGenericSignature(), am.getGenericSignature());
+        assertEquals(em.getModifiers(), am.getModifiers());
+      }
+      assertEquals(expected.getInterfaces().size(), actual.getInterfaces().size());
+    }
+  }
+
+  @Test
+  final void testParent(@TempDir final Path dir) throws IOException {
+    final Path store = dir.resolve("types.tok");
+    TokenStoreTypePool.write(store, List.of(Lang.typeElement("java.lang.Integer")));
+    final TokenStoreTypePool tp = new TokenStoreTypePool(null, null, store, new TypeElementTypePool());
+    assertEquals("java.lang.String", tp.describe("java.lang.String").resolve().getName());
+    // Types referenced by stored tokens resolve through the parent too.
+    assertEquals("java.lang.Number", tp.describe("java.lang.Integer").resolve().getSuperClass().asErasure().getName());
+    assertEquals("(Ljava/lang/String;)Ljava/lang/Integer;",
+                 tp.describe("java.lang.Integer").resolve().getDeclaredMethods()
+                 .filter(m -> m.getInternalName().equals("valueOf") && m.getDescriptor().startsWith("(Ljava/lang/String;)"))
+                 .getOnly()
+                 .getDescriptor());
+  }
+
+  @Test
+  final void testGarbage(@TempDir final Path dir) throws IOException {
+    final Path store = Files.writeString(dir.resolve("garbage.tok"), "garbage");
+    assertThrows(IOException.class, () -> new TokenStoreTypePool(store));
+  }
+
+}
@@ -57,6 +57,9 @@ import org.microbean.lang.element.DelegatingElement;
 import org.microbean.lang.type.DelegatingTypeMirror;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.microbean.lang.Lang.modifiers;
@@ -113,6 +116,37 @@ final class TestTypeElementTypePool {
     }
   }
 
+  @Test
+  final void testPreload() {
+    final TypeElementTypePool tp = new TypeElementTypePool(new TypePool.CacheProvider.Simple());
+    assertEquals(2, tp.preload(List.of("java.lang.Integer", "java.lang.Long", "no.such.Type")));
+    assertEquals(0, tp.preload(List.of("java.lang.Integer")));
+    final TypeDescription integer = tp.describe("java.lang.Integer").resolve();
+    assertSame(integer, tp.describe("java.lang.Integer").resolve());
+    assertEquals("java.lang.Integer", integer.getName());
+  }
+
+  @Test
+  final void testPreloadMemberType() {
+    final TypePool.CacheProvider cp = new TypePool.CacheProvider.Simple();
+    final TypeElementTypePool tp = new TypeElementTypePool(cp);
+    assertEquals(1, tp.preload(List.of("java.util.Map.Entry")));
+    // Resolutions are cached under binary names, which is what describe(String) looks up.
+    assertNotNull(cp.find("java.util.Map$Entry"));
+    assertNull(cp.find("java.util.Map.Entry"));
+    assertEquals(0, tp.preload(List.of("java.util.Map.Entry")));
+    assertEquals("java.util.Map$Entry", tp.describe("java.util.Map$Entry").resolve().getName());
+  }
+
+  @Test
+  final void testPreloadPackage() {
+    final TypeElementTypePool tp = new TypeElementTypePool(new TypePool.CacheProvider.Simple());
+    assertTrue(tp.preload(Lang.packageElement("java.util.concurrent.atomic")) > 0);
+    assertEquals("java.util.concurrent.atomic.LongAdder", tp.describe("java.util.concurrent.atomic.LongAdder").resolve().getName());
+    // Member types are cached under their binary names.
+    assertTrue(tp.describe("java.util.concurrent.atomic.Striped64$Cell").isResolved());
+  }
+
   @Test
   final void testSignatureStuff() {
     final TypeElement e = Lang.typeElement("java.util.List");
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,16 @@ package org.microbean.lang;
 
 import java.lang.annotation.Annotation;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.AnnotationMirror;
 
 import org.microbean.lang.element.Element;
@@ -33,15 +37,22 @@ import org.microbean.lang.type.TypeMirror;
 /**
  * A mutable implementation of the {@link javax.lang.model.AnnotatedConstruct} interface.
  *
+ * <p>Once a model graph is finished, it may be {@linkplain #freeze() frozen}. Freezing replaces every construct's
+ * mutable state with compact immutable state, after which the construct rejects further mutation and may be read
+ * concurrently without locking.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
  */
 public abstract sealed class AnnotatedConstruct implements javax.lang.model.AnnotatedConstruct permits Element, TypeMirror {
 
   private static final Annotation[] EMPTY_ANNOTATION_ARRAY = new Annotation[0];
 
-  private final List<AnnotationMirror> annotationMirrors;
+  private List<AnnotationMirror> annotationMirrors;
+
+  private List<AnnotationMirror> unmodifiableAnnotationMirrors;
 
-  private final List<AnnotationMirror> unmodifiableAnnotationMirrors;
+  // Written last by freeze(), so a thread that reads true here sees all frozen state.
+  private volatile boolean frozen;
 
   /**
    * Creates a new {@link AnnotatedConstruct}.
@@ -101,8 +112,11 @@ public abstract sealed class AnnotatedConstruct implements javax.lang.model.Anno
    * @param a the {@link AnnotationMirror} to add; must not be {@code null}
    *
    * @exception NullPointerException if {@code a} is {@code null}
+   *
+   * @exception IllegalStateException if this {@link AnnotatedConstruct} is {@linkplain #frozen() frozen}
    */
   public void addAnnotationMirror(final AnnotationMirror a) {
+    this.checkMutable();
     if (this.annotationMirrors.contains(a)) {
       throw new IllegalArgumentException("a: " + a);
     }
@@ -139,4 +153,89 @@ public abstract sealed class AnnotatedConstruct implements javax.lang.model.Anno
     return Objects.requireNonNull(a, "a");
   }
 
+  /**
+   * Returns {@code true} if this {@link AnnotatedConstruct} has been {@linkplain #freeze() frozen}.
+   *
+   * @return {@code true} if this {@link AnnotatedConstruct} has been {@linkplain #freeze() frozen}
+   */
+  public final boolean frozen() {
+    return this.frozen;
+  }
+
+  /**
+   * Freezes this {@link AnnotatedConstruct} and every mutable {@link AnnotatedConstruct} reachable from it, replacing
+   * their mutable state with compact immutable state.
+   *
+   * <p>Frozen constructs share empty {@link List}s, hold their non-empty {@link List}s in immutable array-backed {@link
+   * List}s, and reject further mutation with an {@link IllegalStateException}. Any lazily generated state is generated
+   * before freezing. A thread that sees {@link #frozen()} return {@code true} for a construct may read it without
+   * locking.</p>
+   *
+   * <p>The graph is traversed iteratively, so freezing a large or cyclic graph is safe. Freezing an already frozen
+   * construct does nothing.</p>
+   *
+   * <p>This method is not safe for concurrent use with any method that mutates the graph.</p>
+   *
+   * @see #frozen()
+   */
+  public final void freeze() {
+    final Deque<AnnotatedConstruct> q = new ArrayDeque<>();
+    q.add(this);
+    final Consumer<Object> c = o -> {
+      if (o instanceof AnnotatedConstruct ac && !ac.frozen) {
+        q.add(ac);
+      }
+    };
+    while (!q.isEmpty()) {
+      final AnnotatedConstruct ac = q.removeFirst();
+      if (!ac.frozen) {
+        ac.freeze(c);
+        ac.frozen = true; // volatile write
+      }
+    }
+  }
+
+  /**
+   * Replaces this {@link AnnotatedConstruct}'s mutable state with immutable state, and supplies every object it
+   * references that may need freezing in turn to the supplied {@link Consumer}.
+   *
+   * <p>Overrides must call {@code super.freeze(c)}.</p>
+   *
+   * @param c a {@link Consumer} accepting referenced objects, which may be {@code null} or already frozen; must not be
+   * {@code null}
+   *
+   * @see #freeze()
+   */
+  protected void freeze(final Consumer<Object> c) {
+    this.annotationMirrors = frozen(this.annotationMirrors);
+    this.unmodifiableAnnotationMirrors = this.annotationMirrors;
+  }
+
+  /**
+   * Throws an {@link IllegalStateException} if this {@link AnnotatedConstruct} is {@linkplain #frozen() frozen}.
+   *
+   * @exception IllegalStateException if this {@link AnnotatedConstruct} is {@linkplain #frozen() frozen}
+   */
+  protected final void checkMutable() {
+    if (this.frozen) {
+      throw new IllegalStateException("frozen: " + this);
+    }
+  }
+
+  /**
+   * Returns an immutable, array-backed copy of the supplied {@link List}, or the shared empty {@link List} if it is
+   * empty.
+   *
+   * @param <T> the element type
+   *
+   * @param list a {@link List}; must not be {@code null} and must not contain {@code null}
+   *
+   * @return an immutable {@link List}; never {@code null}
+   *
+   * @exception NullPointerException if {@code list} is {@code null} or contains {@code null}
+   */
+  protected static final <T> List<T> frozen(final List<? extends T> list) {
+    return list.isEmpty() ? List.of() : List.copyOf(list);
+  }
+
 }
@@ -13,12 +13,34 @@
  */
 package org.microbean.lang;
 
+import java.util.Objects;
+
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.Parameterizable;
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.NullType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+
+import org.microbean.lang.element.DelegatingElement;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
 /**
  * A utility class logically containing a single {@link Lock} that is used to guard against concurrent <em>symbol
  * completion</em>.
@@ -34,6 +56,19 @@ import java.util.function.Supplier;
  * org.microbean.lang.element.DelegatingElement} automatically perform such locking, and all operations in {@link Lang}
  * that could result in symbol completion also perform such locking.</p>
  *
+ * <p>By default this class operates in <em>read-mostly</em> mode. In this mode, an {@link Element} that has been
+ * completed under lock by one of the {@link #guard(Element, Supplier)}-style methods is recorded as such, and subsequent
+ * guarded operations on it (or on a {@link TypeMirror} whose {@linkplain DeclaredType#asElement() element} it is) run
+ * without acquiring the global {@link Lock} at all. Only first-time completion is serialized. Setting the {@code
+ * org.microbean.lang.CompletionLock.readMostly} system property to {@code false} restores the prior behavior, in which
+ * every guarded operation acquires the global {@link Lock}.</p>
+ *
+ * <p>While a thread is inside {@link JavacTypeAndElementSource#guard(Supplier)}, the {@link
+ * JavacTypeAndElementSource}'s own {@link Lock} stands in for the global {@link Lock} on that thread, so that library
+ * code that guards symbol completion with this class guards that source's own javac environment instead. Elements
+ * completed there are recorded by that source, not by this class, and are forgotten when it is {@linkplain
+ * JavacTypeAndElementSource#close() closed}.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
  *
  * @see #acquire()
@@ -52,6 +87,18 @@ public final class CompletionLock {
 
   private static final Lock LOCK = new ReentrantLock();
 
+  // A Lock (and its record of completed Elements) standing in for LOCK (and completedElements) on the current thread, if
+  // any. See #bind(Lock, WeakIdentityCache, Supplier).
+  private static final ThreadLocal<Binding> binding = new ThreadLocal<>();
+
+  private static final boolean readMostly =
+    Boolean.parseBoolean(System.getProperty("org.microbean.lang.CompletionLock.readMostly", "true"));
+
+  // Elements that have been completed while LOCK was held, mapped to Boolean.TRUE. Adding an Element here happens-before
+  // any get() that finds it, so a thread that finds an Element here also sees the effects of its completion. Elements
+  // are held weakly, so a symbol that javac (or a closed JavacTypeAndElementSource) lets go of is not kept alive here.
+  private static final WeakIdentityCache<Element, Boolean> completedElements = new WeakIdentityCache<>();
+
 
   /*
    * Constructors.
@@ -69,27 +116,68 @@ public final class CompletionLock {
 
 
   /**
-   * Calls {@link Lock#lock() lock()} on the global {@link Lock} and returns it.
+   * Calls {@link Lock#lock() lock()} on the global {@link Lock} (or on the {@link Lock} standing in for it on the
+   * current thread) and returns it.
    *
    * @return the locked {@link Lock}; never {@code null}
    *
    * @see #release()
    */
   public static final Lock acquire() {
-    LOCK.lock();
-    return LOCK;
+    final Lock lock = lock();
+    lock.lock();
+    return lock;
   }
 
   /**
-   * Calls {@link Lock#unlock() unlock()} on the global {@link Lock} and returns it.
+   * Calls {@link Lock#unlock() unlock()} on the global {@link Lock} (or on the {@link Lock} standing in for it on the
+   * current thread) and returns it.
    *
    * @return the unlocked {@link Lock}; never {@code null}
    *
    * @see #acquire()
    */
   public static final Lock release() {
-    LOCK.unlock();
-    return LOCK;
+    final Lock lock = lock();
+    lock.unlock();
+    return lock;
+  }
+
+  // Called by JavacTypeAndElementSource#guard(Supplier). Locks the supplied Lock and makes it, and the supplied record of
+  // completed Elements, stand in for the global Lock and its record on the current thread until the supplied Supplier
+  // returns.
+  static final <T> T bind(final Lock lock,
+                          final WeakIdentityCache<Element, Boolean> completedElements,
+                          final Supplier<? extends T> s) {
+    Objects.requireNonNull(s, "s");
+    final Binding b = new Binding(Objects.requireNonNull(lock, "lock"),
+                                  Objects.requireNonNull(completedElements, "completedElements"));
+    final Binding old = binding.get();
+    lock.lock();
+    try {
+      binding.set(b);
+      try {
+        return s.get();
+      } finally {
+        if (old == null) {
+          binding.remove();
+        } else {
+          binding.set(old);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static final Lock lock() {
+    final Binding b = binding.get();
+    return b == null ? LOCK : b.lock();
+  }
+
+  private static final WeakIdentityCache<Element, Boolean> completedElements() {
+    final Binding b = binding.get();
+    return b == null ? completedElements : b.completedElements();
   }
 
   /**
@@ -152,4 +240,227 @@ public final class CompletionLock {
     }
   }
 
+
+  /**
+   * Returns {@code true} if this class is operating in read-mostly mode.
+   *
+   * @return {@code true} if this class is operating in read-mostly mode
+   *
+   * @see #completed(Element)
+   */
+  public static final boolean readMostly() {
+    return readMostly;
+  }
+
+  /**
+   * Returns {@code true} if this class is operating in {@linkplain #readMostly() read-mostly mode} and the supplied
+   * {@link Element} is known to have been completed such that read-only operations on it need not acquire the global
+   * {@link Lock}.
+   *
+   * @param e an {@link Element}; may be {@code null} in which case {@code false} will be returned
+   *
+   * @return {@code true} if read-only operations on the supplied {@link Element} may be performed without acquiring the
+   * global {@link Lock}
+   */
+  public static final boolean completed(final Element e) {
+    return readMostly && e != null && completedElements().get(DelegatingElement.unwrap(e)) != null;
+  }
+
+  /**
+   * Returns {@code true} if this class is operating in {@linkplain #readMostly() read-mostly mode} and the supplied
+   * {@link TypeMirror} is known to be one whose read-only operations need not acquire the global {@link Lock}.
+   *
+   * <p>Array, null, primitive, wildcard and "no" types never cause symbol completion on their own. A declared type is
+   * considered completed if its {@linkplain DeclaredType#asElement() element} is {@linkplain #completed(Element)
+   * completed}; likewise a type variable. All other types are never considered completed.</p>
+   *
+   * @param t a {@link TypeMirror}; may be {@code null} in which case {@code false} will be returned
+   *
+   * @return {@code true} if read-only operations on the supplied {@link TypeMirror} may be performed without acquiring
+   * the global {@link Lock}
+   */
+  public static final boolean completed(final TypeMirror t) {
+    if (!readMostly || t == null) {
+      return false;
+    }
+    // Note that none of the operations below cause symbol completion.
+    return switch (DelegatingTypeMirror.unwrap(t)) {
+    case ArrayType at     -> true;
+    case DeclaredType dt  -> completed(dt.asElement()); // includes ErrorType
+    case NoType nt        -> true;
+    case NullType nt      -> true;
+    case PrimitiveType pt -> true;
+    case TypeVariable tv  -> completed(tv.asElement());
+    case WildcardType wt  -> true;
+    default               -> false;
+    };
+  }
+
+  /**
+   * If the supplied {@link Element} is {@linkplain #completed(Element) completed}, calls {@link Supplier#get() get()}
+   * on the supplied {@link Supplier} and returns its result; otherwise calls {@link #acquire()}, completes the supplied
+   * {@link Element}, calls {@link Supplier#get() get()} on the supplied {@link Supplier}, and then calls {@link
+   * #release()} in a {@code finally} block.
+   *
+   * <p>The supplied {@link Supplier} must only read state belonging to the supplied {@link Element}. Any other {@link
+   * Element} or {@link TypeMirror} it encounters must be guarded separately.</p>
+   *
+   * @param <T> the type of the object this method will return
+   *
+   * @param e the {@link Element} whose state the supplied {@link Supplier} reads; must not be {@code null}
+   *
+   * @param s a {@link Supplier}; must not be {@code null}
+   *
+   * @return the result of an invocation of the supplied {@link Supplier}'s {@link Supplier#get() get()} method, which
+   * may be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   */
+  public static final <T> T guard(final Element e, final Supplier<? extends T> s) {
+    if (completed(e)) {
+      return s.get();
+    }
+    acquire();
+    try {
+      complete(e);
+      return s.get();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * If the supplied {@link Element} is {@linkplain #completed(Element) completed}, calls {@link Runnable#run() run()}
+   * on the supplied {@link Runnable}; otherwise calls {@link #acquire()}, completes the supplied {@link Element}, calls
+   * {@link Runnable#run() run()} on the supplied {@link Runnable}, and then calls {@link #release()} in a {@code
+   * finally} block.
+   *
+   * @param e the {@link Element} whose state the supplied {@link Runnable} reads; must not be {@code null}
+   *
+   * @param r a {@link Runnable}; must not be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see #guard(Element, Supplier)
+   */
+  public static final void guard(final Element e, final Runnable r) {
+    if (completed(e)) {
+      r.run();
+      return;
+    }
+    acquire();
+    try {
+      complete(e);
+      r.run();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * If the supplied {@link TypeMirror} is {@linkplain #completed(TypeMirror) completed}, calls {@link Supplier#get()
+   * get()} on the supplied {@link Supplier} and returns its result; otherwise calls {@link #acquire()}, completes the
+   * supplied {@link TypeMirror}'s element, if any, calls {@link Supplier#get() get()} on the supplied {@link Supplier},
+   * and then calls {@link #release()} in a {@code finally} block.
+   *
+   * @param <T> the type of the object this method will return
+   *
+   * @param t the {@link TypeMirror} whose state the supplied {@link Supplier} reads; must not be {@code null}
+   *
+   * @param s a {@link Supplier}; must not be {@code null}
+   *
+   * @return the result of an invocation of the supplied {@link Supplier}'s {@link Supplier#get() get()} method, which
+   * may be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see #guard(Element, Supplier)
+   */
+  public static final <T> T guard(final TypeMirror t, final Supplier<? extends T> s) {
+    if (completed(t)) {
+      return s.get();
+    }
+    acquire();
+    try {
+      complete(t);
+      return s.get();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * If the supplied {@link TypeMirror} is {@linkplain #completed(TypeMirror) completed}, calls {@link Runnable#run()
+   * run()} on the supplied {@link Runnable}; otherwise calls {@link #acquire()}, completes the supplied {@link
+   * TypeMirror}'s element, if any, calls {@link Runnable#run() run()} on the supplied {@link Runnable}, and then calls
+   * {@link #release()} in a {@code finally} block.
+   *
+   * @param t the {@link TypeMirror} whose state the supplied {@link Runnable} reads; must not be {@code null}
+   *
+   * @param r a {@link Runnable}; must not be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see #guard(Element, Supplier)
+   */
+  public static final void guard(final TypeMirror t, final Runnable r) {
+    if (completed(t)) {
+      r.run();
+      return;
+    }
+    acquire();
+    try {
+      complete(t);
+      r.run();
+    } finally {
+      release();
+    }
+  }
+
+  // Must be called with the lock returned by lock() held.
+  private static final void complete(final TypeMirror t) {
+    if (!readMostly) {
+      return;
+    }
+    switch (DelegatingTypeMirror.unwrap(t)) {
+    case DeclaredType dt -> complete(dt.asElement());
+    case TypeVariable tv -> complete(tv.asElement());
+    default              -> {}
+    }
+  }
+
+  // Must be called with the lock returned by lock() held.
+  private static final void complete(final Element element) {
+    if (!readMostly) {
+      return;
+    }
+    final WeakIdentityCache<Element, Boolean> completedElements = completedElements();
+    Element e = DelegatingElement.unwrap(element);
+    while (e != null && !(e instanceof PackageElement) && !(e instanceof ModuleElement) && completedElements.get(e) == null) {
+      // Completing a package or module would load every class in it, so stop there. Otherwise force completion, and
+      // force the lazily initialized state that read-only operations will subsequently look at.
+      e.getKind();
+      if (e instanceof Parameterizable p) {
+        p.getTypeParameters();
+      }
+      if (e instanceof ExecutableElement ee) {
+        ee.getParameters();
+      } else if (e instanceof TypeElement te) {
+        te.getSuperclass();
+        te.getInterfaces();
+      }
+      final Element enclosingElement = e.getEnclosingElement();
+      completedElements.put(e, Boolean.TRUE);
+      e = enclosingElement;
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final record Binding(Lock lock, WeakIdentityCache<Element, Boolean> completedElements) {}
+
 }
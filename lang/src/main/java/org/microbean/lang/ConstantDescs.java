@@ -26,6 +26,8 @@ public final class ConstantDescs {
 
   public static final ClassDesc CD_CharSequence = ClassDesc.of("java.lang.CharSequence");
 
+  public static final ClassDesc CD_ConstantTable = ClassDesc.of("org.microbean.lang.ConstantTable");
+
   public static final ClassDesc CD_DeclaredType = ClassDesc.of("javax.lang.model.type.DeclaredType");
 
   public static final ClassDesc CD_DelegatingElement = ClassDesc.of("org.microbean.lang.element.DelegatingElement");
@@ -0,0 +1,580 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDesc;
+import java.lang.constant.DirectMethodHandleDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodHandleDesc;
+import java.lang.constant.MethodTypeDesc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.constant.ConstantDescs.CD_Class;
+import static java.lang.constant.ConstantDescs.CD_MethodHandles_Lookup;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_String;
+import static java.lang.constant.ConstantDescs.CD_int;
+
+import static java.lang.constant.DirectMethodHandleDesc.Kind.STATIC;
+
+import static org.microbean.lang.ConstantDescs.CD_ConstantTable;
+
+/**
+ * A compact, indexed table of {@link ConstantDesc}s, such as those produced by the {@link
+ * Lang#describeConstable(javax.lang.model.AnnotatedConstruct)} method and its overloads, that can be written at build
+ * time and hydrated lazily, by index, at run time.
+ *
+ * <p>A {@link DynamicConstantDesc} describing a type or element is a tree that, when resolved, re-runs {@link Lang}
+ * lookups for every node, and is resolved anew for every constant pool entry that embeds it. A {@link ConstantTable}
+ * instead stores each distinct node once, with its arguments recorded as indices of other nodes. At build time, {@link
+ * #add(ConstantDesc)} adds a {@link ConstantDesc} to a table, and {@link #describe(String, ConstantDesc)} returns a
+ * small {@link DynamicConstantDesc} for generated code to embed in its place, whose bootstrap method, {@link
+ * #constant(MethodHandles.Lookup, String, Class, String, int)}, resolves it by index. The table itself is written with
+ * {@link #write(OutputStream)} to a class path resource named by {@link #resourceName(String)}.</p>
+ *
+ * <p>At run time tables are found and retained per {@link ClassLoader}, so tables with the same name in different
+ * class loaders are distinct. Each node of a table is hydrated at most once per class whose constants refer to it,
+ * using that class' {@link MethodHandles.Lookup}, however many of its constants refer to it. Neither tables nor their
+ * hydrated values keep any class loader reachable.</p>
+ *
+ * <p>Nodes may be {@link String}s, {@link Integer}s, {@link Long}s, {@link Float}s, {@link Double}s, {@link ClassDesc}s,
+ * {@link MethodTypeDesc}s, {@link DirectMethodHandleDesc}s and {@link DynamicConstantDesc}s.</p>
+ *
+ * <p>Adding to a {@link ConstantTable} is not thread-safe. Hydrating one is.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #add(ConstantDesc)
+ *
+ * @see #describe(String, ConstantDesc)
+ *
+ * @see #constant(MethodHandles.Lookup, String, Class, String, int)
+ */
+public final class ConstantTable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int MAGIC = 0x4D424354;
+
+  private static final short VERSION = 1;
+
+  private static final byte STRING = 1;
+
+  private static final byte INTEGER = 2;
+
+  private static final byte LONG = 3;
+
+  private static final byte FLOAT = 4;
+
+  private static final byte DOUBLE = 5;
+
+  private static final byte CLASS = 6;
+
+  private static final byte METHOD_TYPE = 7;
+
+  private static final byte METHOD_HANDLE = 8;
+
+  private static final byte DYNAMIC = 9;
+
+  // Stands in for hydrated null values.
+  private static final Object NULL = new Object();
+
+  private static final DirectMethodHandleDesc MH_constant =
+    MethodHandleDesc.ofMethod(STATIC,
+                              CD_ConstantTable,
+                              "constant",
+                              MethodTypeDesc.of(CD_Object, CD_MethodHandles_Lookup, CD_String, CD_Class, CD_String, CD_int));
+
+  // Tables, by name, per class loader. Tables found here are never hydrated themselves (see hydratedValues below), and
+  // their nodes are purely symbolic, so they do not keep their class loaders reachable.
+  private static final WeakIdentityCache<ClassLoader, ConcurrentMap<String, ConstantTable>> tables = new WeakIdentityCache<>();
+
+  // Tables, by name, for classes defined by the bootstrap class loader.
+  private static final ConcurrentMap<String, ConstantTable> bootstrapTables = new ConcurrentHashMap<>();
+
+  // Hydrated values, by table name, per lookup class. A ClassValue's values are reachable only from their Class, so
+  // these do not keep class loaders reachable either, and values hydrated with one class' Lookup are never handed to
+  // another class.
+  private static final ClassValue<ConcurrentMap<String, AtomicReferenceArray<Object>>> hydratedValues = new ClassValue<>() {
+      @Override // ClassValue
+      protected final ConcurrentMap<String, AtomicReferenceArray<Object>> computeValue(final Class<?> c) {
+        return new ConcurrentHashMap<>();
+      }
+    };
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final List<ConstantDesc> nodes;
+
+  private final Map<ConstantDesc, Integer> indices;
+
+  // For each DYNAMIC node, the indices of its bootstrap method and then its arguments; otherwise null.
+  private final List<int[]> references;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new, empty {@link ConstantTable}.
+   */
+  public ConstantTable() {
+    super();
+    this.nodes = new ArrayList<>();
+    this.indices = new HashMap<>();
+    this.references = new ArrayList<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Adds the supplied {@link ConstantDesc}, and, recursively, any bootstrap method and arguments it has, to this {@link
+   * ConstantTable} if it is not already present, and returns its index.
+   *
+   * @param cd the {@link ConstantDesc}; must not be {@code null}
+   *
+   * @return the index of {@code cd} in this {@link ConstantTable}; always {@code 0} or greater
+   *
+   * @exception NullPointerException if {@code cd} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code cd}, or any {@link ConstantDesc} reachable from it, is of a kind that
+   * cannot be stored
+   */
+  public final int add(final ConstantDesc cd) {
+    final Integer index = this.indices.get(Objects.requireNonNull(cd, "cd"));
+    if (index != null) {
+      return index.intValue();
+    }
+    final int[] references;
+    switch (cd) {
+    case String s                  -> references = null;
+    case Integer i                 -> references = null;
+    case Long l                    -> references = null;
+    case Float f                   -> references = null;
+    case Double d                  -> references = null;
+    case ClassDesc c               -> references = null;
+    case MethodTypeDesc mt         -> references = null;
+    case DirectMethodHandleDesc mh -> references = null;
+    case DynamicConstantDesc<?> d  -> {
+      final ConstantDesc[] args = d.bootstrapArgs();
+      references = new int[args.length + 1];
+      references[0] = this.add(d.bootstrapMethod());
+      for (int i = 0; i < args.length; i++) {
+        references[i + 1] = this.add(args[i]);
+      }
+    }
+    default -> throw new IllegalArgumentException("cd: " + cd);
+    }
+    this.nodes.add(cd);
+    this.references.add(references);
+    this.indices.put(cd, this.nodes.size() - 1);
+    return this.nodes.size() - 1;
+  }
+
+  /**
+   * {@linkplain #add(ConstantDesc) Adds} the supplied {@link ConstantDesc} to this {@link ConstantTable} and returns a
+   * {@link DynamicConstantDesc} that, when resolved, resolves it by index from the table with the supplied name.
+   *
+   * @param tableName the name under which this {@link ConstantTable} will be {@linkplain #write(OutputStream) written}
+   * and {@linkplain #resourceName(String) found}; must not be {@code null}
+   *
+   * @param cd the {@link ConstantDesc}; must not be {@code null}
+   *
+   * @return a {@link DynamicConstantDesc}; never {@code null}
+   *
+   * @exception NullPointerException if any argument is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code cd} cannot be {@linkplain #add(ConstantDesc) added}
+   *
+   * @see #constant(MethodHandles.Lookup, String, Class, String, int)
+   */
+  public final DynamicConstantDesc<?> describe(final String tableName, final ConstantDesc cd) {
+    Objects.requireNonNull(tableName, "tableName");
+    final int index = this.add(cd);
+    final ClassDesc type = cd instanceof DynamicConstantDesc<?> d ? d.constantType() : CD_Object;
+    return DynamicConstantDesc.ofNamed(MH_constant, "_", type, tableName, index);
+  }
+
+  /**
+   * Returns an unmodifiable {@link List} of the {@link ConstantDesc}s in this {@link ConstantTable}, in index order.
+   *
+   * @return an unmodifiable {@link List}; never {@code null}
+   */
+  public final List<ConstantDesc> constantDescs() {
+    return Collections.unmodifiableList(this.nodes);
+  }
+
+  /**
+   * Returns the number of {@link ConstantDesc}s in this {@link ConstantTable}.
+   *
+   * @return the number of {@link ConstantDesc}s in this {@link ConstantTable}; always {@code 0} or greater
+   */
+  public final int size() {
+    return this.nodes.size();
+  }
+
+  /**
+   * Returns the value of the {@link ConstantDesc} at the supplied index, hydrating it, and, recursively, any nodes it
+   * refers to, with the supplied {@link MethodHandles.Lookup}.
+   *
+   * <p>Nothing is retained: each invocation hydrates anew (though a node referred to more than once is hydrated only
+   * once per invocation), so this {@link ConstantTable} never keeps hydrated values, or their class loaders,
+   * reachable. The {@link #constant(MethodHandles.Lookup, String, Class, String, int)} bootstrap method retains hydrated
+   * values per lookup class instead.</p>
+   *
+   * @param lookup a {@link MethodHandles.Lookup}; must not be {@code null}
+   *
+   * @param index the index; must be {@code 0} or greater and less than {@link #size()}
+   *
+   * @return the value, which may be {@code null}
+   *
+   * @exception NullPointerException if {@code lookup} is {@code null}
+   *
+   * @exception IndexOutOfBoundsException if {@code index} is out of bounds
+   *
+   * @exception IllegalStateException if hydration fails
+   */
+  public final Object get(final MethodHandles.Lookup lookup, final int index) {
+    Objects.requireNonNull(lookup, "lookup");
+    return this.get(lookup, index, new AtomicReferenceArray<>(this.nodes.size()));
+  }
+
+  private final Object get(final MethodHandles.Lookup lookup, final int index, final AtomicReferenceArray<Object> values) {
+    Object v = values.get(index);
+    if (v == null) {
+      v = this.hydrate(lookup, index, values);
+      final Object old = values.compareAndExchange(index, null, v == null ? NULL : v);
+      if (old != null) {
+        v = old;
+      }
+    }
+    return v == NULL ? null : v;
+  }
+
+  private final Object hydrate(final MethodHandles.Lookup lookup, final int index, final AtomicReferenceArray<Object> values) {
+    final ConstantDesc cd = this.nodes.get(index);
+    try {
+      if (cd instanceof DynamicConstantDesc<?> d) {
+        final int[] references = this.references.get(index);
+        final Object[] invocationArgs = new Object[references.length + 2];
+        invocationArgs[0] = lookup;
+        invocationArgs[1] = d.constantName();
+        invocationArgs[2] = d.constantType().resolveConstantDesc(lookup);
+        for (int i = 1; i < references.length; i++) {
+          invocationArgs[i + 2] = this.get(lookup, references[i], values);
+        }
+        return ((MethodHandle)this.get(lookup, references[0], values)).invokeWithArguments(invocationArgs);
+      }
+      return cd.resolveConstantDesc(lookup);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes this {@link ConstantTable} to the supplied {@link OutputStream} in a compact binary form readable by the
+   * {@link #read(InputStream)} method.
+   *
+   * <p>The supplied {@link OutputStream} is not closed.</p>
+   *
+   * @param out the {@link OutputStream}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code out} is {@code null}
+   *
+   * @exception IOException if an input/output error occurs
+   *
+   * @see #read(InputStream)
+   */
+  public final void write(final OutputStream out) throws IOException {
+    final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Objects.requireNonNull(out, "out")));
+    dos.writeInt(MAGIC);
+    dos.writeShort(VERSION);
+    dos.writeInt(this.nodes.size());
+    for (int i = 0; i < this.nodes.size(); i++) {
+      switch (this.nodes.get(i)) {
+      case String s -> {
+        dos.writeByte(STRING);
+        dos.writeUTF(s);
+      }
+      case Integer x -> {
+        dos.writeByte(INTEGER);
+        dos.writeInt(x.intValue());
+      }
+      case Long x -> {
+        dos.writeByte(LONG);
+        dos.writeLong(x.longValue());
+      }
+      case Float x -> {
+        dos.writeByte(FLOAT);
+        dos.writeFloat(x.floatValue());
+      }
+      case Double x -> {
+        dos.writeByte(DOUBLE);
+        dos.writeDouble(x.doubleValue());
+      }
+      case ClassDesc c -> {
+        dos.writeByte(CLASS);
+        dos.writeUTF(c.descriptorString());
+      }
+      case MethodTypeDesc mt -> {
+        dos.writeByte(METHOD_TYPE);
+        dos.writeUTF(mt.descriptorString());
+      }
+      case DirectMethodHandleDesc mh -> {
+        dos.writeByte(METHOD_HANDLE);
+        dos.writeByte(mh.kind().ordinal());
+        dos.writeUTF(mh.owner().descriptorString());
+        dos.writeUTF(mh.methodName());
+        dos.writeUTF(mh.lookupDescriptor());
+      }
+      case DynamicConstantDesc<?> d -> {
+        dos.writeByte(DYNAMIC);
+        dos.writeUTF(d.constantName());
+        dos.writeUTF(d.constantType().descriptorString());
+        final int[] references = this.references.get(i);
+        dos.writeShort(references.length);
+        for (final int r : references) {
+          dos.writeInt(r);
+        }
+      }
+      default -> throw new AssertionError();
+      }
+    }
+    dos.flush();
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.getClass().getSimpleName() + "[size=" + this.nodes.size() + "]";
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Reads a {@link ConstantTable} written by the {@link #write(OutputStream)} method from the supplied {@link
+   * InputStream}.
+   *
+   * <p>The supplied {@link InputStream} is not closed.</p>
+   *
+   * @param in the {@link InputStream}; must not be {@code null}
+   *
+   * @return a new {@link ConstantTable}; never {@code null}
+   *
+   * @exception NullPointerException if {@code in} is {@code null}
+   *
+   * @exception IOException if an input/output error occurs or {@code in} does not contain a {@link ConstantTable}
+   *
+   * @see #write(OutputStream)
+   */
+  public static final ConstantTable read(final InputStream in) throws IOException {
+    final DataInputStream dis = new DataInputStream(new BufferedInputStream(Objects.requireNonNull(in, "in")));
+    if (dis.readInt() != MAGIC) {
+      throw new IOException("Not a constant table");
+    }
+    final short version = dis.readShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported constant table version: " + version);
+    }
+    final ConstantTable t = new ConstantTable();
+    final int size = dis.readInt();
+    for (int i = 0; i < size; i++) {
+      final byte tag = dis.readByte();
+      final ConstantDesc cd;
+      int[] references = null;
+      switch (tag) {
+      case STRING -> cd = dis.readUTF();
+      case INTEGER -> cd = Integer.valueOf(dis.readInt());
+      case LONG -> cd = Long.valueOf(dis.readLong());
+      case FLOAT -> cd = Float.valueOf(dis.readFloat());
+      case DOUBLE -> cd = Double.valueOf(dis.readDouble());
+      case CLASS -> cd = ClassDesc.ofDescriptor(dis.readUTF());
+      case METHOD_TYPE -> cd = MethodTypeDesc.ofDescriptor(dis.readUTF());
+      case METHOD_HANDLE -> cd = MethodHandleDesc.of(DirectMethodHandleDesc.Kind.values()[dis.readByte()],
+                                                     ClassDesc.ofDescriptor(dis.readUTF()),
+                                                     dis.readUTF(),
+                                                     dis.readUTF());
+      case DYNAMIC -> {
+        final String name = dis.readUTF();
+        final ClassDesc type = ClassDesc.ofDescriptor(dis.readUTF());
+        references = new int[dis.readShort()];
+        final ConstantDesc[] args = new ConstantDesc[references.length - 1];
+        for (int j = 0; j < references.length; j++) {
+          references[j] = dis.readInt();
+          if (references[j] < 0 || references[j] >= i) {
+            throw new IOException("Invalid reference: " + references[j]);
+          }
+          if (j > 0) {
+            args[j - 1] = t.nodes.get(references[j]);
+          }
+        }
+        if (!(t.nodes.get(references[0]) instanceof DirectMethodHandleDesc bsm)) {
+          throw new IOException("Invalid bootstrap method reference: " + references[0]);
+        }
+        cd = DynamicConstantDesc.ofNamed(bsm, name, type, args);
+      }
+      default -> throw new IOException("Invalid tag: " + tag);
+      }
+      t.nodes.add(cd);
+      t.references.add(references);
+      t.indices.putIfAbsent(cd, i);
+    }
+    return t;
+  }
+
+  /**
+   * Returns the name of the class path resource from which the {@link ConstantTable} with the supplied name is read by
+   * the {@link #constant(MethodHandles.Lookup, String, Class, String, int)} method.
+   *
+   * @param tableName the name of a {@link ConstantTable}; must not be {@code null}
+   *
+   * @return a resource name; never {@code null}
+   *
+   * @exception NullPointerException if {@code tableName} is {@code null}
+   */
+  public static final String resourceName(final String tableName) {
+    return "META-INF/microbean-lang/constant-tables/" + Objects.requireNonNull(tableName, "tableName");
+  }
+
+  /**
+   * A bootstrap method for dynamically-computed constants that returns the value at the supplied index of the {@link
+   * ConstantTable} with the supplied name {@linkplain #register(ClassLoader, String, ConstantTable) registered} for, or
+   * otherwise read from the {@linkplain #resourceName(String) corresponding class path resource} of, the {@link
+   * ClassLoader} of the supplied {@link MethodHandles.Lookup}'s {@linkplain MethodHandles.Lookup#lookupClass() lookup
+   * class}.
+   *
+   * <p>Tables are retained, by name, for as long as their class loaders are reachable. Values are hydrated with the
+   * supplied {@link MethodHandles.Lookup} and retained for its lookup class only.</p>
+   *
+   * @param lookup a {@link MethodHandles.Lookup}; must not be {@code null}
+   *
+   * @param name ignored
+   *
+   * @param type the type of the constant; must not be {@code null}
+   *
+   * @param tableName the name of the {@link ConstantTable}; must not be {@code null}
+   *
+   * @param index the index of the constant; must be {@code 0} or greater
+   *
+   * @return the value, which may be {@code null}
+   *
+   * @exception NullPointerException if {@code lookup}, {@code type} or {@code tableName} is {@code null}
+   *
+   * @exception IllegalStateException if the table cannot be found or read, or hydration fails
+   *
+   * @see #describe(String, ConstantDesc)
+   */
+  public static final Object constant(final MethodHandles.Lookup lookup,
+                                      final String name,
+                                      final Class<?> type,
+                                      final String tableName,
+                                      final int index) {
+    final Class<?> lookupClass = lookup.lookupClass();
+    final ClassLoader cl = lookupClass.getClassLoader();
+    final ConcurrentMap<String, ConstantTable> loaderTables = tables(cl);
+    ConstantTable t = loaderTables.get(tableName);
+    if (t == null) {
+      final String resourceName = resourceName(tableName);
+      try (final InputStream in = cl == null ? ClassLoader.getSystemResourceAsStream(resourceName) : cl.getResourceAsStream(resourceName)) {
+        if (in == null) {
+          throw new IllegalStateException("No constant table resource: " + resourceName);
+        }
+        t = read(in);
+      } catch (final IOException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      }
+      final ConstantTable old = loaderTables.putIfAbsent(tableName, t);
+      if (old != null) {
+        t = old;
+      }
+    }
+    final int size = t.size();
+    final Object v = t.get(lookup, index, hydratedValues.get(lookupClass).computeIfAbsent(tableName, n -> new AtomicReferenceArray<>(size)));
+    // type is primitive for, e.g., ConstantDescs.TRUE, whose boxed value is what a bootstrap method returns.
+    return MethodType.methodType(type).wrap().returnType().cast(v);
+  }
+
+  /**
+   * Registers the supplied {@link ConstantTable} under the supplied name for the supplied {@link ClassLoader}, so that
+   * the {@link #constant(MethodHandles.Lookup, String, Class, String, int)} method will use it for classes defined by
+   * that {@link ClassLoader} rather than reading a class path resource, unless a table is already registered, or has
+   * already been read, under that name for that {@link ClassLoader}.
+   *
+   * @param cl the {@link ClassLoader}; may be {@code null} in which case the bootstrap class loader is meant
+   *
+   * @param tableName the name; must not be {@code null}
+   *
+   * @param t the {@link ConstantTable}; must not be {@code null}
+   *
+   * @return the {@link ConstantTable} registered under {@code tableName} for {@code cl}; never {@code null}
+   *
+   * @exception NullPointerException if {@code tableName} or {@code t} is {@code null}
+   */
+  public static final ConstantTable register(final ClassLoader cl, final String tableName, final ConstantTable t) {
+    final ConstantTable old = tables(cl).putIfAbsent(Objects.requireNonNull(tableName, "tableName"), Objects.requireNonNull(t, "t"));
+    return old == null ? t : old;
+  }
+
+  private static final ConcurrentMap<String, ConstantTable> tables(final ClassLoader cl) {
+    if (cl == null) {
+      return bootstrapTables;
+    }
+    final ConcurrentMap<String, ConstantTable> m = tables.get(cl);
+    return m == null ? tables.putIfAbsent(cl, new ConcurrentHashMap<>()) : m;
+  }
+
+}
@@ -63,6 +63,10 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 import javax.lang.model.type.WildcardType;
 
+import org.microbean.lang.element.DelegatingElement;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
 import static java.lang.constant.ConstantDescs.BSM_INVOKE;
 import static java.lang.constant.ConstantDescs.CD_boolean;
 import static java.lang.constant.ConstantDescs.FALSE;
@@ -187,6 +191,7 @@ public class Equality implements Constable {
   private static final int hashCode(final CharSequence c) {
     return switch (c) {
     case null -> 0;
+    case org.microbean.lang.element.Name n -> n.hashCode(); // precomputed
     case Name n -> n.toString().hashCode();
     default -> c.hashCode();
     };
@@ -616,6 +621,8 @@ public class Equality implements Constable {
       return true;
     } else if (c1 == null || c2 == null) {
       return false;
+    } else if (c1 instanceof org.microbean.lang.element.Name && c2 instanceof org.microbean.lang.element.Name) {
+      return false; // interned, and not identical
     } else if (c1 instanceof Name n1) {
       return n1.contentEquals(c2);
     } else if (c2 instanceof Name n2) {
@@ -706,6 +713,9 @@ public class Equality implements Constable {
       return true;
     } else if (e1 == null || e2 == null) {
       return false;
+    } else if (DelegatingElement.unwrap(e1) == DelegatingElement.unwrap(e2)) {
+      // Different wrappers (or none) around the very same element; no need to walk its structure.
+      return true;
     }
     // This is the entry point for all Element equality calculations. We have to synchronize on the completion lock
     // because various elements' getKind() methods may trigger symbol completion.
@@ -822,7 +832,12 @@ public class Equality implements Constable {
   private static final boolean equals(final TypeMirror t1, final TypeMirror t2, final boolean ia) {
     if (t1 == t2) {
       return true;
-    } else if (t1 == null || t2 == null || ia && !equals(t1.getAnnotationMirrors(), t2.getAnnotationMirrors(), ia)) {
+    } else if (t1 == null || t2 == null) {
+      return false;
+    } else if (DelegatingTypeMirror.unwrap(t1) == DelegatingTypeMirror.unwrap(t2)) {
+      // Different wrappers (or none) around the very same type; no need to walk its structure.
+      return true;
+    } else if (ia && !equals(t1.getAnnotationMirrors(), t2.getAnnotationMirrors(), ia)) {
       return false;
     }
     // This is the entry point for all TypeMirror equality calculations. We have to synchronize on the completion lock
@@ -0,0 +1,527 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.io.File;
+import java.io.StringWriter;
+
+import java.lang.System.Logger;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericDeclaration;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.CountDownLatch;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import java.util.function.Supplier;
+
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+
+import javax.lang.model.SourceVersion;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.Parameterizable;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.NullType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.ToolProvider;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.ERROR;
+
+/**
+ * A {@link TypeAndElementSource} backed by its own, independent javac compilation environment, guarded by its own
+ * {@link Lock}.
+ *
+ * <p>Unlike the {@link TypeAndElementSource} returned by {@link Lang#typeAndElementSource()}, which is backed by a
+ * single, JVM-wide javac environment guarded by the {@link CompletionLock}, any number of {@link
+ * JavacTypeAndElementSource} instances may be created, each with its own symbol table and (optionally) its own class
+ * path. Operations on different instances never contend with one another. See {@link TypeAndElementSourcePool} for a
+ * convenient way to shard work across several instances.</p>
+ *
+ * <p>The {@link Element}s and {@link TypeMirror}s returned by a {@link JavacTypeAndElementSource} are javac's own
+ * (they are not {@linkplain org.microbean.lang.element.DelegatingElement wrapped}), and may only be passed back to the
+ * {@link JavacTypeAndElementSource} that produced them. Because javac completes symbols lazily and not thread-safely,
+ * any thread that calls methods on them directly while other threads may be using the same {@link
+ * JavacTypeAndElementSource} must do so {@linkplain #guard(Supplier) under its lock}.</p>
+ *
+ * <p>Library code that guards symbol completion with the {@link CompletionLock}, such as {@link Equality}, {@link
+ * org.microbean.lang.element.DelegatingElement} and {@link org.microbean.lang.type.DelegatingTypeMirror}, may be used
+ * with these {@link Element}s and {@link TypeMirror}s only {@linkplain #guard(Supplier) under this source's lock}: while
+ * a thread is inside {@link #guard(Supplier)}, this source's lock stands in for the global {@link CompletionLock} on
+ * that thread. For the same reason, {@link Element}s and {@link TypeMirror}s produced by {@link Lang} must not be used
+ * there. A {@link org.microbean.lang.visitor.Visitors} built on a {@link JavacTypeAndElementSource} runs each of its
+ * type relation queries under this source's lock in this way.</p>
+ *
+ * <p>A {@link JavacTypeAndElementSource} initializes itself in the background as soon as it is created; its methods
+ * block until initialization is complete. {@linkplain #close() Closing} it releases its javac environment, and forgets
+ * which of its symbols have been completed, after which its methods throw {@link IllegalStateException}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see TypeAndElementSourcePool
+ *
+ * @see Lang#typeAndElementSource()
+ */
+public final class JavacTypeAndElementSource implements AutoCloseable, TypeAndElementSource {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final Logger LOGGER = System.getLogger(JavacTypeAndElementSource.class.getName());
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final String classpath;
+
+  private final Lock lock;
+
+  // Elements completed under this.lock; see CompletionLock#bind(Lock, WeakIdentityCache, Supplier).
+  private final WeakIdentityCache<Element, Boolean> completedElements;
+
+  private final CountDownLatch initLatch;
+
+  private final CountDownLatch closeLatch;
+
+  private volatile ProcessingEnvironment pe;
+
+  private volatile boolean closed;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link JavacTypeAndElementSource} whose class path is that of the current JVM (the value of the
+   * {@code java.class.path} system property).
+   */
+  public JavacTypeAndElementSource() {
+    this(System.getProperty("java.class.path"));
+  }
+
+  /**
+   * Creates a new {@link JavacTypeAndElementSource} whose class path consists of the supplied {@link Path}s.
+   *
+   * <p>The platform's system modules are always available.</p>
+   *
+   * @param classpath the class path; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code classpath} is {@code null}
+   */
+  public JavacTypeAndElementSource(final Collection<? extends Path> classpath) {
+    this(classpath.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
+  }
+
+  private JavacTypeAndElementSource(final String classpath) {
+    super();
+    this.classpath = classpath == null ? "" : classpath;
+    this.lock = new ReentrantLock();
+    this.completedElements = new WeakIdentityCache<>();
+    this.initLatch = new CountDownLatch(1);
+    this.closeLatch = new CountDownLatch(1);
+    // Virtual thread, not platform thread, because it will spend the vast majority of its life blocked on a
+    // CountDownLatch
+    Thread.ofVirtual()
+      .name(this.getClass().getName())
+      .uncaughtExceptionHandler((t, e) -> {
+          if (LOGGER.isLoggable(ERROR)) {
+            LOGGER.log(ERROR, e.getMessage(), e);
+          }
+        })
+      .start(this::run);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Invokes the supplied {@link Supplier} while holding this {@link JavacTypeAndElementSource}'s lock, and returns its
+   * result.
+   *
+   * <p>Use this method to call methods directly on {@link Element}s and {@link TypeMirror}s produced by this {@link
+   * JavacTypeAndElementSource} when other threads may be using it. The lock is reentrant. Until the supplied {@link
+   * Supplier} returns, the lock also stands in for the global {@link CompletionLock} on the current thread.</p>
+   *
+   * @param <T> the type of the result
+   *
+   * @param s the {@link Supplier} to invoke; must not be {@code null}
+   *
+   * @return the result of invoking the supplied {@link Supplier}, which may be {@code null}
+   *
+   * @exception NullPointerException if {@code s} is {@code null}
+   */
+  public final <T> T guard(final Supplier<? extends T> s) {
+    return CompletionLock.bind(this.lock, this.completedElements, s);
+  }
+
+  /**
+   * Returns {@code true} if this {@link JavacTypeAndElementSource} has been {@linkplain #close() closed}.
+   *
+   * @return {@code true} if this {@link JavacTypeAndElementSource} has been {@linkplain #close() closed}
+   */
+  public final boolean closed() {
+    return this.closed;
+  }
+
+  /**
+   * Closes this {@link JavacTypeAndElementSource}, releasing its javac environment.
+   *
+   * <p>This method is idempotent.</p>
+   */
+  @Override // AutoCloseable
+  public final void close() {
+    this.closed = true; // volatile write
+    this.completedElements.clear();
+    this.closeLatch.countDown();
+  }
+
+  @Override // TypeAndElementSource
+  public final ArrayType arrayTypeOf(final TypeMirror componentType) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.getArrayType(componentType));
+  }
+
+  // Note the counterintuitive parameter order.
+  @Override // TypeAndElementSource
+  public final boolean assignable(final TypeMirror payload, final TypeMirror receiver) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.isAssignable(payload, receiver));
+  }
+
+  // Note the counterintuitive parameter order.
+  @Override // TypeAndElementSource
+  public final BitSet assignables(final List<? extends TypeMirror> payloads, final List<? extends TypeMirror> receivers) {
+    return this.guard(() -> TypeAndElementSource.super.assignables(payloads, receivers));
+  }
+
+  @Override // TypeAndElementSource
+  public final boolean contains(final TypeMirror t, final TypeMirror s) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.contains(t, s));
+  }
+
+  @Override // TypeAndElementSource
+  public final DeclaredType declaredType(final TypeElement typeElement, final TypeMirror... typeArguments) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.getDeclaredType(typeElement, typeArguments));
+  }
+
+  @Override // TypeAndElementSource
+  public final DeclaredType declaredType(final DeclaredType containingType,
+                                         final TypeElement typeElement,
+                                         final TypeMirror... typeArguments) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.getDeclaredType(containingType, typeElement, typeArguments));
+  }
+
+  @Override // TypeAndElementSource
+  public final List<? extends TypeMirror> directSupertypes(final TypeMirror t) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.directSupertypes(t));
+  }
+
+  @Override // TypeAndElementSource
+  @SuppressWarnings("unchecked")
+  public final <T extends TypeMirror> T erasure(final T t) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> (T)types.erasure(t));
+  }
+
+  @Override // TypeAndElementSource
+  public final List<TypeMirror> erasures(final List<? extends TypeMirror> ts) {
+    return this.guard(() -> TypeAndElementSource.super.erasures(ts));
+  }
+
+  @Override // TypeAndElementSource
+  public final ModuleElement moduleElement(final CharSequence moduleName) {
+    Objects.requireNonNull(moduleName, "moduleName");
+    final Elements elements = this.pe().getElementUtils();
+    return this.guard(() -> elements.getModuleElement(moduleName));
+  }
+
+  @Override // TypeAndElementSource
+  public final NoType noType(final TypeKind k) {
+    return this.pe().getTypeUtils().getNoType(k);
+  }
+
+  @Override // TypeAndElementSource
+  public final NullType nullType() {
+    return this.pe().getTypeUtils().getNullType();
+  }
+
+  @Override // TypeAndElementSource
+  public final PrimitiveType primitiveType(final TypeKind k) {
+    return this.pe().getTypeUtils().getPrimitiveType(k);
+  }
+
+  @Override // TypeAndElementSource
+  public final boolean sameType(final TypeMirror t, final TypeMirror s) {
+    if (t == s) {
+      // Optimization
+      return true;
+    }
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.isSameType(t, s));
+  }
+
+  @Override // TypeAndElementSource
+  public final boolean subtype(final TypeMirror t, final TypeMirror s) {
+    if (t == s) {
+      // Optimization
+      return true;
+    }
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.isSubtype(t, s));
+  }
+
+  @Override // TypeAndElementSource
+  public final BitSet subtypes(final List<? extends TypeMirror> ts, final List<? extends TypeMirror> ss) {
+    return this.guard(() -> TypeAndElementSource.super.subtypes(ts, ss));
+  }
+
+  @Override // TypeAndElementSource
+  public final TypeElement typeElement(final CharSequence canonicalName) {
+    Objects.requireNonNull(canonicalName, "canonicalName");
+    final Elements elements = this.pe().getElementUtils();
+    return this.guard(() -> elements.getTypeElement(canonicalName));
+  }
+
+  @Override // TypeAndElementSource
+  public final List<TypeElement> typeElements(final List<? extends CharSequence> canonicalNames) {
+    return this.guard(() -> TypeAndElementSource.super.typeElements(canonicalNames));
+  }
+
+  @Override // TypeAndElementSource
+  public final TypeElement typeElement(final ModuleElement moduleElement, final CharSequence canonicalName) {
+    Objects.requireNonNull(moduleElement, "moduleElement");
+    Objects.requireNonNull(canonicalName, "canonicalName");
+    final Elements elements = this.pe().getElementUtils();
+    return this.guard(() -> elements.getTypeElement(moduleElement, canonicalName));
+  }
+
+  @Override // TypeAndElementSource
+  public final TypeVariable typeVariable(final java.lang.reflect.TypeVariable<?> t) {
+    final String name = t.getName();
+    return this.guard(() -> {
+        GenericDeclaration gd = t.getGenericDeclaration();
+        while (gd != null) {
+          final java.lang.reflect.TypeVariable<?>[] typeParameters = gd.getTypeParameters();
+          for (int i = 0; i < typeParameters.length; i++) {
+            if (typeParameters[i].getName().equals(name)) {
+              final Parameterizable p = this.parameterizable(gd);
+              return p == null ? null : (TypeVariable)p.getTypeParameters().get(i).asType();
+            }
+          }
+          gd = gd instanceof Executable e ? e.getDeclaringClass() : ((Class<?>)gd).getEnclosingClass();
+        }
+        return null;
+      });
+  }
+
+  @Override // TypeAndElementSource
+  public final WildcardType wildcardType(final TypeMirror extendsBound, final TypeMirror superBound) {
+    final Types types = this.pe().getTypeUtils();
+    return this.guard(() -> types.getWildcardType(extendsBound, superBound));
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.getClass().getSimpleName() + "[classpath=" + this.classpath + ", closed=" + this.closed + "]";
+  }
+
+  // Called under this.lock by typeVariable(java.lang.reflect.TypeVariable).
+  private final Parameterizable parameterizable(final GenericDeclaration gd) {
+    return switch (gd) {
+    case Class<?> c   -> this.typeElement(c);
+    case Executable e -> this.executableElement(e);
+    default           -> throw new IllegalArgumentException("gd: " + gd);
+    };
+  }
+
+  // Called under this.lock by parameterizable(GenericDeclaration).
+  private final ExecutableElement executableElement(final Executable e) {
+    final TypeElement declaringClass = this.typeElement(e.getDeclaringClass());
+    if (declaringClass == null) {
+      return null;
+    }
+    final Types types = this.pe().getTypeUtils();
+    final ElementKind kind = e instanceof Constructor<?> ? ElementKind.CONSTRUCTOR : ElementKind.METHOD;
+    final Class<?>[] parameterTypes = e.getParameterTypes(); // deliberate erasure
+    EXECUTABLE_LOOP:
+    for (final Element ee : declaringClass.getEnclosedElements()) {
+      if (ee.getKind() == kind && (kind == ElementKind.CONSTRUCTOR || ee.getSimpleName().contentEquals(e.getName()))) {
+        final List<? extends VariableElement> parameterElements = ((ExecutableElement)ee).getParameters();
+        if (parameterElements.size() == parameterTypes.length) {
+          for (int i = 0; i < parameterTypes.length; i++) {
+            if (!types.isSameType(this.type(parameterTypes[i]), types.erasure(parameterElements.get(i).asType()))) {
+              continue EXECUTABLE_LOOP;
+            }
+          }
+          return (ExecutableElement)ee;
+        }
+      }
+    }
+    return null;
+  }
+
+  private final ProcessingEnvironment pe() {
+    if (this.closed) { // volatile read
+      throw new IllegalStateException("closed");
+    }
+    ProcessingEnvironment pe = this.pe; // volatile read
+    if (pe == null) {
+      try {
+        this.initLatch.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      pe = this.pe; // volatile read
+      if (pe == null || this.initLatch.getCount() > 0L) {
+        throw new IllegalStateException();
+      }
+    }
+    return pe;
+  }
+
+  // Runs in a dedicated virtual thread started by the constructor.
+  private final void run() {
+    try {
+      final JavaCompiler jc = ToolProvider.getSystemJavaCompiler();
+      if (jc == null) {
+        if (LOGGER.isLoggable(ERROR)) {
+          LOGGER.log(ERROR, "No system Java compiler available");
+        }
+        return;
+      }
+      final List<String> options = new ArrayList<>();
+      options.add("-proc:only"); // critical
+      options.add("-cp");
+      options.add(this.classpath);
+      Lang.addNameTableOptions(options);
+      final CompilationTask task =
+        jc.getTask(new StringWriter(),
+                   null, // the standard file manager
+                   null, // the default diagnostic listener
+                   options,
+                   List.of("java.lang.annotation.RetentionPolicy"), // arbitrary, but loads the least amount of stuff up front
+                   null); // compilation units; null means we aren't actually compiling anything
+      task.setProcessors(List.of(new P()));
+      task.setLocale(Locale.getDefault());
+      if (Boolean.FALSE.equals(task.call()) && LOGGER.isLoggable(ERROR)) { // NOTE: blocks until close() is called
+        LOGGER.log(ERROR, "Calling CompilationTask failed");
+      }
+    } finally {
+      this.closed = true; // volatile write
+      this.pe = null; // volatile write
+      this.initLatch.countDown(); // in case of error; no-op otherwise
+      if (LOGGER.isLoggable(DEBUG)) {
+        LOGGER.log(DEBUG, "CompilationTask for " + this + " exiting");
+      }
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private final class P extends AbstractProcessor {
+
+    private P() {
+      super();
+    }
+
+    @Override // AbstractProcessor (Processor)
+    public final void init(final ProcessingEnvironment pe) {
+      JavacTypeAndElementSource.this.pe = pe; // volatile write
+      initLatch.countDown(); // all done initializing
+      // As in Lang, the javac environment remains usable only for as long as this method blocks.
+      try {
+        closeLatch.await(); // NOTE: Blocks until close() is called
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override // AbstractProcessor (Processor)
+    public final Set<String> getSupportedAnnotationTypes() {
+      return Set.of();
+    }
+
+    @Override // AbstractProcessor (Processor)
+    public final Set<String> getSupportedOptions() {
+      return Set.of();
+    }
+
+    @Override // AbstractProcessor (Processor)
+    public final SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+    }
+
+    @Override // AbstractProcessor (Processor)
+    public final boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+      return false;
+    }
+
+  }
+
+}
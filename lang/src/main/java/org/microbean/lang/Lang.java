@@ -31,6 +31,8 @@ import java.lang.constant.MethodTypeDesc;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 
+import java.lang.ref.SoftReference;
+
 import java.lang.module.ModuleFinder;
 import java.lang.module.ResolvedModule;
 import java.lang.module.ModuleReader;
@@ -52,8 +54,13 @@ import java.net.URI;
 
 import java.nio.charset.Charset;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
@@ -68,12 +75,18 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import java.util.function.Supplier;
 
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.processing.AbstractProcessor;
@@ -139,9 +152,6 @@ import static java.lang.constant.ConstantDescs.NULL;
 import static java.lang.constant.DirectMethodHandleDesc.Kind.STATIC;
 import static java.lang.constant.DirectMethodHandleDesc.Kind.STATIC_GETTER;
 
-import static javax.lang.model.util.ElementFilter.constructorsIn;
-import static javax.lang.model.util.ElementFilter.methodsIn;
-
 import static org.microbean.lang.ConstantDescs.CD_ArrayType;
 import static org.microbean.lang.ConstantDescs.CD_CharSequence;
 import static org.microbean.lang.ConstantDescs.CD_DeclaredType;
@@ -227,8 +237,35 @@ public final class Lang {
 
   private static final CountDownLatch initLatch = new CountDownLatch(1);
 
+  // Completed alongside initLatch; see #initializeAsync(Collection).
+  private static final CompletableFuture<ProcessingEnvironment> ready = new CompletableFuture<>();
+
+  // Runs the dependents of ready that initializeAsync(Collection) creates. ready is completed on javac's thread, which
+  // must get back to blocking, so nothing may run there.
+  private static final Executor readyExecutor = r -> Thread.ofVirtual().name(Lang.class.getName() + " ready").start(r);
+
   private static final boolean lockNames = Boolean.parseBoolean(System.getProperty("org.microbean.lang.lockNames", "true"));
 
+  // JVMS signatures (NO_SIGNATURE standing in for null) and descriptors, keyed by unwrapped Element.
+  private static final WeakIdentityCache<Element, String> elementSignatures = new WeakIdentityCache<>();
+
+  private static final WeakIdentityCache<Element, String> elementDescriptors = new WeakIdentityCache<>();
+
+  // Memoized results of the describeConstable methods, keyed by the construct described.
+  private static final WeakIdentityCache<AnnotatedConstruct, ConstantDesc> constantDescs = new WeakIdentityCache<>();
+
+  // Lazily built member indexes, keyed by unwrapped TypeElement. An index refers to its TypeElement's members, and
+  // hence to the TypeElement itself, so it is held softly; otherwise the weakly held key could never be reclaimed.
+  private static final WeakIdentityCache<TypeElement, SoftReference<MemberIndex>> memberIndexes = new WeakIdentityCache<>();
+
+  private static final String NO_SIGNATURE = "";
+
+  private static final ThreadLocal<StringBuilder> signatureBuffer = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+  private static final TypeElementCache typeElementCache =
+    new TypeElementCache(Integer.getInteger("org.microbean.lang.TypeElementCache.maximumSize", 0),
+                         TypeElementCache.Eviction.valueOf(System.getProperty("org.microbean.lang.TypeElementCache.eviction", "LRU")));
+
   // For debugging only
   private static final Field modulesField;
 
@@ -332,7 +369,7 @@ public final class Lang {
   }
 
   public static final Optional<? extends ConstantDesc> describeConstable(final Element e) {
-    return e == null ? Optional.of(NULL) : switch (CompletionLock.guard(e::getKind)) {
+    return e == null ? Optional.of(NULL) : switch (CompletionLock.guard(e, e::getKind)) {
     case CONSTRUCTOR, METHOD                     -> describeConstable((ExecutableElement)e);
     case MODULE                                  -> describeConstable((ModuleElement)e);
     case PACKAGE                                 -> describeConstable((PackageElement)e);
@@ -348,7 +385,7 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> CompletionLock.guard(() -> switch (e.getKind()) {
+    default              -> memoize(e, () -> CompletionLock.guard(e, () -> switch (e.getKind()) {
       case CONSTRUCTOR ->
         Constables.describeConstable(e.getParameters(), Lang::describeConstable)
         .flatMap(parametersDesc -> describeConstable(e.getEnclosingElement())
@@ -375,7 +412,7 @@ public final class Lang {
                                                                   nameDesc,
                                                                   parametersDesc))));
       default -> Optional.empty();
-      });
+      }));
     };
   }
 
@@ -384,14 +421,14 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default -> describeConstable(e.getQualifiedName()) // getQualifiedName() does not cause symbol completion
+    default -> memoize(e, () -> describeConstable(e.getQualifiedName()) // getQualifiedName() does not cause symbol completion
       .map(nameDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                               MethodHandleDesc.ofMethod(STATIC,
                                                                         CD_Lang,
                                                                         "moduleElement",
                                                                         MethodTypeDesc.of(CD_ModuleElement,
                                                                                           CD_CharSequence)),
-                                              nameDesc));
+                                              nameDesc)));
     };
   }
 
@@ -400,7 +437,7 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> describeConstable(moduleOf(e))
+    default              -> memoize(e, () -> describeConstable(moduleOf(e))
       .flatMap(moduleDesc -> describeConstable(e.getQualifiedName()) // getQualifiedName() does not cause symbol completion
                .map(nameDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                                        MethodHandleDesc.ofMethod(STATIC,
@@ -410,7 +447,7 @@ public final class Lang {
                                                                                                    CD_ModuleElement,
                                                                                                    CD_CharSequence)),
                                                        moduleDesc,
-                                                       nameDesc)));
+                                                       nameDesc))));
     };
   }
 
@@ -419,14 +456,14 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> describeConstable(e.getQualifiedName()) // getQualifiedName() does not cause symbol completion
+    default              -> memoize(e, () -> describeConstable(e.getQualifiedName()) // getQualifiedName() does not cause symbol completion
       .map(nameDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                               MethodHandleDesc.ofMethod(STATIC,
                                                                         CD_Lang,
                                                                         "typeElement",
                                                                         MethodTypeDesc.of(CD_TypeElement,
                                                                                           CD_CharSequence)),
-                                              nameDesc));
+                                              nameDesc)));
     };
   }
 
@@ -435,7 +472,7 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> CompletionLock.guard(() -> switch (e.getKind()) {
+    default              -> memoize(e, () -> CompletionLock.guard(e, () -> switch (e.getKind()) {
       case FIELD -> describeConstable(e.getSimpleName())
         .flatMap(nameDesc -> describeConstable(e.getEnclosingElement())
                  .map(declaringClassDesc -> DynamicConstantDesc.of(BSM_INVOKE,
@@ -457,12 +494,12 @@ public final class Lang {
                                                                         declaringExecutableDesc,
                                                                         nameDesc)));
       default -> Optional.empty();
-      });
+      }));
     };
   }
 
   public static final Optional<? extends ConstantDesc> describeConstable(final TypeMirror t) {
-    return t == null ? Optional.of(NULL) : switch (CompletionLock.guard(t::getKind)) {
+    return t == null ? Optional.of(NULL) : switch (CompletionLock.guard(t, t::getKind)) {
       case ARRAY                                                -> describeConstable((ArrayType)t);
       case BOOLEAN, BYTE, CHAR, DOUBLE, FLOAT, INT, LONG, SHORT -> describeConstable((PrimitiveType)t);
       case DECLARED, ERROR                                      -> describeConstable((DeclaredType)t);
@@ -475,17 +512,17 @@ public final class Lang {
 
   public static final Optional<? extends ConstantDesc> describeConstable(final ArrayType t) {
     return switch (t) {
-    case null            -> Optional.of(null);
+    case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> describeConstable(CompletionLock.guard(t::getComponentType))
+    default              -> memoize(t, () -> describeConstable(CompletionLock.guard(t, t::getComponentType))
       .map(componentTypeDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                                        MethodHandleDesc.ofMethod(STATIC,
                                                                                  CD_Lang,
                                                                                  "arrayTypeOf",
                                                                                  MethodTypeDesc.of(CD_ArrayType,
                                                                                                    CD_TypeMirror)),
-                                                       componentTypeDesc));
+                                                       componentTypeDesc)));
     };
   }
 
@@ -494,35 +531,32 @@ public final class Lang {
     case null                                                                   -> Optional.of(NULL);
     case Constable c                                                            -> c.describeConstable();
     case ConstantDesc cd                                                        -> Optional.of(cd); // future proofing?
-    case DeclaredType e when CompletionLock.guard(e::getKind) == TypeKind.ERROR -> Optional.empty();
-    default                                                -> {
+    case DeclaredType e when CompletionLock.guard(e, e::getKind) == TypeKind.ERROR -> Optional.empty();
+    default                                                -> memoize(t, () -> {
       // Ugh; this is tricky thanks to varargs and NONE/null silliness. We'll do it imperatively for clarity.
-      final ConstantDesc[] cds;
-      CompletionLock.acquire();
-      try {
+      final ConstantDesc[] cds = CompletionLock.guard(t, () -> {
         final TypeMirror enclosingType = t.getEnclosingType();
         final ConstantDesc enclosingTypeDesc =
-          enclosingType.getKind() == TypeKind.NONE ? NULL : describeConstable(enclosingType).orElseThrow();
+          CompletionLock.guard(enclosingType, enclosingType::getKind) == TypeKind.NONE ? NULL : describeConstable(enclosingType).orElseThrow();
         final ConstantDesc typeElementDesc = describeConstable((TypeElement)t.asElement()).orElseThrow();
         final List<? extends TypeMirror> typeArguments = t.getTypeArguments();
-        cds = new ConstantDesc[typeArguments.size() + 3];
-        cds[0] = MethodHandleDesc.ofMethod(STATIC,
-                                           CD_Lang,
-                                           "declaredType",
-                                           MethodTypeDesc.of(CD_DeclaredType,
-                                                             CD_DeclaredType,
-                                                             CD_TypeElement,
-                                                             CD_TypeMirror.arrayType()));
-        cds[1] = enclosingTypeDesc;
-        cds[2] = typeElementDesc;
-        for (int i = 3; i < cds.length; i++) {
-          cds[i] = describeConstable(typeArguments.get(i)).orElseThrow();
+        final ConstantDesc[] a = new ConstantDesc[typeArguments.size() + 3];
+        a[0] = MethodHandleDesc.ofMethod(STATIC,
+                                         CD_Lang,
+                                         "declaredType",
+                                         MethodTypeDesc.of(CD_DeclaredType,
+                                                           CD_DeclaredType,
+                                                           CD_TypeElement,
+                                                           CD_TypeMirror.arrayType()));
+        a[1] = enclosingTypeDesc;
+        a[2] = typeElementDesc;
+        for (int i = 3; i < a.length; i++) {
+          a[i] = describeConstable(typeArguments.get(i - 3)).orElseThrow();
         }
-      } finally {
-        CompletionLock.release();
-      }
-      yield Optional.of(DynamicConstantDesc.of(BSM_INVOKE, cds));
-    }
+        return a;
+      });
+      return Optional.of(DynamicConstantDesc.of(BSM_INVOKE, cds));
+    });
     };
   }
 
@@ -537,7 +571,7 @@ public final class Lang {
                                                                                          "noType",
                                                                                          MethodTypeDesc.of(CD_NoType,
                                                                                                            CD_TypeKind)),
-                                                               CompletionLock.guard(t::getKind).describeConstable().orElseThrow()));
+                                                               CompletionLock.guard(t, t::getKind).describeConstable().orElseThrow()));
     };
   }
 
@@ -565,7 +599,7 @@ public final class Lang {
                                                                                          "primitiveType",
                                                                                          MethodTypeDesc.of(CD_PrimitiveType,
                                                                                                            CD_TypeKind)),
-                                                               CompletionLock.guard(t::getKind).describeConstable().orElseThrow()));
+                                                               CompletionLock.guard(t, t::getKind).describeConstable().orElseThrow()));
     };
   }
 
@@ -574,8 +608,8 @@ public final class Lang {
     case null            -> Optional.of(NULL);
     case Constable c     -> c.describeConstable();
     case ConstantDesc cd -> Optional.of(cd); // future proofing?
-    default              -> describeConstable(CompletionLock.guard(t::getExtendsBound))
-      .flatMap(extendsBoundDesc -> describeConstable(CompletionLock.guard(t::getSuperBound))
+    default              -> memoize(t, () -> describeConstable(CompletionLock.guard(t, t::getExtendsBound))
+      .flatMap(extendsBoundDesc -> describeConstable(CompletionLock.guard(t, t::getSuperBound))
                .map(superBoundDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                                              MethodHandleDesc.ofMethod(STATIC,
                                                                                        CD_Lang,
@@ -584,10 +618,31 @@ public final class Lang {
                                                                                                          CD_TypeMirror,
                                                                                                          CD_TypeMirror)),
                                                              extendsBoundDesc,
-                                                             superBoundDesc)));
+                                                             superBoundDesc))));
     };
   }
 
+  // Returns the memoized ConstantDesc describing the supplied construct, using the supplied Supplier to compute it if
+  // necessary. Constructs from this project's own, mutable model are not memoized until they are frozen.
+  private static final Optional<? extends ConstantDesc> memoize(final AnnotatedConstruct a,
+                                                               final Supplier<? extends Optional<? extends ConstantDesc>> s) {
+    if (!memoizable(a)) {
+      return s.get();
+    }
+    final ConstantDesc cd = constantDescs.get(a);
+    if (cd != null) {
+      return Optional.of(cd);
+    }
+    final Optional<? extends ConstantDesc> rv = s.get();
+    return rv.isPresent() ? Optional.of(constantDescs.putIfAbsent(a, rv.get())) : rv;
+  }
+
+  // Returns true if facts about the supplied (unwrapped) construct may be memoized: javac's constructs may always be,
+  // and those of this project's own, mutable model only once they are frozen.
+  private static final boolean memoizable(final Object o) {
+    return !(o instanceof org.microbean.lang.AnnotatedConstruct ac) || ac.frozen();
+  }
+
 
   /*
    * Type and element support methods.
@@ -629,15 +684,10 @@ public final class Lang {
   }
 
   public static final boolean generic(final Element e) {
-    CompletionLock.acquire();
-    try {
-      return switch (e.getKind()) {
+    return CompletionLock.guard(e, () -> switch (e.getKind()) {
       case CLASS, CONSTRUCTOR, ENUM, INTERFACE, METHOD, RECORD -> !((Parameterizable)e).getTypeParameters().isEmpty();
       default                                                  -> false;
-      };
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   public static final TypeMirror capture(TypeMirror t) {
@@ -696,7 +746,7 @@ public final class Lang {
   }
 
   public static final TypeMirror box(final TypeMirror t) {
-    final TypeKind k = CompletionLock.guard(t::getKind);
+    final TypeKind k = CompletionLock.guard(t, t::getKind);
     return k.isPrimitive() ? boxedClass((PrimitiveType)t).asType() : t;
   }
 
@@ -712,33 +762,18 @@ public final class Lang {
 
   public static final boolean bridge(final Element e) {
     final Elements elements = pe().getElementUtils();
-    CompletionLock.acquire();
-    try {
-      return e.getKind() == ElementKind.METHOD && elements.isBridge(unwrap((ExecutableElement)e));
-    } finally {
-      CompletionLock.release();
-    }
+    return CompletionLock.guard(e, () -> e.getKind() == ElementKind.METHOD && elements.isBridge(unwrap((ExecutableElement)e)));
   }
 
   public static final boolean compactConstructor(final Element e) {
     final Elements elements = pe().getElementUtils();
-    CompletionLock.acquire();
-    try {
-      return e.getKind() == ElementKind.CONSTRUCTOR && elements.isCompactConstructor(unwrap((ExecutableElement)e));
-    } finally {
-      CompletionLock.release();
-    }
+    return CompletionLock.guard(e, () -> e.getKind() == ElementKind.CONSTRUCTOR && elements.isCompactConstructor(unwrap((ExecutableElement)e)));
   }
 
   public static final boolean canonicalConstructor(final Element e) {
     Objects.requireNonNull(e, "e");
     final Elements elements = pe().getElementUtils();
-    CompletionLock.acquire();
-    try {
-      return e.getKind() == ElementKind.CONSTRUCTOR && elements.isCanonicalConstructor(unwrap((ExecutableElement)e));
-    } finally {
-      CompletionLock.release();
-    }
+    return CompletionLock.guard(e, () -> e.getKind() == ElementKind.CONSTRUCTOR && elements.isCanonicalConstructor(unwrap((ExecutableElement)e)));
   }
 
   public static final PrimitiveType unboxedType(TypeMirror t) {
@@ -759,24 +794,82 @@ public final class Lang {
    */
 
 
+  // Note: the public methods that follow guard their argument once, so an incomplete construct causes the
+  // CompletionLock to be acquired exactly once, and every nested CompletionLock#guard(Element, ...) or
+  // CompletionLock#guard(TypeMirror, ...) below is then a cheap reentrant acquisition (or, for completed constructs in
+  // read-mostly mode, no acquisition at all). CompletionLock#guard(Element, ...) and CompletionLock#guard(TypeMirror,
+  // ...) only protect state belonging to their first argument; any other Element or TypeMirror reached along the way is
+  // guarded separately.
+  //
+  // Strings are rendered into a per-thread buffer (see #signatureBuffer()) rather than into fresh StringBuilders.
+
+  /**
+   * Returns the JVMS signature of the supplied {@link Element}, or {@code null} if it does not need one.
+   *
+   * <p>Results are memoized per {@link Element}, unless it is an unfrozen {@link org.microbean.lang.AnnotatedConstruct}
+   * that may still change.</p>
+   *
+   * @param e the {@link Element}; must not be {@code null}
+   *
+   * @return the JVMS signature of the supplied {@link Element}, or {@code null}
+   *
+   * @exception NullPointerException if {@code e} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code e} is not a class, method or field-like {@link Element}
+   */
   public static final String elementSignature(final Element e) {
-    return switch (CompletionLock.guard(e::getKind)) {
-    case CLASS, ENUM, INTERFACE, RECORD                                    -> classSignature((TypeElement)e);
-    case CONSTRUCTOR, METHOD, INSTANCE_INIT, STATIC_INIT                   -> methodSignature((ExecutableElement)e);
-    case ENUM_CONSTANT, FIELD, LOCAL_VARIABLE, PARAMETER, RECORD_COMPONENT -> fieldSignature(e);
-    default                                                                -> throw new IllegalArgumentException("e: " + e);
-    };
+    final Element key = unwrap(e);
+    final boolean memoizable = memoizable(key);
+    String s = memoizable ? elementSignatures.get(key) : null;
+    if (s == null) {
+      s = CompletionLock.guard(e, () -> switch (e.getKind()) {
+        case CLASS, ENUM, INTERFACE, RECORD                                    -> classSignature((TypeElement)e);
+        case CONSTRUCTOR, METHOD, INSTANCE_INIT, STATIC_INIT                   -> methodSignature((ExecutableElement)e);
+        case ENUM_CONSTANT, FIELD, LOCAL_VARIABLE, PARAMETER, RECORD_COMPONENT -> fieldSignature(e);
+        default                                                                -> throw new IllegalArgumentException("e: " + e);
+        });
+      if (memoizable) {
+        s = elementSignatures.putIfAbsent(key, s == null ? NO_SIGNATURE : s);
+      }
+    }
+    return s == null || s.isEmpty() ? null : s;
+  }
+
+  /**
+   * Returns the JVMS descriptor of the {@linkplain Element#asType() type} of the supplied {@link Element}.
+   *
+   * <p>Results are memoized per {@link Element}, unless it is an unfrozen {@link org.microbean.lang.AnnotatedConstruct}
+   * that may still change.</p>
+   *
+   * @param e the {@link Element}; must not be {@code null}
+   *
+   * @return the JVMS descriptor of the type of the supplied {@link Element}; never {@code null}
+   *
+   * @exception NullPointerException if {@code e} is {@code null}
+   *
+   * @exception IllegalArgumentException if the type of {@code e} has no descriptor
+   *
+   * @see #descriptor(TypeMirror)
+   */
+  public static final String elementDescriptor(final Element e) {
+    final Element key = unwrap(e);
+    if (!memoizable(key)) {
+      return CompletionLock.guard(e, () -> descriptor(e.asType()));
+    }
+    final String s = elementDescriptors.get(key);
+    if (s != null) {
+      return s;
+    }
+    return elementDescriptors.putIfAbsent(key, CompletionLock.guard(e, () -> descriptor(e.asType())));
   }
 
   private static final String classSignature(final TypeElement e) {
-    CompletionLock.acquire();
-    try {
-      return switch (e.getKind()) {
+    return CompletionLock.guard(e, () -> switch (e.getKind()) {
       case CLASS, ENUM, INTERFACE, RECORD -> {
-        if (!generic(e) && ((DeclaredType)e.getSuperclass()).getTypeArguments().isEmpty()) {
+        if (!generic(e) && typeArguments(e.getSuperclass()).isEmpty()) {
           boolean signatureRequired = false;
           for (final TypeMirror iface : e.getInterfaces()) {
-            if (!((DeclaredType)iface).getTypeArguments().isEmpty()) {
+            if (!typeArguments(iface).isEmpty()) {
               signatureRequired = true;
               break;
             }
@@ -785,178 +878,162 @@ public final class Lang {
             yield null;
           }
         }
-        final StringBuilder sb = new StringBuilder();
-        classSignature(e, sb);
-        yield sb.toString();
+        final StringBuilder sb = signatureBuffer();
+        final int start = sb.length();
+        try {
+          classSignature(e, sb);
+          yield sb.substring(start);
+        } finally {
+          sb.setLength(start);
+        }
       }
       default -> throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
-      };
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   private static final void classSignature(final TypeElement e, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      switch (e.getKind()) {
-      case CLASS, ENUM, INTERFACE, RECORD -> { // note: no ANNOTATION_TYPE on purpose
-        typeParameters(e.getTypeParameters(), sb);
-        final List<? extends TypeMirror> directSupertypes = directSupertypes(e.asType());
-        if (directSupertypes.isEmpty()) {
-          assert e.getQualifiedName().contentEquals("java.lang.Object") : "DeclaredType with no supertypes: " + e.asType();
-          // See
-          // https://stackoverflow.com/questions/76453947/in-the-jvms-what-is-the-classsignature-for-java-lang-object-given-that-supercl
-          //
-          // Do nothing (and thereby violate the grammar? Derp?).
-        } else {
-          final DeclaredType firstSupertype = (DeclaredType)directSupertypes.get(0);
-          assert firstSupertype.getKind() == TypeKind.DECLARED;
-          // "For an interface type with no direct super-interfaces, a type mirror representing java.lang.Object is
-          // returned." Therefore in all situations, given a non-empty list of direct supertypes, the first element will
-          // always be a non-interface class.
-          assert !((TypeElement)firstSupertype.asElement()).getKind().isInterface() : "Contract violation";
-          superclassSignature(firstSupertype, sb);
-          superinterfaceSignatures(directSupertypes.subList(1, directSupertypes.size()), sb);
+    CompletionLock.guard(e, () -> {
+        switch (e.getKind()) {
+        case CLASS, ENUM, INTERFACE, RECORD -> { // note: no ANNOTATION_TYPE on purpose
+          typeParameters(e.getTypeParameters(), sb);
+          final List<? extends TypeMirror> directSupertypes = directSupertypes(e.asType());
+          if (directSupertypes.isEmpty()) {
+            assert e.getQualifiedName().contentEquals("java.lang.Object") : "DeclaredType with no supertypes: " + e.asType();
+            // See
+            // https://stackoverflow.com/questions/76453947/in-the-jvms-what-is-the-classsignature-for-java-lang-object-given-that-supercl
+            //
+            // Do nothing (and thereby violate the grammar? Derp?).
+          } else {
+            final DeclaredType firstSupertype = (DeclaredType)directSupertypes.get(0);
+            assert firstSupertype.getKind() == TypeKind.DECLARED;
+            // "For an interface type with no direct super-interfaces, a type mirror representing java.lang.Object is
+            // returned." Therefore in all situations, given a non-empty list of direct supertypes, the first element
+            // will always be a non-interface class.
+            assert !((TypeElement)firstSupertype.asElement()).getKind().isInterface() : "Contract violation";
+            superclassSignature(firstSupertype, sb);
+            superinterfaceSignatures(directSupertypes.subList(1, directSupertypes.size()), sb);
+          }
         }
-      }
-      default -> throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
-      }
-    } finally {
-      CompletionLock.release();
-    }
+        default -> throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
+        }
+      });
   }
 
   private static final String methodSignature(final ExecutableElement e) {
-    CompletionLock.acquire();
-    try {
-      if (e.getKind().isExecutable()) {
-        boolean throwsClauseRequired = false;
-        for (final TypeMirror exceptionType : e.getThrownTypes()) {
-          if (exceptionType.getKind() == TypeKind.TYPEVAR) {
-            throwsClauseRequired = true;
-            break;
+    return CompletionLock.guard(e, () -> {
+        if (e.getKind().isExecutable()) {
+          boolean throwsClauseRequired = false;
+          for (final TypeMirror exceptionType : e.getThrownTypes()) {
+            if (CompletionLock.guard(exceptionType, exceptionType::getKind) == TypeKind.TYPEVAR) {
+              throwsClauseRequired = true;
+              break;
+            }
           }
-        }
-        if (!throwsClauseRequired && !generic(e)) {
-          final TypeMirror returnType = e.getReturnType();
-          if (returnType.getKind() != TypeKind.TYPEVAR && typeArguments(returnType).isEmpty()) {
-            boolean signatureRequired = false;
-            for (final VariableElement p : e.getParameters()) {
-              final TypeMirror parameterType = p.asType();
-              if (parameterType.getKind() == TypeKind.TYPEVAR || !typeArguments(parameterType).isEmpty()) {
-                signatureRequired = true;
-                break;
+          if (!throwsClauseRequired && !generic(e)) {
+            final TypeMirror returnType = e.getReturnType();
+            if (CompletionLock.guard(returnType, returnType::getKind) != TypeKind.TYPEVAR && typeArguments(returnType).isEmpty()) {
+              boolean signatureRequired = false;
+              for (final VariableElement p : e.getParameters()) {
+                final TypeMirror parameterType = p.asType();
+                if (CompletionLock.guard(parameterType, parameterType::getKind) == TypeKind.TYPEVAR ||
+                    !typeArguments(parameterType).isEmpty()) {
+                  signatureRequired = true;
+                  break;
+                }
+              }
+              if (!signatureRequired) {
+                return null;
               }
-            }
-            if (!signatureRequired) {
-              return null;
             }
           }
+          final StringBuilder sb = signatureBuffer();
+          final int start = sb.length();
+          try {
+            methodSignature(e, sb, throwsClauseRequired);
+            return sb.substring(start);
+          } finally {
+            sb.setLength(start);
+          }
+        } else {
+          throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
         }
-        final StringBuilder sb = new StringBuilder();
-        methodSignature(e, sb, throwsClauseRequired);
-        return sb.toString();
-      } else {
-        throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
-      }
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   private static final void methodSignature(final ExecutableElement e, final StringBuilder sb, final boolean throwsClauseRequired) {
-    CompletionLock.acquire();
-    try {
-      if (e.getKind().isExecutable()) {
-        typeParameters(e.getTypeParameters(), sb);
-        sb.append('(');
-        parameterSignatures(e.getParameters(), sb);
-        sb.append(')');
-        final TypeMirror returnType = e.getReturnType();
-        if (returnType.getKind() == TypeKind.VOID) {
-          sb.append('V');
+    CompletionLock.guard(e, () -> {
+        if (e.getKind().isExecutable()) {
+          typeParameters(e.getTypeParameters(), sb);
+          sb.append('(');
+          parameterSignatures(e.getParameters(), sb);
+          sb.append(')');
+          final TypeMirror returnType = e.getReturnType();
+          if (CompletionLock.guard(returnType, returnType::getKind) == TypeKind.VOID) {
+            sb.append('V');
+          } else {
+            typeSignature(returnType, sb);
+          }
+          if (throwsClauseRequired) {
+            throwsSignatures(e.getThrownTypes(), sb);
+          }
         } else {
-          typeSignature(returnType, sb);
-        }
-        if (throwsClauseRequired) {
-          throwsSignatures(e.getThrownTypes(), sb);
+          throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
         }
-      } else {
-        throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
-      }
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   private static final String fieldSignature(final Element e) {
-    CompletionLock.acquire();
-    try {
-      return switch (e.getKind()) {
+    return CompletionLock.guard(e, () -> switch (e.getKind()) {
       case ENUM_CONSTANT, FIELD, LOCAL_VARIABLE, PARAMETER, RECORD_COMPONENT -> {
         final TypeMirror t = e.asType();
-        if (t.getKind() != TypeKind.TYPEVAR && typeArguments(t).isEmpty()) {
+        if (CompletionLock.guard(t, t::getKind) != TypeKind.TYPEVAR && typeArguments(t).isEmpty()) {
           // TODO: is this sufficient? Or do we, for example, have to examine the type's supertypes to see if *they*
           // "use" a parameterized type? Maybe we have to look at the enclosing type too? But if so, why only here, and
           // why not the same sort of thing for the return type of a method (see above)?
           yield null;
         }
-        final StringBuilder sb = new StringBuilder();
-        fieldSignature(e, sb);
-        yield sb.toString();
+        final StringBuilder sb = signatureBuffer();
+        final int start = sb.length();
+        try {
+          fieldSignature(e, sb);
+          yield sb.substring(start);
+        } finally {
+          sb.setLength(start);
+        }
       }
       default -> throw new IllegalArgumentException("e: " + e + "; kind: " + e.getKind());
-      };
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   private static final void fieldSignature(final Element e, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      switch (e.getKind()) {
-      case ENUM_CONSTANT, FIELD, LOCAL_VARIABLE, PARAMETER, RECORD_COMPONENT -> typeSignature(e.asType(), sb);
-      default                                                                -> throw new IllegalArgumentException("e: " + e);
-      }
-    } finally {
-      CompletionLock.release();
-    }
+    CompletionLock.guard(e, () -> {
+        switch (e.getKind()) {
+        case ENUM_CONSTANT, FIELD, LOCAL_VARIABLE, PARAMETER, RECORD_COMPONENT -> typeSignature(e.asType(), sb);
+        default                                                                -> throw new IllegalArgumentException("e: " + e);
+        }
+      });
   }
 
   private static final void parameterSignatures(final List<? extends VariableElement> ps, final StringBuilder sb) {
-    if (ps.isEmpty()) {
-      return;
-    }
-    CompletionLock.acquire();
-    try {
-      for (final VariableElement p : ps) {
-        if (p.getKind() != ElementKind.PARAMETER) {
-          throw new IllegalArgumentException("ps: " + ps);
-        }
-        typeSignature(p.asType(), sb);
-      }
-    } finally {
-      CompletionLock.release();
+    for (final VariableElement p : ps) {
+      CompletionLock.guard(p, () -> {
+          if (p.getKind() != ElementKind.PARAMETER) {
+            throw new IllegalArgumentException("ps: " + ps);
+          }
+          typeSignature(p.asType(), sb);
+        });
     }
   }
 
   private static final void throwsSignatures(final List<? extends TypeMirror> ts, final StringBuilder sb) {
-    if (ts.isEmpty()) {
-      return;
-    }
-    CompletionLock.acquire();
-    try {
-      for (final TypeMirror t : ts) {
-        sb.append(switch (t.getKind()) {
-          case DECLARED, TYPEVAR -> "^";
-          default                -> throw new IllegalArgumentException("ts: " + ts);
-          });
-        typeSignature(t, sb);
-      }
-    } finally {
-      CompletionLock.release();
+    for (final TypeMirror t : ts) {
+      CompletionLock.guard(t, () -> {
+          sb.append(switch (t.getKind()) {
+            case DECLARED, TYPEVAR -> "^";
+            default                -> throw new IllegalArgumentException("ts: " + ts);
+            });
+          typeSignature(t, sb);
+        });
     }
   }
 
@@ -965,84 +1042,58 @@ public final class Lang {
       return;
     }
     sb.append('<');
-    CompletionLock.acquire();
-    try {
-      for (final TypeParameterElement tp : tps) {
-        switch (tp.getKind()) {
-        case TYPE_PARAMETER -> typeParameter(tp, sb);
-        default             -> throw new IllegalArgumentException("tps: " + tps);
-        }
-      }
-    } finally {
-      CompletionLock.release();
+    for (final TypeParameterElement tp : tps) {
+      CompletionLock.guard(tp, () -> {
+          switch (tp.getKind()) {
+          case TYPE_PARAMETER -> typeParameter(tp, sb);
+          default             -> throw new IllegalArgumentException("tps: " + tps);
+          }
+        });
     }
     sb.append('>');
   }
 
   private static final void typeParameter(final TypeParameterElement e, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      if (e.getKind() != ElementKind.TYPE_PARAMETER) {
-        throw new IllegalArgumentException("e: " + e);
-      }
-      final List<? extends TypeMirror> bounds = e.getBounds();
-      sb.append(e.getSimpleName());
-      if (bounds.isEmpty()) {
-        sb.append(":java.lang.Object");
-      } else {
-        sb.append(':');
-        classBound(bounds.get(0), sb);
-      }
-      interfaceBounds(bounds.subList(1, bounds.size()), sb);
-    } finally {
-      CompletionLock.release();
-    }
+    CompletionLock.guard(e, () -> {
+        if (e.getKind() != ElementKind.TYPE_PARAMETER) {
+          throw new IllegalArgumentException("e: " + e);
+        }
+        final List<? extends TypeMirror> bounds = e.getBounds();
+        sb.append(e.getSimpleName());
+        if (bounds.isEmpty()) {
+          sb.append(":java.lang.Object");
+        } else {
+          sb.append(':');
+          classBound(bounds.get(0), sb);
+        }
+        interfaceBounds(bounds.subList(1, bounds.size()), sb);
+      });
   }
 
   private static final void classBound(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      if (t.getKind() != TypeKind.DECLARED) {
-        throw new IllegalArgumentException("t: " + t);
-      }
-      typeSignature(t, sb);
-    } finally {
-      CompletionLock.release();
-    }
+    CompletionLock.guard(t, () -> {
+        if (t.getKind() != TypeKind.DECLARED) {
+          throw new IllegalArgumentException("t: " + t);
+        }
+        typeSignature(t, sb);
+      });
   }
 
   private static final void interfaceBounds(final List<? extends TypeMirror> ts, final StringBuilder sb) {
-    if (ts.isEmpty()) {
-      return;
-    }
-    CompletionLock.acquire();
-    try {
-      for (final TypeMirror t : ts) {
-        interfaceBound(t, sb);
-      }
-    } finally {
-      CompletionLock.release();
+    for (final TypeMirror t : ts) {
+      interfaceBound(t, sb);
     }
   }
 
-  @SuppressWarnings("fallthrough")
   private static final void interfaceBound(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      switch (t.getKind()) {
-      case DECLARED:
-        if (((DeclaredType)t).asElement().getKind().isInterface()) {
+    CompletionLock.guard(t, () -> {
+        if (t.getKind() == TypeKind.DECLARED && ((DeclaredType)t).asElement().getKind().isInterface()) {
           sb.append(':');
           typeSignature(t, sb);
-          return;
+        } else {
+          throw new IllegalArgumentException("t: " + t);
         }
-        // fall through
-      default:
-        throw new IllegalArgumentException("t: " + t);
-      }
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   private static final void superclassSignature(final TypeMirror t, final StringBuilder sb) {
@@ -1050,207 +1101,222 @@ public final class Lang {
   }
 
   private static final void superinterfaceSignatures(final List<? extends TypeMirror> ts, final StringBuilder sb) {
-    if (ts.isEmpty()) {
-      return;
-    }
-    CompletionLock.acquire();
-    try {
-      for (final TypeMirror t : ts) {
-        superinterfaceSignature(t, sb);
-      }
-    } finally {
-      CompletionLock.release();
+    for (final TypeMirror t : ts) {
+      superinterfaceSignature(t, sb);
     }
   }
 
-  @SuppressWarnings("fallthrough")
   private static final void superinterfaceSignature(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      switch (t.getKind()) {
-      case DECLARED:
-        if (((DeclaredType)t).asElement().getKind().isInterface()) {
+    CompletionLock.guard(t, () -> {
+        if (t.getKind() == TypeKind.DECLARED && ((DeclaredType)t).asElement().getKind().isInterface()) {
           classTypeSignature(t, sb);
-          return;
+        } else {
+          throw new IllegalArgumentException("t: " + t);
         }
-        // fall through
-      default:
-        throw new IllegalArgumentException("t: " + t);
-      }
-    } finally {
-      CompletionLock.release();
-    }
+      });
   }
 
   public static final String typeSignature(final TypeMirror t) {
-    final StringBuilder sb = new StringBuilder();
-    typeSignature(t, sb);
-    return sb.toString();
-  }
-
-  private static final void typeSignature(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
+    final StringBuilder sb = signatureBuffer();
+    final int start = sb.length();
     try {
-      switch (t.getKind()) {
-      case ARRAY    -> typeSignature(((ArrayType)t).getComponentType(), sb.append("[")); // recursive
-      case BOOLEAN  -> sb.append("Z");
-      case BYTE     -> sb.append("B");
-      case CHAR     -> sb.append("C");
-      case DECLARED -> classTypeSignature((DeclaredType)t, sb);
-      case DOUBLE   -> sb.append("D");
-      case FLOAT    -> sb.append("F");
-      case INT      -> sb.append("I");
-      case LONG     -> sb.append("J");
-      case SHORT    -> sb.append("S");
-      case TYPEVAR  -> sb.append("T").append(((TypeVariable)t).asElement().getSimpleName()).append(';');
-      default       -> throw new IllegalArgumentException("t: " + t);
-      }
+      typeSignature(t, sb);
+      return sb.substring(start);
     } finally {
-      CompletionLock.release();
+      sb.setLength(start);
     }
   }
 
-  private static final void classTypeSignature(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      switch (t.getKind()) {
-      case NONE:
-        return;
-      case DECLARED:
-        break;
-      default:
-        throw new IllegalArgumentException("t: " + t);
-      }
-      final DeclaredType dt = (DeclaredType)t;
-
-      // Build a deque of elements from the package to the (possibly inner or nested) class.
-      final Deque<Element> dq = new ArrayDeque<>();
-      Element e = dt.asElement();
-      while (e != null && e.getKind() != ElementKind.MODULE) {
-        dq.push(e);
-        e = e.getEnclosingElement();
-      }
-
-      sb.append("L");
+  private static final void typeSignature(final TypeMirror t, final StringBuilder sb) {
+    CompletionLock.guard(t, () -> {
+        switch (t.getKind()) {
+        case ARRAY    -> typeSignature(((ArrayType)t).getComponentType(), sb.append("[")); // recursive
+        case BOOLEAN  -> sb.append("Z");
+        case BYTE     -> sb.append("B");
+        case CHAR     -> sb.append("C");
+        case DECLARED -> classTypeSignature((DeclaredType)t, sb);
+        case DOUBLE   -> sb.append("D");
+        case FLOAT    -> sb.append("F");
+        case INT      -> sb.append("I");
+        case LONG     -> sb.append("J");
+        case SHORT    -> sb.append("S");
+        case TYPEVAR  -> sb.append("T").append(((TypeVariable)t).asElement().getSimpleName()).append(';');
+        default       -> throw new IllegalArgumentException("t: " + t);
+        }
+      });
+  }
 
-      final Iterator<Element> i = dq.iterator();
-      while (i.hasNext()) {
-        e = i.next();
-        switch (e.getKind()) {
-        case PACKAGE:
-          // java.lang becomes java/lang
-          sb.append(((PackageElement)e).getQualifiedName().toString().replace('.', '/'));
-          assert i.hasNext();
-          sb.append('/');
-          break;
-        case ANNOTATION_TYPE:
-        case CLASS:
-        case ENUM:
-        case INTERFACE:
-        case RECORD:
-          // Outer.Inner remains Outer.Inner (i.e. not Outer$Inner or Outer/Inner)
-          sb.append(e.getSimpleName());
-          if (i.hasNext()) {
-            sb.append('.');
-          }
+  private static final void classTypeSignature(final TypeMirror t, final StringBuilder sb) {
+    CompletionLock.guard(t, () -> {
+        switch (t.getKind()) {
+        case NONE:
+          return;
+        case DECLARED:
           break;
         default:
-          // note that a method could fall in here; we just skip it
-          break;
+          throw new IllegalArgumentException("t: " + t);
+        }
+        final DeclaredType dt = (DeclaredType)t;
+
+        // Build a deque of elements from the package to the (possibly inner or nested) class. (Completing dt's element
+        // completes its enclosing classes too.)
+        final Deque<Element> dq = new ArrayDeque<>();
+        Element e = dt.asElement();
+        while (e != null && e.getKind() != ElementKind.MODULE) {
+          dq.push(e);
+          e = e.getEnclosingElement();
+        }
+
+        sb.append("L");
+
+        final Iterator<Element> i = dq.iterator();
+        while (i.hasNext()) {
+          e = i.next();
+          switch (e.getKind()) {
+          case PACKAGE:
+            // java.lang becomes java/lang
+            sb.append(((PackageElement)e).getQualifiedName().toString().replace('.', '/'));
+            assert i.hasNext();
+            sb.append('/');
+            break;
+          case ANNOTATION_TYPE:
+          case CLASS:
+          case ENUM:
+          case INTERFACE:
+          case RECORD:
+            // Outer.Inner remains Outer.Inner (i.e. not Outer$Inner or Outer/Inner)
+            sb.append(e.getSimpleName());
+            if (i.hasNext()) {
+              sb.append('.');
+            }
+            break;
+          default:
+            // note that a method could fall in here; we just skip it
+            break;
+          }
+          i.remove();
         }
-        i.remove();
-      }
-      assert dq.isEmpty();
-
-      // Now for the type arguments
-      final List<? extends TypeMirror> typeArguments = dt.getTypeArguments();
-      if (!typeArguments.isEmpty()) {
-        sb.append('<');
-        for (final TypeMirror ta : typeArguments) {
-          sb.append(switch (ta.getKind()) {
-            case WILDCARD -> {
-              final WildcardType w = (WildcardType)ta;
-              final TypeMirror superBound = w.getSuperBound();
-              if (superBound == null) {
-                final TypeMirror extendsBound = w.getExtendsBound();
-                if (extendsBound == null) {
-                  yield "*"; // I guess?
+        assert dq.isEmpty();
+
+        // Now for the type arguments
+        final List<? extends TypeMirror> typeArguments = dt.getTypeArguments();
+        if (!typeArguments.isEmpty()) {
+          sb.append('<');
+          for (final TypeMirror ta : typeArguments) {
+            CompletionLock.guard(ta, () -> {
+                if (ta.getKind() == TypeKind.WILDCARD) {
+                  final WildcardType w = (WildcardType)ta;
+                  final TypeMirror superBound = w.getSuperBound();
+                  if (superBound == null) {
+                    final TypeMirror extendsBound = w.getExtendsBound();
+                    if (extendsBound == null) {
+                      sb.append('*'); // I guess?
+                    } else {
+                      typeSignature(extendsBound, sb.append('+'));
+                    }
+                  } else {
+                    typeSignature(superBound, sb.append('-'));
+                  }
                 } else {
-                  yield "+" + typeSignature(extendsBound);
+                  typeSignature(ta, sb);
                 }
-              } else {
-                yield "-" + typeSignature(superBound);
-              }
-            }
-            default -> typeSignature(ta);
-            });
+              });
+          }
+          sb.append('>');
         }
-        sb.append('>');
-      }
 
-      sb.append(';');
-    } finally {
-      CompletionLock.release();
-    }
+        sb.append(';');
+      });
   }
 
+  /**
+   * Returns the JVMS descriptor of the supplied {@link TypeMirror}.
+   *
+   * @param t the {@link TypeMirror}; must not be {@code null}
+   *
+   * @return the JVMS descriptor of the supplied {@link TypeMirror}; never {@code null}
+   *
+   * @exception NullPointerException if {@code t} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code t} has no descriptor
+   *
+   * @see #elementDescriptor(Element)
+   */
   public static final String descriptor(final TypeMirror t) {
-    final StringBuilder sb = new StringBuilder();
-    descriptor(t, sb);
-    return sb.toString();
-  }
-
-  private static final void descriptor(final TypeMirror t, final StringBuilder sb) {
-    CompletionLock.acquire();
+    final StringBuilder sb = signatureBuffer();
+    final int start = sb.length();
     try {
-      switch (t.getKind()) {
-      case ARRAY      -> descriptor(((ArrayType)t).getComponentType(), sb.append("["));
-      case BOOLEAN    -> sb.append("Z"); // yes, really
-      case BYTE       -> sb.append("B");
-      case CHAR       -> sb.append("C");
-      case DECLARED   -> sb.append("L").append(jvmBinaryName((TypeElement)((DeclaredType)t).asElement())).append(";"); // basically an erasure
-      case DOUBLE     -> sb.append("D");
-      case EXECUTABLE -> descriptor((ExecutableType)t, sb);
-      case FLOAT      -> sb.append("F");
-      case INT        -> sb.append("I");
-      case LONG       -> sb.append("J"); // yes, really
-      case SHORT      -> sb.append("S");
-      case TYPEVAR    -> descriptor(erasure(t), sb);
-      case VOID       -> sb.append("V");
-      case ERROR, INTERSECTION, MODULE, NONE, NULL, OTHER, PACKAGE, UNION, WILDCARD -> throw new IllegalArgumentException("t: " + t);
-      }
+      descriptor(t, sb);
+      return sb.substring(start);
     } finally {
-      CompletionLock.release();
+      sb.setLength(start);
     }
   }
 
+  private static final void descriptor(final TypeMirror t, final StringBuilder sb) {
+    CompletionLock.guard(t, () -> {
+        switch (t.getKind()) {
+        case ARRAY      -> descriptor(((ArrayType)t).getComponentType(), sb.append("["));
+        case BOOLEAN    -> sb.append("Z"); // yes, really
+        case BYTE       -> sb.append("B");
+        case CHAR       -> sb.append("C");
+        case DECLARED   -> jvmBinaryName((TypeElement)((DeclaredType)t).asElement(), sb.append('L')).append(';'); // basically an erasure
+        case DOUBLE     -> sb.append("D");
+        case EXECUTABLE -> descriptor((ExecutableType)t, sb);
+        case FLOAT      -> sb.append("F");
+        case INT        -> sb.append("I");
+        case LONG       -> sb.append("J"); // yes, really
+        case SHORT      -> sb.append("S");
+        case TYPEVAR    -> descriptor(erasure(t), sb);
+        case VOID       -> sb.append("V");
+        case ERROR, INTERSECTION, MODULE, NONE, NULL, OTHER, PACKAGE, UNION, WILDCARD -> throw new IllegalArgumentException("t: " + t);
+        }
+      });
+  }
+
   private static final void descriptor(final ExecutableType t, final StringBuilder sb) {
-    CompletionLock.acquire();
-    try {
-      if (t.getKind() != TypeKind.EXECUTABLE) {
-        throw new IllegalArgumentException("t: " + t);
-      }
-      sb.append('(');
-      for (final TypeMirror pt : t.getParameterTypes()) {
-        descriptor(pt, sb);
-      }
-      sb.append(')');
-      descriptor(t.getReturnType(), sb);
-    } finally {
-      CompletionLock.release();
-    }
+    CompletionLock.guard(t, () -> {
+        if (t.getKind() != TypeKind.EXECUTABLE) {
+          throw new IllegalArgumentException("t: " + t);
+        }
+        sb.append('(');
+        for (final TypeMirror pt : t.getParameterTypes()) {
+          descriptor(pt, sb);
+        }
+        sb.append(')');
+        descriptor(t.getReturnType(), sb);
+      });
   }
 
   public static final String jvmBinaryName(final TypeElement te) {
-    CompletionLock.acquire();
-    try {
-      if (!te.getKind().isDeclaredType()) {
-        throw new IllegalArgumentException("te: " + te);
-      }
-      return binaryName(te).toString().replace('.', '/');
-    } finally {
-      CompletionLock.release();
-    }
+    return CompletionLock.guard(te, () -> {
+        if (!te.getKind().isDeclaredType()) {
+          throw new IllegalArgumentException("te: " + te);
+        }
+        return binaryName(te).toString().replace('.', '/');
+      });
+  }
+
+  private static final StringBuilder jvmBinaryName(final TypeElement te, final StringBuilder sb) {
+    CompletionLock.guard(te, () -> {
+        if (!te.getKind().isDeclaredType()) {
+          throw new IllegalArgumentException("te: " + te);
+        }
+        final int start = sb.length();
+        sb.append(binaryName(te));
+        for (int i = start; i < sb.length(); i++) {
+          if (sb.charAt(i) == '.') {
+            sb.setCharAt(i, '/');
+          }
+        }
+      });
+    return sb;
+  }
+
+  // Returns the current thread's reusable signature and descriptor buffer. Callers append to it from its current length
+  // and must truncate it back to that length when they are done, so nested uses compose.
+  private static final StringBuilder signatureBuffer() {
+    return signatureBuffer.get();
   }
 
 
@@ -1483,14 +1549,8 @@ public final class Lang {
   public static final Elements.Origin origin(Element e) {
     e = unwrap(e);
     final Elements elements = pe().getElementUtils();
-    final Elements.Origin rv;
-    CompletionLock.acquire();
-    try {
-      rv = elements.getOrigin(e);
-    } finally {
-      CompletionLock.release();
-    }
-    return rv;
+    final Element e2 = e;
+    return CompletionLock.guard(e2, () -> elements.getOrigin(e2));
   }
 
   public static final PackageElement packageElement(final Class<?> c) {
@@ -1546,7 +1606,7 @@ public final class Lang {
     if (!arrayClass.isArray()) {
       throw new IllegalArgumentException("arrayClass: " + arrayClass);
     }
-    return arrayTypeOf(type(arrayClass.getComponentType()));
+    return (ArrayType)classType(arrayClass);
   }
 
   public static final ArrayType arrayType(final GenericArrayType g) {
@@ -1572,8 +1632,7 @@ public final class Lang {
     if (c.isArray() || c.isPrimitive() || c.isLocalClass() || c.isAnonymousClass()) {
       throw new IllegalArgumentException("c: " + c);
     }
-    final Class<?> ec = c.getEnclosingClass();
-    return declaredType(ec == null ? null : declaredType(ec), typeElement(c));
+    return (DeclaredType)classType(c);
   }
 
   public static final DeclaredType declaredType(final ParameterizedType p) {
@@ -1633,17 +1692,10 @@ public final class Lang {
 
   public static final List<? extends TypeMirror> typeArguments(final TypeMirror t) {
     if (Objects.requireNonNull(t, "t") instanceof DeclaredType dt) {
-      CompletionLock.acquire();
-      try {
-        switch (dt.getKind()) {
-        case DECLARED:
-          return dt.getTypeArguments();
-        default:
-          break;
-        }
-      } finally {
-        CompletionLock.release();
-      }
+      return CompletionLock.guard(dt, () -> switch (dt.getKind()) {
+        case DECLARED -> dt.getTypeArguments();
+        default       -> List.<TypeMirror>of();
+        });
     }
     return List.of();
   }
@@ -1659,140 +1711,84 @@ public final class Lang {
 
   public static final ExecutableElement executableElement(final Constructor<?> c) {
     return
-      executableElement(typeElement(c.getDeclaringClass()), typeArray(c.getParameterTypes())); // deliberate erasure
+      ReflectionCache.of(c.getDeclaringClass())
+      .element(c, k -> executableElement(typeElement(k.getDeclaringClass()),
+                                         MemberIndex.key("<init>", MemberIndex.constructorParameterTypes(k))));
   }
 
   public static final ExecutableElement executableElement(final Method m) {
     return
-      executableElement(typeElement(m.getDeclaringClass()), m.getName(), typeArray(m.getParameterTypes())); // deliberate erasure
+      ReflectionCache.of(m.getDeclaringClass())
+      .element(m, k -> executableElement(typeElement(k.getDeclaringClass()),
+                                         MemberIndex.key(k.getName(), k.getParameterTypes()))); // deliberate erasure
   }
 
   // (Constructor.)
-  public static final ExecutableElement executableElement(TypeElement declaringClass,
+  public static final ExecutableElement executableElement(final TypeElement declaringClass,
                                                           final List<? extends TypeMirror> parameterTypes) {
-    declaringClass = unwrap(declaringClass); // needed because types.erasure() is used on its children
-    final Types types = pe().getTypeUtils();
-    ExecutableElement rv = null;
-    final int parameterTypesSize = parameterTypes == null ? 0 : parameterTypes.size();
-    CompletionLock.acquire();
-    try {
-      CONSTRUCTOR_LOOP:
-      for (final ExecutableElement c : (Iterable<? extends ExecutableElement>)constructorsIn(declaringClass.getEnclosedElements())) {
-        final List<? extends VariableElement> parameterElements = c.getParameters();
-        if (parameterTypesSize == parameterElements.size()) {
-          for (int i = 0; i < parameterTypesSize; i++) {
-            if (!types.isSameType(types.erasure(unwrap(parameterTypes.get(i))),
-                                  types.erasure(parameterElements.get(i).asType()))) {
-              continue CONSTRUCTOR_LOOP;
-            }
-          }
-          rv = c;
-          break;
-        }
-      }
-    } finally {
-      CompletionLock.release();
-    }
-    return rv == null ? null : wrap(rv);
+    return executableElement(declaringClass, "<init>", parameterTypes);
   }
 
   // (Constructor.)
-  public static final ExecutableElement executableElement(TypeElement declaringClass,
+  public static final ExecutableElement executableElement(final TypeElement declaringClass,
                                                           final TypeMirror... parameterTypes) {
-    declaringClass = unwrap(declaringClass);
-    final Types types = pe().getTypeUtils();
-    ExecutableElement rv = null;
-    final int parameterTypesSize = parameterTypes == null ? 0 : parameterTypes.length;
-    CompletionLock.acquire();
-    try {
-      CONSTRUCTOR_LOOP:
-      for (final ExecutableElement c : (Iterable<? extends ExecutableElement>)constructorsIn(declaringClass.getEnclosedElements())) {
-        final List<? extends VariableElement> parameterElements = c.getParameters();
-        if (parameterTypesSize == parameterElements.size()) {
-          for (int i = 0; i < parameterTypesSize; i++) {
-            if (!types.isSameType(types.erasure(unwrap(parameterTypes[i])),
-                                  types.erasure(parameterElements.get(i).asType()))) {
-              continue CONSTRUCTOR_LOOP;
-            }
-          }
-          rv = c;
-          break;
-        }
-      }
-    } finally {
-      CompletionLock.release();
-    }
-    return rv == null ? null : wrap(rv);
+    return executableElement(declaringClass, "<init>", parameterTypes);
   }
 
   // (Method.)
-  public static final ExecutableElement executableElement(TypeElement declaringClass,
+  public static final ExecutableElement executableElement(final TypeElement declaringClass,
                                                           final CharSequence name,
                                                           final List<? extends TypeMirror> parameterTypes) {
-    if ("<init>".equals(name)) {
-      return executableElement(declaringClass, parameterTypes);
-    }
-    declaringClass = unwrap(declaringClass);
-    final Types types = pe().getTypeUtils();
-    ExecutableElement rv = null;
-    final int parameterTypesSize = parameterTypes == null ? 0 : parameterTypes.size();
-    CompletionLock.acquire();
-    try {
-      METHOD_LOOP:
-      for (final ExecutableElement m : (Iterable<? extends ExecutableElement>)methodsIn(declaringClass.getEnclosedElements())) {
-        if (m.getSimpleName().contentEquals(name)) {
-          final List<? extends VariableElement> parameterElements = m.getParameters();
-          if (parameterTypesSize == parameterElements.size()) {
-            for (int i = 0; i < parameterTypesSize; i++) {
-              if (!types.isSameType(types.erasure(unwrap(parameterTypes.get(i))),
-                                    types.erasure(parameterElements.get(i).asType()))) {
-                continue METHOD_LOOP;
-              }
-            }
-            rv = m;
-            break;
-          }
-        }
-      }
-    } finally {
-      CompletionLock.release();
-    }
-    return rv == null ? null : wrap(rv);
+    return executableElement(declaringClass, memberKey(name, parameterTypes == null ? List.of() : parameterTypes));
   }
 
   // (Method.)
-  public static final ExecutableElement executableElement(TypeElement declaringClass,
+  public static final ExecutableElement executableElement(final TypeElement declaringClass,
                                                           final CharSequence name,
                                                           final TypeMirror... parameterTypes) {
-    if ("<init>".equals(name)) {
-      return executableElement(declaringClass, parameterTypes);
-    }
-    declaringClass = unwrap(declaringClass);
-    final Types types = pe().getTypeUtils();
-    ExecutableElement rv = null;
-    final int parameterTypesSize = parameterTypes == null ? 0 : parameterTypes.length;
-    CompletionLock.acquire();
+    return executableElement(declaringClass, memberKey(name, parameterTypes == null ? List.of() : Arrays.asList(parameterTypes)));
+  }
+
+  private static final ExecutableElement executableElement(final TypeElement declaringClass, final String key) {
+    final Element e = memberIndex(declaringClass).get(key);
+    return e == null ? null : wrap((ExecutableElement)e);
+  }
+
+  // Returns the MemberIndex key for an executable with the supplied simple name and parameter types, or null if one of
+  // them has no descriptor and so cannot match anything.
+  private static final String memberKey(final CharSequence name, final List<? extends TypeMirror> parameterTypes) {
+    final StringBuilder sb = signatureBuffer();
+    final int start = sb.length();
     try {
-      METHOD_LOOP:
-      for (final ExecutableElement m : (Iterable<? extends ExecutableElement>)methodsIn(declaringClass.getEnclosedElements())) {
-        if (m.getSimpleName().contentEquals(name)) {
-          final List<? extends VariableElement> parameterElements = m.getParameters();
-          if (parameterTypesSize == parameterElements.size()) {
-            for (int i = 0; i < parameterTypesSize; i++) {
-              if (!types.isSameType(types.erasure(unwrap(parameterTypes[i])),
-                                    types.erasure(parameterElements.get(i).asType()))) {
-                continue METHOD_LOOP;
-              }
-            }
-            rv = m;
-            break;
-          }
-        }
+      sb.append(name).append('(');
+      for (final TypeMirror t : parameterTypes) {
+        descriptor(unwrap(t), sb); // deliberate erasure
       }
+      return sb.append(')').substring(start);
+    } catch (final IllegalArgumentException e) {
+      return null;
     } finally {
-      CompletionLock.release();
+      sb.setLength(start);
     }
-    return rv == null ? null : wrap(rv);
+  }
+
+  // Returns the (lazily built) MemberIndex for the supplied TypeElement. Lookups in the returned index acquire no locks.
+  // An unfrozen TypeElement may still gain members, so its index is rebuilt every time.
+  private static final MemberIndex memberIndex(final TypeElement declaringClass) {
+    final TypeElement key = unwrap(declaringClass);
+    if (!memoizable(key)) {
+      return new MemberIndex(key);
+    }
+    final SoftReference<MemberIndex> ref = memberIndexes.get(key);
+    final MemberIndex mi = ref == null ? null : ref.get();
+    if (mi != null) {
+      return mi;
+    }
+    // Built outside of the map's internal locks, since building acquires the CompletionLock. Two threads may race to
+    // build the same index; either result is correct, and the last one published wins.
+    final MemberIndex newMi = new MemberIndex(key);
+    memberIndexes.put(key, new SoftReference<>(newMi));
+    return newMi;
   }
 
   public static final ExecutableType executableType(final Executable e) {
@@ -1809,10 +1805,10 @@ public final class Lang {
   }
 
   public static final PrimitiveType primitiveType(final Class<?> c) {
-    if (!c.isPrimitive()) {
+    if (!c.isPrimitive() || c == void.class) {
       throw new IllegalArgumentException("c: " + c);
     }
-    return primitiveType(TypeKind.valueOf(c.getName().toUpperCase()));
+    return (PrimitiveType)classType(c);
   }
 
   // Called by describeConstable().
@@ -1841,25 +1837,54 @@ public final class Lang {
     if (c.isArray() || c.isPrimitive() || c.isLocalClass() || c.isAnonymousClass()) {
       throw new IllegalArgumentException("c: " + c);
     }
-    return typeElement(c.getCanonicalName());
+    return ReflectionCache.of(c).typeElement(c, k -> typeElement(k.getCanonicalName()));
     // final ModuleElement me = moduleElement(c.getModule());
     // return me == null ? typeElement(c.getCanonicalName()) : typeElement(me, c.getCanonicalName());
   }
 
-  public static final TypeElement typeElement(final CharSequence canonicalName) {
-    Objects.requireNonNull(canonicalName, "canonicalName");
+  public static final TypeElement typeElement(final CharSequence canonicalName) {
+    Objects.requireNonNull(canonicalName, "canonicalName");
+    return typeElementCache.computeIfAbsent(null, canonicalName, Lang::uncachedTypeElement);
+  }
+
+  /**
+   * Returns the {@link TypeElementCache} used by the {@link #typeElement(CharSequence)} and {@link
+   * #typeElement(ModuleElement, CharSequence)} methods.
+   *
+   * <p>The cache is unbounded by default. Setting the {@code org.microbean.lang.TypeElementCache.maximumSize} system
+   * property to a positive integer bounds it, and setting the {@code org.microbean.lang.TypeElementCache.eviction}
+   * system property to {@code LFU} changes its eviction policy from {@code LRU}.</p>
+   *
+   * @return the {@link TypeElementCache} in use; never {@code null}
+   */
+  public static final TypeElementCache typeElementCache() {
+    return typeElementCache;
+  }
+
+  // Called by typeElementCache on a cache miss. moduleElement, if non-null, is already unwrapped.
+  private static final TypeElement uncachedTypeElement(final ModuleElement moduleElement, final CharSequence canonicalName) {
     final Elements elements = pe().getElementUtils();
     final TypeElement rv;
     CompletionLock.acquire();
     try {
-      rv = elements.getTypeElement(canonicalName);
-      if (rv == null) {
-        if (LOGGER.isLoggable(DEBUG)) {
-          LOGGER.log(DEBUG, "null TypeElement for canonicalName " + canonicalName);
+      if (moduleElement == null) {
+        rv = elements.getTypeElement(canonicalName);
+        if (rv == null) {
+          if (LOGGER.isLoggable(DEBUG)) {
+            LOGGER.log(DEBUG, "null TypeElement for canonicalName " + canonicalName);
+          }
+          return null;
+        } else if (!rv.getKind().isDeclaredType() && LOGGER.isLoggable(WARNING)) {
+          LOGGER.log(WARNING, "rv.getKind(): " + rv.getKind() + "; rv: " + rv);
+        }
+      } else {
+        rv = elements.getTypeElement(moduleElement, canonicalName);
+        if (rv == null) {
+          if (LOGGER.isLoggable(DEBUG)) {
+            LOGGER.log(DEBUG, "null TypeElement for ModuleElement " + moduleElement + " and canonicalName " + canonicalName);
+          }
+          return null;
         }
-        return null;
-      } else if (!rv.getKind().isDeclaredType() && LOGGER.isLoggable(WARNING)) {
-        LOGGER.log(WARNING, "rv.getKind(): " + rv.getKind() + "; rv: " + rv);
       }
     } finally {
       CompletionLock.release();
@@ -1901,22 +1926,7 @@ public final class Lang {
       throw new NullPointerException(message);
     }
     Objects.requireNonNull(canonicalName, "canonicalName");
-    moduleElement = unwrap(moduleElement);
-    final Elements elements = pe().getElementUtils();
-    final TypeElement rv;
-    CompletionLock.acquire();
-    try {
-      rv = elements.getTypeElement(moduleElement, canonicalName);
-      if (rv == null) {
-        if (LOGGER.isLoggable(DEBUG)) {
-          LOGGER.log(DEBUG, "null TypeElement for ModuleElement " + moduleElement + " and canonicalName " + canonicalName);
-        }
-        return null;
-      }
-    } finally {
-      CompletionLock.release();
-    }
-    return wrap(rv);
+    return typeElementCache.computeIfAbsent(unwrap(moduleElement), canonicalName, Lang::uncachedTypeElement);
   }
 
   public static final Parameterizable parameterizable(final GenericDeclaration gd) {
@@ -1958,23 +1968,13 @@ public final class Lang {
   }
 
   public static final VariableElement variableElement(final Field f) {
-    return variableElement(typeElement(f.getDeclaringClass()), f.getName());
+    return ReflectionCache.of(f.getDeclaringClass()).element(f, k -> variableElement(typeElement(k.getDeclaringClass()), k.getName()));
   }
 
   // (Field.)
   public static final VariableElement variableElement(final TypeElement declaringClass, final CharSequence fieldName) {
-    Objects.requireNonNull(fieldName, "fieldName");
-    CompletionLock.acquire();
-    try {
-      for (final Element e : declaringClass.getEnclosedElements()) {
-        if (e.getKind() == ElementKind.FIELD && e.getSimpleName().contentEquals(fieldName)) {
-          return wrap((VariableElement)e);
-        }
-      }
-    } finally {
-      CompletionLock.release();
-    }
-    return null;
+    final Element e = memberIndex(declaringClass).get(fieldName.toString());
+    return e == null ? null : wrap((VariableElement)e);
   }
 
   // (Parameter.)
@@ -2075,12 +2075,159 @@ public final class Lang {
     }
   }
 
+  /**
+   * Tests every supplied payload against every supplied receiver for {@linkplain #assignable(TypeMirror, TypeMirror)
+   * assignability} under a single acquisition of the {@link CompletionLock}.
+   *
+   * <p>Bit {@code i * receivers.size() + j} of the returned {@link BitSet} is set if and only if a bearer of {@code
+   * payloads.get(i)} is assignable to a bearer of {@code receivers.get(j)}.</p>
+   *
+   * @param payloads types borne by the "right hand side" of potential assignments; must not be {@code null} or contain
+   * {@code null}
+   *
+   * @param receivers types borne by the "left hand side" of potential assignments; must not be {@code null} or contain
+   * {@code null}
+   *
+   * @return a new {@link BitSet}; never {@code null}
+   *
+   * @exception NullPointerException if any argument is {@code null} or contains {@code null}
+   *
+   * @see #assignable(TypeMirror, TypeMirror)
+   */
+  public static final BitSet assignables(final List<? extends TypeMirror> payloads, final List<? extends TypeMirror> receivers) {
+    final TypeMirror[] ps = unwrapAll(payloads);
+    final TypeMirror[] rs = unwrapAll(receivers);
+    final BitSet rv = new BitSet(ps.length * rs.length);
+    final Types types = pe().getTypeUtils();
+    CompletionLock.acquire();
+    try {
+      for (int i = 0; i < ps.length; i++) {
+        for (int j = 0; j < rs.length; j++) {
+          if (types.isAssignable(ps[i], rs[j])) {
+            rv.set(i * rs.length + j);
+          }
+        }
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    return rv;
+  }
+
+  /**
+   * Tests every supplied payload against every supplied receiver for {@linkplain #subtype(TypeMirror, TypeMirror)
+   * subtyping} under a single acquisition of the {@link CompletionLock}.
+   *
+   * <p>Bit {@code i * receivers.size() + j} of the returned {@link BitSet} is set if and only if {@code payloads.get(i)}
+   * is a subtype of {@code receivers.get(j)}.</p>
+   *
+   * @param payloads the candidate subtypes; must not be {@code null} or contain {@code null}
+   *
+   * @param receivers the candidate supertypes; must not be {@code null} or contain {@code null}
+   *
+   * @return a new {@link BitSet}; never {@code null}
+   *
+   * @exception NullPointerException if any argument is {@code null} or contains {@code null}
+   *
+   * @see #subtype(TypeMirror, TypeMirror)
+   */
+  public static final BitSet subtypes(final List<? extends TypeMirror> payloads, final List<? extends TypeMirror> receivers) {
+    final TypeMirror[] ps = unwrapAll(payloads);
+    final TypeMirror[] rs = unwrapAll(receivers);
+    final BitSet rv = new BitSet(ps.length * rs.length);
+    final Types types = pe().getTypeUtils();
+    CompletionLock.acquire();
+    try {
+      for (int i = 0; i < ps.length; i++) {
+        for (int j = 0; j < rs.length; j++) {
+          if (ps[i] == rs[j] || types.isSubtype(ps[i], rs[j])) {
+            rv.set(i * rs.length + j);
+          }
+        }
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    return rv;
+  }
+
+  /**
+   * Returns the {@linkplain #erasure(TypeMirror) erasures} of the supplied types, computed under a single acquisition
+   * of the {@link CompletionLock}.
+   *
+   * @param ts the types to erase; must not be {@code null} or contain {@code null}
+   *
+   * @return an unmodifiable {@link List} whose {@code i}th element is the erasure of {@code ts.get(i)}; never {@code
+   * null}
+   *
+   * @exception NullPointerException if {@code ts} is {@code null} or contains {@code null}
+   *
+   * @see #erasure(TypeMirror)
+   */
+  public static final List<TypeMirror> erasures(final List<? extends TypeMirror> ts) {
+    final TypeMirror[] rv = unwrapAll(ts);
+    final Types types = pe().getTypeUtils();
+    CompletionLock.acquire();
+    try {
+      for (int i = 0; i < rv.length; i++) {
+        rv[i] = types.erasure(rv[i]);
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    for (int i = 0; i < rv.length; i++) {
+      rv[i] = wrap(rv[i]);
+    }
+    return Collections.unmodifiableList(Arrays.asList(rv));
+  }
+
+  /**
+   * Returns the {@link TypeElement}s {@linkplain #typeElement(CharSequence) bearing} the supplied canonical names,
+   * resolving any that are not already cached under a single acquisition of the {@link CompletionLock}.
+   *
+   * @param canonicalNames the canonical names; must not be {@code null} or contain {@code null}
+   *
+   * @return an unmodifiable {@link List} whose {@code i}th element is the {@link TypeElement} bearing {@code
+   * canonicalNames.get(i)}, or {@code null} if there is no such {@link TypeElement}; never {@code null}
+   *
+   * @exception NullPointerException if {@code canonicalNames} is {@code null} or contains {@code null}
+   *
+   * @see #typeElement(CharSequence)
+   */
+  public static final List<TypeElement> typeElements(final List<? extends CharSequence> canonicalNames) {
+    final TypeElement[] rv = new TypeElement[canonicalNames.size()];
+    // Cache hits need no lock, so only acquire it if there is a miss.
+    boolean locked = false;
+    try {
+      for (int i = 0; i < rv.length; i++) {
+        final CharSequence canonicalName = Objects.requireNonNull(canonicalNames.get(i), "canonicalName");
+        if (!locked && !typeElementCache.contains(null, canonicalName)) {
+          CompletionLock.acquire();
+          locked = true;
+        }
+        rv[i] = typeElement(canonicalName);
+      }
+    } finally {
+      if (locked) {
+        CompletionLock.release();
+      }
+    }
+    return Collections.unmodifiableList(Arrays.asList(rv));
+  }
+
+  private static final TypeMirror[] unwrapAll(final List<? extends TypeMirror> ts) {
+    final TypeMirror[] rv = new TypeMirror[ts.size()];
+    for (int i = 0; i < rv.length; i++) {
+      rv[i] = unwrap(Objects.requireNonNull(ts.get(i), "ts.get(" + i + ")"));
+    }
+    return rv;
+  }
+
   public static final TypeMirror type(final Type t) {
     return switch (t) {
     case null                                 -> throw new NullPointerException();
-    case Class<?> c when c == void.class      -> noType(TypeKind.VOID);
-    case Class<?> c when c.isArray()          -> arrayType(c);
-    case Class<?> c when c.isPrimitive()      -> primitiveType(c);
+    case Class<?> c when c.isArray() || c.isPrimitive()
+                                              -> classType(c); // includes void.class
     case Class<?> c                           -> declaredType(c);
     case ParameterizedType p                  -> declaredType(p);
     case GenericArrayType g                   -> arrayType(g);
@@ -2090,10 +2237,88 @@ public final class Lang {
     };
   }
 
+  // Returns the (cached) DeclaredType, ArrayType, PrimitiveType or NoType represented by the supplied Class, which
+  // callers have already validated.
+  private static final TypeMirror classType(final Class<?> c) {
+    return ReflectionCache.of(c).type(c, Lang::uncachedClassType);
+  }
+
+  private static final TypeMirror uncachedClassType(final Class<?> c) {
+    if (c == void.class) {
+      return noType(TypeKind.VOID);
+    } else if (c.isArray()) {
+      return arrayTypeOf(type(c.getComponentType()));
+    } else if (c.isPrimitive()) {
+      return primitiveType(TypeKind.valueOf(c.getName().toUpperCase()));
+    }
+    final Class<?> ec = c.getEnclosingClass();
+    return declaredType(ec == null ? null : declaredType(ec), typeElement(c));
+  }
+
   public static final TypeMirror type(final Field f) {
     return variableElement(f).asType();
   }
 
+  // Adds javac options selecting a name table suitable for concurrent use to the supplied options list. Called by
+  // BlockingCompilationTask#run() and JavacTypeAndElementSource.
+  static final void addNameTableOptions(final List<? super String> options) {
+    // See
+    // https://github.com/openjdk/jdk/blob/jdk-21%2B35/src/jdk.compiler/share/classes/com/sun/tools/javac/util/Names.java#L430-L436
+    // in JDK 21; JDK 22+ changes things dramatically.
+    //
+    // This turns out to be rather important. The default name table in javac (21 and earlier) is shared and
+    // unsynchronized such that, given a Name, calling its toString() method may involve reading a shared byte array
+    // that is being updated in another thread. By contrast, the unshared name table creates Names whose contents
+    // are not shared, so toString() invocations on them are not problematic.
+    //
+    // In JDK 22+, there is a String-based name table that is used by default; see
+    // https://github.com/openjdk/jdk/pull/15470. However note that this is also not thread-safe:
+    // https://github.com/openjdk/jdk/blob/jdk-22%2B36/src/jdk.compiler/share/classes/com/sun/tools/javac/util/StringNameTable.java#L65
+    // The non-thread-safety may be a non-issue, however, as the map's computations are used only for canonical
+    // mappings, so unless the internals of HashMap are broken repeated computation is just inconvenient, not a deal-breaker.
+    //
+    // TODO: It *seems* that the thread safety issues we sometimes see are due to the shared name table's Name
+    // implementation's toString() method, which can read a portion of the shared byte[] array in which all name
+    // content is stored at the same time that the same byte array is being updated. It does not appear to me that
+    // any of the other Name.Table implementations suffer from this, so the string table may be good enough. That
+    // is, except for the shared name table situation, any time you have a Name in your hand you should be able to
+    // call toString() on it without any problems.
+    if (Runtime.version().feature() >= 22) {
+      if (Boolean.getBoolean("useUnsharedTable")) {
+        if (LOGGER.isLoggable(DEBUG)) {
+          LOGGER.log(DEBUG, "Using unshared name table");
+        }
+        options.add("-XDuseUnsharedTable");
+      } else if (Boolean.getBoolean("useSharedTable")) {
+        // Yikes
+        if (LOGGER.isLoggable(WARNING)) {
+          LOGGER.log(WARNING, "Using shared name table");
+        }
+        options.add("-XDuseSharedTable");
+      } else {
+        if (LOGGER.isLoggable(DEBUG)) {
+          LOGGER.log(DEBUG, "Using string name table (default)");
+        }
+        if (Boolean.parseBoolean(System.getProperty("internStringTable", "true"))) {
+          if (LOGGER.isLoggable(DEBUG)) {
+            LOGGER.log(DEBUG, "Interning string name table strings");
+          }
+          options.add("-XDinternStringTable");
+        }
+      }
+    } else if (Boolean.getBoolean("useSharedTable")) {
+      // Strictly speaking not an option in JDK 21-, but we want to default to the unshared table because otherwise it's dangerous
+      if (LOGGER.isLoggable(WARNING)) {
+        LOGGER.log(WARNING, "Using shared name table");
+      }
+    } else {
+      if (LOGGER.isLoggable(DEBUG)) {
+        LOGGER.log(DEBUG, "Using unshared name table");
+      }
+      options.add("-XDuseUnsharedTable");
+    }
+  }
+
   static final ProcessingEnvironment pe() {
     ProcessingEnvironment pe = Lang.pe; // volatile read
     if (pe == null) {
@@ -2129,6 +2354,8 @@ public final class Lang {
    *
    * <p>This method is automatically called by the internals of this class when appropriate, but is {@code public} to
    * support eager initialization use cases.</p>
+   *
+   * @see #initializeAsync(Collection)
    */
   // Idempotent.
   public static final void initialize() {
@@ -2150,6 +2377,72 @@ public final class Lang {
       .start(new BlockingCompilationTask(initLatch));
   }
 
+  /**
+   * Asynchronously and idempotently initializes the {@link Lang} class for use, and returns a {@link CompletableFuture}
+   * that completes with the {@linkplain #typeAndElementSource() <code>TypeAndElementSource</code>} once it is ready.
+   *
+   * <p>Unlike every other method in this class that requires initialization, this method does not block.</p>
+   *
+   * @return a {@link CompletableFuture}; never {@code null}; completed exceptionally if initialization fails
+   *
+   * @see #initializeAsync(Collection)
+   */
+  public static final CompletableFuture<TypeAndElementSource> initializeAsync() {
+    return initializeAsync(List.of());
+  }
+
+  /**
+   * Asynchronously and idempotently initializes the {@link Lang} class for use, then, in the background, resolves and
+   * completes each {@link TypeElement} bearing one of the supplied canonical names, and returns a {@link
+   * CompletableFuture} that completes with the {@linkplain #typeAndElementSource() <code>TypeAndElementSource</code>}
+   * once all of that is done.
+   *
+   * <p>This method does not block. An application may therefore call it early in startup, perform other work while
+   * {@code javac} bootstraps, and block on the returned {@link CompletableFuture} only when its first model query is
+   * truly needed. Canonical names that cannot be resolved are skipped. If resolving or completing the warm-up types
+   * fails, the failure is logged and the returned {@link CompletableFuture} completes normally nonetheless, since
+   * initialization itself succeeded.</p>
+   *
+   * <p>The returned {@link CompletableFuture} is completed on a virtual thread, never on the thread that bootstraps
+   * {@code javac}, so its dependent actions cannot hold up initialization.</p>
+   *
+   * <p>Completing or cancelling the returned {@link CompletableFuture} has no effect on the initialization of this
+   * class.</p>
+   *
+   * @param warmUp canonical names of types to resolve and complete once initialization has finished; must not be
+   * {@code null} or contain {@code null}
+   *
+   * @return a {@link CompletableFuture}; never {@code null}; completed exceptionally if initialization fails
+   *
+   * @exception NullPointerException if {@code warmUp} is {@code null} or contains {@code null}
+   *
+   * @see #initialize()
+   *
+   * @see #typeElements(List)
+   */
+  public static final CompletableFuture<TypeAndElementSource> initializeAsync(final Collection<? extends CharSequence> warmUp) {
+    final List<CharSequence> names = List.copyOf(warmUp);
+    initialize();
+    if (names.isEmpty()) {
+      return ready.thenApplyAsync(pe -> typeAndElementSource(), readyExecutor);
+    }
+    return ready.thenApplyAsync(pe -> {
+        try {
+          for (final TypeElement e : typeElements(names)) {
+            if (e != null) {
+              CompletionLock.guard(e, e::getKind); // completes e
+            }
+          }
+        } catch (final RuntimeException e) {
+          // Initialization succeeded; a warm-up failure only means some types will be completed on demand instead.
+          if (LOGGER.isLoggable(WARNING)) {
+            LOGGER.log(WARNING, "Warm-up failed", e);
+          }
+        }
+        return typeAndElementSource();
+      }, readyExecutor);
+  }
+
   @SuppressWarnings("unchecked")
   public static final <T extends TypeMirror> T unwrap(final T t) {
     return (T)DelegatingTypeMirror.unwrap(Objects.requireNonNull(t, "t"));
@@ -2234,6 +2527,12 @@ public final class Lang {
       return Lang.assignable(payload, receiver);
     }
 
+    // Note the counterintuitive parameter order.
+    @Override
+    public final BitSet assignables(final List<? extends TypeMirror> payloads, final List<? extends TypeMirror> receivers) {
+      return Lang.assignables(payloads, receivers);
+    }
+
     @Override
     public final TypeElement boxedClass(final PrimitiveType t) {
       return Lang.boxedClass(t);
@@ -2244,6 +2543,15 @@ public final class Lang {
       return Lang.contains(t, s);
     }
 
+    @Override
+    public final DeclaredType declaredType(final Type t) {
+      return switch (t) {
+      case Class<?> c          -> Lang.declaredType(c);
+      case ParameterizedType p -> Lang.declaredType(p);
+      case null, default       -> TypeAndElementSource.super.declaredType(t);
+      };
+    }
+
     @Override
     public final DeclaredType declaredType(final TypeElement typeElement, final TypeMirror... typeArguments) {
       return Lang.declaredType(typeElement, typeArguments);
@@ -2272,6 +2580,11 @@ public final class Lang {
       return (T)Lang.erasure(t);
     }
 
+    @Override
+    public final List<TypeMirror> erasures(final List<? extends TypeMirror> ts) {
+      return Lang.erasures(ts);
+    }
+
     @Override
     public final ModuleElement moduleElement(final CharSequence canonicalName) {
       return Lang.moduleElement(canonicalName);
@@ -2287,6 +2600,11 @@ public final class Lang {
       return Lang.nullType();
     }
 
+    @Override
+    public final PrimitiveType primitiveType(final Class<?> c) {
+      return Lang.primitiveType(c);
+    }
+
     @Override
     public final PrimitiveType primitiveType(final TypeKind k) {
       return Lang.primitiveType(k);
@@ -2302,11 +2620,35 @@ public final class Lang {
       return t == s || Lang.subtype(t, s);
     }
 
+    @Override
+    public final BitSet subtypes(final List<? extends TypeMirror> ts, final List<? extends TypeMirror> ss) {
+      return Lang.subtypes(ts, ss);
+    }
+
+    @Override
+    public final TypeMirror type(final Type t) {
+      return Lang.type(t);
+    }
+
     @Override
     public final TypeElement typeElement(final CharSequence canonicalName) {
       return Lang.typeElement(canonicalName);
     }
 
+    @Override
+    public final TypeElement typeElement(final Type t) {
+      return switch (t) {
+      case Class<?> c          -> Lang.typeElement(c);
+      case ParameterizedType p -> this.typeElement(p.getRawType());
+      case null, default       -> TypeAndElementSource.super.typeElement(t);
+      };
+    }
+
+    @Override
+    public final List<TypeElement> typeElements(final List<? extends CharSequence> canonicalNames) {
+      return Lang.typeElements(canonicalNames);
+    }
+
     @Override
     public final TypeElement typeElement(final ModuleElement m, final CharSequence canonicalName) {
       return Lang.typeElement(m, canonicalName);
@@ -2388,6 +2730,7 @@ public final class Lang {
           }
           runningLatch.countDown();
           initLatch.countDown();
+          ready.completeExceptionally(new IllegalStateException("No system Java compiler available"));
           return;
         }
 
@@ -2396,67 +2739,15 @@ public final class Lang {
         options.add("-cp");
         options.add(System.getProperty("java.class.path"));
 
-        // See
-        // https://github.com/openjdk/jdk/blob/jdk-21%2B35/src/jdk.compiler/share/classes/com/sun/tools/javac/util/Names.java#L430-L436
-        // in JDK 21; JDK 22+ changes things dramatically.
-        //
-        // This turns out to be rather important. The default name table in javac (21 and earlier) is shared and
-        // unsynchronized such that, given a Name, calling its toString() method may involve reading a shared byte array
-        // that is being updated in another thread. By contrast, the unshared name table creates Names whose contents
-        // are not shared, so toString() invocations on them are not problematic.
-        //
-        // In JDK 22+, there is a String-based name table that is used by default; see
-        // https://github.com/openjdk/jdk/pull/15470. However note that this is also not thread-safe:
-        // https://github.com/openjdk/jdk/blob/jdk-22%2B36/src/jdk.compiler/share/classes/com/sun/tools/javac/util/StringNameTable.java#L65
-        // The non-thread-safety may be a non-issue, however, as the map's computations are used only for canonical
-        // mappings, so unless the internals of HashMap are broken repeated computation is just inconvenient, not a deal-breaker.
-        //
-        // TODO: It *seems* that the thread safety issues we sometimes see are due to the shared name table's Name
-        // implementation's toString() method, which can read a portion of the shared byte[] array in which all name
-        // content is stored at the same time that the same byte array is being updated. It does not appear to me that
-        // any of the other Name.Table implementations suffer from this, so the string table may be good enough. That
-        // is, except for the shared name table situation, any time you have a Name in your hand you should be able to
-        // call toString() on it without any problems.
-        if (Runtime.version().feature() >= 22) {
-          if (Boolean.getBoolean("useUnsharedTable")) {
-            if (LOGGER.isLoggable(DEBUG)) {
-              LOGGER.log(DEBUG, "Using unshared name table");
-            }
-            options.add("-XDuseUnsharedTable");
-          } else if (Boolean.getBoolean("useSharedTable")) {
-            // Yikes
-            if (LOGGER.isLoggable(WARNING)) {
-              LOGGER.log(WARNING, "Using shared name table");
-            }
-            options.add("-XDuseSharedTable");
-          } else {
-            if (LOGGER.isLoggable(DEBUG)) {
-              LOGGER.log(DEBUG, "Using string name table (default)");
-            }
-            if (Boolean.parseBoolean(System.getProperty("internStringTable", "true"))) {
-              if (LOGGER.isLoggable(DEBUG)) {
-                LOGGER.log(DEBUG, "Interning string name table strings");
-              }
-              options.add("-XDinternStringTable");
-            }
-          }
-        } else if (Boolean.getBoolean("useSharedTable")) {
-          // Strictly speaking not an option in JDK 21-, but we want to default to the unshared table because otherwise it's dangerous
-          if (LOGGER.isLoggable(WARNING)) {
-            LOGGER.log(WARNING, "Using shared name table");
-          }
-        } else {
-          if (LOGGER.isLoggable(DEBUG)) {
-            LOGGER.log(DEBUG, "Using unshared name table");
-          }
-          options.add("-XDuseUnsharedTable");
-        }
+        addNameTableOptions(options);
 
         final Set<String> additionalRootModuleNames = new HashSet<>();
         final Collection<ModuleLocation> moduleLocations = new ArrayList<>();
         final ModuleFinder smf = ModuleFinder.ofSystem();
         final Module unnamedModule = this.getClass().getClassLoader().getUnnamedModule();
-        try (final Stream<Module> s = this.getClass().getModule().getLayer().modules().stream().sequential()) {
+        // An unnamed module (e.g. when running on the class path) has no layer; use the boot layer instead.
+        final ModuleLayer moduleLayer = this.getClass().getModule().getLayer();
+        try (final Stream<Module> s = (moduleLayer == null ? ModuleLayer.boot() : moduleLayer).modules().stream().sequential()) {
           s
             // Figure out which runtime modules are named and not system modules. That set will be added, eventually, to
             // the task via its addModules(Set) method (see below).
@@ -2484,9 +2775,15 @@ public final class Lang {
         // (Any "loading" is actually performed by, e.g. com.sun.tools.javac.jvm.ClassReader.fillIn(), not reflective
         // machinery. Once a class has been so loaded, com.sun.tools.javac.code.Symtab#getClass(ModuleSymbol, Name) will
         // retrieve it from a HashMap.)
+        final ReadOnlyModularJavaFileManager fm = new ReadOnlyModularJavaFileManager(sjfm, moduleLocations);
+        if (Boolean.parseBoolean(System.getProperty(Lang.class.getName() + ".preindex", "true"))) {
+          // Index non-system modules' and class path jar files' packages in parallel while javac gets going, rather than
+          // serially on demand.
+          fm.preindex();
+        }
         final CompilationTask task =
           jc.getTask(new LogWriter(),
-                     new ReadOnlyModularJavaFileManager(sjfm, moduleLocations),
+                     fm,
                      diagnosticLogger,
                      options,
                      List.of("java.lang.annotation.RetentionPolicy"), // arbitrary, but loads the least amount of stuff up front
@@ -2508,6 +2805,7 @@ public final class Lang {
           }
           runningLatch.countDown();
           initLatch.countDown();
+          ready.completeExceptionally(new IllegalStateException("Calling CompilationTask failed"));
         } else {
           state = INITIALIZED; // volatile write
         }
@@ -2516,6 +2814,7 @@ public final class Lang {
         state = INITIALIZATION_ERROR; // volatile write
         runningLatch.countDown();
         initLatch.countDown();
+        ready.completeExceptionally(e);
         throw e;
       } finally {
         Lang.pe = null; // volatile write
@@ -2568,6 +2867,7 @@ public final class Lang {
         Lang.pe = pe; // volatile write
         state = INITIALIZED; // volatile write
         initLatch.countDown(); // all done initializing
+        ready.complete(pe);
         if (LOGGER.isLoggable(DEBUG)) {
           LOGGER.log(DEBUG, "The " + Lang.class.getName() + " class is ready for use");
         }
@@ -2701,7 +3001,8 @@ public final class Lang {
 
   }
 
-  private static final class ReadOnlyModularJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+  // Package-private for testing only.
+  static final class ReadOnlyModularJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
 
 
     /*
@@ -2713,6 +3014,9 @@ public final class Lang {
 
     private static final Set<JavaFileObject.Kind> ALL_KINDS = EnumSet.allOf(JavaFileObject.Kind.class);
 
+    private static final Path PACKAGE_INDEX_DIRECTORY =
+      Optional.ofNullable(System.getProperty("org.microbean.lang.Lang.packageIndexDirectory")).map(Path::of).orElse(null);
+
 
     /*
      * Instance fields.
@@ -2721,7 +3025,10 @@ public final class Lang {
 
     private final Set<Location> locations;
 
-    private final Map<ModuleReference, Map<String, List<JavaFileRecord>>> maps;
+    // Keys are ModuleReferences (for module locations) and Paths (for class path jar files).
+    private final Map<Object, CompletableFuture<PackageIndex>> indexes;
+
+    private final Map<Listing, List<JavaFileRecord>> listings;
 
 
     /*
@@ -2729,9 +3036,10 @@ public final class Lang {
      */
 
 
-    private ReadOnlyModularJavaFileManager(final StandardJavaFileManager fm, final Collection<? extends ModuleLocation> moduleLocations) {
+    ReadOnlyModularJavaFileManager(final StandardJavaFileManager fm, final Collection<? extends ModuleLocation> moduleLocations) {
       super(fm);
-      this.maps = new ConcurrentHashMap<>();
+      this.indexes = new ConcurrentHashMap<>();
+      this.listings = new ConcurrentHashMap<>();
       this.locations = moduleLocations == null ? Set.of() : Set.copyOf(moduleLocations);
       if (LOGGER.isLoggable(DEBUG)) {
         LOGGER.log(DEBUG, "Module locations: " + this.locations);
@@ -2747,7 +3055,8 @@ public final class Lang {
     @Override
     public final void close() throws IOException {
       super.close();
-      this.maps.clear();
+      this.listings.clear();
+      this.indexes.clear();
     }
 
     @Override
@@ -2799,55 +3108,146 @@ public final class Lang {
       throws IOException {
       if (packageOrientedLocation instanceof ModuleLocation m) {
         final ModuleReference mref = m.moduleReference();
-        if (recurse) {
-          // Don't cache anything; not really worth it
-          try (final ModuleReader reader = mref.open()) {
-            return list(reader, packageName, kinds, true);
-          }
-        }
-        final Map<String, List<JavaFileRecord>> m0 = this.maps.computeIfAbsent(mref, mr -> {
-            try (final ModuleReader reader = mr.open();
-                 final Stream<String> ss = reader.list()) {
-              return
-                Collections.unmodifiableMap(ss.filter(s -> !s.endsWith("/"))
-                                            .collect(HashMap::new,
-                                                     (map, s) -> {
-                                                       // s is, e.g., "foo/Bar.class"
-                                                       final int lastSlashIndex = s.lastIndexOf('/');
-                                                       assert lastSlashIndex != 0;
-                                                       final String p0 = lastSlashIndex > 0 ? s.substring(0, lastSlashIndex).replace('/', '.') : "";
-                                                       // p0 is now "foo"; list will be class files under package foo
-                                                       final List<JavaFileRecord> list = map.computeIfAbsent(p0, p1 -> new ArrayList<>());
-                                                       final JavaFileObject.Kind kind = kind(s);
-                                                       try {
-                                                         list.add(new JavaFileRecord(kind,
-                                                                                     kind == JavaFileObject.Kind.CLASS || kind == JavaFileObject.Kind.SOURCE ?
-                                                                                     s.substring(0, s.length() - kind.extension.length()).replace('/', '.') :
-                                                                                     null,
-                                                                                     reader.find(s).orElseThrow()));
-                                                       } catch (final IOException ioException) {
-                                                         throw new UncheckedIOException(ioException.getMessage(), ioException);
-                                                       }
-                                                     },
-                                                     Map::putAll));
-            } catch (final IOException ioException) {
-              throw new UncheckedIOException(ioException.getMessage(), ioException);
-            }
-          });
-        List<JavaFileRecord> unfilteredPackageContents = m0.get(packageName);
-        if (unfilteredPackageContents == null) {
+        List<JavaFileRecord> unfilteredPackageContents =
+          this.listings.computeIfAbsent(new Listing(mref, packageName, recurse), this::computeListing);
+        if (unfilteredPackageContents.isEmpty()) {
           return List.of();
         }
-        assert !unfilteredPackageContents.isEmpty();
         if (kinds.size() < ALL_KINDS.size()) {
           unfilteredPackageContents = new ArrayList<>(unfilteredPackageContents);
           unfilteredPackageContents.removeIf(f -> !kinds.contains(f.kind()));
         }
         return Collections.unmodifiableList(unfilteredPackageContents);
+      } else if (packageOrientedLocation == StandardLocation.CLASS_PATH) {
+        return this.listClassPath(packageName, kinds, recurse);
       }
       return super.list(packageOrientedLocation, packageName, kinds, recurse);
     }
 
+    // Lists the class path using javac's own file objects, but answers an empty list without asking javac when the
+    // (cached, and possibly persisted) PackageIndex of every class path jar file shows that none of them contains the
+    // package. Directories have no index, since their contents may change, so any directory entry defers to javac.
+    private final Iterable<JavaFileObject> listClassPath(final String packageName,
+                                                         final Set<JavaFileObject.Kind> kinds,
+                                                         final boolean recurse)
+      throws IOException {
+      for (final Path entry : this.classPath()) {
+        if (Files.isDirectory(entry) || Files.isRegularFile(entry) && this.index(entry).contains(packageName, recurse)) {
+          return super.list(StandardLocation.CLASS_PATH, packageName, kinds, recurse);
+        }
+      }
+      return List.of();
+    }
+
+    // Returns the class path entries javac will search, in order.
+    private final List<Path> classPath() {
+      final Iterable<? extends Path> paths = this.fileManager.getLocationAsPaths(StandardLocation.CLASS_PATH);
+      if (paths == null) {
+        return List.of();
+      }
+      final List<Path> list = new ArrayList<>();
+      paths.forEach(list::add);
+      return list;
+    }
+
+    // Called by BlockingCompilationTask#run() before the CompilationTask is called. Builds the PackageIndex of every
+    // module location and every class path jar file while javac initializes, using at most one virtual thread per
+    // available processor. Does not block; a list() call that needs an index that is still being built simply waits for
+    // it. Returns the number of indexes it scheduled.
+    final int preindex() {
+      final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+      for (final Location l : this.locations) {
+        if (l instanceof ModuleLocation m) {
+          final ModuleReference mref = m.moduleReference();
+          final CompletableFuture<PackageIndex> f = new CompletableFuture<>();
+          if (this.indexes.putIfAbsent(mref, f) == null) {
+            tasks.add(() -> complete(f, () -> PackageIndex.of(mref, PACKAGE_INDEX_DIRECTORY)));
+          }
+        }
+      }
+      for (final Path entry : this.classPath()) {
+        if (Files.isRegularFile(entry)) {
+          final CompletableFuture<PackageIndex> f = new CompletableFuture<>();
+          if (this.indexes.putIfAbsent(entry, f) == null) {
+            tasks.add(() -> complete(f, () -> PackageIndex.of(entry, PACKAGE_INDEX_DIRECTORY)));
+          }
+        }
+      }
+      final int size = tasks.size();
+      final int workers = Math.min(size, Runtime.getRuntime().availableProcessors());
+      for (int i = 0; i < workers; i++) {
+        Thread.ofVirtual()
+          .name("preindex-" + i)
+          .start(() -> {
+              Runnable task;
+              while ((task = tasks.poll()) != null) {
+                task.run();
+              }
+            });
+      }
+      return size;
+    }
+
+    // Returns the PackageIndex for mref, building it at most once (whether here or in a preindex() thread).
+    final PackageIndex index(final ModuleReference mref) {
+      return this.index(mref, () -> PackageIndex.of(mref, PACKAGE_INDEX_DIRECTORY));
+    }
+
+    // Returns the PackageIndex for the class path jar file jar, building it at most once (whether here or in a
+    // preindex() thread).
+    final PackageIndex index(final Path jar) {
+      return this.index(jar, () -> PackageIndex.of(jar, PACKAGE_INDEX_DIRECTORY));
+    }
+
+    private final PackageIndex index(final Object key, final Indexer indexer) {
+      CompletableFuture<PackageIndex> f = this.indexes.get(key);
+      if (f == null) {
+        final CompletableFuture<PackageIndex> newF = new CompletableFuture<>();
+        f = this.indexes.putIfAbsent(key, newF);
+        if (f == null) {
+          // Build it here, outside of any map-internal lock.
+          f = newF;
+          complete(f, indexer);
+        }
+      }
+      try {
+        return f.join();
+      } catch (final CompletionException e) {
+        // Let a later call try again.
+        this.indexes.remove(key, f);
+        if (e.getCause() instanceof UncheckedIOException u) {
+          throw u;
+        }
+        throw e;
+      }
+    }
+
+    // Called by list(Location, String, Set, boolean) via computeIfAbsent. Resolves the URIs of the resources the
+    // (cached, and possibly persisted) PackageIndex for the listing's module names, all in one ModuleReader session.
+    private final List<JavaFileRecord> computeListing(final Listing listing) {
+      final ModuleReference mref = listing.moduleReference();
+      final PackageIndex index = this.index(mref);
+      final List<String> resources =
+        listing.recurse() ? index.resourcesRecursively(listing.packageName()) : index.resources(listing.packageName());
+      if (resources.isEmpty()) {
+        return List.of();
+      }
+      final List<JavaFileRecord> list = new ArrayList<>(resources.size());
+      try (final ModuleReader reader = mref.open()) {
+        for (final String s : resources) {
+          final JavaFileObject.Kind kind = kind(s);
+          list.add(new JavaFileRecord(kind,
+                                      kind == JavaFileObject.Kind.CLASS || kind == JavaFileObject.Kind.SOURCE ?
+                                      s.substring(0, s.length() - kind.extension.length()).replace('/', '.') :
+                                      null,
+                                      reader.find(s).orElseThrow()));
+        }
+      } catch (final IOException ioException) {
+        throw new UncheckedIOException(ioException.getMessage(), ioException);
+      }
+      return Collections.unmodifiableList(list);
+    }
+
     // Returns package-oriented locations (or output locations if the given moduleOrientedOrOutputLocation is an output
     // location).
     @Override
@@ -2947,6 +3347,16 @@ public final class Lang {
      */
 
 
+    private static final void complete(final CompletableFuture<? super PackageIndex> f, final Indexer indexer) {
+      try {
+        f.complete(indexer.index());
+      } catch (final IOException ioException) {
+        f.completeExceptionally(new UncheckedIOException(ioException.getMessage(), ioException));
+      } catch (final RuntimeException | Error e) {
+        f.completeExceptionally(e);
+      }
+    }
+
     private static final JavaFileObject.Kind kind(final String s) {
       return kind(ALL_KINDS, s);
     }
@@ -2960,44 +3370,13 @@ public final class Lang {
       return JavaFileObject.Kind.OTHER;
     }
 
-    private static final Iterable<JavaFileObject> list(final ModuleReader mr,
-                                                       final String packageName,
-                                                       final Set<JavaFileObject.Kind> kinds,
-                                                       final boolean recurse)
-      throws IOException {
-      final String p = packageName.replace('.', '/');
-      final int packagePrefixLength = p.length() + 1;
-      try (final Stream<String> ss = mr.list()) {
-        return ss
-          .filter(s ->
-                  !s.endsWith("/") &&
-                  s.startsWith(p) &&
-                  isAKind(kinds, s) &&
-                  (recurse || s.indexOf('/', packagePrefixLength) < 0))
-          .map(s -> {
-              final JavaFileObject.Kind kind = kind(kinds, s);
-              try {
-                return
-                  new JavaFileRecord(kind,
-                                     kind == JavaFileObject.Kind.CLASS || kind == JavaFileObject.Kind.SOURCE ?
-                                     s.substring(0, s.length() - kind.extension.length()).replace('/', '.') :
-                                     null,
-                                     mr.find(s).orElseThrow());
-              } catch (final IOException ioException) {
-                throw new UncheckedIOException(ioException.getMessage(), ioException);
-              }
-            })
-          .collect(Collectors.toUnmodifiableList());
-      }
-    }
+    private static final record Listing(ModuleReference moduleReference, String packageName, boolean recurse) {}
+
+    @FunctionalInterface
+    private static interface Indexer {
+
+      PackageIndex index() throws IOException;
 
-    private static final boolean isAKind(final Set<JavaFileObject.Kind> kinds, final String moduleResource) {
-      for (final JavaFileObject.Kind k : kinds) {
-        if (moduleResource.endsWith(k.extension)) {
-          return true;
-        }
-      }
-      return false;
     }
 
     private static final record JavaFileRecord(JavaFileObject.Kind kind, String binaryName, URI uri) implements JavaFileObject {
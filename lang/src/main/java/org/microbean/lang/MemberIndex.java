@@ -0,0 +1,126 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * An immutable index of the fields, enum constants, constructors and methods directly enclosed by a {@link
+ * TypeElement}, keyed so that a member can be found with a single hash lookup.
+ *
+ * <p>A field or enum constant is keyed by its simple name. A constructor or method is keyed by its simple name followed
+ * by the parenthesized JVMS descriptors of its erased parameter types, e.g. {@code <init>(I)} or {@code
+ * regionMatches(ZILjava/lang/String;II)}. A key therefore encodes a member's name, kind and arity, and the erasures of
+ * its parameter types.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see Lang#variableElement(TypeElement, CharSequence)
+ */
+final class MemberIndex {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Map<String, Element> members;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  // Builds the index under a single acquisition of the CompletionLock.
+  MemberIndex(final TypeElement te) {
+    super();
+    final Map<String, Element> members = new HashMap<>();
+    CompletionLock.acquire();
+    try {
+      for (final Element e : te.getEnclosedElements()) {
+        switch (e.getKind()) {
+        case ENUM_CONSTANT, FIELD -> members.putIfAbsent(e.getSimpleName().toString(), e);
+        case CONSTRUCTOR, METHOD  -> {
+          final String d;
+          try {
+            d = Lang.elementDescriptor(e);
+          } catch (final IllegalArgumentException x) {
+            // e.g. an erroneous parameter type; such a member cannot be looked up by erasure anyway
+            continue;
+          }
+          members.putIfAbsent(e.getSimpleName().toString() + d.substring(0, d.indexOf(')') + 1), e);
+        }
+        default -> {}
+        }
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    this.members = Map.copyOf(members);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  final Element get(final String key) {
+    return key == null ? null : this.members.get(key);
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Returns the key of the executable with the supplied simple name and erased parameter types.
+  static final String key(final CharSequence name, final Class<?>[] parameterTypes) {
+    final StringBuilder sb = new StringBuilder(name.length() + 2 + 16 * parameterTypes.length).append(name).append('(');
+    for (final Class<?> c : parameterTypes) {
+      sb.append(c.descriptorString());
+    }
+    return sb.append(')').toString();
+  }
+
+  // Returns the parameter types of the supplied Constructor as the language model sees them, i.e. without the leading
+  // parameters javac adds for an enclosing instance or an enum constant's name and ordinal.
+  static final Class<?>[] constructorParameterTypes(final Constructor<?> k) {
+    final Class<?> c = k.getDeclaringClass();
+    final Class<?>[] parameterTypes = k.getParameterTypes();
+    final int implicit;
+    if (c.isEnum()) {
+      implicit = 2;
+    } else if (c.isMemberClass() && !Modifier.isStatic(c.getModifiers())) {
+      implicit = 1;
+    } else {
+      implicit = 0;
+    }
+    return implicit == 0 || parameterTypes.length < implicit ?
+      parameterTypes :
+      Arrays.copyOfRange(parameterTypes, implicit, parameterTypes.length);
+  }
+
+}
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,12 @@
  */
 package org.microbean.lang;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
@@ -27,68 +31,228 @@ import javax.lang.model.element.Element;
 
 import javax.lang.model.type.TypeMirror;
 
-// NOT thread safe
+/**
+ * A {@link TypeAndElementSource} that builds and caches models of things, such as reflective constructs, keyed by
+ * those things.
+ *
+ * <p>The {@link #annotation(Object, Supplier, BiConsumer)}, {@link #element(Object, Supplier, BiConsumer)} and {@link
+ * #type(Object, Supplier, BiConsumer)} methods create a model for a given key exactly once, even under contention. A
+ * model is created in two phases: its {@link Supplier} creates it, and then its {@link BiConsumer} populates it. The
+ * {@link BiConsumer} runs outside of any lock, and may recursively request models (including, in the case of cycles,
+ * the very model being populated, which is returned as-is). Other threads requesting a model that is being populated
+ * wait until it is fully populated, unless waiting would deadlock (because the populating thread is itself,
+ * transitively, waiting on them), in which case they too receive it as-is, exactly as if they had encountered the cycle
+ * themselves. If the model has not yet been created, because the thread creating it is still in its {@link Supplier},
+ * they wait for it to be created instead. A {@link Supplier} must not return {@code null}, and a cycle made up only of
+ * {@link Supplier}s, which can never complete, results in an {@link IllegalStateException}.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ */
 public abstract class Modeler implements TypeAndElementSource {
 
-  private final Map<Object, AnnotationMirror> annotations;
 
-  private final Map<Object, Element> elements;
+  /*
+   * Static fields.
+   */
+
+
+  // Threads to the Entry each is currently waiting on, for deadlock avoidance.
+  private static final ConcurrentMap<Thread, Entry> waits = new ConcurrentHashMap<>();
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final ConcurrentMap<Object, Entry> annotations;
+
+  private final ConcurrentMap<Object, Entry> elements;
+
+  private final ConcurrentMap<Object, Entry> types;
+
+
+  /*
+   * Constructors.
+   */
 
-  private final Map<Object, TypeMirror> types;
 
   protected Modeler() {
     super();
-    this.annotations = new HashMap<>();
-    this.elements = new HashMap<>();
-    this.types = new HashMap<>();
+    this.annotations = new ConcurrentHashMap<>();
+    this.elements = new ConcurrentHashMap<>();
+    this.types = new ConcurrentHashMap<>();
   }
 
-  @SuppressWarnings("unchecked")
+
+  /*
+   * Instance methods.
+   */
+
+
   protected final <K, A extends AnnotationMirror> A annotation(final K k,
                                                                final Supplier<? extends A> s,
                                                                final BiConsumer<? super K, ? super A> c) {
-    A r = (A)this.annotations.get(k);
-    if (r == null) {
-      final A a = s.get();
-      r = (A)this.annotations.putIfAbsent(k, a);
-      if (r == null) {
-        c.accept(k, a);
-        return a;
-      }
-    }
-    return r;
+    return model(this.annotations, k, s, c);
   }
 
-  @SuppressWarnings("unchecked")
   protected final <K, E extends Element> E element(final K k,
                                                    final Supplier<? extends E> s,
                                                    final BiConsumer<? super K, ? super E> c) {
-    E r = (E)this.elements.get(k);
-    if (r == null) {
-      final E e = s.get();
-      r = (E)this.elements.putIfAbsent(k, e);
-      if (r == null) {
-        c.accept(k, e);
-        return e;
-      }
-    }
-    return r;
+    return model(this.elements, k, s, c);
   }
 
-  @SuppressWarnings("unchecked")
   protected final <K, T extends TypeMirror> T type(final K k,
                                                    final Supplier<? extends T> s,
                                                    final BiConsumer<? super K, ? super T> c) {
-    T r = (T)this.types.get(k);
-    if (r == null) {
-      final T t = s.get();
-      r = (T)this.types.putIfAbsent(k, t);
-      if (r == null) {
-        c.accept(k, t);
-        return t;
+    return model(this.types, k, s, c);
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  @SuppressWarnings("unchecked")
+  private static final <K, V> V model(final ConcurrentMap<Object, Entry> map,
+                                      final K k,
+                                      final Supplier<? extends V> s,
+                                      final BiConsumer<? super K, ? super V> c) {
+    while (true) {
+      Entry e = map.get(k);
+      if (e == null) {
+        final Entry mine = new Entry();
+        e = map.putIfAbsent(k, mine);
+        if (e == null) {
+          // This thread won; create and populate outside of any lock.
+          try {
+            final V v = Objects.requireNonNull(s.get(), "s.get()");
+            mine.value = v; // volatile write; visible to recursive and deadlock-avoiding callers
+            c.accept(k, v);
+            return v;
+          } catch (final RuntimeException | Error x) {
+            map.remove(k, mine);
+            mine.failed = true;
+            throw x;
+          } finally {
+            mine.latch.countDown();
+          }
+        }
       }
+      final Object v = e.await();
+      if (v != null) {
+        return (V)v;
+      }
+      // The winning thread failed and has removed its entry; try again.
     }
-    return r;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Entry {
+
+    private final Thread owner;
+
+    private final CountDownLatch latch;
+
+    private volatile Object value;
+
+    private volatile boolean failed;
+
+    private Entry() {
+      super();
+      this.owner = Thread.currentThread();
+      this.latch = new CountDownLatch(1);
+    }
+
+    // Returns this entry's (fully populated, or, if waiting would deadlock, partially populated) value, or null if its
+    // creation failed.
+    private final Object await() {
+      if (this.latch.getCount() == 0L) {
+        return this.failed ? null : this.value;
+      }
+      final Thread t = Thread.currentThread();
+      if (this.owner == t) {
+        // Recursive request from within the BiConsumer.
+        return this.value();
+      }
+      waits.put(t, this);
+      boolean interrupted = false;
+      try {
+        while (true) {
+          if (this.waitedOnBy(t)) {
+            final Object v = this.value; // volatile read
+            if (v != null) {
+              return v;
+            }
+            // The owner is still in its Supplier. That is only a deadlock if every other thread in the cycle is too;
+            // otherwise one of them will receive a model as-is and the owner will eventually publish this one.
+            if (this.stuck(t)) {
+              throw new IllegalStateException("cycle among Suppliers");
+            }
+          }
+          try {
+            // Timed, because a cycle can form (and must then be noticed) after this thread has started waiting.
+            if (this.latch.await(1L, TimeUnit.MILLISECONDS)) {
+              break;
+            }
+          } catch (final InterruptedException x) {
+            interrupted = true;
+          }
+        }
+        return this.failed ? null : this.value;
+      } finally {
+        waits.remove(t, this);
+        if (interrupted) {
+          t.interrupt();
+        }
+      }
+    }
+
+    // Returns true if waiting on this entry would deadlock because its owner is, transitively, waiting on the supplied
+    // Thread. Waiters register before checking, so of any set of threads forming a cycle at least one will see it.
+    private final boolean waitedOnBy(final Thread t) {
+      Entry e = this;
+      for (int i = 0; i <= waits.size() && e != null; i++) {
+        if (e.owner == t) {
+          return true;
+        }
+        e = waits.get(e.owner);
+      }
+      return false;
+    }
+
+    // Returns true if, along the cycle that waitedOnBy(t) found, no model has been created yet, so that every thread in
+    // it is waiting from within its Supplier and none can proceed.
+    private final boolean stuck(final Thread t) {
+      Entry e = this;
+      for (int i = 0; i <= waits.size() && e != null; i++) {
+        if (e.value != null) { // volatile read
+          return false;
+        }
+        if (e.owner == t) {
+          return true;
+        }
+        e = waits.get(e.owner);
+      }
+      return false;
+    }
+
+    private final Object value() {
+      final Object v = this.value; // volatile read
+      if (v == null) {
+        throw new IllegalStateException("model requested while its Supplier was running");
+      }
+      return v;
+    }
+
   }
 
 }
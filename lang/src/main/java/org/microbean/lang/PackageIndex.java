@@ -0,0 +1,458 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import java.util.stream.Stream;
+
+import java.util.zip.ZipFile;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * An immutable index of the resources in a module or a class path jar file, grouped by package, that can be persisted
+ * to (and read back from) a file so that it may be shared across JVM runs.
+ *
+ * <p>A persisted {@link PackageIndex} records the last-modified time and size of the artifact (a jar file, or the
+ * runtime image's {@code lib/modules} file) it was read from, and is discarded in favor of a fresh scan if either has
+ * changed.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ */
+final class PackageIndex {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final System.Logger LOGGER = System.getLogger(PackageIndex.class.getName());
+
+  private static final int MAGIC = 0x4D424C49;
+
+  private static final short VERSION = 1;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  // Package names (e.g. "java.util", or "" for the unnamed package) to sorted resource names (e.g.
+  // "java/util/List.class").
+  private final NavigableMap<String, List<String>> packages;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private PackageIndex(final NavigableMap<String, List<String>> packages) {
+    super();
+    this.packages = packages;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns an immutable, sorted {@link List} of the names of the resources directly contained by the supplied package.
+   *
+   * @param packageName the name of a package, e.g. {@code java.util}; must not be {@code null}
+   *
+   * @return an immutable {@link List} of resource names; never {@code null}
+   */
+  final List<String> resources(final String packageName) {
+    return this.packages.getOrDefault(packageName, List.of());
+  }
+
+  /**
+   * Returns an immutable, sorted {@link List} of the names of the resources contained by the supplied package and all
+   * of its subpackages.
+   *
+   * @param packageName the name of a package, e.g. {@code java.util}, or {@code ""} for all packages; must not be {@code
+   * null}
+   *
+   * @return an immutable {@link List} of resource names; never {@code null}
+   */
+  final List<String> resourcesRecursively(final String packageName) {
+    final List<String> list = new ArrayList<>();
+    if (packageName.isEmpty()) {
+      this.packages.values().forEach(list::addAll);
+    } else {
+      list.addAll(this.resources(packageName));
+      // '/' immediately follows '.', so this is exactly the packages whose names start with packageName + ".".
+      this.subpackages(packageName).values().forEach(list::addAll);
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Returns {@code true} if this {@link PackageIndex} contains at least one resource in the supplied package (or, if
+   * {@code recurse} is {@code true}, in the supplied package or any of its subpackages).
+   *
+   * @param packageName the name of a package, e.g. {@code java.util}, or {@code ""} for the unnamed package (or, if
+   * {@code recurse} is {@code true}, for all packages); must not be {@code null}
+   *
+   * @param recurse whether subpackages count
+   *
+   * @return {@code true} if this {@link PackageIndex} contains at least one resource in the supplied package
+   */
+  final boolean contains(final String packageName, final boolean recurse) {
+    if (this.packages.containsKey(packageName)) {
+      return true;
+    }
+    return recurse && (packageName.isEmpty() ? !this.packages.isEmpty() : !this.subpackages(packageName).isEmpty());
+  }
+
+  private final NavigableMap<String, List<String>> subpackages(final String packageName) {
+    return this.packages.subMap(packageName + ".", true, packageName + "/", false);
+  }
+
+  /**
+   * Returns the number of packages in this {@link PackageIndex}.
+   *
+   * @return the number of packages in this {@link PackageIndex}
+   */
+  final int size() {
+    return this.packages.size();
+  }
+
+  // Writes this index, stamped with the supplied validation information, to f, atomically.
+  private final void write(final Path f, final long lastModified, final long size) throws IOException {
+    final Path temp = Files.createTempFile(f.getParent(), f.getFileName().toString(), ".tmp");
+    try {
+      try (final OutputStream os = Files.newOutputStream(temp);
+           final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(lastModified);
+        out.writeLong(size);
+        out.writeInt(this.packages.size());
+        for (final Map.Entry<String, List<String>> e : this.packages.entrySet()) {
+          writeString(out, e.getKey());
+          final List<String> resources = e.getValue();
+          out.writeInt(resources.size());
+          for (final String r : resources) {
+            writeString(out, r);
+          }
+        }
+      }
+      Files.move(temp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a {@link PackageIndex} for the supplied {@link ModuleReference}, reading it from a persisted index in the
+   * supplied directory if one exists there and is still valid, and otherwise scanning the module and (if {@code
+   * directory} is not {@code null}) persisting the result for next time.
+   *
+   * <p>Failure to read or write a persisted index is never fatal; it is logged and the module is scanned instead.</p>
+   *
+   * @param mref the {@link ModuleReference} to index; must not be {@code null}
+   *
+   * @param directory the directory in which persisted indices are kept; may be {@code null} in which case nothing is
+   * persisted
+   *
+   * @return a {@link PackageIndex}; never {@code null}
+   *
+   * @exception NullPointerException if {@code mref} is {@code null}
+   *
+   * @exception IOException if the module could not be scanned
+   */
+  static final PackageIndex of(final ModuleReference mref, final Path directory) throws IOException {
+    final Path artifact = directory == null ? null : artifact(mref);
+    if (artifact == null) {
+      return scan(mref);
+    }
+    return of(artifact, fileName(mref), directory, () -> scan(mref));
+  }
+
+  /**
+   * Returns a {@link PackageIndex} for the supplied class path jar file, reading it from a persisted index in the
+   * supplied directory if one exists there and is still valid, and otherwise scanning the jar file and (if {@code
+   * directory} is not {@code null}) persisting the result for next time.
+   *
+   * <p>Failure to read or write a persisted index is never fatal; it is logged and the jar file is scanned instead.</p>
+   *
+   * @param jar the jar file to index; must not be {@code null}
+   *
+   * @param directory the directory in which persisted indices are kept; may be {@code null} in which case nothing is
+   * persisted
+   *
+   * @return a {@link PackageIndex}; never {@code null}
+   *
+   * @exception NullPointerException if {@code jar} is {@code null}
+   *
+   * @exception IOException if the jar file could not be scanned
+   */
+  static final PackageIndex of(final Path jar, final Path directory) throws IOException {
+    if (directory == null) {
+      return scan(jar);
+    }
+    return of(jar, fileName(jar), directory, () -> scan(jar));
+  }
+
+  private static final PackageIndex of(final Path artifact,
+                                       final String fileName,
+                                       final Path directory,
+                                       final Scanner scanner)
+    throws IOException {
+    final BasicFileAttributes a = Files.readAttributes(artifact, BasicFileAttributes.class);
+    final long lastModified = a.lastModifiedTime().toMillis();
+    final long size = a.size();
+    final Path f = directory.resolve(fileName);
+    try {
+      final PackageIndex pi = read(f, lastModified, size);
+      if (pi != null) {
+        return pi;
+      }
+    } catch (final IOException | RuntimeException e) {
+      if (LOGGER.isLoggable(WARNING)) {
+        LOGGER.log(WARNING, "Ignoring unreadable package index " + f, e);
+      }
+    }
+    final PackageIndex pi = scanner.scan();
+    try {
+      Files.createDirectories(directory);
+      pi.write(f, lastModified, size);
+    } catch (final IOException e) {
+      if (LOGGER.isLoggable(WARNING)) {
+        LOGGER.log(WARNING, "Could not write package index " + f, e);
+      }
+    }
+    return pi;
+  }
+
+  /**
+   * Scans the module represented by the supplied {@link ModuleReference} and returns a new {@link PackageIndex}
+   * describing its resources.
+   *
+   * @param mref the {@link ModuleReference} to scan; must not be {@code null}
+   *
+   * @return a new {@link PackageIndex}; never {@code null}
+   *
+   * @exception NullPointerException if {@code mref} is {@code null}
+   *
+   * @exception IOException if the module could not be read
+   */
+  static final PackageIndex scan(final ModuleReference mref) throws IOException {
+    final NavigableMap<String, List<String>> packages = new TreeMap<>();
+    try (final ModuleReader reader = mref.open();
+         final Stream<String> ss = reader.list()) {
+      ss.forEach(s -> add(packages, s));
+    }
+    return new PackageIndex(freeze(packages));
+  }
+
+  /**
+   * Scans the supplied class path jar file and returns a new {@link PackageIndex} describing its resources.
+   *
+   * <p>Multi-release jar files are read as the running Java runtime would read them, so resource names are always
+   * unversioned.</p>
+   *
+   * @param jar the jar file to scan; must not be {@code null}
+   *
+   * @return a new {@link PackageIndex}; never {@code null}
+   *
+   * @exception NullPointerException if {@code jar} is {@code null}
+   *
+   * @exception IOException if the jar file could not be read
+   */
+  static final PackageIndex scan(final Path jar) throws IOException {
+    final NavigableMap<String, List<String>> packages = new TreeMap<>();
+    try (final JarFile jf = new JarFile(jar.toFile(), false, ZipFile.OPEN_READ, Runtime.version());
+         final Stream<JarEntry> es = jf.versionedStream()) {
+      es.forEach(e -> add(packages, e.getName()));
+    }
+    return new PackageIndex(freeze(packages));
+  }
+
+  private static final void add(final Map<String, List<String>> packages, final String s) {
+    if (!s.endsWith("/")) {
+      // s is, e.g., "foo/Bar.class"
+      final int lastSlashIndex = s.lastIndexOf('/');
+      assert lastSlashIndex != 0;
+      packages.computeIfAbsent(lastSlashIndex > 0 ? s.substring(0, lastSlashIndex).replace('/', '.') : "",
+                               p -> new ArrayList<>())
+        .add(s);
+    }
+  }
+
+  // Returns the PackageIndex persisted in f, or null if there is none or it is stale.
+  static final PackageIndex read(final Path f, final long lastModified, final long size) throws IOException {
+    final InputStream is;
+    try {
+      is = Files.newInputStream(f);
+    } catch (final NoSuchFileException e) {
+      return null;
+    }
+    try (final DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+      if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+        throw new IOException("Not a package index: " + f);
+      }
+      if (in.readLong() != lastModified || in.readLong() != size) {
+        if (LOGGER.isLoggable(DEBUG)) {
+          LOGGER.log(DEBUG, "Stale package index: " + f);
+        }
+        return null;
+      }
+      final NavigableMap<String, List<String>> packages = new TreeMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        final String p = readString(in);
+        final int resourceCount = in.readInt();
+        if (resourceCount < 0) {
+          throw new IOException("Corrupt package index: " + f);
+        }
+        final List<String> resources = new ArrayList<>(Math.min(resourceCount, 1024));
+        for (int j = 0; j < resourceCount; j++) {
+          resources.add(readString(in));
+        }
+        packages.put(p, resources);
+      }
+      if (in.read() >= 0) {
+        throw new IOException("Trailing bytes in package index: " + f);
+      }
+      return new PackageIndex(freeze(packages));
+    } catch (final EOFException e) {
+      throw new IOException("Truncated package index: " + f, e);
+    }
+  }
+
+  // Returns the file whose last-modified time and size vouch for the contents of the module represented by mref, or
+  // null if there is no such file (e.g. the module is an exploded directory, whose contents can change without its
+  // own timestamp changing).
+  private static final Path artifact(final ModuleReference mref) {
+    final URI location = mref.location().orElse(null);
+    if (location == null) {
+      return null;
+    }
+    final Path p;
+    switch (location.getScheme()) {
+    case "file":
+      p = Path.of(location);
+      break;
+    case "jrt":
+      p = Path.of(System.getProperty("java.home"), "lib", "modules");
+      break;
+    default:
+      return null;
+    }
+    return Files.isRegularFile(p) ? p : null;
+  }
+
+  private static final String fileName(final ModuleReference mref) {
+    final String location = mref.location().map(URI::toString).orElse("");
+    return
+      mref.descriptor().name() + "-" +
+      Integer.toHexString(location.hashCode()) +
+      Integer.toHexString(System.getProperty("java.home").hashCode()) +
+      ".idx";
+  }
+
+  private static final String fileName(final Path jar) {
+    final String fileName = jar.getFileName().toString();
+    return
+      fileName + "-" +
+      Integer.toHexString(jar.toAbsolutePath().toString().hashCode()) +
+      Integer.toHexString(System.getProperty("java.home").hashCode()) +
+      ".idx";
+  }
+
+  private static final NavigableMap<String, List<String>> freeze(final NavigableMap<String, List<String>> packages) {
+    packages.replaceAll((p, rs) -> {
+        Collections.sort(rs);
+        return List.copyOf(rs);
+      });
+    return Collections.unmodifiableNavigableMap(packages);
+  }
+
+  private static final void writeString(final DataOutputStream out, final String s) throws IOException {
+    final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static final String readString(final DataInputStream in) throws IOException {
+    final int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Negative string length: " + length);
+    }
+    final byte[] bytes = in.readNBytes(length);
+    if (bytes.length != length) {
+      throw new EOFException();
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  @FunctionalInterface
+  private static interface Scanner {
+
+    PackageIndex scan() throws IOException;
+
+  }
+
+}
@@ -0,0 +1,159 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.lang.reflect.Member;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.function.Function;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A per-{@link Class} cache of the Java language model constructs {@link Lang} derives from that {@link Class} and its
+ * declared members.
+ *
+ * <p>Instances are held by a {@link ClassValue}, so an instance becomes unreachable, along with everything it caches,
+ * when the {@link Class} it describes is unloaded, e.g. when its {@link ClassLoader} is discarded.</p>
+ *
+ * <p>Lookups that hit the cache do not acquire any lock. Lookups that miss the cache compute their result outside of
+ * any cache-internal lock, so a computation may itself acquire the {@link CompletionLock} without risk of deadlock. If
+ * two threads race to compute the same entry, one result wins and is returned to both threads. {@code null} results are
+ * never cached.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see Lang#typeElement(Class)
+ *
+ * @see Lang#type(java.lang.reflect.Type)
+ */
+final class ReflectionCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final ClassValue<ReflectionCache> caches = new ClassValue<>() {
+      @Override // ClassValue
+      protected final ReflectionCache computeValue(final Class<?> c) {
+        return new ReflectionCache();
+      }
+    };
+
+  private static final VarHandle TYPE_ELEMENT;
+
+  private static final VarHandle TYPE;
+
+  static {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      TYPE_ELEMENT = lookup.findVarHandle(ReflectionCache.class, "typeElement", TypeElement.class);
+      TYPE = lookup.findVarHandle(ReflectionCache.class, "type", TypeMirror.class);
+    } catch (final NoSuchFieldException | IllegalAccessException e) {
+      throw (ExceptionInInitializerError)new ExceptionInInitializerError(e.getMessage()).initCause(e);
+    }
+  }
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private volatile TypeElement typeElement;
+
+  // The DeclaredType, ArrayType, PrimitiveType or NoType (void) the Class represents.
+  private volatile TypeMirror type;
+
+  // Elements for the Class's declared Constructors, Fields and Methods.
+  private final ConcurrentMap<Member, Element> elements;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private ReflectionCache() {
+    super();
+    this.elements = new ConcurrentHashMap<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  final TypeElement typeElement(final Class<?> c, final Function<? super Class<?>, ? extends TypeElement> f) {
+    final TypeElement te = this.typeElement; // volatile read
+    if (te != null) {
+      return te;
+    }
+    final TypeElement newTe = f.apply(c);
+    if (newTe == null) {
+      return null;
+    }
+    final TypeElement old = (TypeElement)TYPE_ELEMENT.compareAndExchange(this, null, newTe);
+    return old == null ? newTe : old;
+  }
+
+  final TypeMirror type(final Class<?> c, final Function<? super Class<?>, ? extends TypeMirror> f) {
+    final TypeMirror t = this.type; // volatile read
+    if (t != null) {
+      return t;
+    }
+    final TypeMirror newT = f.apply(c);
+    if (newT == null) {
+      return null;
+    }
+    final TypeMirror old = (TypeMirror)TYPE.compareAndExchange(this, null, newT);
+    return old == null ? newT : old;
+  }
+
+  @SuppressWarnings("unchecked")
+  final <M extends Member, E extends Element> E element(final M m, final Function<? super M, ? extends E> f) {
+    final E e = (E)this.elements.get(m);
+    if (e != null) {
+      return e;
+    }
+    final E newE = f.apply(m);
+    if (newE == null) {
+      return null;
+    }
+    final E old = (E)this.elements.putIfAbsent(m, newE);
+    return old == null ? newE : old;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  static final ReflectionCache of(final Class<?> c) {
+    return caches.get(c);
+  }
+
+}
@@ -0,0 +1,308 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+
+/**
+ * An immutable result of importing a set of {@link Class}es, together with all of their supertypes and enclosing
+ * classes, into the Java language model in one pass.
+ *
+ * <p>Converting reflective objects one at a time (see {@link Lang#typeElement(Class)}, {@link
+ * Lang#executableElement(Method)} and {@link Lang#variableElement(Field)}) looks each one up by name and scans its
+ * declaring class's members under the {@link CompletionLock} for every call. {@link #of(Collection, Executor)} instead
+ * visits each distinct class exactly once, however many of the supplied classes share it as a supertype, completes its
+ * {@link TypeElement}, type parameters, members and annotations under a single acquisition of the {@link
+ * CompletionLock}, and matches its declared reflective members to their {@link Element}s by JVMS descriptor. Classes
+ * are imported in parallel on the supplied {@link Executor}.</p>
+ *
+ * <p>Because every imported {@link Element} has been completed, subsequent read-only operations on it do not contend
+ * for the {@link CompletionLock} when it is operating in {@linkplain CompletionLock#readMostly() read-mostly
+ * mode}.</p>
+ *
+ * <p>Local, anonymous and hidden classes, which cannot be found by name, are not imported. Nor are reflective members
+ * with no counterpart in the language model, such as synthetic and bridge methods.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #of(Collection, Executor)
+ */
+public final class ReflectionImport {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Map<Class<?>, TypeElement> typeElements;
+
+  private final Map<Member, Element> elements;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private ReflectionImport(final Map<Class<?>, TypeElement> typeElements, final Map<Member, Element> elements) {
+    super();
+    this.typeElements = typeElements;
+    this.elements = elements;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns an immutable {@link Map} of every imported {@link Class} to its {@link TypeElement}.
+   *
+   * @return an immutable {@link Map}; never {@code null}
+   */
+  public final Map<Class<?>, TypeElement> typeElements() {
+    return this.typeElements;
+  }
+
+  /**
+   * Returns an immutable {@link Map} of every imported declared {@link Constructor}, {@link Method} and {@link Field}
+   * to its {@link ExecutableElement} or {@link VariableElement}.
+   *
+   * @return an immutable {@link Map}; never {@code null}
+   */
+  public final Map<Member, Element> elements() {
+    return this.elements;
+  }
+
+  /**
+   * Returns the {@link TypeElement} imported for the supplied {@link Class}, or {@code null} if it was not imported.
+   *
+   * @param c a {@link Class}; must not be {@code null}
+   *
+   * @return a {@link TypeElement}, or {@code null}
+   *
+   * @exception NullPointerException if {@code c} is {@code null}
+   */
+  public final TypeElement typeElement(final Class<?> c) {
+    return this.typeElements.get(Objects.requireNonNull(c, "c"));
+  }
+
+  /**
+   * Returns the {@link ExecutableElement} imported for the supplied {@link Executable}, or {@code null} if it was not
+   * imported.
+   *
+   * @param e an {@link Executable}; must not be {@code null}
+   *
+   * @return an {@link ExecutableElement}, or {@code null}
+   *
+   * @exception NullPointerException if {@code e} is {@code null}
+   */
+  public final ExecutableElement executableElement(final Executable e) {
+    return (ExecutableElement)this.elements.get(Objects.requireNonNull(e, "e"));
+  }
+
+  /**
+   * Returns the {@link VariableElement} imported for the supplied {@link Field}, or {@code null} if it was not
+   * imported.
+   *
+   * @param f a {@link Field}; must not be {@code null}
+   *
+   * @return a {@link VariableElement}, or {@code null}
+   *
+   * @exception NullPointerException if {@code f} is {@code null}
+   */
+  public final VariableElement variableElement(final Field f) {
+    return (VariableElement)this.elements.get(Objects.requireNonNull(f, "f"));
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.getClass().getSimpleName() + "[typeElements=" + this.typeElements.size() + ", elements=" + this.elements.size() + "]";
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Imports the supplied {@link Class}es, their supertypes and their enclosing classes using the {@linkplain
+   * ForkJoinPool#commonPool() common pool}.
+   *
+   * @param classes the {@link Class}es to import; must not be {@code null}
+   *
+   * @return a {@link ReflectionImport}; never {@code null}
+   *
+   * @exception NullPointerException if {@code classes} is {@code null} or contains {@code null}
+   *
+   * @see #of(Collection, Executor)
+   */
+  public static final ReflectionImport of(final Collection<? extends Class<?>> classes) {
+    return of(classes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Imports the supplied {@link Class}es, their supertypes and their enclosing classes, importing each distinct class
+   * as a separate task on the supplied {@link Executor}, and blocks until all of them have been imported.
+   *
+   * <p>Array classes are imported as their element classes. Primitive classes are ignored.</p>
+   *
+   * @param classes the {@link Class}es to import; must not be {@code null}
+   *
+   * @param executor the {@link Executor} to import classes with; must not be {@code null}
+   *
+   * @return a {@link ReflectionImport}; never {@code null}
+   *
+   * @exception NullPointerException if any argument is {@code null} or {@code classes} contains {@code null}
+   */
+  public static final ReflectionImport of(final Collection<? extends Class<?>> classes, final Executor executor) {
+    Objects.requireNonNull(executor, "executor");
+    final Set<Class<?>> closure = closure(classes);
+    final ConcurrentMap<Class<?>, TypeElement> typeElements = new ConcurrentHashMap<>();
+    final ConcurrentMap<Member, Element> elements = new ConcurrentHashMap<>();
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(closure.size());
+    for (final Class<?> c : closure) {
+      futures.add(CompletableFuture.runAsync(() -> importClass(c, typeElements, elements), executor));
+    }
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    } catch (final CompletionException e) {
+      switch (e.getCause()) {
+      case RuntimeException re -> throw re;
+      case Error er            -> throw er;
+      case null, default       -> throw e;
+      }
+    }
+    return new ReflectionImport(Map.copyOf(typeElements), Map.copyOf(elements));
+  }
+
+  // Returns the supplied classes, their supertypes and their enclosing classes, once each.
+  private static final Set<Class<?>> closure(final Collection<? extends Class<?>> classes) {
+    final Set<Class<?>> closure = new LinkedHashSet<>();
+    final Deque<Class<?>> q = new ArrayDeque<>(classes);
+    while (!q.isEmpty()) {
+      Class<?> c = q.removeFirst();
+      while (c.isArray()) {
+        c = c.getComponentType();
+      }
+      if (c.isPrimitive() || c.isLocalClass() || c.isAnonymousClass() || c.isHidden() || !closure.add(c)) {
+        continue;
+      }
+      final Class<?> sc = c.getSuperclass();
+      if (sc != null) {
+        q.addLast(sc);
+      }
+      q.addAll(Arrays.asList(c.getInterfaces()));
+      final Class<?> dc = c.getDeclaringClass();
+      if (dc != null) {
+        q.addLast(dc);
+      }
+    }
+    return closure;
+  }
+
+  private static final void importClass(final Class<?> c,
+                                        final Map<? super Class<?>, ? super TypeElement> typeElements,
+                                        final Map<? super Member, ? super Element> elements) {
+    final TypeElement te = Lang.typeElement(c);
+    if (te == null) {
+      return;
+    }
+    CompletionLock.acquire();
+    try {
+      CompletionLock.guard(te, () -> {
+          te.getAnnotationMirrors();
+          for (final TypeParameterElement tpe : te.getTypeParameters()) {
+            tpe.getBounds();
+            tpe.getAnnotationMirrors();
+          }
+        });
+      for (final Element e : te.getEnclosedElements()) {
+        switch (e.getKind()) {
+        case CONSTRUCTOR, ENUM_CONSTANT, FIELD, METHOD -> {}
+        default -> {
+          continue;
+        }
+        }
+        CompletionLock.guard(e, () -> {
+            e.asType();
+            e.getAnnotationMirrors();
+            if (e instanceof ExecutableElement ee) {
+              for (final VariableElement p : ee.getParameters()) {
+                p.getAnnotationMirrors();
+              }
+            }
+          });
+      }
+    } finally {
+      CompletionLock.release();
+    }
+    typeElements.put(c, te);
+    // Members are found in te's MemberIndex (see Lang#executableElement(Method) and friends), and remembered in its
+    // ReflectionCache.
+    for (final Field f : c.getDeclaredFields()) {
+      if (!f.isSynthetic()) {
+        put(elements, f, Lang.variableElement(f));
+      }
+    }
+    for (final Method m : c.getDeclaredMethods()) {
+      if (!m.isSynthetic()) {
+        put(elements, m, Lang.executableElement(m));
+      }
+    }
+    for (final Constructor<?> k : c.getDeclaredConstructors()) {
+      if (!k.isSynthetic()) {
+        put(elements, k, Lang.executableElement(k));
+      }
+    }
+  }
+
+  private static final void put(final Map<? super Member, ? super Element> elements, final Member m, final Element e) {
+    if (e != null) {
+      elements.put(m, e);
+    }
+  }
+
+}
@@ -20,6 +20,9 @@ import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -116,6 +119,21 @@ public interface TypeAndElementSource {
     };
   }
 
+  // Note the strange positioning of payload and receiver. Bit i * receivers.size() + j is set if and only if
+  // payloads.get(i) is assignable to receivers.get(j).
+  public default BitSet assignables(final List<? extends TypeMirror> payloads, final List<? extends TypeMirror> receivers) {
+    final int size = receivers.size();
+    final BitSet rv = new BitSet(payloads.size() * size);
+    for (int i = 0; i < payloads.size(); i++) {
+      for (int j = 0; j < size; j++) {
+        if (this.assignable(payloads.get(i), receivers.get(j))) {
+          rv.set(i * size + j);
+        }
+      }
+    }
+    return rv;
+  }
+
   public default DeclaredType declaredType(final CharSequence canonicalName) {
     return this.declaredType(this.typeElement(canonicalName));
   }
@@ -152,6 +170,15 @@ public interface TypeAndElementSource {
     };
   }
 
+  // Element i of the returned unmodifiable List is the erasure of ts.get(i).
+  public default List<TypeMirror> erasures(final List<? extends TypeMirror> ts) {
+    final TypeMirror[] rv = new TypeMirror[ts.size()];
+    for (int i = 0; i < rv.length; i++) {
+      rv[i] = this.erasure(ts.get(i));
+    }
+    return Collections.unmodifiableList(Arrays.asList(rv));
+  }
+
   public default PrimitiveType primitiveType(final Class<?> c) {
     if (!c.isPrimitive()) {
       throw new IllegalArgumentException("c: " + c);
@@ -159,6 +186,20 @@ public interface TypeAndElementSource {
     return this.primitiveType(TypeKind.valueOf(c.getName().toUpperCase()));
   }
 
+  // Bit i * ss.size() + j is set if and only if ts.get(i) is a subtype of ss.get(j).
+  public default BitSet subtypes(final List<? extends TypeMirror> ts, final List<? extends TypeMirror> ss) {
+    final int size = ss.size();
+    final BitSet rv = new BitSet(ts.size() * size);
+    for (int i = 0; i < ts.size(); i++) {
+      for (int j = 0; j < size; j++) {
+        if (this.subtype(ts.get(i), ss.get(j))) {
+          rv.set(i * size + j);
+        }
+      }
+    }
+    return rv;
+  }
+
   public default TypeMirror type(final Type t) {
     return switch (t) {
     case null                                                     -> throw new NullPointerException();
@@ -194,6 +235,15 @@ public interface TypeAndElementSource {
     };
   }
 
+  // Element i of the returned unmodifiable List is the TypeElement bearing canonicalNames.get(i), or null.
+  public default List<TypeElement> typeElements(final List<? extends CharSequence> canonicalNames) {
+    final TypeElement[] rv = new TypeElement[canonicalNames.size()];
+    for (int i = 0; i < rv.length; i++) {
+      rv[i] = this.typeElement(canonicalNames.get(i));
+    }
+    return Collections.unmodifiableList(Arrays.asList(rv));
+  }
+
   public default WildcardType wildcardType(final java.lang.reflect.WildcardType t) {
     final Type[] lowerBounds = t.getLowerBounds();
     return this.wildcardType(this.type(t.getUpperBounds()[0]), this.type(lowerBounds.length <= 0 ? null : lowerBounds[0]));
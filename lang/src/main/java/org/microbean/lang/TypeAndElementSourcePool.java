@@ -0,0 +1,179 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.nio.file.Path;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-size pool of independent {@link JavacTypeAndElementSource}s sharing a class path, across which work may be
+ * sharded by thread or by an arbitrary key (such as a tenant identifier).
+ *
+ * <p>Each {@link JavacTypeAndElementSource} in the pool has its own javac environment and its own lock, so throughput
+ * scales with the size of the pool at the cost of one symbol table per member. Members are created lazily, the first
+ * time they are needed.</p>
+ *
+ * <p>Since the {@link javax.lang.model.element.Element}s and {@link javax.lang.model.type.TypeMirror}s produced by one
+ * member may not be passed to another, a caller must consistently use the same member for related work. The {@link
+ * #get()} and {@link #get(Object)} methods are deterministic to make this easy. Tenants with different class paths
+ * should use different pools.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see JavacTypeAndElementSource
+ */
+public final class TypeAndElementSourcePool implements AutoCloseable {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final List<? extends Path> classpath;
+
+  private final AtomicReferenceArray<JavacTypeAndElementSource> members;
+
+  private volatile boolean closed;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link TypeAndElementSourcePool} whose members use the class path of the current JVM.
+   *
+   * @param size the number of members; must be greater than {@code 0}
+   *
+   * @exception IllegalArgumentException if {@code size} is less than {@code 1}
+   */
+  public TypeAndElementSourcePool(final int size) {
+    this(size, null);
+  }
+
+  /**
+   * Creates a new {@link TypeAndElementSourcePool}.
+   *
+   * @param size the number of members; must be greater than {@code 0}
+   *
+   * @param classpath the class path each member should use; may be {@code null} in which case the class path of the
+   * current JVM will be used
+   *
+   * @exception IllegalArgumentException if {@code size} is less than {@code 1}
+   */
+  public TypeAndElementSourcePool(final int size, final Collection<? extends Path> classpath) {
+    super();
+    if (size < 1) {
+      throw new IllegalArgumentException("size: " + size);
+    }
+    this.classpath = classpath == null ? null : List.copyOf(classpath);
+    this.members = new AtomicReferenceArray<>(size);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the number of members in this {@link TypeAndElementSourcePool}.
+   *
+   * @return the number of members in this {@link TypeAndElementSourcePool}; always greater than {@code 0}
+   */
+  public final int size() {
+    return this.members.length();
+  }
+
+  /**
+   * Returns the member of this {@link TypeAndElementSourcePool} assigned to the current thread.
+   *
+   * <p>A given thread is always assigned the same member.</p>
+   *
+   * @return a non-{@code null} {@link JavacTypeAndElementSource}
+   *
+   * @exception IllegalStateException if this {@link TypeAndElementSourcePool} has been {@linkplain #close() closed}
+   */
+  public final JavacTypeAndElementSource get() {
+    return this.get(Long.hashCode(Thread.currentThread().threadId()));
+  }
+
+  /**
+   * Returns the member of this {@link TypeAndElementSourcePool} assigned to the supplied key.
+   *
+   * <p>Keys with equal {@linkplain Object#hashCode() hash codes} are always assigned the same member.</p>
+   *
+   * @param key the key; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link JavacTypeAndElementSource}
+   *
+   * @exception NullPointerException if {@code key} is {@code null}
+   *
+   * @exception IllegalStateException if this {@link TypeAndElementSourcePool} has been {@linkplain #close() closed}
+   */
+  public final JavacTypeAndElementSource get(final Object key) {
+    return this.get(Objects.requireNonNull(key, "key").hashCode());
+  }
+
+  /**
+   * Closes this {@link TypeAndElementSourcePool} and all of its members.
+   *
+   * <p>This method is idempotent.</p>
+   */
+  @Override // AutoCloseable
+  public final void close() {
+    this.closed = true; // volatile write
+    for (int i = 0; i < this.members.length(); i++) {
+      final JavacTypeAndElementSource member = this.members.getAndSet(i, null);
+      if (member != null) {
+        member.close();
+      }
+    }
+  }
+
+  private final JavacTypeAndElementSource get(final int hashCode) {
+    if (this.closed) { // volatile read
+      throw new IllegalStateException("closed");
+    }
+    final int index = Math.floorMod(hashCode, this.members.length());
+    JavacTypeAndElementSource member = this.members.get(index);
+    if (member == null) {
+      final JavacTypeAndElementSource newMember =
+        this.classpath == null ? new JavacTypeAndElementSource() : new JavacTypeAndElementSource(this.classpath);
+      member = this.members.compareAndExchange(index, null, newMember);
+      if (member == null) {
+        member = newMember;
+        if (this.closed) { // volatile read; close() raced with us
+          this.members.compareAndSet(index, newMember, null);
+          newMember.close();
+          throw new IllegalStateException("closed");
+        }
+      } else {
+        // Another thread won the race.
+        newMember.close();
+      }
+    }
+    return member;
+  }
+
+}
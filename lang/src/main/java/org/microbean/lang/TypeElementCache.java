@@ -0,0 +1,354 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import java.util.function.BiFunction;
+
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * A concurrent, optionally bounded cache of {@link TypeElement}s indexed by canonical name and (optional) {@link
+ * ModuleElement}.
+ *
+ * <p>Lookups that hit the cache do not acquire any lock. Lookups that miss the cache compute their result outside of
+ * any cache-internal lock, so a computation may itself acquire the {@link CompletionLock} without risk of deadlock. If
+ * two threads race to compute the same entry, one result wins and is returned to both threads, so for any given key
+ * this cache always yields the same {@link TypeElement} instance.</p>
+ *
+ * <p>A cache with a {@linkplain #maximumSize() maximum size} greater than {@code 0} evicts entries, according to its
+ * {@linkplain #eviction() eviction policy}, once it grows beyond that size. Eviction is approximate: it happens in
+ * batches, access bookkeeping is racy by design, and the cache may briefly exceed its maximum size while another thread
+ * is evicting.</p>
+ *
+ * <p>{@code null} results are never cached.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see Lang#typeElementCache()
+ */
+public final class TypeElementCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final VarHandle FREQUENCY;
+
+  static {
+    try {
+      FREQUENCY = MethodHandles.lookup().findVarHandle(Entry.class, "frequency", long.class);
+    } catch (final NoSuchFieldException | IllegalAccessException e) {
+      throw (ExceptionInInitializerError)new ExceptionInInitializerError(e.getMessage()).initCause(e);
+    }
+  }
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final int maximumSize;
+
+  private final Eviction eviction;
+
+  private final ConcurrentMap<Key, Entry> map;
+
+  private final Lock evictionLock;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  private final LongAdder evictions;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new, unbounded {@link TypeElementCache}.
+   */
+  public TypeElementCache() {
+    this(0, Eviction.LRU);
+  }
+
+  /**
+   * Creates a new {@link TypeElementCache}.
+   *
+   * @param maximumSize the maximum number of entries the cache should hold; {@code 0} or less means the cache is
+   * unbounded
+   *
+   * @param eviction the {@link Eviction} policy to use when the cache is bounded; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code eviction} is {@code null}
+   */
+  public TypeElementCache(final int maximumSize, final Eviction eviction) {
+    super();
+    this.maximumSize = Math.max(0, maximumSize);
+    this.eviction = Objects.requireNonNull(eviction, "eviction");
+    this.map = new ConcurrentHashMap<>();
+    this.evictionLock = new ReentrantLock();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link TypeElement} indexed under the supplied {@link ModuleElement} and canonical name, computing and
+   * caching it with the supplied {@link BiFunction} if necessary.
+   *
+   * @param moduleElement the {@link ModuleElement} forming part of the key; may be {@code null}
+   *
+   * @param canonicalName the canonical name forming part of the key; must not be {@code null}
+   *
+   * @param f a {@link BiFunction} that computes a {@link TypeElement} on a cache miss; must not be {@code null}; may
+   * return {@code null}; its result will not be cached if it is {@code null}
+   *
+   * @return a {@link TypeElement}, or {@code null}
+   *
+   * @exception NullPointerException if {@code canonicalName} or {@code f} is {@code null}
+   */
+  public final TypeElement computeIfAbsent(final ModuleElement moduleElement,
+                                           final CharSequence canonicalName,
+                                           final BiFunction<? super ModuleElement, ? super String, ? extends TypeElement> f) {
+    Objects.requireNonNull(f, "f");
+    final Key key = new Key(moduleElement, canonicalName.toString());
+    Entry entry = this.map.get(key);
+    if (entry != null) {
+      this.hits.increment();
+      if (this.maximumSize > 0) {
+        entry.touch();
+      }
+      return entry.typeElement;
+    }
+    this.misses.increment();
+    final TypeElement typeElement = f.apply(moduleElement, key.canonicalName());
+    if (typeElement == null) {
+      return null;
+    }
+    entry = new Entry(typeElement);
+    final Entry existingEntry = this.map.putIfAbsent(key, entry);
+    if (existingEntry != null) {
+      // Another thread won the race; use its result so that callers always see the same instance.
+      return existingEntry.typeElement;
+    }
+    if (this.maximumSize > 0 && this.map.size() > this.maximumSize) {
+      this.evict();
+    }
+    return typeElement;
+  }
+
+  /**
+   * Returns the number of cache hits recorded so far.
+   *
+   * @return the number of cache hits recorded so far
+   */
+  public final long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Returns the number of cache misses recorded so far.
+   *
+   * @return the number of cache misses recorded so far
+   */
+  public final long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the number of entries evicted so far.
+   *
+   * @return the number of entries evicted so far
+   */
+  public final long evictions() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * Returns the number of entries currently in this {@link TypeElementCache}.
+   *
+   * @return the number of entries currently in this {@link TypeElementCache}
+   */
+  public final int size() {
+    return this.map.size();
+  }
+
+  /**
+   * Returns the maximum size of this {@link TypeElementCache}, or {@code 0} if it is unbounded.
+   *
+   * @return the maximum size of this {@link TypeElementCache}, or {@code 0} if it is unbounded
+   */
+  public final int maximumSize() {
+    return this.maximumSize;
+  }
+
+  /**
+   * Returns the {@link Eviction} policy in effect for this {@link TypeElementCache}.
+   *
+   * @return the {@link Eviction} policy in effect for this {@link TypeElementCache}; never {@code null}
+   */
+  public final Eviction eviction() {
+    return this.eviction;
+  }
+
+  /**
+   * Removes all entries from this {@link TypeElementCache} and resets its counters.
+   */
+  public final void clear() {
+    this.map.clear();
+    this.hits.reset();
+    this.misses.reset();
+    this.evictions.reset();
+  }
+
+  // Called by Lang#typeElements(List). Does not count as a hit or a miss.
+  final boolean contains(final ModuleElement moduleElement, final CharSequence canonicalName) {
+    return this.map.containsKey(new Key(moduleElement, canonicalName.toString()));
+  }
+
+  @Override // Object
+  public final String toString() {
+    return
+      this.getClass().getSimpleName() +
+      "[size=" + this.size() +
+      ", maximumSize=" + this.maximumSize +
+      ", eviction=" + this.eviction +
+      ", hits=" + this.hits() +
+      ", misses=" + this.misses() +
+      ", evictions=" + this.evictions() +
+      "]";
+  }
+
+  private final void evict() {
+    if (!this.evictionLock.tryLock()) {
+      // Some other thread is already evicting.
+      return;
+    }
+    try {
+      final int size = this.map.size();
+      // Evict in batches so that the (linear) selection of victims is amortized over many insertions.
+      final int target = this.maximumSize - (this.maximumSize >> 3);
+      if (size <= target) {
+        return;
+      }
+      // Other threads keep touching entries while we work, so sort immutable snapshots of their statistics; sorting on
+      // the live (volatile) fields would make the comparator inconsistent.
+      final List<Victim> victims = new ArrayList<>(size + (size >> 3));
+      for (final Map.Entry<Key, Entry> e : this.map.entrySet()) {
+        final Entry entry = e.getValue();
+        victims.add(new Victim(e.getKey(), entry, entry.lastAccess, entry.frequency()));
+      }
+      victims.sort(switch (this.eviction) {
+        case LFU -> Comparator.comparingLong(Victim::frequency).thenComparingLong(Victim::lastAccess);
+        case LRU -> Comparator.comparingLong(Victim::lastAccess);
+        });
+      for (int i = 0; i < victims.size() && this.map.size() > target; i++) {
+        final Victim victim = victims.get(i);
+        if (this.map.remove(victim.key(), victim.entry())) {
+          this.evictions.increment();
+        }
+      }
+    } finally {
+      this.evictionLock.unlock();
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * An eviction policy for a bounded {@link TypeElementCache}.
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static enum Eviction {
+
+    /**
+     * Evicts least recently used entries first.
+     */
+    LRU,
+
+    /**
+     * Evicts least frequently used entries first, breaking ties by evicting least recently used entries first.
+     */
+    LFU;
+
+  }
+
+  private static final record Key(ModuleElement moduleElement, String canonicalName) {}
+
+  private static final record Victim(Key key, Entry entry, long lastAccess, long frequency) {}
+
+  private static final class Entry {
+
+    private final TypeElement typeElement;
+
+    // Racy by design; used only as an eviction heuristic.
+    private volatile long lastAccess;
+
+    // Updated via FREQUENCY.
+    private volatile long frequency;
+
+    private Entry(final TypeElement typeElement) {
+      super();
+      this.typeElement = typeElement;
+      this.lastAccess = System.nanoTime();
+      this.frequency = 1L;
+    }
+
+    private final void touch() {
+      this.lastAccess = System.nanoTime();
+      FREQUENCY.getAndAddRelease(this, 1L);
+    }
+
+    private final long frequency() {
+      return this.frequency;
+    }
+
+  }
+
+}
@@ -0,0 +1,177 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent cache whose keys are compared by identity and held weakly, so that an entry is removed once its key is
+ * otherwise unreachable.
+ *
+ * <p>Lookups do not acquire any lock. {@code null} keys and values are not permitted.</p>
+ *
+ * <p>A value must not strongly refer to its key, or the entry will never be removed.</p>
+ *
+ * @param <K> the type of the keys
+ *
+ * @param <V> the type of the values
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ */
+public final class WeakIdentityCache<K, V> {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final ConcurrentMap<IdentityKey<K>, V> map;
+
+  private final ReferenceQueue<K> queue;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new, empty {@link WeakIdentityCache}.
+   */
+  public WeakIdentityCache() {
+    super();
+    this.map = new ConcurrentHashMap<>();
+    this.queue = new ReferenceQueue<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the value associated with the supplied key, or {@code null} if there is none.
+   *
+   * @param k the key; must not be {@code null}
+   *
+   * @return the value associated with {@code k}, or {@code null}
+   *
+   * @exception NullPointerException if {@code k} is {@code null}
+   */
+  public final V get(final K k) {
+    this.expunge();
+    return this.map.get(new IdentityKey<>(Objects.requireNonNull(k, "k"), null));
+  }
+
+  /**
+   * Returns the value already associated with the supplied key, or, if there was none, associates the supplied value
+   * with it and returns that value.
+   *
+   * @param k the key; must not be {@code null}
+   *
+   * @param v the value; must not be {@code null}
+   *
+   * @return the value associated with {@code k}; never {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   */
+  public final V putIfAbsent(final K k, final V v) {
+    final V old = this.map.putIfAbsent(new IdentityKey<>(Objects.requireNonNull(k, "k"), this.queue), Objects.requireNonNull(v, "v"));
+    return old == null ? v : old;
+  }
+
+  /**
+   * Associates the supplied value with the supplied key, replacing any value already associated with it.
+   *
+   * @param k the key; must not be {@code null}
+   *
+   * @param v the value; must not be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   */
+  public final void put(final K k, final V v) {
+    this.expunge();
+    this.map.put(new IdentityKey<>(Objects.requireNonNull(k, "k"), this.queue), Objects.requireNonNull(v, "v"));
+  }
+
+  /**
+   * Removes every entry from this {@link WeakIdentityCache}.
+   */
+  public final void clear() {
+    this.map.clear();
+    this.expunge();
+  }
+
+  /**
+   * Returns the number of entries in this {@link WeakIdentityCache}, not counting any whose keys have been reclaimed.
+   *
+   * @return the number of entries; always {@code 0} or greater
+   */
+  public final int size() {
+    this.expunge();
+    return this.map.size();
+  }
+
+  private final void expunge() {
+    Reference<?> r;
+    while ((r = this.queue.poll()) != null) {
+      this.map.remove(r);
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A weak reference to a key that is equal only to other IdentityKeys referring to the same key (or to itself, once
+  // cleared).
+  private static final class IdentityKey<K> extends WeakReference<K> {
+
+    private final int hashCode;
+
+    private IdentityKey(final K k, final ReferenceQueue<? super K> q) {
+      super(k, q);
+      this.hashCode = System.identityHashCode(k);
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other instanceof IdentityKey<?> ik) {
+        final Object k = this.get();
+        return k != null && k == ik.get();
+      }
+      return false;
+    }
+
+  }
+
+}
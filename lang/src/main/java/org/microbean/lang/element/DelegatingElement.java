@@ -94,6 +94,9 @@ public final class DelegatingElement
 
   private Supplier<Element> delegateSupplier;
 
+  // The structural hash code, cached once the delegate is known to be immutable; 0 means not cached.
+  private int hashCode;
+
   private final TypeAndElementSource tes;
 
   private final Equality ehc;
@@ -113,14 +116,9 @@ public final class DelegatingElement
     this.ehc = ehc == null ? new Equality(true) : ehc;
     this.delegateSupplier = () -> {
       final Element unwrappedDelegate = unwrap(delegate);
-      CompletionLock.acquire();
-      try {
-        // Eagerly complete
-        unwrappedDelegate.getKind();
-        this.delegateSupplier = () -> unwrappedDelegate;
-      } finally {
-        CompletionLock.release();
-      }
+      // Eagerly complete (if necessary)
+      CompletionLock.guard(unwrappedDelegate, unwrappedDelegate::getKind);
+      this.delegateSupplier = () -> unwrappedDelegate;
       return unwrappedDelegate;
     };
   }
@@ -394,7 +392,16 @@ public final class DelegatingElement
 
   @Override // Element
   public final int hashCode() {
-    return this.ehc.hashCode(this);
+    int hashCode = this.hashCode;
+    if (hashCode == 0) {
+      hashCode = this.ehc.hashCode(this);
+      // Only javac's elements and frozen elements of this project's own model are immutable; caching the hash code of
+      // an element that can still gain members, annotations or a type would break hashed collections.
+      if (!(this.delegate() instanceof org.microbean.lang.AnnotatedConstruct ac) || ac.frozen()) {
+        this.hashCode = hashCode;
+      }
+    }
+    return hashCode;
   }
 
   @Override // Element
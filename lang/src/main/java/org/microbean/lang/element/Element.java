@@ -15,11 +15,17 @@ package org.microbean.lang.element;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ElementVisitor;
 import javax.lang.model.element.Modifier;
@@ -41,7 +47,11 @@ public abstract sealed class Element
           TypeParameterElement,
           VariableElement {
 
-  private final List<javax.lang.model.element.Element> enclosedElements;
+  // Canonical immutable modifier sets, indexed by packed bitset (bit n is set if Modifier with ordinal n is present),
+  // shared by all frozen elements.
+  private static final ConcurrentMap<Integer, Set<Modifier>> modifierSets = new ConcurrentHashMap<>();
+
+  private List<javax.lang.model.element.Element> enclosedElements;
 
   // Treat as effectively final, please.
   private List<javax.lang.model.element.Element> unmodifiableEnclosedElements;
@@ -52,9 +62,10 @@ public abstract sealed class Element
 
   private final ElementKind kind;
 
-  private final Set<Modifier> modifiers;
+  // null once frozen
+  private Set<Modifier> modifiers;
 
-  private final Set<Modifier> unmodifiableModifiers;
+  private Set<Modifier> unmodifiableModifiers;
 
   private Name simpleName;
 
@@ -91,6 +102,7 @@ public abstract sealed class Element
     final TypeMirror old = this.asType();
     if (old == null) {
       if (type != null) {
+        this.checkMutable();
         this.type = this.validateType(type);
       }
     } else if (old != type) {
@@ -117,6 +129,7 @@ public abstract sealed class Element
   }
 
   public final void setEnclosedElementsGenerator(final Runnable f) {
+    this.checkMutable();
     if (this.enclosedElementsGenerator == null) {
       this.enclosedElementsGenerator = Objects.requireNonNull(f, "f");
     } else if (this.enclosedElementsGenerator != f) {
@@ -127,6 +140,7 @@ public abstract sealed class Element
   // Deliberately not final to permit subclasses to override to throw UnsupportedOperationException.
   @Override // Encloser
   public <E extends javax.lang.model.element.Element & Encloseable> void addEnclosedElement(final E e) {
+    this.checkMutable();
     this.validateEnclosedElement(e).setEnclosingElement(this);
     this.enclosedElements.add(e);
   }
@@ -159,6 +173,7 @@ public abstract sealed class Element
   }
 
   public final boolean addModifier(final Modifier modifier) {
+    this.checkMutable();
     return this.modifiers.add(this.validateModifier(modifier));
   }
 
@@ -181,6 +196,7 @@ public abstract sealed class Element
     final Name old = this.getSimpleName();
     if (old == null) {
       if (simpleName != null) {
+        this.checkMutable();
         this.simpleName = this.validateSimpleName(simpleName);
       }
     } else if (old != simpleName) {
@@ -225,6 +241,7 @@ public abstract sealed class Element
       if (enclosingElement != null) {
         if (enclosingElement != this) {
           if (canEnclose(enclosingElement.getKind(), this.getKind())) {
+            this.checkMutable();
             this.enclosingElement = enclosingElement;
             if (enclosingElement instanceof Encloser e) {
               e.addEnclosedElement(this);
@@ -241,6 +258,25 @@ public abstract sealed class Element
     }
   }
 
+  @Override // AnnotatedConstruct
+  protected void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    // Run any generator now so that getEnclosedElements() never writes to a frozen element.
+    this.getEnclosedElements();
+    this.enclosedElementsGenerator = null;
+    this.enclosedElements = frozen(this.enclosedElements);
+    this.unmodifiableEnclosedElements = this.enclosedElements;
+    int bits = 0;
+    for (final Modifier m : this.modifiers) {
+      bits |= 1 << m.ordinal();
+    }
+    this.unmodifiableModifiers = modifierSet(bits);
+    this.modifiers = null;
+    this.enclosedElements.forEach(c);
+    c.accept(this.enclosingElement);
+    c.accept(this.type);
+  }
+
   @Override
   public String toString() {
     final CharSequence n = this instanceof QualifiedNameable q ? q.getQualifiedName() : this.getSimpleName();
@@ -253,6 +289,18 @@ public abstract sealed class Element
    */
 
 
+  private static final Set<Modifier> modifierSet(final int bits) {
+    return modifierSets.computeIfAbsent(bits, b -> {
+        final Set<Modifier> s = EnumSet.noneOf(Modifier.class);
+        for (final Modifier m : Modifier.values()) {
+          if ((b & (1 << m.ordinal())) != 0) {
+            s.add(m);
+          }
+        }
+        return Collections.unmodifiableSet(s);
+      });
+  }
+
   public static final boolean canEnclose(final ElementKind k1, final ElementKind k2) {
     return switch (k1) {
     case MODULE -> k2 == ElementKind.PACKAGE;
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -37,9 +39,9 @@ import javax.lang.model.type.TypeMirror;
 
 public final class ExecutableElement extends Parameterizable implements javax.lang.model.element.ExecutableElement {
 
-  private final List<VariableElement> parameters;
+  private List<VariableElement> parameters;
 
-  private final List<VariableElement> unmodifiableParameters;
+  private List<VariableElement> unmodifiableParameters;
 
   private Boolean isDefault;
 
@@ -97,6 +99,7 @@ public final class ExecutableElement extends Parameterizable implements javax.la
   public final void setDefault(final boolean isDefault) {
     final Boolean old = this.isDefault;
     if (old == null) {
+      this.checkMutable();
       this.isDefault = Boolean.valueOf(isDefault);
     } else if (!old.booleanValue() == isDefault) {
       throw new IllegalStateException();
@@ -112,6 +115,7 @@ public final class ExecutableElement extends Parameterizable implements javax.la
   public final void setVarArgs(final boolean varArgs) {
     final Boolean old = this.varArgs;
     if (old == null) {
+      this.checkMutable();
       this.varArgs = Boolean.valueOf(varArgs);
     } else if (!old.booleanValue() == varArgs) {
       throw new IllegalStateException();
@@ -127,6 +131,7 @@ public final class ExecutableElement extends Parameterizable implements javax.la
     final Object old = this.getDefaultValue();
     if (old == null) {
       if (defaultValue != null) {
+        this.checkMutable();
         this.defaultValue = validateDefaultValue(defaultValue);
       }
     } else if (old != defaultValue) {
@@ -140,6 +145,7 @@ public final class ExecutableElement extends Parameterizable implements javax.la
   }
 
   public void addParameter(final VariableElement p) {
+    this.checkMutable();
     this.parameters.add(this.validateParameter(p));
   }
 
@@ -168,6 +174,14 @@ public final class ExecutableElement extends Parameterizable implements javax.la
     return ((ExecutableType)this.asType()).getReturnType();
   }
 
+  @Override // Parameterizable
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.parameters = frozen(this.parameters);
+    this.unmodifiableParameters = this.parameters;
+    this.parameters.forEach(c);
+  }
+
   @Override
   public final String toString() {
     final StringBuilder sb = new StringBuilder();
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ElementVisitor;
@@ -37,9 +39,9 @@ public final class ModuleElement extends org.microbean.lang.element.Element impl
 
   private final boolean open;
 
-  private final List<Directive> directives;
+  private List<Directive> directives;
 
-  private final List<Directive> unmodifiableDirectives;
+  private List<Directive> unmodifiableDirectives;
 
 
   /*
@@ -80,6 +82,7 @@ public final class ModuleElement extends org.microbean.lang.element.Element impl
   }
 
   public final void addDirective(final Directive directive) {
+    this.checkMutable();
     this.directives.add(validateDirective(directive));
   }
 
@@ -114,6 +117,13 @@ public final class ModuleElement extends org.microbean.lang.element.Element impl
     return this.getSimpleName();
   }
 
+  @Override // Element
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.directives = frozen(this.directives);
+    this.unmodifiableDirectives = this.directives;
+  }
+
 
   /*
    * Static methods.
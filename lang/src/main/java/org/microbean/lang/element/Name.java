@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,69 +16,68 @@
  */
 package org.microbean.lang.element;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import java.util.stream.IntStream;
 
 import org.microbean.lang.CompletionLock;
 
+/**
+ * An immutable, interned {@link javax.lang.model.element.Name} implementation.
+ *
+ * <p>All {@link Name}s are obtained from the {@code of} methods, which intern them in a weak, concurrent table: at any
+ * moment, there is at most one reachable {@link Name} with any given content, so {@link #equals(Object)} is in practice
+ * an identity comparison. Each {@link Name}'s {@linkplain #hashCode() hash code} is computed once, at construction
+ * time, and is equal to that of its {@linkplain #toString() <code>String</code> content}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ */
 public final class Name implements javax.lang.model.element.Name {
 
-  private static final Name EMPTY = new Name("");
+
+  /*
+   * Static fields.
+   */
+
+
+  // Content to interned Name. Values are weakly reachable; stale entries are expunged as their Names are collected.
+  private static final ConcurrentMap<String, Ref> names = new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<Name> queue = new ReferenceQueue<>();
+
+  private static final Name EMPTY = intern("");
+
+
+  /*
+   * Instance fields.
+   */
+
 
   private final String content;
 
-  private Name() {
-    super();
-    this.content = "";
-  }
+  private final int hashCode;
+
+
+  /*
+   * Constructors.
+   */
+
 
   private Name(final String s) {
     super();
-    this.content = s == null ? "" : s;
+    this.content = s;
+    this.hashCode = s.hashCode();
   }
 
-  private Name(final javax.lang.model.element.Name name) {
-    super();
-    this.content = switch (name) {
-    case null -> "";
-    case Name n -> n.content;
-    default -> {
-      final String s;
-      CompletionLock.acquire();
-      try {
-        s = name.toString();
-      } finally {
-        CompletionLock.release();
-      }
-      yield s == null ? "" : s;
-    }};
-  }
 
-  private Name(final CharSequence cs) {
-    super();
-    this.content = switch (cs) {
-    case null -> "";
-    case Name n -> n.content;
-    case javax.lang.model.element.Name n -> {
-      final String s;
-      CompletionLock.acquire();
-      try {
-        s = n.toString();
-      } finally {
-        CompletionLock.release();
-      }
-      yield s == null ? "" : s;
-    }
-    default -> {
-      final String s = cs.toString();
-      yield s == null ? "" : s;
-    }
-    };
-  }
+  /*
+   * Instance methods.
+   */
 
-  private Name(final Name n) {
-    super();
-    this.content = n == null ? "" : n.content;
-  }
 
   @Override // CharSequence
   public final char charAt(final int index) {
@@ -102,14 +101,14 @@ public final class Name implements javax.lang.model.element.Name {
 
   @Override // CharSequence
   public final Name subSequence(final int start, final int end) {
-    return of(this.content.subSequence(start, end));
+    return of(this.content.substring(start, end));
   }
 
   @Override // Name
   public final boolean contentEquals(final CharSequence cs) {
     return switch (cs) {
     case null -> false;
-    case Name n -> this.content.equals(n.content);
+    case Name n -> this == n;
     case javax.lang.model.element.Name n -> {
       CompletionLock.acquire();
       try {
@@ -118,24 +117,19 @@ public final class Name implements javax.lang.model.element.Name {
         CompletionLock.release();
       }
     }
-    default -> this.content.equals(cs.toString());
+    default -> this.content.contentEquals(cs);
     };
   }
 
   @Override // Object
   public final int hashCode() {
-    return this.content.hashCode();
+    return this.hashCode;
   }
 
   @Override // Object
   public final boolean equals(final Object other) {
-    if (this == other) {
-      return true;
-    } else if (other != null && this.getClass() == other.getClass()) {
-      return this.content.equals(((Name)other).content);
-    } else {
-      return false;
-    }
+    // Names are interned, so two distinct Names never have the same content.
+    return this == other;
   }
 
   @Override // CharSequence
@@ -158,14 +152,16 @@ public final class Name implements javax.lang.model.element.Name {
     case null -> EMPTY;
     case Name n -> n;
     case javax.lang.model.element.Name n -> {
+      final String s;
       CompletionLock.acquire();
       try {
-        yield n.length() <= 0 ? EMPTY : new Name(n);
+        s = n.toString();
       } finally {
         CompletionLock.release();
       }
+      yield of(s);
     }
-    default -> cs.length() <= 0 ? EMPTY : new Name(cs);
+    default -> of(cs.toString());
     };
   }
 
@@ -174,7 +170,7 @@ public final class Name implements javax.lang.model.element.Name {
   }
 
   public static final Name of(final String s) {
-    return s == null || s.isEmpty() ? EMPTY : new Name(s);
+    return s == null || s.isEmpty() ? EMPTY : intern(s);
   }
 
   public static final Name ofSimple(final CharSequence cs) {
@@ -199,4 +195,52 @@ public final class Name implements javax.lang.model.element.Name {
     return of(s);
   }
 
+  private static final Name intern(final String s) {
+    Ref ref = names.get(s);
+    Name n = ref == null ? null : ref.get();
+    if (n != null) {
+      return n;
+    }
+    expungeStaleEntries();
+    final Name candidate = new Name(s);
+    while (true) {
+      ref = names.putIfAbsent(s, new Ref(candidate));
+      if (ref == null) {
+        return candidate;
+      }
+      n = ref.get();
+      if (n != null) {
+        return n; // another thread won the race
+      }
+      // The existing entry is stale; replace it, unless someone else already has.
+      if (names.replace(s, ref, new Ref(candidate))) {
+        return candidate;
+      }
+    }
+  }
+
+  private static final void expungeStaleEntries() {
+    Ref ref;
+    while ((ref = (Ref)queue.poll()) != null) {
+      names.remove(ref.content, ref);
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Ref extends WeakReference<Name> {
+
+    private final String content;
+
+    private Ref(final Name n) {
+      super(n, queue);
+      this.content = n.content;
+    }
+
+  }
+
 }
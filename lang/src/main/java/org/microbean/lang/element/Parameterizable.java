@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeParameterElement;
 
@@ -31,9 +33,9 @@ import javax.lang.model.type.TypeVariable;
 public abstract sealed class Parameterizable extends Element implements javax.lang.model.element.Parameterizable
   permits ExecutableElement, TypeElement {
 
-  private final List<TypeParameterElement> typeParameters;
+  private List<TypeParameterElement> typeParameters;
 
-  private final List<TypeParameterElement> unmodifiableTypeParameters;
+  private List<TypeParameterElement> unmodifiableTypeParameters;
 
   protected Parameterizable(final ElementKind kind) {
     super(kind); // no need to validate; sealed class; subclasses already validate
@@ -47,6 +49,7 @@ public abstract sealed class Parameterizable extends Element implements javax.la
   }
 
   public final <P extends TypeParameterElement & Encloseable> void addTypeParameter(final P tp) {
+    this.checkMutable();
     this.typeParameters.add(validateAndEncloseTypeParameter(tp));
   }
 
@@ -81,6 +84,14 @@ public abstract sealed class Parameterizable extends Element implements javax.la
     return false;
   }
 
+  @Override // Element
+  protected void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.typeParameters = frozen(this.typeParameters);
+    this.unmodifiableTypeParameters = this.typeParameters;
+    this.typeParameters.forEach(c);
+  }
+
 
   /*
    * Static methods.
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2023 microBean™.
+ * Copyright © 2023–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.microbean.lang.element;
 
 import java.util.Set;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ElementVisitor;
 import javax.lang.model.element.ExecutableElement;
@@ -55,6 +57,7 @@ public final class RecordComponentElement extends Element implements javax.lang.
     final Object old = this.getAccessor();
     if (old == null) {
       if (e != null) {
+        this.checkMutable();
         this.accessor = this.validateAccessor(e);
       }
     } else if (old != e) {
@@ -62,6 +65,12 @@ public final class RecordComponentElement extends Element implements javax.lang.
     }
   }
 
+  @Override // Element
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.accessor);
+  }
+
   @Override
   protected final <E extends javax.lang.model.element.Element> E validateEnclosedElement(final E e) {
     throw new IllegalArgumentException("record components cannot enclose Elements");
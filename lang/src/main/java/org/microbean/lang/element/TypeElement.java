@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ElementVisitor;
 import javax.lang.model.element.NestingKind;
@@ -36,17 +38,17 @@ public final class TypeElement extends Parameterizable implements javax.lang.mod
 
   private TypeMirror superclass;
 
-  private final List<TypeMirror> interfaces;
+  private List<TypeMirror> interfaces;
 
-  private final List<TypeMirror> unmodifiableInterfaces;
+  private List<TypeMirror> unmodifiableInterfaces;
 
-  private final List<TypeMirror> permittedSubclasses;
+  private List<TypeMirror> permittedSubclasses;
 
-  private final List<TypeMirror> unmodifiablePermittedSubclasses;
+  private List<TypeMirror> unmodifiablePermittedSubclasses;
 
-  private final List<RecordComponentElement> recordComponents;
+  private List<RecordComponentElement> recordComponents;
 
-  private final List<RecordComponentElement> unmodifiableRecordComponents;
+  private List<RecordComponentElement> unmodifiableRecordComponents;
 
   public TypeElement(final ElementKind kind) {
     this(kind, NestingKind.TOP_LEVEL);
@@ -81,6 +83,7 @@ public final class TypeElement extends Parameterizable implements javax.lang.mod
 
   @SuppressWarnings("fallthrough")
   public final void addInterface(final TypeMirror i) {
+    this.checkMutable();
     switch (i.getKind()) {
     case DECLARED:
       switch (((DeclaredType)i).asElement().getKind()) {
@@ -128,6 +131,7 @@ public final class TypeElement extends Parameterizable implements javax.lang.mod
     final Object old = this.getSuperclass();
     if (old == null) {
       if (superclass != null) {
+        this.checkMutable();
         this.superclass = validateSuperclass(superclass);
       }
     } else if (old != superclass) {
@@ -141,6 +145,7 @@ public final class TypeElement extends Parameterizable implements javax.lang.mod
   }
 
   public final void addPermittedSubclass(final TypeMirror t) {
+    this.checkMutable();
     this.permittedSubclasses.add(this.validatePermittedSubclass(t));
   }
 
@@ -201,6 +206,21 @@ public final class TypeElement extends Parameterizable implements javax.lang.mod
     }
   }
 
+  @Override // Parameterizable
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.interfaces = frozen(this.interfaces);
+    this.unmodifiableInterfaces = this.interfaces;
+    this.permittedSubclasses = frozen(this.permittedSubclasses);
+    this.unmodifiablePermittedSubclasses = this.permittedSubclasses;
+    this.recordComponents = frozen(this.recordComponents);
+    this.unmodifiableRecordComponents = this.recordComponents;
+    c.accept(this.superclass);
+    this.interfaces.forEach(c);
+    this.permittedSubclasses.forEach(c);
+    this.recordComponents.forEach(c);
+  }
+
   @Override
   public final String toString() {
     final CharSequence n = this.getQualifiedName();
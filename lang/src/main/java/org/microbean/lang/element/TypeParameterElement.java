@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2023 microBean™.
+ * Copyright © 2023–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.microbean.lang.element;
 
 import java.util.List;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ElementVisitor;
 
@@ -85,6 +87,7 @@ public final class TypeParameterElement extends Element implements javax.lang.mo
     final Object old = this.getGenericElement();
     if (old == null) {
       if (genericElement != null) {
+        this.checkMutable();
         this.genericElement = validateGenericElement(genericElement);
       }
     } else if (old != genericElement) {
@@ -92,6 +95,12 @@ public final class TypeParameterElement extends Element implements javax.lang.mo
     }
   }
 
+  @Override // Element
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.genericElement);
+  }
+
   @Override
   public final String toString() {
     return this.getSimpleName() + " " + this.asType();
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2023 microBean™.
+ * Copyright © 2023–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -55,6 +55,7 @@ public final class VariableElement extends Element implements javax.lang.model.e
     final Object old = this.getConstantValue();
     if (old == null) {
       if (constantValue != null) {
+        this.checkMutable();
         this.constantValue = validateConstantValue(constantValue);
       }
     } else if (old != constantValue) {
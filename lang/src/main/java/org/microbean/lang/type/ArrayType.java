@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
  * the License.  You may obtain a copy of the License at
@@ -13,6 +13,8 @@
  */
 package org.microbean.lang.type;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeVisitor;
 
@@ -83,6 +85,7 @@ public final class ArrayType extends TypeMirror implements javax.lang.model.type
     final javax.lang.model.type.TypeMirror old = this.getComponentType();
     if (old == null) {
       if (componentType != null) {
+        this.checkMutable();
         this.componentType = this.validateComponentType(componentType);
       }
     } else if (old != componentType) {
@@ -90,6 +93,12 @@ public final class ArrayType extends TypeMirror implements javax.lang.model.type
     }
   }
 
+  @Override // TypeMirror
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.componentType);
+  }
+
   @Override // Object
   public final String toString() {
     return this.componentType + "[]";
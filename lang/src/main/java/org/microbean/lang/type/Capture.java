@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
  */
 package org.microbean.lang.type;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 
 import javax.lang.model.type.TypeKind;
@@ -71,6 +73,7 @@ public final class Capture extends DefineableType<javax.lang.model.element.TypeP
     final Object old = this.getLowerBound();
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.lowerBound = validateLowerBound(t);
       }
     } else if (old != t) {
@@ -87,6 +90,7 @@ public final class Capture extends DefineableType<javax.lang.model.element.TypeP
     final Object old = this.getUpperBound();
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.upperBound = validateUpperBound(t);
       }
     } else if (old != t) {
@@ -98,6 +102,14 @@ public final class Capture extends DefineableType<javax.lang.model.element.TypeP
     return this.wildcardType;
   }
 
+  @Override // DefineableType<TypeParameterElement>
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.upperBound);
+    c.accept(this.lowerBound);
+    c.accept(this.wildcardType);
+  }
+
 
   /*
    * Static methods.
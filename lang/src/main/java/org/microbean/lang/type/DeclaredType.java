@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.TypeElement;
 
 import javax.lang.model.type.TypeKind;
@@ -38,9 +40,9 @@ public sealed class DeclaredType extends DefineableType<TypeElement> implements
   private TypeMirror enclosingType;
 
   // ArrayType, DeclaredType, ErrorType, TypeVariable, WildcardType
-  private final List<TypeMirror> typeArguments;
+  private List<TypeMirror> typeArguments;
 
-  private final List<TypeMirror> unmodifiableTypeArguments;
+  private List<TypeMirror> unmodifiableTypeArguments;
 
   // See
   // https://github.com/openjdk/jdk/blob/jdk-20+11/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Type.java#L1197-L1200
@@ -125,6 +127,7 @@ public sealed class DeclaredType extends DefineableType<TypeElement> implements
   public final void setErased(final boolean b) {
     final Boolean old = this.erased;
     if (old == null) {
+      this.checkMutable();
       this.erased = Boolean.valueOf(b);
     } else if (!old.equals(Boolean.valueOf(b))) {
       throw new IllegalStateException();
@@ -140,6 +143,7 @@ public sealed class DeclaredType extends DefineableType<TypeElement> implements
     final Object old = this.getEnclosingType();
     if (old == null) {
       if (enclosingType != null) {
+        this.checkMutable();
         this.enclosingType = this.validateEnclosingType(enclosingType);
       }
     } else if (old != enclosingType) {
@@ -168,6 +172,7 @@ public sealed class DeclaredType extends DefineableType<TypeElement> implements
   }
 
   public final void addTypeArgument(final TypeMirror t) {
+    this.checkMutable();
     this.typeArguments.add(this.validateTypeArgument(t));
   }
 
@@ -197,6 +202,15 @@ public sealed class DeclaredType extends DefineableType<TypeElement> implements
     return t;
   }
 
+  @Override // DefineableType<TypeElement>
+  protected void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.typeArguments = frozen(this.typeArguments);
+    this.unmodifiableTypeArguments = this.typeArguments;
+    c.accept(this.enclosingType);
+    this.typeArguments.forEach(c);
+  }
+
   @Override
   public String toString() {
     final Object element = this.asElement();
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
  */
 package org.microbean.lang.type;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.Element;
 
 import javax.lang.model.type.TypeKind;
@@ -36,6 +38,7 @@ public abstract sealed class DefineableType<E extends Element> extends TypeMirro
     final E old = this.asElement();
     if (old == null) {
       if (definingElement != null) {
+        this.checkMutable();
         this.definingElement = this.validateDefiningElement(definingElement);
       }
     } else if (old != definingElement) {
@@ -52,6 +55,12 @@ public abstract sealed class DefineableType<E extends Element> extends TypeMirro
     return e == null ? null : e.asType();
   }
 
+  @Override // TypeMirror
+  protected void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.definingElement);
+  }
+
   protected abstract E validateDefiningElement(final E e);
 
   @Override
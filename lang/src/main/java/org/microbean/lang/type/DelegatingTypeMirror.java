@@ -95,6 +95,9 @@ public final class DelegatingTypeMirror
 
   private Supplier<TypeMirror> delegateSupplier;
 
+  // The structural hash code, once it can no longer change (see #hashCode()); 0 means not yet computed.
+  private int hashCode;
+
 
   /*
    * Constructors.
@@ -108,15 +111,10 @@ public final class DelegatingTypeMirror
     this.ehc = ehc == null ? new Equality(true) : ehc;
     this.delegateSupplier = () -> {
       final TypeMirror unwrappedDelegate = unwrap(delegate);
-      CompletionLock.acquire();
-      try {
-        // Eagerly complete
-        unwrappedDelegate.getKind();
-        this.delegateSupplier = () -> unwrappedDelegate;
-        return unwrappedDelegate;
-      } finally {
-        CompletionLock.release();
-      }
+      // Eagerly complete (if necessary)
+      CompletionLock.guard(unwrappedDelegate, unwrappedDelegate::getKind);
+      this.delegateSupplier = () -> unwrappedDelegate;
+      return unwrappedDelegate;
     };
   }
 
@@ -304,7 +302,16 @@ public final class DelegatingTypeMirror
 
   @Override // TypeMirror
   public final int hashCode() {
-    return this.ehc.hashCode(this);
+    int hashCode = this.hashCode;
+    if (hashCode == 0) {
+      hashCode = this.ehc.hashCode(this);
+      // A mutable delegate (one of this project's own types that has not yet been frozen) may still change, and its
+      // hash code with it. Otherwise every thread computes the same value, and an int write cannot tear.
+      if (!(this.delegate() instanceof org.microbean.lang.AnnotatedConstruct ac) || ac.frozen()) {
+        this.hashCode = hashCode;
+      }
+    }
+    return hashCode;
   }
 
   @Override // TypeMirror
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.AnnotationMirror;
 
 import javax.lang.model.type.TypeKind;
@@ -29,21 +31,21 @@ import javax.lang.model.type.TypeVariable;
 
 public final class ExecutableType extends TypeMirror implements javax.lang.model.type.ExecutableType {
 
-  private final List<javax.lang.model.type.TypeMirror> parameterTypes;
+  private List<javax.lang.model.type.TypeMirror> parameterTypes;
 
-  private final List<javax.lang.model.type.TypeMirror> unmodifiableParameterTypes;
+  private List<javax.lang.model.type.TypeMirror> unmodifiableParameterTypes;
 
   private javax.lang.model.type.TypeMirror receiverType;
 
   private javax.lang.model.type.TypeMirror returnType;
 
-  private final List<javax.lang.model.type.TypeMirror> thrownTypes;
+  private List<javax.lang.model.type.TypeMirror> thrownTypes;
 
-  private final List<javax.lang.model.type.TypeMirror> unmodifiableThrownTypes;
+  private List<javax.lang.model.type.TypeMirror> unmodifiableThrownTypes;
 
-  private final List<TypeVariable> typeVariables;
+  private List<TypeVariable> typeVariables;
 
-  private final List<TypeVariable> unmodifiableTypeVariables;
+  private List<TypeVariable> unmodifiableTypeVariables;
 
   public ExecutableType() {
     super(TypeKind.EXECUTABLE);
@@ -92,6 +94,7 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
   }
 
   public final void addParameterType(final javax.lang.model.type.TypeMirror t) {
+    this.checkMutable();
     this.parameterTypes.add(validateParameterType(t));
   }
 
@@ -107,6 +110,7 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
   }
 
   public final void addThrownType(final javax.lang.model.type.TypeMirror t) {
+    this.checkMutable();
     this.thrownTypes.add(validateThrownType(t));
   }
 
@@ -122,6 +126,7 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
   }
 
   public final void addTypeVariable(final TypeVariable t) {
+    this.checkMutable();
     this.typeVariables.add(validateTypeVariable(t));
   }
 
@@ -141,6 +146,7 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
     final Object old = this.receiverType;
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.receiverType = validateReceiverType(t);
       }
     } else if (old != t) {
@@ -158,6 +164,7 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
     final Object old = this.returnType;
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.returnType = validateReturnType(t);
       }
     } else if (old != t) {
@@ -165,6 +172,22 @@ public final class ExecutableType extends TypeMirror implements javax.lang.model
     }
   }
 
+  @Override // TypeMirror
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.parameterTypes = frozen(this.parameterTypes);
+    this.unmodifiableParameterTypes = this.parameterTypes;
+    this.thrownTypes = frozen(this.thrownTypes);
+    this.unmodifiableThrownTypes = this.thrownTypes;
+    this.typeVariables = frozen(this.typeVariables);
+    this.unmodifiableTypeVariables = this.typeVariables;
+    this.parameterTypes.forEach(c);
+    c.accept(this.receiverType);
+    c.accept(this.returnType);
+    this.thrownTypes.forEach(c);
+    this.typeVariables.forEach(c);
+  }
+
   private final javax.lang.model.type.TypeMirror validateParameterType(final javax.lang.model.type.TypeMirror t) {
     if (t == this) {
       throw new IllegalArgumentException("t: " + t);
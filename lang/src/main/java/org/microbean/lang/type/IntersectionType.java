@@ -18,6 +18,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.StringJoiner;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.AnnotationMirror;
 
 import javax.lang.model.type.DeclaredType;
@@ -26,9 +28,9 @@ import javax.lang.model.type.TypeVisitor;
 
 public final class IntersectionType extends TypeMirror implements javax.lang.model.type.IntersectionType {
 
-  private final List<javax.lang.model.type.TypeMirror> bounds;
+  private List<javax.lang.model.type.TypeMirror> bounds;
 
-  private final List<javax.lang.model.type.TypeMirror> unmodifiableBounds;
+  private List<javax.lang.model.type.TypeMirror> unmodifiableBounds;
 
   public IntersectionType() {
     super(TypeKind.INTERSECTION);
@@ -57,6 +59,7 @@ public final class IntersectionType extends TypeMirror implements javax.lang.mod
   }
 
   public final void addBound(final javax.lang.model.type.TypeMirror bound) {
+    this.checkMutable();
     this.bounds.add(validateBound(bound, this.bounds.size()));
   }
 
@@ -66,6 +69,14 @@ public final class IntersectionType extends TypeMirror implements javax.lang.mod
     }
   }
 
+  @Override // TypeMirror
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.bounds = frozen(this.bounds);
+    this.unmodifiableBounds = this.bounds;
+    this.bounds.forEach(c);
+  }
+
   @Override
   public final String toString() {
     final StringJoiner sj = new StringJoiner(" & ");
@@ -15,6 +15,8 @@ package org.microbean.lang.type;
 
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeParameterElement;
 
@@ -39,13 +41,14 @@ public non-sealed class TypeVariable extends DefineableType<TypeParameterElement
 
   public TypeVariable(final TypeAndElementSource tes, final TypeMirror upperBound) {
     this(tes);
-    this.setUpperBound(upperBound);
+    // (A new instance cannot be frozen, so there is no need to go through setUpperBound(TypeMirror) and its mutability
+    // check.)
+    this.upperBound = upperBound == null ? null : this.validateUpperBound(upperBound);
   }
 
   public TypeVariable(final TypeAndElementSource tes, final TypeMirror upperBound, final TypeMirror lowerBound) {
-    this(tes);
-    this.setUpperBound(upperBound);
-    this.setLowerBound(lowerBound);
+    this(tes, upperBound);
+    this.lowerBound = lowerBound == null ? null : this.validateLowerBound(lowerBound);
   }
 
   @Override // TypeVariable
@@ -58,6 +61,7 @@ public non-sealed class TypeVariable extends DefineableType<TypeParameterElement
     final Object old = this.lowerBound;
     if (old == null) {
       if (lowerBound != null) {
+        this.checkMutable();
         this.lowerBound = validateLowerBound(lowerBound);
       }
     } else if (old != lowerBound) {
@@ -75,6 +79,7 @@ public non-sealed class TypeVariable extends DefineableType<TypeParameterElement
     final Object old = this.upperBound;
     if (old == null) {
       if (upperBound != null) {
+        this.checkMutable();
         this.upperBound = validateUpperBound(upperBound);
       }
     } else if (old != upperBound) {
@@ -94,6 +99,13 @@ public non-sealed class TypeVariable extends DefineableType<TypeParameterElement
     return e;
   }
 
+  @Override // DefineableType<TypeParameterElement>
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.upperBound);
+    c.accept(this.lowerBound);
+  }
+
   @Override // TypeVariable
   public <R, P> R accept(final TypeVisitor<R, P> v, final P p) {
     return v.visitTypeVariable(this, p);
@@ -23,7 +23,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ElementKind;
@@ -32,14 +31,18 @@ import javax.lang.model.element.ElementVisitor;
 import javax.lang.model.type.TypeKind;
 
 import org.microbean.lang.TypeAndElementSource;
+import org.microbean.lang.WeakIdentityCache;
 
 public final class Types {
 
   private static final Annotation[] EMPTY_ANNOTATION_ARRAY = new Annotation[0];
 
+  // Synthetic elements for types that get one per type instance (intersection, module and package types), keyed weakly
+  // by type identity. All other synthetic elements are per-kind singletons and need no table.
+  //
   // @see #asElement(TypeMirror, boolean)
-  // @GuardedBy("itself")
-  private static final WeakHashMap<javax.lang.model.type.TypeMirror, javax.lang.model.element.Element> syntheticElements = new WeakHashMap<>();
+  private static final WeakIdentityCache<javax.lang.model.type.TypeMirror, javax.lang.model.element.Element> syntheticElements =
+    new WeakIdentityCache<>();
 
   private final TypeAndElementSource tes;
 
@@ -214,8 +217,9 @@ public final class Types {
     // Symbols in javac do not override their equals()/hashCode() methods, so no two symbols are ever the same.
     //
     // We blend all these facts together and set up synthetic elements for types that, in the lang model, don't have
-    // them, but do have them behind the scenes in javac.  We use a WeakHashMap to associate TypeMirror instances with
-    // their synthetic elements.
+    // them, but do have them behind the scenes in javac.  Where javac uses one element per kind of type, so do we, and
+    // no lookup is needed. Otherwise a concurrent identity-weak table associates TypeMirror instances with their
+    // synthetic elements.
     if (t == null) {
       return null;
     }
@@ -228,14 +232,8 @@ public final class Types {
       return ((javax.lang.model.type.TypeVariable)t).asElement();
 
     case ARRAY:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for all
-          // array types.
-          return syntheticElements.computeIfAbsent(t, arrayType -> SyntheticArrayElement.INSTANCE);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for all array types.
+      return generateSyntheticElements ? SyntheticArrayElement.INSTANCE : null;
 
     case EXECUTABLE:
       // This is really problematic.  There *is* an ExecutableElement in the lang model, and an ExecutableType, but they
@@ -243,104 +241,52 @@ public final class Types {
       // ClassType (!)  for all method symbols.  I'm not sure what to do here.  I'm going to leave it null for now.
       /*
       if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          return syntheticElements.computeIfAbsent(t, s -> SyntheticExecutableElement.INSTANCE);
-        }
+        return SyntheticExecutableElement.INSTANCE;
       }
       */
       return null;
 
     case WILDCARD:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for all wildcard types.
-          return syntheticElements.computeIfAbsent(t, wildcardType -> SyntheticWildcardElement.INSTANCE);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for all wildcard types.
+      return generateSyntheticElements ? SyntheticWildcardElement.INSTANCE : null;
 
     case BOOLEAN:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, booleanType -> SyntheticPrimitiveElement.BOOLEAN);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.BOOLEAN : null;
 
     case BYTE:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, byteType -> SyntheticPrimitiveElement.BYTE);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.BYTE : null;
 
     case CHAR:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, charType -> SyntheticPrimitiveElement.CHAR);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.CHAR : null;
 
     case DOUBLE:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, doubleType -> SyntheticPrimitiveElement.DOUBLE);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.DOUBLE : null;
 
     case FLOAT:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, floatType -> SyntheticPrimitiveElement.FLOAT);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.FLOAT : null;
 
     case INT:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, intType -> SyntheticPrimitiveElement.INT);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.INT : null;
 
     case LONG:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, longType -> SyntheticPrimitiveElement.LONG);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.LONG : null;
 
     case SHORT:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses exactly one synthetic element for a given primitive type.
-          return syntheticElements.computeIfAbsent(t, shortType -> SyntheticPrimitiveElement.SHORT);
-        }
-      }
-      return null;
+      // The compiler uses exactly one synthetic element for a given primitive type.
+      return generateSyntheticElements ? SyntheticPrimitiveElement.SHORT : null;
 
     case INTERSECTION:
     case MODULE:
     case PACKAGE:
-      if (generateSyntheticElements) {
-        synchronized (syntheticElements) {
-          // The compiler uses one instance of a bogus element for each instance of one of these types.
-          return syntheticElements.computeIfAbsent(t, SyntheticElement::new);
-        }
-      }
-      return null;
+      // The compiler uses one instance of a bogus element for each instance of one of these types.
+      return generateSyntheticElements ? syntheticElement(t) : null;
 
     case OTHER:
     case NONE:
@@ -355,6 +301,11 @@ public final class Types {
     }
   }
 
+  private static final javax.lang.model.element.Element syntheticElement(final javax.lang.model.type.TypeMirror t) {
+    final javax.lang.model.element.Element e = syntheticElements.get(t);
+    return e == null ? syntheticElements.putIfAbsent(t, new SyntheticElement(t)) : e;
+  }
+
   public static final boolean hasTypeArguments(final javax.lang.model.type.TypeMirror t) {
     // This is modeled after javac's allparams() method.  javac frequently confuses type parameters and type arguments
     // in its terminology. This implementation could probably be made more efficient. See
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.element.AnnotationMirror;
 
 import javax.lang.model.type.TypeKind;
@@ -36,9 +38,9 @@ public non-sealed class UnionType extends TypeMirror implements javax.lang.model
       }
     };
 
-  private final List<TypeMirror> alternatives;
+  private List<TypeMirror> alternatives;
 
-  private final List<TypeMirror> unmodifiableAlternatives;
+  private List<TypeMirror> unmodifiableAlternatives;
 
   public UnionType() {
     super(TypeKind.UNION);
@@ -67,6 +69,7 @@ public non-sealed class UnionType extends TypeMirror implements javax.lang.model
   }
 
   public void addAlternative(final TypeMirror t) {
+    this.checkMutable();
     this.alternatives.add(validateAlternative(t));
   }
 
@@ -76,6 +79,14 @@ public non-sealed class UnionType extends TypeMirror implements javax.lang.model
     }
   }
 
+  @Override // TypeMirror
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    this.alternatives = frozen(this.alternatives);
+    this.unmodifiableAlternatives = this.alternatives;
+    this.alternatives.forEach(c);
+  }
+
   private final TypeMirror validateAlternative(final TypeMirror t) {
     if (Objects.requireNonNull(t, "t") == this) {
       throw new IllegalArgumentException("t: " + t);
@@ -1,6 +1,6 @@
 /* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
  *
- * Copyright © 2022–2023 microBean™.
+ * Copyright © 2022–2024 microBean™.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
  */
 package org.microbean.lang.type;
 
+import java.util.function.Consumer;
+
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeVisitor;
 
@@ -72,6 +74,7 @@ public final class WildcardType extends TypeMirror implements javax.lang.model.t
     final Object old = this.getExtendsBound();
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.extendsBound = validateExtendsBound(t);
       }
     } else if (old != t) {
@@ -88,6 +91,7 @@ public final class WildcardType extends TypeMirror implements javax.lang.model.t
     final Object old = this.getSuperBound();
     if (old == null) {
       if (t != null) {
+        this.checkMutable();
         this.superBound = validateSuperBound(t);
       }
     } else if (old != t) {
@@ -95,6 +99,13 @@ public final class WildcardType extends TypeMirror implements javax.lang.model.t
     }
   }
 
+  @Override // TypeMirror
+  protected final void freeze(final Consumer<Object> c) {
+    super.freeze(c);
+    c.accept(this.extendsBound);
+    c.accept(this.superBound);
+  }
+
   private final javax.lang.model.type.TypeMirror validateExtendsBound(final javax.lang.model.type.TypeMirror extendsBound) {
     if (extendsBound == this) {
       throw new IllegalArgumentException("extendsBound: " + extendsBound);
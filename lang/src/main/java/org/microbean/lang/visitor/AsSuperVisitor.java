@@ -111,6 +111,13 @@ public final class AsSuperVisitor extends SimpleTypeVisitor14<TypeMirror, Elemen
     return v;
   }
 
+  // Clears any recursion-guard state left behind by an abandoned visit. Called by Visitors#reset().
+  final void reset() {
+    if (!this.seenTypes.isEmpty()) {
+      this.seenTypes.clear();
+    }
+  }
+
   final void setSubtypeVisitor(final SubtypeVisitor subtypeVisitor) {
     if (subtypeVisitor.asSuperVisitor() != this) {
       throw new IllegalArgumentException("subtypeVisitor");
@@ -137,6 +137,7 @@ public final class CaptureVisitor extends SimpleTypeVisitor14<TypeMirror, Void>
     assert A.size() == T.size();
     assert A.size() == S.size();
     boolean captured = false;
+    SubstituteVisitor substituteVisitor = null; // created only if needed, then reused for every bound
     for (int i = 0; i < A.size(); i++) {
       final TypeVariable currentAHead = A.get(i);
       assert currentAHead.getKind() == TypeKind.TYPEVAR;
@@ -151,13 +152,15 @@ public final class CaptureVisitor extends SimpleTypeVisitor14<TypeMirror, Void>
         final Capture Si = (Capture)currentSHead;
         final WildcardType Ti = (WildcardType)currentTHead;
         Si.setLowerBound(Ti.getSuperBound());
+        if (substituteVisitor == null) {
+          substituteVisitor = new SubstituteVisitor(this.tes, this.equality, this.supertypeVisitor, A, S);
+        }
         final TypeMirror TiExtendsBound = Ti.getExtendsBound();
         if (TiExtendsBound == null) {
-          Si.setUpperBound(new SubstituteVisitor(this.tes, this.equality, this.supertypeVisitor, A, S).visit(Ui));
+          Si.setUpperBound(substituteVisitor.visit(Ui));
         } else {
           // TiExtendsBound can be DECLARED, INTERSECTION or TYPEVAR
-          Si.setUpperBound(glb(TiExtendsBound,
-                               new SubstituteVisitor(this.tes, this.equality, this.supertypeVisitor, A, S).visit(Ui)));
+          Si.setUpperBound(glb(TiExtendsBound, substituteVisitor.visit(Ui)));
         }
       }
     }
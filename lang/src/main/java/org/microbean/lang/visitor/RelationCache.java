@@ -0,0 +1,277 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import java.util.function.BiPredicate;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+/**
+ * A thread-safe memo table of the results of computing {@linkplain Relation relations} between two {@link TypeMirror}s.
+ *
+ * <p>Entries are keyed by the {@linkplain Relation relation} in question and the <em>identities</em> of the two
+ * ({@linkplain DelegatingTypeMirror#unwrap(TypeMirror) unwrapped}) {@link TypeMirror}s involved. Identity is far cheaper
+ * to compute than structural equality, and callers that repeatedly test the same types (for example, the same bean
+ * types against the same injection points) will typically hold the same {@link TypeMirror} instances.</p>
+ *
+ * <p>A {@link RelationCache} may be shared among several {@link Visitors} instances (typically one per thread, since
+ * visitors themselves are not safe for concurrent use), provided they were all constructed with the same {@link
+ * TypeAndElementSource} and the same {@code subtypeCapture} and {@code wildcardsCompatible} settings, since these
+ * affect results. Attempting to share one otherwise results in an {@link IllegalArgumentException}.</p>
+ *
+ * <p>Results involving a mutable, {@linkplain org.microbean.lang.AnnotatedConstruct#frozen() unfrozen} {@link
+ * org.microbean.lang.type.TypeMirror}, such as a freshly created {@link org.microbean.lang.type.Capture} or the result of
+ * a substitution, are not memoized, since they could become stale and since such types are rarely tested again.</p>
+ *
+ * <p>A {@link RelationCache} holds at most a {@linkplain #maximumSize() maximum number} of results; when it is full, it
+ * is emptied before a new result is added. Call {@link #clear()} to empty it explicitly.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see Visitors#Visitors(TypeAndElementSource, boolean, boolean, RelationCache)
+ */
+public final class RelationCache {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final int maximumSize;
+
+  private final ConcurrentMap<Key, Boolean> map;
+
+  private final AtomicReference<Configuration> configuration;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new, empty {@link RelationCache} that holds at most 65536 results.
+   *
+   * @see #RelationCache(int)
+   */
+  public RelationCache() {
+    this(1 << 16);
+  }
+
+  /**
+   * Creates a new, empty {@link RelationCache} that holds at most the supplied number of results.
+   *
+   * @param maximumSize the maximum number of results to hold; must be greater than {@code 0}
+   *
+   * @exception IllegalArgumentException if {@code maximumSize} is less than {@code 1}
+   */
+  public RelationCache(final int maximumSize) {
+    super();
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    this.map = new ConcurrentHashMap<>();
+    this.configuration = new AtomicReference<>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the number of cache hits recorded so far.
+   *
+   * @return the number of cache hits recorded so far
+   */
+  public final long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Returns the number of cache misses recorded so far.
+   *
+   * @return the number of cache misses recorded so far
+   */
+  public final long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Returns the maximum number of results this {@link RelationCache} will hold.
+   *
+   * @return the maximum number of results this {@link RelationCache} will hold; always greater than {@code 0}
+   */
+  public final int maximumSize() {
+    return this.maximumSize;
+  }
+
+  /**
+   * Returns the number of results currently held by this {@link RelationCache}.
+   *
+   * @return the number of results currently held by this {@link RelationCache}
+   */
+  public final int size() {
+    return this.map.size();
+  }
+
+  /**
+   * Removes all results from this {@link RelationCache} and resets its counters.
+   */
+  public final void clear() {
+    this.map.clear();
+    this.hits.reset();
+    this.misses.reset();
+  }
+
+  // Called by Visitors' constructor.
+  final void bind(final TypeAndElementSource tes, final boolean subtypeCapture, final boolean wildcardsCompatible) {
+    final Configuration c = new Configuration(tes, subtypeCapture, wildcardsCompatible);
+    if (!this.configuration.compareAndSet(null, c)) {
+      final Configuration existing = this.configuration.get();
+      if (!existing.equals(c)) {
+        throw new IllegalArgumentException("this RelationCache is already in use with " + existing + "; requested: " + c);
+      }
+    }
+  }
+
+  // Called by Visitors.
+  final boolean test(final Relation r, final TypeMirror t, final TypeMirror s, final BiPredicate<? super TypeMirror, ? super TypeMirror> p) {
+    // Compute with the types as supplied, but key by their unwrapped identities.
+    final TypeMirror ut = DelegatingTypeMirror.unwrap(Objects.requireNonNull(t, "t"));
+    final TypeMirror us = DelegatingTypeMirror.unwrap(Objects.requireNonNull(s, "s"));
+    if (!memoizable(ut) || !memoizable(us)) {
+      return p.test(t, s);
+    }
+    final Key k = new Key(r, ut, us);
+    final Boolean cachedResult = this.map.get(k);
+    if (cachedResult != null) {
+      this.hits.increment();
+      return cachedResult.booleanValue();
+    }
+    this.misses.increment();
+    // Deliberately not computeIfAbsent(): p may perform a long (and lock-acquiring) structural walk, and results are
+    // deterministic, so a racing duplicate computation is harmless.
+    final boolean result = p.test(t, s);
+    if (this.map.size() >= this.maximumSize) {
+      // Cheaper than tracking recency, and results are cheap to recompute relative to holding stale ones forever.
+      this.map.clear();
+    }
+    this.map.putIfAbsent(k, Boolean.valueOf(result));
+    return result;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Mutable types (e.g. fresh captures and substitution results) are never memoized; see Lang#memoize(AnnotatedConstruct,
+  // Supplier) for the same rule applied to ConstantDescs.
+  private static final boolean memoizable(final TypeMirror t) {
+    return !(t instanceof org.microbean.lang.AnnotatedConstruct ac) || ac.frozen();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A relation between two {@link TypeMirror}s whose results may be held by a {@link RelationCache}.
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static enum Relation {
+
+    /**
+     * The subtype relation; see {@link SubtypeVisitor}.
+     */
+    SUBTYPE,
+
+    /**
+     * The assignability relation; see {@link AssignableVisitor}.
+     */
+    ASSIGNABLE,
+
+    /**
+     * The same-type relation; see {@link SameTypeVisitor}.
+     */
+    SAME_TYPE;
+
+  }
+
+  private static final record Configuration(TypeAndElementSource tes, boolean subtypeCapture, boolean wildcardsCompatible) {}
+
+  private static final class Key {
+
+    private final Relation r;
+
+    private final TypeMirror t;
+
+    private final TypeMirror s;
+
+    private final int hashCode;
+
+    private Key(final Relation r, final TypeMirror t, final TypeMirror s) {
+      super();
+      this.r = r;
+      this.t = t;
+      this.s = s;
+      this.hashCode = (31 * (31 * r.ordinal() + System.identityHashCode(t))) + System.identityHashCode(s);
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other != null && other.getClass() == this.getClass()) {
+        final Key her = (Key)other;
+        return this.r == her.r && this.t == her.t && this.s == her.s;
+      } else {
+        return false;
+      }
+    }
+
+  }
+
+}
@@ -48,19 +48,21 @@ class StructuralTypeMapping<S> extends SimpleTypeVisitor14<TypeMirror, S> {
     if (ts.isEmpty()) {
       return ts;
     }
-    final List<TypeMirror> list = new ArrayList<>(ts.size());
-    boolean changed = false;
-    for (final TypeMirror t : ts) {
+    List<TypeMirror> list = null; // allocated only once something changes
+    for (int i = 0; i < ts.size(); i++) {
+      final TypeMirror t = ts.get(i);
       final TypeMirror visitedT = this.visit(t, s);
-      list.add(visitedT);
-      if (!changed && visitedT != t) {
-        changed = true;
+      if (list == null) {
+        if (visitedT != t) {
+          list = new ArrayList<>(ts.size());
+          list.addAll(ts.subList(0, i)); // (unchanged)
+          list.add(visitedT);
+        }
+      } else {
+        list.add(visitedT);
       }
     }
-    if (changed) {
-      return Collections.unmodifiableList(list);
-    }
-    return ts;
+    return list == null ? ts : Collections.unmodifiableList(list);
   }
 
   @Override // SimpleTypeVisitor6
@@ -84,7 +86,10 @@ class StructuralTypeMapping<S> extends SimpleTypeVisitor14<TypeMirror, S> {
     if (enclosingType == visitedEnclosingType && typeArguments == visitedTypeArguments) {
       return t;
     }
-    return tes.declaredType((DeclaredType)visitedEnclosingType, (javax.lang.model.element.TypeElement)t.asElement(), visitedTypeArguments.toArray(new TypeMirror[0]));
+    // A top-level type's enclosing type is a NoType of kind NONE, not a DeclaredType.
+    return tes.declaredType(visitedEnclosingType.getKind() == TypeKind.DECLARED ? (DeclaredType)visitedEnclosingType : null,
+                            (javax.lang.model.element.TypeElement)t.asElement(),
+                            visitedTypeArguments.toArray(new TypeMirror[0]));
   }
 
   // See https://github.com/openjdk/jdk/blob/jdk-20+11/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Type.java#L290-L313
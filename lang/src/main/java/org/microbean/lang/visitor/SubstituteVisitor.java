@@ -20,9 +20,12 @@ import java.util.List;
 import java.util.Objects;
 
 import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
 
 import javax.lang.model.element.TypeParameterElement;
 
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.IntersectionType;
 import javax.lang.model.type.TypeKind;
@@ -49,6 +52,11 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
 
   private final List<TypeMirror> to;
 
+  // Whether results of top-level substitutions may be memoized in the SupertypeVisitor's SubstitutionCache.
+  private final boolean cacheable;
+
+  private boolean visiting;
+
 
   /*
    * Constructors.
@@ -80,6 +88,11 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
     }
     this.from = List.copyOf(from);
     this.to = List.copyOf(to);
+    // Don't memoize substitutions of fresh captures (see CaptureVisitor); they are never repeated. Don't memoize on
+    // behalf of Equality subclasses either, since their notions of equality are unknown.
+    this.cacheable =
+      this.equality.getClass() == Equality.class &&
+      this.to.stream().noneMatch(org.microbean.lang.type.Capture.class::isInstance);
   }
 
 
@@ -96,9 +109,23 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
     return new SubstituteVisitor(this.tes, this.equality, this.supertypeVisitor, from, to);
   }
 
+  @Override // StructuralTypeMapping
+  public final TypeMirror visitArray(final ArrayType t, final Void x) {
+    return this.memoize(t, u -> super.visitArray((ArrayType)u, x));
+  }
+
+  @Override // StructuralTypeMapping
+  public final TypeMirror visitDeclared(final DeclaredType t, final Void x) {
+    return this.memoize(t, u -> super.visitDeclared((DeclaredType)u, x));
+  }
+
   // https://github.com/openjdk/jdk/blob/jdk-20+12/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Types.java#L3382-L3411
-  @Override
-  public final ExecutableType visitExecutable(ExecutableType t, final Void x) {
+  @Override // StructuralTypeMapping
+  public final ExecutableType visitExecutable(final ExecutableType t, final Void x) {
+    return (ExecutableType)this.memoize(t, u -> this.substituteExecutable((ExecutableType)u, x));
+  }
+
+  private final ExecutableType substituteExecutable(ExecutableType t, final Void x) {
     assert t.getKind() == TypeKind.EXECUTABLE;
 
     /*
@@ -133,8 +160,12 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
     return new org.microbean.lang.type.ExecutableType(visitedT, visitedTypeVariables);
   }
 
-  @Override
+  @Override // SimpleTypeVisitor14
   public final IntersectionType visitIntersection(final IntersectionType t, final Void x) {
+    return (IntersectionType)this.memoize(t, u -> this.substituteIntersection((IntersectionType)u, x));
+  }
+
+  private final IntersectionType substituteIntersection(final IntersectionType t, final Void x) {
     assert t.getKind() == TypeKind.INTERSECTION;
     final TypeMirror supertype = this.supertypeVisitor.visit(t, x); // (Returns t.getBounds().get(0).)
     final TypeMirror visitedSupertype = this.visit(supertype, x);
@@ -161,10 +192,8 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
         assert f.getKind() == TypeKind.TYPEVAR;
         assert f instanceof TypeVariable;
         if (this.equality.equals(f, tv)) {
-          final TypeMirror t = this.to.get(i);
-          assert t.getKind() == TypeKind.TYPEVAR;
-          assert t instanceof TypeVariable;
-          return t;
+          // (As in javac, the replacement can be any kind of type, not just a type variable.)
+          return this.to.get(i);
         }
       }
     }
@@ -201,6 +230,24 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
     }
   }
 
+  // Returns the result of applying f, which performs substitution, to t. Results of top-level (non-recursive)
+  // substitutions of structured types are memoized in the SupertypeVisitor's SubstitutionCache where possible.
+  private final TypeMirror memoize(final TypeMirror t, final UnaryOperator<TypeMirror> f) {
+    if (this.from.isEmpty()) {
+      // Nothing to substitute; preserve identity.
+      return t;
+    } else if (this.visiting || !this.cacheable) {
+      return f.apply(t);
+    }
+    this.visiting = true;
+    try {
+      return
+        this.supertypeVisitor.substitutionCache().substitute(t, this.from, this.to, this.equality.includeAnnotations(), f);
+    } finally {
+      this.visiting = false;
+    }
+  }
+
   // A port/translation of Types#newInstances(List).  "perform alpha-renaming of free-variables in 't' [free variables
   // in tvs]"
   //
@@ -248,17 +295,23 @@ final class SubstituteVisitor extends StructuralTypeMapping<Void> {
 
     // Phase 1 (it appears): effectively call visit() on the upper bound of all the type variables. If this didn't
     // result in any changes, we're done.
-    final List<TypeMirror> visitedUpperBounds = new ArrayList<>(tvs.size()); // could be pointless if nothing changed
-    boolean changed = false;
-    for (final TypeVariable tv : tvs) {
-      final TypeMirror upperBound = tv.getUpperBound();
+    List<TypeMirror> visitedUpperBounds = null; // allocated only once something changes
+    for (int i = 0; i < tvs.size(); i++) {
+      final TypeMirror upperBound = tvs.get(i).getUpperBound();
       final TypeMirror visitedUpperBound = this.visit(upperBound);
-      visitedUpperBounds.add(visitedUpperBound); // this could end up being pointless if changed is false; nothing for it
-      if (!changed && upperBound != visitedUpperBound) {
-        changed = true;
+      if (visitedUpperBounds == null) {
+        if (upperBound != visitedUpperBound) {
+          visitedUpperBounds = new ArrayList<>(tvs.size());
+          for (int j = 0; j < i; j++) {
+            visitedUpperBounds.add(tvs.get(j).getUpperBound()); // (unchanged)
+          }
+          visitedUpperBounds.add(visitedUpperBound);
+        }
+      } else {
+        visitedUpperBounds.add(visitedUpperBound);
       }
     }
-    if (!changed) {
+    if (visitedUpperBounds == null) {
       return tvs; // preserve identity whenever possible
     }
 
@@ -0,0 +1,221 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.function.UnaryOperator;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+/**
+ * A memo table of the results of substituting one list of {@link TypeMirror}s for another within a {@link TypeMirror}.
+ *
+ * <p>Entries are keyed by the <em>identities</em> of the ({@linkplain DelegatingTypeMirror#unwrap(TypeMirror)
+ * unwrapped}) {@link TypeMirror} being substituted and of the elements of the "from" and "to" lists, together with
+ * whether annotations are significant when matching type variables. Since identity is meaningful only for immutable
+ * types, a substitution involving a mutable, {@linkplain org.microbean.lang.AnnotatedConstruct#frozen() unfrozen}
+ * {@link org.microbean.lang.type.TypeMirror} is computed but never retained.</p>
+ *
+ * <p>A {@link SubstitutionCache} belongs to a single {@link SupertypeVisitor}, and hence to a single network of
+ * visitors, and so, like them, is not safe for concurrent use. It retains at most a fixed number of entries; once full,
+ * it is emptied before a new result is added.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see SubstituteVisitor
+ */
+final class SubstitutionCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int MAXIMUM_SIZE = 4096;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Map<Key, TypeMirror> map;
+
+  private long hits;
+
+  private long misses;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  SubstitutionCache() {
+    super();
+    this.map = new HashMap<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  final long hits() {
+    return this.hits;
+  }
+
+  final long misses() {
+    return this.misses;
+  }
+
+  final int size() {
+    return this.map.size();
+  }
+
+  // Called by SubstituteVisitor. Returns the result of applying f to t, which substitutes to for from in t, either from
+  // the cache or by computing and (if everything involved is immutable) caching it.
+  final TypeMirror substitute(final TypeMirror t,
+                              final List<? extends TypeMirror> from,
+                              final List<? extends TypeMirror> to,
+                              final boolean includeAnnotations,
+                              final UnaryOperator<TypeMirror> f) {
+    final TypeMirror ut = DelegatingTypeMirror.unwrap(Objects.requireNonNull(t, "t"));
+    if (!memoizable(ut) || !memoizable(from) || !memoizable(to)) {
+      ++this.misses;
+      return f.apply(t);
+    }
+    final Key k = new Key(ut, from, to, includeAnnotations);
+    TypeMirror result = this.map.get(k);
+    if (result != null) {
+      ++this.hits;
+      return result;
+    }
+    ++this.misses;
+    result = f.apply(t);
+    if (result != null) {
+      if (this.map.size() >= MAXIMUM_SIZE) {
+        this.map.clear();
+      }
+      this.map.put(k, result);
+    }
+    return result;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Mirrors the gate in Lang#memoize(AnnotatedConstruct, Supplier): identity is a sound key only for frozen types.
+  private static final boolean memoizable(final TypeMirror t) {
+    return !(DelegatingTypeMirror.unwrap(t) instanceof org.microbean.lang.AnnotatedConstruct ac) || ac.frozen();
+  }
+
+  private static final boolean memoizable(final List<? extends TypeMirror> ts) {
+    for (final TypeMirror t : ts) {
+      if (!memoizable(t)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Key {
+
+    private final TypeMirror t;
+
+    private final List<? extends TypeMirror> from;
+
+    private final List<? extends TypeMirror> to;
+
+    private final boolean includeAnnotations;
+
+    private final int hashCode;
+
+    private Key(final TypeMirror t,
+                final List<? extends TypeMirror> from,
+                final List<? extends TypeMirror> to,
+                final boolean includeAnnotations) {
+      super();
+      this.t = t;
+      this.from = from;
+      this.to = to;
+      this.includeAnnotations = includeAnnotations;
+      this.hashCode = 31 * (31 * (31 * System.identityHashCode(t) + identityHashCode(from)) + identityHashCode(to)) + (includeAnnotations ? 1 : 0);
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other != null && other.getClass() == this.getClass()) {
+        final Key her = (Key)other;
+        return
+          this.t == her.t &&
+          this.includeAnnotations == her.includeAnnotations &&
+          identical(this.from, her.from) &&
+          identical(this.to, her.to);
+      } else {
+        return false;
+      }
+    }
+
+    private static final int identityHashCode(final List<?> list) {
+      int hashCode = 1;
+      for (final Object o : list) {
+        hashCode = 31 * hashCode + System.identityHashCode(o);
+      }
+      return hashCode;
+    }
+
+    private static final boolean identical(final List<?> l1, final List<?> l2) {
+      if (l1 == l2) {
+        return true;
+      }
+      final int size = l1.size();
+      if (size != l2.size()) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (l1.get(i) != l2.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
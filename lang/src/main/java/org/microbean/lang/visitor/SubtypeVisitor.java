@@ -157,6 +157,20 @@ public final class SubtypeVisitor extends SimpleTypeVisitor14<Boolean, TypeMirro
     return this.asSuperVisitor;
   }
 
+  // Clears any recursion-guard state left behind by an abandoned visit, here and in any capture variants. Called by
+  // Visitors#reset().
+  final void reset() {
+    if (!this.cache.isEmpty()) {
+      this.cache.clear();
+    }
+    if (this.withCaptureVariant != null && this.withCaptureVariant != this) {
+      this.withCaptureVariant.reset();
+    }
+    if (this.withoutCaptureVariant != null && this.withoutCaptureVariant != this) {
+      this.withoutCaptureVariant.reset();
+    }
+  }
+
   final CaptureVisitor captureVisitor() {
     return this.captureVisitor;
   }
@@ -56,6 +56,8 @@ public final class SupertypeVisitor extends SimpleTypeVisitor14<TypeMirror, Void
 
   private final BoundingClassVisitor boundingClassVisitor;
 
+  private final SubstitutionCache substitutionCache; // (created by this class; shared by SubstituteVisitors using it)
+
 
   /*
    * Constructors.
@@ -79,6 +81,7 @@ public final class SupertypeVisitor extends SimpleTypeVisitor14<TypeMirror, Void
     this.eraseVisitor = Objects.requireNonNull(eraseVisitor, "eraseVisitor");
     this.interfacesVisitor = new InterfacesVisitor(tes, this.equality, types, eraseVisitor, this);
     this.boundingClassVisitor = new BoundingClassVisitor(tes, this);
+    this.substitutionCache = new SubstitutionCache();
   }
 
 
@@ -90,6 +93,10 @@ public final class SupertypeVisitor extends SimpleTypeVisitor14<TypeMirror, Void
     return this.interfacesVisitor;
   }
 
+  final SubstitutionCache substitutionCache() {
+    return this.substitutionCache;
+  }
+
   @Override // SimpleTypeVisitor14
   public final TypeMirror visitArray(final ArrayType t, final Void x) {
     assert t.getKind() == TypeKind.ARRAY;
@@ -149,7 +149,7 @@ public final class TypeClosure {
   // A spiritual port of
   // https://github.com/openjdk/jdk/blob/jdk-21%2B35/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Types.java#L3783-L3802. Adds
   // elements of list in appropriate locations in this TypeClosure.
-  private final void union(final List<? extends TypeMirror> list) {
+  final void union(final List<? extends TypeMirror> list) {
     final int size = list.size();
     switch (size) {
     case 0:
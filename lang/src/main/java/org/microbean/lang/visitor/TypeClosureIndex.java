@@ -0,0 +1,120 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.List;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.lang.element.DelegatingElement;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+/**
+ * A thread-safe index of immutable <em>declaration closures</em>, one per {@link TypeElement}, used by {@link
+ * TypeClosureVisitor}.
+ *
+ * <p>The declaration closure of a {@link TypeElement} is the type closure of its {@linkplain TypeElement#asType()
+ * declared type} (the type denoted by, for example, {@code List<E>}). It is computed at most once per index (modulo
+ * benign races). The closure of any parameterized usage of the same {@link TypeElement} (for example, {@code
+ * List<String>}) is then derived from it by substitution rather than recomputed from scratch.</p>
+ *
+ * <p>A {@link TypeClosureIndex} may be shared among several {@link TypeClosureVisitor}s (and hence among several {@link
+ * Visitors} instances, typically one per thread), provided they were all constructed with the same {@link
+ * TypeAndElementSource}. Attempting to share one otherwise results in an {@link IllegalArgumentException}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see TypeClosureVisitor#TypeClosureVisitor(TypeAndElementSource, SupertypeVisitor, PrecedesPredicate,
+ * TypeClosureIndex)
+ */
+public final class TypeClosureIndex {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final ConcurrentMap<Element, List<? extends DelegatingTypeMirror>> map;
+
+  private final AtomicReference<TypeAndElementSource> tes;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new, empty {@link TypeClosureIndex}.
+   */
+  public TypeClosureIndex() {
+    super();
+    this.map = new ConcurrentHashMap<>();
+    this.tes = new AtomicReference<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the number of declaration closures currently held by this {@link TypeClosureIndex}.
+   *
+   * @return the number of declaration closures currently held by this {@link TypeClosureIndex}
+   */
+  public final int size() {
+    return this.map.size();
+  }
+
+  /**
+   * Removes all declaration closures from this {@link TypeClosureIndex}.
+   */
+  public final void clear() {
+    this.map.clear();
+  }
+
+  // Called by TypeClosureVisitor's constructor.
+  final void bind(final TypeAndElementSource tes) {
+    if (!this.tes.compareAndSet(null, tes)) {
+      final TypeAndElementSource existing = this.tes.get();
+      if (!existing.equals(tes)) {
+        throw new IllegalArgumentException("this TypeClosureIndex is already in use with " + existing + "; requested: " + tes);
+      }
+    }
+  }
+
+  // Returns the declaration closure for e, or null if it has not yet been indexed.
+  final List<? extends DelegatingTypeMirror> get(final TypeElement e) {
+    return this.map.get(DelegatingElement.unwrap(e));
+  }
+
+  // Indexes the supplied declaration closure for e unless another thread got there first, and returns whichever one won.
+  final List<? extends DelegatingTypeMirror> putIfAbsent(final TypeElement e, final List<? extends DelegatingTypeMirror> closure) {
+    final List<? extends DelegatingTypeMirror> existing = this.map.putIfAbsent(DelegatingElement.unwrap(e), closure);
+    return existing == null ? closure : existing;
+  }
+
+}
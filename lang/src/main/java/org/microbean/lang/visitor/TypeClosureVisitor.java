@@ -13,11 +13,11 @@
  */
 package org.microbean.lang.visitor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.WeakHashMap;
 
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.lang.model.element.TypeElement;
 
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.IntersectionType;
@@ -29,6 +29,11 @@ import javax.lang.model.util.SimpleTypeVisitor14;
 
 import org.microbean.lang.TypeAndElementSource;
 
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+import static org.microbean.lang.type.Types.allTypeArguments;
+import static org.microbean.lang.type.Types.hasTypeArguments;
+
 /**
  * A {@link SimpleTypeVisitor14} that produces a {@link TypeClosure} for a {@linkplain TypeKind#DECLARED class or
  * interface} type, emulating {@code javac}'s <a
@@ -39,6 +44,10 @@ import org.microbean.lang.TypeAndElementSource;
  * declared} type, an {@linkplain TypeKind#INTERSECTION intersection} type, nor a {@linkplain TypeKind#TYPEVAR type
  * variable} type will result in an {@link IllegalArgumentException}.</p>
  *
+ * <p>The closure of a (non-raw) declared type is derived, by substitution, from the closure of its {@linkplain
+ * TypeElement#asType() type declaration}, which is computed at most once and held in a {@link TypeClosureIndex} that may
+ * be shared among several {@link TypeClosureVisitor}s.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
  *
  * @see TypeClosure
@@ -53,10 +62,7 @@ public final class TypeClosureVisitor extends SimpleTypeVisitor14<TypeClosure, V
 
   private final TypeAndElementSource tes;
 
-  private final ReadWriteLock lock;
-
-  // @GuardedBy("itself")
-  private final WeakHashMap<TypeMirror, TypeClosure> closureCache;
+  private final TypeClosureIndex index;
 
   private final SupertypeVisitor supertypeVisitor;
 
@@ -82,12 +88,36 @@ public final class TypeClosureVisitor extends SimpleTypeVisitor14<TypeClosure, V
   public TypeClosureVisitor(final TypeAndElementSource tes,
                             final SupertypeVisitor supertypeVisitor,
                             final PrecedesPredicate precedesPredicate) {
+    this(tes, supertypeVisitor, precedesPredicate, null);
+  }
+
+  /**
+   * Creates a new {@link TypeClosureVisitor}.
+   *
+   * @param tes a {@link TypeAndElementSource}; must not be {@code null}
+   *
+   * @param supertypeVisitor a {@link SupertypeVisitor}; must not be {@code null}
+   *
+   * @param precedesPredicate a {@link PrecedesPredicate}; must not be {@code null}
+   *
+   * @param index a (possibly shared) {@link TypeClosureIndex}; may be {@code null} in which case a new one will be
+   * created for the exclusive use of this {@link TypeClosureVisitor}
+   *
+   * @exception NullPointerException if {@code tes}, {@code supertypeVisitor} or {@code precedesPredicate} is {@code
+   * null}
+   *
+   * @exception IllegalArgumentException if {@code index} is already in use with a different {@link TypeAndElementSource}
+   */
+  public TypeClosureVisitor(final TypeAndElementSource tes,
+                            final SupertypeVisitor supertypeVisitor,
+                            final PrecedesPredicate precedesPredicate,
+                            final TypeClosureIndex index) {
     super();
-    this.lock = new ReentrantReadWriteLock();
     this.tes = Objects.requireNonNull(tes, "tes");
     this.supertypeVisitor = Objects.requireNonNull(supertypeVisitor, "supertypeVisitor");
     this.precedesPredicate = Objects.requireNonNull(precedesPredicate, "precedesPredicate");
-    this.closureCache = new WeakHashMap<>();
+    this.index = index == null ? new TypeClosureIndex() : index;
+    this.index.bind(tes);
   }
 
 
@@ -104,9 +134,50 @@ public final class TypeClosureVisitor extends SimpleTypeVisitor14<TypeClosure, V
     throw new IllegalArgumentException("t: " + t + "; t.getKind(): " + t.getKind());
   }
 
+  /**
+   * Returns the {@link TypeClosureIndex} in use by this {@link TypeClosureVisitor}.
+   *
+   * @return the {@link TypeClosureIndex} in use by this {@link TypeClosureVisitor}; never {@code null}
+   */
+  public final TypeClosureIndex index() {
+    return this.index;
+  }
+
   @Override
   public final TypeClosure visitDeclared(final DeclaredType t, final Void x) {
-    return this.visitDeclaredOrIntersectionOrTypeVariable(t, x);
+    assert t.getKind() == TypeKind.DECLARED;
+    final TypeElement e = (TypeElement)t.asElement();
+    final DeclaredType declaration = (DeclaredType)e.asType();
+    if (hasTypeArguments(declaration) && !hasTypeArguments(t)) {
+      // t is raw, so its supertypes are erased. There's nothing to substitute, so don't bother with the index.
+      return this.visitDeclaredOrIntersectionOrTypeVariable(t, x);
+    }
+    List<? extends DelegatingTypeMirror> declarationClosure = this.index.get(e);
+    if (declarationClosure == null) {
+      // Races here are benign: the computation is deterministic and the first result to be indexed wins.
+      declarationClosure =
+        this.index.putIfAbsent(e, this.visitDeclaredOrIntersectionOrTypeVariable(declaration, x).toList());
+    }
+    // The first element of a declared type's closure is always the declared type itself; the rest are its supertypes,
+    // ordered by PrecedesPredicate. Substitution doesn't affect the ordering, which is by element, not type.
+    final int size = declarationClosure.size();
+    final List<TypeMirror> list = new ArrayList<>(size);
+    list.add(t);
+    if (size > 1) {
+      final List<? extends TypeMirror> formals = allTypeArguments(declaration);
+      if (formals.isEmpty()) {
+        list.addAll(declarationClosure.subList(1, size));
+      } else {
+        final SubstituteVisitor sv = new SubstituteVisitor(this.tes, null, this.supertypeVisitor, formals, allTypeArguments(t));
+        for (int i = 1; i < size; i++) {
+          list.add(sv.visit(declarationClosure.get(i)));
+        }
+      }
+    }
+    // Always return a new TypeClosure: callers are free to union things into it.
+    final TypeClosure closure = new TypeClosure(this.tes, this.precedesPredicate);
+    closure.union(list);
+    return closure;
   }
 
   @Override
@@ -119,84 +190,71 @@ public final class TypeClosureVisitor extends SimpleTypeVisitor14<TypeClosure, V
     return this.visitDeclaredOrIntersectionOrTypeVariable(t, x);
   }
 
+  // Computes a new TypeClosure for t from the closures of its supertypes.
   private final TypeClosure visitDeclaredOrIntersectionOrTypeVariable(final TypeMirror t, final Void x) {
-    TypeClosure closure;
-    this.lock.readLock().lock();
-    try {
-      closure = this.closureCache.get(t);
-    } finally {
-      this.lock.readLock().unlock();
-    }
-    if (closure == null) {
-      switch (t.getKind()) {
-      case INTERSECTION:
-        // The closure does not include the intersection type itself. Note that this little nugget effectively removes
-        // intersection types from the possible types that will ever be passed to TypeClosure#union(TypeMirror).
-        closure = this.visit(this.supertypeVisitor.visit(t));
-        break;
+    final TypeClosure closure;
+    switch (t.getKind()) {
+    case INTERSECTION:
+      // The closure does not include the intersection type itself. Note that this little nugget effectively removes
+      // intersection types from the possible types that will ever be passed to TypeClosure#union(TypeMirror).
+      closure = this.visit(this.supertypeVisitor.visit(t));
+      break;
 
+    case DECLARED:
+    case TYPEVAR:
+      final TypeMirror st = this.supertypeVisitor.visit(t);
+      switch (st.getKind()) {
       case DECLARED:
+        // (Yes, it is OK that INTERSECTION is not present as a case; a TypeVariable cannot have an IntersectionType
+        // as a supertype.)
+        closure = this.visit(st);
+        closure.union(t); // reflexive
+        break;
+
       case TYPEVAR:
-        final TypeMirror st = this.supertypeVisitor.visit(t);
-        switch (st.getKind()) {
-        case DECLARED:
-          // (Yes, it is OK that INTERSECTION is not present as a case; a TypeVariable cannot have an IntersectionType
-          // as a supertype.)
-          closure = this.visit(st);
-          closure.union(t); // reflexive
-          break;
-
-        case TYPEVAR:
-          // javac does this
-          // (https://github.com/openjdk/jdk/blob/jdk-20+14/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Types.java#L3717-L3718):
-          //
-          //   cl = closure(st).prepend(t);
-          //
-          // Note that there's no equality or "precedes" check in this one case. Is this a bug, a feature, or just an
-          // optimization?  I don't know. I reproduce the behavior here, for better or for worse. This permits two equal
-          // type variables in the closure, which otherwise would be filtered out.
-          //
-          // I guess since st is t's supertype, they'll never be equal, and we know that the most specialized type comes first?
-          //
-          // (The only time a supertype can be a type variable is if the subtype is also a type variable.)
-          assert t.getKind() == TypeKind.TYPEVAR : "Expected " + TypeKind.TYPEVAR + "; got DECLARED; t: " + t + "; st: " + st;
-          closure = this.visit(st);
-          closure.prepend((TypeVariable)t); // reflexive
-          break;
-
-        case NONE:
-          closure = new TypeClosure(this.tes, this.precedesPredicate);
-          closure.union(t); // reflexive
-          break;
-
-        default:
-          // Every now and again, probably only under parallel testing scenarios:
-          /*
-            java.lang.IllegalArgumentException: t: T
-            at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitDeclaredOrIntersectionOrTypeVariable(TypeClosureVisitor.java:123)
-            at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitTypeVariable(TypeClosureVisitor.java:74)
-            at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitTypeVariable(TypeClosureVisitor.java:30)
-            at jdk.compiler/com.sun.tools.javac.code.Type$TypeVar.accept(Type.java:1737)
-            at java.compiler@20/javax.lang.model.util.AbstractTypeVisitor6.visit(AbstractTypeVisitor6.java:104)
-            at org.microbean.bean@0.0.1-SNAPSHOT/org.microbean.bean.ReferenceTypeList.closure(ReferenceTypeList.java:251)
-            at org.microbean.bean@0.0.1-SNAPSHOT/org.microbean.bean.ReferenceTypeList.closure(ReferenceTypeList.java:237)
-          */
-          // Probably t.getKind() is ERROR, and this is a synchronization problem.
-          throw new IllegalArgumentException("t: " + t + "; t.getKind(): " + t.getKind());
-        }
+        // javac does this
+        // (https://github.com/openjdk/jdk/blob/jdk-20+14/src/jdk.compiler/share/classes/com/sun/tools/javac/code/Types.java#L3717-L3718):
+        //
+        //   cl = closure(st).prepend(t);
+        //
+        // Note that there's no equality or "precedes" check in this one case. Is this a bug, a feature, or just an
+        // optimization?  I don't know. I reproduce the behavior here, for better or for worse. This permits two equal
+        // type variables in the closure, which otherwise would be filtered out.
+        //
+        // I guess since st is t's supertype, they'll never be equal, and we know that the most specialized type comes first?
+        //
+        // (The only time a supertype can be a type variable is if the subtype is also a type variable.)
+        assert t.getKind() == TypeKind.TYPEVAR : "Expected " + TypeKind.TYPEVAR + "; got DECLARED; t: " + t + "; st: " + st;
+        closure = this.visit(st);
+        closure.prepend((TypeVariable)t); // reflexive
+        break;
+
+      case NONE:
+        closure = new TypeClosure(this.tes, this.precedesPredicate);
+        closure.union(t); // reflexive
         break;
+
       default:
+        // Every now and again, probably only under parallel testing scenarios:
+        /*
+          java.lang.IllegalArgumentException: t: T
+          at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitDeclaredOrIntersectionOrTypeVariable(TypeClosureVisitor.java:123)
+          at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitTypeVariable(TypeClosureVisitor.java:74)
+          at org.microbean.lang@0.0.1-SNAPSHOT/org.microbean.lang.visitor.TypeClosureVisitor.visitTypeVariable(TypeClosureVisitor.java:30)
+          at jdk.compiler/com.sun.tools.javac.code.Type$TypeVar.accept(Type.java:1737)
+          at java.compiler@20/javax.lang.model.util.AbstractTypeVisitor6.visit(AbstractTypeVisitor6.java:104)
+          at org.microbean.bean@0.0.1-SNAPSHOT/org.microbean.bean.ReferenceTypeList.closure(ReferenceTypeList.java:251)
+          at org.microbean.bean@0.0.1-SNAPSHOT/org.microbean.bean.ReferenceTypeList.closure(ReferenceTypeList.java:237)
+        */
+        // Probably t.getKind() is ERROR, and this is a synchronization problem.
         throw new IllegalArgumentException("t: " + t + "; t.getKind(): " + t.getKind());
       }
-      for (final TypeMirror iface : this.supertypeVisitor.interfacesVisitor().visit(t)) {
-        closure.union(this.visit(iface));
-      }
-      this.lock.writeLock().lock();
-      try {
-        closureCache.put(t, closure);
-      } finally {
-        this.lock.writeLock().unlock();
-      }
+      break;
+    default:
+      throw new IllegalArgumentException("t: " + t + "; t.getKind(): " + t.getKind());
+    }
+    for (final TypeMirror iface : this.supertypeVisitor.interfacesVisitor().visit(t)) {
+      closure.union(this.visit(iface));
     }
     return closure;
   }
@@ -13,13 +13,19 @@
  */
 package org.microbean.lang.visitor;
 
+import java.util.Objects;
+
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVisitor;
 
+import org.microbean.lang.JavacTypeAndElementSource;
 import org.microbean.lang.TypeAndElementSource;
 import org.microbean.lang.Lang;
 
 import org.microbean.lang.type.Types;
 
+import org.microbean.lang.visitor.RelationCache.Relation;
+
 /**
  * A hub of sorts for visitors of various kinds designed to reproduce the innards of certain aspects of the {@code
  * javac} compiler at runtime.
@@ -28,7 +34,17 @@ import org.microbean.lang.type.Types;
  * the compiler itself contains such circular dependencies. This class makes it easier to set up the intricate network
  * of visitors that depend on each other.</p>
  *
+ * <p>{@link Visitors} instances are not safe for concurrent use by multiple threads. To run type relation queries
+ * concurrently, use a {@link VisitorsPool}.</p>
+ *
+ * <p>If a {@link Visitors} is built on a {@link JavacTypeAndElementSource}, its {@link #subtype(TypeMirror,
+ * TypeMirror)}, {@link #assignable(TypeMirror, TypeMirror)} and {@link #sameType(TypeMirror, TypeMirror)} methods run
+ * {@linkplain JavacTypeAndElementSource#guard(java.util.function.Supplier) under that source's lock}. Callers using its
+ * individual visitors directly must do the same.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see VisitorsPool
  */
 public final class Visitors {
 
@@ -68,6 +84,8 @@ public final class Visitors {
 
   private final AssignableVisitor assignableVisitor;
 
+  private final RelationCache relationCache;
+
 
   /*
    * Constructors.
@@ -78,14 +96,70 @@ public final class Visitors {
     this(tes, false, true);
   }
 
-  public Visitors(TypeAndElementSource tes,
+  public Visitors(final TypeAndElementSource tes,
                   final boolean subtypeCapture /* false by default */,
                   final boolean wildcardsCompatible /* true by default */) {
+    this(tes, subtypeCapture, wildcardsCompatible, null);
+  }
+
+  /**
+   * Creates a new {@link Visitors}.
+   *
+   * @param tes a {@link TypeAndElementSource}; if {@code null} then the return value of {@link
+   * Lang#typeAndElementSource()} will be used instead
+   *
+   * @param subtypeCapture whether subtype tests should perform capture conversion
+   *
+   * @param wildcardsCompatible whether wildcards are compatible in same-type tests
+   *
+   * @param relationCache a {@link RelationCache} in which the results of the {@link #subtype(TypeMirror, TypeMirror)},
+   * {@link #assignable(TypeMirror, TypeMirror)} and {@link #sameType(TypeMirror, TypeMirror)} methods will be memoized;
+   * may be {@code null} in which case no memoization will occur
+   *
+   * @exception IllegalArgumentException if {@code relationCache} is already in use by a {@link Visitors} with a
+   * different configuration
+   */
+  public Visitors(final TypeAndElementSource tes,
+                  final boolean subtypeCapture /* false by default */,
+                  final boolean wildcardsCompatible /* true by default */,
+                  final RelationCache relationCache /* null by default */) {
+    this(tes, subtypeCapture, wildcardsCompatible, relationCache, null);
+  }
+
+  /**
+   * Creates a new {@link Visitors}.
+   *
+   * @param tes a {@link TypeAndElementSource}; if {@code null} then the return value of {@link
+   * Lang#typeAndElementSource()} will be used instead
+   *
+   * @param subtypeCapture whether subtype tests should perform capture conversion
+   *
+   * @param wildcardsCompatible whether wildcards are compatible in same-type tests
+   *
+   * @param relationCache a {@link RelationCache} in which the results of the {@link #subtype(TypeMirror, TypeMirror)},
+   * {@link #assignable(TypeMirror, TypeMirror)} and {@link #sameType(TypeMirror, TypeMirror)} methods will be memoized;
+   * may be {@code null} in which case no memoization will occur
+   *
+   * @param typeClosureIndex a {@link TypeClosureIndex} for use by this {@link Visitors}' {@link TypeClosureVisitor},
+   * typically shared with other {@link Visitors} instances; may be {@code null} in which case a new one will be created
+   *
+   * @exception IllegalArgumentException if {@code relationCache} or {@code typeClosureIndex} is already in use by a
+   * {@link Visitors} with a different configuration
+   */
+  public Visitors(TypeAndElementSource tes,
+                  final boolean subtypeCapture /* false by default */,
+                  final boolean wildcardsCompatible /* true by default */,
+                  final RelationCache relationCache /* null by default */,
+                  final TypeClosureIndex typeClosureIndex /* null by default */) {
     super();
     if (tes == null) {
       tes = Lang.typeAndElementSource();
     }
     this.tes = tes;
+    if (relationCache != null) {
+      relationCache.bind(tes, subtypeCapture, wildcardsCompatible);
+    }
+    this.relationCache = relationCache;
     final Types types = new Types(tes);
     this.eraseVisitor = new EraseVisitor(tes, types);
     this.supertypeVisitor = new SupertypeVisitor(tes, types, this.eraseVisitor);
@@ -118,7 +192,7 @@ public final class Visitors {
 
     final PrecedesPredicate precedesPredicate = new PrecedesPredicate(null, this.supertypeVisitor, this.subtypeVisitor);
     this.precedesPredicate = precedesPredicate;
-    this.typeClosureVisitor = new TypeClosureVisitor(tes, this.supertypeVisitor, precedesPredicate);
+    this.typeClosureVisitor = new TypeClosureVisitor(tes, this.supertypeVisitor, precedesPredicate, typeClosureIndex);
     this.captureVisitor.setTypeClosureVisitor(this.typeClosureVisitor);
 
     assert this.initialized();
@@ -194,11 +268,107 @@ public final class Visitors {
     return this.typeClosureVisitor;
   }
 
+  /**
+   * Returns the {@link RelationCache} in use by this {@link Visitors}, or {@code null} if there is none.
+   *
+   * @return the {@link RelationCache} in use by this {@link Visitors}, or {@code null}
+   */
+  public final RelationCache relationCache() {
+    return this.relationCache;
+  }
+
+  /**
+   * Returns {@code true} if {@code t} is a subtype of {@code s}, consulting this {@link Visitors}' {@link
+   * RelationCache}, if any, first.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} is a subtype of {@code s}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see SubtypeVisitor
+   */
+  public final boolean subtype(final TypeMirror t, final TypeMirror s) {
+    return this.test(Relation.SUBTYPE, t, s, this.subtypeVisitor);
+  }
+
+  /**
+   * Returns {@code true} if {@code t} is assignable to {@code s}, consulting this {@link Visitors}' {@link
+   * RelationCache}, if any, first.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} is assignable to {@code s}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see AssignableVisitor
+   */
+  public final boolean assignable(final TypeMirror t, final TypeMirror s) {
+    return this.test(Relation.ASSIGNABLE, t, s, this.assignableVisitor);
+  }
+
+  /**
+   * Returns {@code true} if {@code t} and {@code s} are the same type, consulting this {@link Visitors}' {@link
+   * RelationCache}, if any, first.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} and {@code s} are the same type
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see SameTypeVisitor
+   */
+  public final boolean sameType(final TypeMirror t, final TypeMirror s) {
+    return this.test(Relation.SAME_TYPE, t, s, this.sameTypeVisitor);
+  }
+
+  private final boolean test(final Relation r,
+                             final TypeMirror t,
+                             final TypeMirror s,
+                             final TypeVisitor<Boolean, TypeMirror> v) {
+    if (this.tes instanceof JavacTypeAndElementSource jtes) {
+      // Visitors guard symbol completion with the CompletionLock, which guards such a source's own javac environment
+      // only inside its guard() method.
+      return jtes.guard(() -> this.test0(r, t, s, v));
+    }
+    return this.test0(r, t, s, v);
+  }
+
+  private final boolean test0(final Relation r,
+                              final TypeMirror t,
+                              final TypeMirror s,
+                              final TypeVisitor<Boolean, TypeMirror> v) {
+    if (this.relationCache == null) {
+      return v.visit(Objects.requireNonNull(t, "t"), Objects.requireNonNull(s, "s"));
+    }
+    return this.relationCache.test(r, t, s, v::visit);
+  }
+
+  // Clears the recursion-guard state of this Visitors' stateful visitors. Ordinarily that state is already empty once a
+  // top-level visit returns, but it may not be if the visit completed abruptly. Called by VisitorsPool.
+  final void reset() {
+    this.asSuperVisitor.reset();
+    this.subtypeVisitor.reset();
+  }
+
   private final boolean initialized() {
     for (final java.lang.reflect.Field f : this.getClass().getDeclaredFields()) {
       f.trySetAccessible();
       try {
         final Object visitor = f.get(this);
+        if (visitor == null) {
+          // e.g. an absent RelationCache
+          continue;
+        }
         for (final java.lang.reflect.Field ff : visitor.getClass().getDeclaredFields()) {
           ff.trySetAccessible();
           if (TypeVisitor.class.isAssignableFrom(ff.getType())) {
@@ -0,0 +1,279 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.Objects;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import java.util.function.Function;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+/**
+ * A thread-safe, bounded pool of identically configured {@link Visitors} instances, so that type relation queries may
+ * be run concurrently without building a new network of visitors for each one.
+ *
+ * <p>A {@link Visitors} instance is not safe for concurrent use, since several of its visitors keep recursion-guard
+ * state. A {@link VisitorsPool} {@linkplain #acquire() hands out} each pooled instance to one caller at a time, and
+ * cheaply resets that state when it is {@linkplain #release(Visitors) released}. Pooled instances are not tied to
+ * threads, so a pool works equally well with platform and virtual threads; a pool never blocks.</p>
+ *
+ * <p>All instances created by a {@link VisitorsPool} share its {@link RelationCache}, if any, and its {@link
+ * TypeClosureIndex}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see Visitors
+ */
+public final class VisitorsPool {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final TypeAndElementSource tes;
+
+  private final boolean subtypeCapture;
+
+  private final boolean wildcardsCompatible;
+
+  private final RelationCache relationCache;
+
+  private final TypeClosureIndex typeClosureIndex;
+
+  private final BlockingQueue<Visitors> idle;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link VisitorsPool} that retains at most twice as many idle {@link Visitors} instances as there are
+   * available processors.
+   *
+   * @param tes a {@link TypeAndElementSource}; if {@code null} then the return value of {@link
+   * Lang#typeAndElementSource()} will be used instead
+   */
+  public VisitorsPool(final TypeAndElementSource tes) {
+    this(tes, false, true, null, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new {@link VisitorsPool}.
+   *
+   * @param tes a {@link TypeAndElementSource}; if {@code null} then the return value of {@link
+   * Lang#typeAndElementSource()} will be used instead
+   *
+   * @param subtypeCapture whether subtype tests should perform capture conversion
+   *
+   * @param wildcardsCompatible whether wildcards are compatible in same-type tests
+   *
+   * @param relationCache a {@link RelationCache} to be shared by every {@link Visitors} this pool creates; may be {@code
+   * null} in which case no memoization will occur
+   *
+   * @param maximumIdle the maximum number of idle {@link Visitors} instances to retain; must be greater than {@code 0}
+   *
+   * @exception IllegalArgumentException if {@code maximumIdle} is less than {@code 1}, or if {@code relationCache} is
+   * already in use by a {@link Visitors} with a different configuration
+   *
+   * @see Visitors#Visitors(TypeAndElementSource, boolean, boolean, RelationCache, TypeClosureIndex)
+   */
+  public VisitorsPool(TypeAndElementSource tes,
+                      final boolean subtypeCapture /* false by default */,
+                      final boolean wildcardsCompatible /* true by default */,
+                      final RelationCache relationCache /* null by default */,
+                      final int maximumIdle) {
+    super();
+    if (maximumIdle < 1) {
+      throw new IllegalArgumentException("maximumIdle: " + maximumIdle);
+    }
+    if (tes == null) {
+      tes = Lang.typeAndElementSource();
+    }
+    this.tes = tes;
+    this.subtypeCapture = subtypeCapture;
+    this.wildcardsCompatible = wildcardsCompatible;
+    this.relationCache = relationCache;
+    this.typeClosureIndex = new TypeClosureIndex();
+    this.idle = new ArrayBlockingQueue<>(maximumIdle);
+    // Validates the configuration eagerly and primes the pool.
+    this.idle.add(this.newVisitors());
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns a {@link Visitors} for the exclusive use of the caller until it is passed to the {@link #release(Visitors)}
+   * method, creating one if no idle one is available.
+   *
+   * @return a non-{@code null} {@link Visitors}
+   *
+   * @see #release(Visitors)
+   *
+   * @see #apply(Function)
+   */
+  public final Visitors acquire() {
+    final Visitors v = this.idle.poll();
+    return v == null ? this.newVisitors() : v;
+  }
+
+  /**
+   * Returns the supplied {@link Visitors}, which must have been {@linkplain #acquire() acquired} from this {@link
+   * VisitorsPool} and must not be used again by the caller, to this {@link VisitorsPool}.
+   *
+   * <p>If this {@link VisitorsPool} already retains its maximum number of idle instances, the supplied {@link Visitors}
+   * is simply discarded.</p>
+   *
+   * @param v the {@link Visitors}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code v} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code v} was not created by this {@link VisitorsPool}
+   */
+  public final void release(final Visitors v) {
+    if (Objects.requireNonNull(v, "v").typeClosureVisitor().index() != this.typeClosureIndex) {
+      throw new IllegalArgumentException("v: " + v);
+    }
+    v.reset();
+    this.idle.offer(v);
+  }
+
+  /**
+   * {@linkplain #acquire() Acquires} a {@link Visitors}, applies the supplied {@link Function} to it, {@linkplain
+   * #release(Visitors) releases} it, and returns the result.
+   *
+   * <p>The supplied {@link Function} must not retain the {@link Visitors} it is given.</p>
+   *
+   * @param <R> the type of the result
+   *
+   * @param f the {@link Function}; must not be {@code null}
+   *
+   * @return the result of applying {@code f}, which may be {@code null}
+   *
+   * @exception NullPointerException if {@code f} is {@code null}
+   */
+  public final <R> R apply(final Function<? super Visitors, ? extends R> f) {
+    Objects.requireNonNull(f, "f");
+    final Visitors v = this.acquire();
+    try {
+      return f.apply(v);
+    } finally {
+      this.release(v);
+    }
+  }
+
+  /**
+   * Returns {@code true} if {@code t} is a subtype of {@code s}, using a pooled {@link Visitors}.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} is a subtype of {@code s}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see Visitors#subtype(TypeMirror, TypeMirror)
+   */
+  public final boolean subtype(final TypeMirror t, final TypeMirror s) {
+    final Visitors v = this.acquire();
+    try {
+      return v.subtype(t, s);
+    } finally {
+      this.release(v);
+    }
+  }
+
+  /**
+   * Returns {@code true} if {@code t} is assignable to {@code s}, using a pooled {@link Visitors}.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} is assignable to {@code s}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see Visitors#assignable(TypeMirror, TypeMirror)
+   */
+  public final boolean assignable(final TypeMirror t, final TypeMirror s) {
+    final Visitors v = this.acquire();
+    try {
+      return v.assignable(t, s);
+    } finally {
+      this.release(v);
+    }
+  }
+
+  /**
+   * Returns {@code true} if {@code t} and {@code s} are the same type, using a pooled {@link Visitors}.
+   *
+   * @param t a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param s a {@link TypeMirror}; must not be {@code null}
+   *
+   * @return {@code true} if {@code t} and {@code s} are the same type
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @see Visitors#sameType(TypeMirror, TypeMirror)
+   */
+  public final boolean sameType(final TypeMirror t, final TypeMirror s) {
+    final Visitors v = this.acquire();
+    try {
+      return v.sameType(t, s);
+    } finally {
+      this.release(v);
+    }
+  }
+
+  /**
+   * Returns the number of idle {@link Visitors} instances this {@link VisitorsPool} currently retains.
+   *
+   * @return the number of idle {@link Visitors} instances; always {@code 0} or greater
+   */
+  public final int idle() {
+    return this.idle.size();
+  }
+
+  /**
+   * Returns the {@link RelationCache} shared by the {@link Visitors} instances this {@link VisitorsPool} creates, or
+   * {@code null} if there is none.
+   *
+   * @return the {@link RelationCache}, or {@code null}
+   */
+  public final RelationCache relationCache() {
+    return this.relationCache;
+  }
+
+  private final Visitors newVisitors() {
+    return
+      new Visitors(this.tes, this.subtypeCapture, this.wildcardsCompatible, this.relationCache, this.typeClosureIndex);
+  }
+
+}
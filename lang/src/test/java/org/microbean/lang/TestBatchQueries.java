@@ -0,0 +1,93 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.BitSet;
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestBatchQueries {
+
+  private TestBatchQueries() {
+    super();
+  }
+
+  @Test
+  final void testSubtypes() {
+    final List<TypeMirror> ts = List.of(Lang.declaredType("java.lang.String"),
+                                        Lang.declaredType("java.lang.Integer"),
+                                        Lang.declaredType("java.lang.Object"));
+    final List<TypeMirror> ss = List.of(Lang.declaredType("java.lang.Object"),
+                                        Lang.declaredType("java.lang.CharSequence"),
+                                        Lang.declaredType("java.lang.Number"));
+    final BitSet expected = new BitSet();
+    expected.set(0); // String <: Object
+    expected.set(1); // String <: CharSequence
+    expected.set(3); // Integer <: Object
+    expected.set(5); // Integer <: Number
+    expected.set(6); // Object <: Object
+    assertEquals(expected, Lang.subtypes(ts, ss));
+    assertEquals(expected, Lang.typeAndElementSource().subtypes(ts, ss));
+    for (int i = 0; i < ts.size(); i++) {
+      for (int j = 0; j < ss.size(); j++) {
+        assertEquals(Lang.subtype(ts.get(i), ss.get(j)), expected.get(i * ss.size() + j));
+      }
+    }
+  }
+
+  @Test
+  final void testAssignables() {
+    final List<TypeMirror> payloads = List.of(Lang.primitiveType(TypeKind.INT), Lang.declaredType("java.lang.String"));
+    final List<TypeMirror> receivers = List.of(Lang.primitiveType(TypeKind.LONG), Lang.declaredType("java.lang.Object"));
+    final BitSet bits = Lang.assignables(payloads, receivers);
+    assertTrue(bits.get(0)); // int -> long
+    assertTrue(bits.get(1)); // int -> Object (boxing)
+    assertEquals(bits.get(2), Lang.assignable(payloads.get(1), receivers.get(0)));
+    assertTrue(bits.get(3)); // String -> Object
+    assertEquals(bits, Lang.typeAndElementSource().assignables(payloads, receivers));
+  }
+
+  @Test
+  final void testErasures() {
+    final TypeElement list = Lang.typeElement("java.util.List");
+    final List<TypeMirror> ts = List.of(list.asType(), Lang.declaredType("java.lang.String"));
+    final List<TypeMirror> erasures = Lang.erasures(ts);
+    assertEquals(2, erasures.size());
+    for (int i = 0; i < ts.size(); i++) {
+      assertTrue(Lang.sameType(Lang.erasure(ts.get(i)), erasures.get(i)));
+    }
+  }
+
+  @Test
+  final void testTypeElements() {
+    final List<TypeElement> tes = Lang.typeElements(List.of("java.lang.String", "no.such.Type", "java.util.Map"));
+    assertEquals(3, tes.size());
+    assertSame(Lang.typeElement("java.lang.String"), tes.get(0));
+    assertNull(tes.get(1));
+    assertEquals("java.util.Map", tes.get(2).getQualifiedName().toString());
+    assertEquals(tes, Lang.typeAndElementSource().typeElements(List.of("java.lang.String", "no.such.Type", "java.util.Map")));
+  }
+
+}
@@ -0,0 +1,86 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+final class TestCompletionLock {
+
+  private TestCompletionLock() {
+    super();
+  }
+
+  @Test
+  final void testCompletedElementsAreReadWithoutTheLock() throws Exception {
+    assumeTrue(CompletionLock.readMostly());
+    final TypeElement e = Lang.typeElement("java.lang.String");
+    assertEquals(ElementKind.CLASS, e.getKind()); // completes e
+    assertTrue(CompletionLock.completed(e));
+    assertTrue(CompletionLock.completed(e.asType()));
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    final Thread holder = Thread.ofPlatform().start(() -> {
+        CompletionLock.acquire();
+        try {
+          locked.countDown();
+          done.await();
+        } catch (final InterruptedException x) {
+          Thread.currentThread().interrupt();
+        } finally {
+          CompletionLock.release();
+        }
+      });
+    try {
+      assertTrue(locked.await(10L, TimeUnit.SECONDS));
+      // Another thread holds the global lock, so if any of these blocked this test would hang.
+      assertEquals(ElementKind.CLASS, CompletionLock.guard(e, e::getKind));
+      assertEquals("Ljava/lang/String;", Lang.descriptor(e.asType()));
+      assertEquals("java/lang/String", Lang.jvmBinaryName(e));
+    } finally {
+      done.countDown();
+      holder.join();
+    }
+  }
+
+  @Test
+  final void testConcurrentSignatures() throws Exception {
+    final List<Future<String>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 64; i++) {
+        futures.add(es.submit(() -> Lang.elementSignature(Lang.typeElement("java.util.ArrayList"))));
+      }
+    }
+    for (final Future<String> f : futures) {
+      assertEquals("<E:Ljava/lang/Object;>Ljava/util/AbstractList<TE;>;Ljava/util/List<TE;>;Ljava/util/RandomAccess;Ljava/lang/Cloneable;Ljava/io/Serializable;",
+                   f.get());
+    }
+  }
+
+}
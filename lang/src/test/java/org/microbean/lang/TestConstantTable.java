@@ -0,0 +1,105 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import java.lang.constant.ConstantDesc;
+import java.lang.constant.DynamicConstantDesc;
+
+import java.lang.invoke.MethodHandles;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.DeclaredType;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestConstantTable {
+
+  private TestConstantTable() {
+    super();
+  }
+
+  @Test
+  final void testMemoization() throws ReflectiveOperationException {
+    final TypeElement string = Lang.unwrap(Lang.typeElement("java.lang.String"));
+    assertSame(Lang.describeConstable(string).orElseThrow(), Lang.describeConstable(string).orElseThrow());
+    final DeclaredType listOfString =
+      Lang.unwrap(Lang.declaredType(Lang.typeElement("java.util.List"), Lang.declaredType("java.lang.String")));
+    final ConstantDesc cd = Lang.describeConstable(listOfString).orElseThrow();
+    assertSame(cd, Lang.describeConstable(listOfString).orElseThrow());
+    assertTrue(Lang.sameType(listOfString, (DeclaredType)cd.resolveConstantDesc(MethodHandles.lookup())));
+  }
+
+  @Test
+  final void testRoundTrip() throws Exception {
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    final DeclaredType listOfString = Lang.declaredType(Lang.typeElement("java.util.List"), Lang.declaredType("java.lang.String"));
+    final ConstantTable t = new ConstantTable();
+    final int stringIndex = t.add(Lang.describeConstable(string).orElseThrow());
+    final int size = t.size();
+    final DynamicConstantDesc<?> listOfStringDesc = t.describe("TestConstantTable", Lang.describeConstable(listOfString).orElseThrow());
+    assertEquals(t.size() - 1, (Integer)listOfStringDesc.bootstrapArgs()[1]);
+    // The String TypeElement node is shared, not repeated.
+    assertEquals(stringIndex, t.add(Lang.describeConstable(string).orElseThrow()));
+    assertTrue(t.size() > size);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    t.write(out);
+    final ConstantTable read = ConstantTable.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(t.constantDescs(), read.constantDescs());
+    assertSame(read, ConstantTable.register(TestConstantTable.class.getClassLoader(), "TestConstantTable", read));
+
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    final Object hydrated = listOfStringDesc.resolveConstantDesc(lookup);
+    assertTrue(Lang.sameType(listOfString, (DeclaredType)hydrated));
+    assertSame(hydrated, ConstantTable.constant(lookup, "_", DeclaredType.class, "TestConstantTable", t.size() - 1));
+    assertSame(Lang.unwrap(string), Lang.unwrap((TypeElement)read.get(lookup, stringIndex)));
+  }
+
+  @Test
+  final void testPrimitiveConstant() throws ReflectiveOperationException {
+    final ConstantTable t = new ConstantTable();
+    final DynamicConstantDesc<?> d = t.describe("TestConstantTable.primitive", java.lang.constant.ConstantDescs.TRUE);
+    ConstantTable.register(TestConstantTable.class.getClassLoader(), "TestConstantTable.primitive", t);
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    assertEquals(Boolean.TRUE, d.resolveConstantDesc(lookup));
+    assertEquals(Boolean.TRUE, ConstantTable.constant(lookup, "_", boolean.class, "TestConstantTable.primitive", t.size() - 1));
+    assertEquals(Boolean.TRUE, t.get(lookup, t.size() - 1));
+  }
+
+  @Test
+  final void testTablesArePerClassLoader() throws Exception {
+    final ConstantTable t1 = new ConstantTable();
+    final ConstantTable t2 = new ConstantTable();
+    try (final URLClassLoader cl1 = new URLClassLoader(new URL[0]);
+         final URLClassLoader cl2 = new URLClassLoader(new URL[0])) {
+      assertSame(t1, ConstantTable.register(cl1, "TestConstantTable.perLoader", t1));
+      assertSame(t2, ConstantTable.register(cl2, "TestConstantTable.perLoader", t2));
+      assertNotSame(t1, t2);
+      assertSame(t1, ConstantTable.register(cl1, "TestConstantTable.perLoader", t2));
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.DeclaredType;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.element.DelegatingElement;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestEquality {
+
+  private TestEquality() {
+    super();
+  }
+
+  @Test
+  final void testCachedHashCodeMatchesStructuralHashCode() {
+    final DeclaredType t = Lang.declaredType(Lang.typeElement("java.util.List"), Lang.typeElement("java.lang.String").asType());
+    assertTrue(t instanceof DelegatingTypeMirror);
+    final int h = Equality.hashCodeIncludingAnnotations(t);
+    assertEquals(h, t.hashCode());
+    assertEquals(h, t.hashCode());
+
+    final TypeElement e = Lang.typeElement("java.util.List");
+    assertTrue(e instanceof DelegatingElement);
+    assertEquals(Equality.hashCodeIncludingAnnotations(e), e.hashCode());
+  }
+
+  @Test
+  final void testHashCodeOfMutableDelegateIsNotCached() {
+    final org.microbean.lang.type.DeclaredType t = new org.microbean.lang.type.DeclaredType();
+    final org.microbean.lang.element.TypeElement e = new org.microbean.lang.element.TypeElement(javax.lang.model.element.ElementKind.CLASS);
+    e.setSimpleName("Foo");
+    e.setType(t);
+    t.setDefiningElement(e);
+    final DelegatingTypeMirror w = DelegatingTypeMirror.of(t, Lang.typeAndElementSource());
+    final DelegatingElement we = DelegatingElement.of(e, Lang.typeAndElementSource());
+    w.hashCode();
+    we.hashCode();
+    t.addTypeArgument(Lang.typeElement("java.lang.String").asType());
+    assertEquals(Equality.hashCodeIncludingAnnotations(t), w.hashCode());
+    assertEquals(Equality.hashCodeIncludingAnnotations(e), we.hashCode());
+    t.freeze();
+    assertEquals(Equality.hashCodeIncludingAnnotations(t), w.hashCode());
+    assertEquals(w.hashCode(), w.hashCode());
+  }
+
+  @Test
+  final void testDistinctWrappersOfTheSameDelegateAreEqual() {
+    final TypeElement e = Lang.typeElement("java.lang.String");
+    final TypeElement e2 = DelegatingElement.of(Lang.unwrap(e), Lang.typeAndElementSource(), new Equality(false));
+    assertNotSame(e, e2);
+    assertTrue(Equality.equals(e, e2, true));
+    assertTrue(Equality.equals(e.asType(), Lang.unwrap(e.asType()), true));
+    assertTrue(e.equals(e2));
+    assertNotEquals(e, Lang.typeElement("java.lang.Object"));
+  }
+
+}
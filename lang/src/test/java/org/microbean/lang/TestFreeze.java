@@ -0,0 +1,106 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.List;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.element.ExecutableElement;
+import org.microbean.lang.element.Name;
+import org.microbean.lang.element.TypeElement;
+import org.microbean.lang.element.TypeParameterElement;
+import org.microbean.lang.element.VariableElement;
+
+import org.microbean.lang.type.DeclaredType;
+import org.microbean.lang.type.ExecutableType;
+import org.microbean.lang.type.TypeVariable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestFreeze {
+
+  private TestFreeze() {
+    super();
+  }
+
+  @Test
+  final void testFreeze() {
+    // class Foo<T> { private T t; private T u; T get(); }
+    final TypeElement foo = new TypeElement(ElementKind.CLASS);
+    foo.setSimpleName("Foo");
+    foo.addModifier(Modifier.PUBLIC);
+    final DeclaredType fooType = new DeclaredType();
+    foo.setType(fooType);
+    fooType.setDefiningElement(foo);
+
+    final TypeVariable tv = new TypeVariable(Lang.typeAndElementSource());
+    final TypeParameterElement tpe = new TypeParameterElement(Name.of("T"), tv);
+    tpe.setType(tv);
+    foo.addTypeParameter(tpe);
+    fooType.addTypeArgument(tv);
+
+    final VariableElement t = field("t", tv);
+    t.setEnclosingElement(foo);
+    final VariableElement u = field("u", tv);
+    u.setEnclosingElement(foo);
+
+    final ExecutableElement get = new ExecutableElement(ElementKind.METHOD);
+    get.setSimpleName("get");
+    final ExecutableType getType = new ExecutableType();
+    getType.setReturnType(tv);
+    get.setType(getType);
+    foo.setEnclosedElementsGenerator(() -> get.setEnclosingElement(foo));
+
+    assertFalse(foo.frozen());
+    tv.freeze(); // reaches the whole graph
+    for (final AnnotatedConstruct ac : List.of(foo, fooType, tv, tpe, t, u, get, getType)) {
+      assertTrue(ac.frozen(), ac::toString);
+    }
+
+    assertEquals(3, foo.getEnclosedElements().size());
+    assertSame(t.getModifiers(), u.getModifiers());
+    assertEquals(List.of(Modifier.PRIVATE), List.copyOf(t.getModifiers()));
+    assertSame(List.of(), foo.getInterfaces());
+    assertSame(List.of(), get.getParameters());
+    assertSame(List.of(), getType.getParameterTypes());
+    assertEquals(List.of(tv), fooType.getTypeArguments());
+
+    assertThrows(UnsupportedOperationException.class, () -> foo.getModifiers().clear());
+    assertThrows(IllegalStateException.class, () -> foo.addModifier(Modifier.FINAL));
+    assertThrows(IllegalStateException.class, () -> foo.addEnclosedElement(field("v", tv)));
+    assertThrows(IllegalStateException.class, () -> get.addParameter(field("p", tv)));
+    assertThrows(IllegalStateException.class, () -> tv.setUpperBound(fooType));
+
+    // Idempotent.
+    foo.freeze();
+    assertEquals(3, foo.getEnclosedElements().size());
+  }
+
+  private static final VariableElement field(final String name, final TypeVariable type) {
+    final VariableElement f = new VariableElement(ElementKind.FIELD);
+    f.setSimpleName(name);
+    f.setType(type);
+    f.addModifier(Modifier.PRIVATE);
+    return f;
+  }
+
+}
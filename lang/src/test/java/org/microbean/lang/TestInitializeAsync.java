@@ -0,0 +1,51 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.element.TypeElement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestInitializeAsync {
+
+  private TestInitializeAsync() {
+    super();
+  }
+
+  @Test
+  final void testInitializeAsync() throws Exception {
+    final CompletableFuture<TypeAndElementSource> f =
+      Lang.initializeAsync(List.of("java.util.concurrent.ConcurrentSkipListMap", "no.such.Type"));
+    assertSame(Lang.typeAndElementSource(), f.get(60L, TimeUnit.SECONDS));
+    final TypeElement e = Lang.typeElement("java.util.concurrent.ConcurrentSkipListMap");
+    assertTrue(CompletionLock.completed(e) || !CompletionLock.readMostly());
+    // Already initialized; completes immediately.
+    assertSame(Lang.typeAndElementSource(), Lang.initializeAsync().get(60L, TimeUnit.SECONDS));
+  }
+
+  @Test
+  final void testCancellationIsLocal() throws Exception {
+    Lang.initializeAsync().cancel(true);
+    assertSame(Lang.typeAndElementSource(), Lang.initializeAsync().get(60L, TimeUnit.SECONDS));
+  }
+
+}
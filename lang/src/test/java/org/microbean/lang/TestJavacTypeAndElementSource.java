@@ -0,0 +1,150 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.time.Duration;
+
+import java.util.List;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.visitor.RelationCache;
+import org.microbean.lang.visitor.Visitors;
+import org.microbean.lang.visitor.VisitorsPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestJavacTypeAndElementSource {
+
+  private TestJavacTypeAndElementSource() {
+    super();
+  }
+
+  @Test
+  final void testBasics() {
+    try (final JavacTypeAndElementSource tes = new JavacTypeAndElementSource()) {
+      final TypeElement string = tes.typeElement("java.lang.String");
+      assertNotNull(string);
+      assertTrue(tes.subtype(string.asType(), tes.typeElement("java.lang.CharSequence").asType()));
+      final DeclaredType listString = tes.declaredType(tes.typeElement("java.util.List"), string.asType());
+      assertTrue(tes.assignable(listString, tes.declaredType(tes.typeElement("java.util.List"), tes.wildcardType(null, null))));
+      assertFalse(tes.sameType(listString, tes.erasure(listString)));
+      assertSame(tes.primitiveType(TypeKind.INT), tes.primitiveType(int.class));
+
+      final TypeVariable e = tes.typeVariable(List.class.getTypeParameters()[0]);
+      assertEquals("E", tes.guard(() -> e.asElement().getSimpleName().toString()));
+
+      // Elements from this source are not those of Lang's source.
+      assertNotSame(Lang.unwrap(Lang.typeElement("java.lang.String")), string);
+    }
+  }
+
+  @Test
+  final void testClose() {
+    final JavacTypeAndElementSource tes = new JavacTypeAndElementSource(List.of());
+    assertNotNull(tes.typeElement("java.lang.Object"));
+    tes.close();
+    assertTrue(tes.closed());
+    assertThrows(IllegalStateException.class, () -> tes.typeElement("java.lang.Object"));
+  }
+
+  @Test
+  final void testPool() {
+    final TypeAndElementSourcePool pool = new TypeAndElementSourcePool(2);
+    final JavacTypeAndElementSource a;
+    try {
+      assertEquals(2, pool.size());
+      assertSame(pool.get(), pool.get());
+      assertSame(pool.get("tenant"), pool.get("tenant"));
+      a = pool.get(Integer.valueOf(0));
+      final JavacTypeAndElementSource b = pool.get(Integer.valueOf(1));
+      assertNotSame(a, b);
+      // Independent environments have independent symbol tables.
+      assertNotSame(a.typeElement("java.lang.String"), b.typeElement("java.lang.String"));
+    } finally {
+      pool.close();
+    }
+    assertTrue(a.closed());
+    assertThrows(IllegalStateException.class, pool::get);
+  }
+
+  @Test
+  final void testCompletionLockBinding() throws Exception {
+    try (final JavacTypeAndElementSource tes = new JavacTypeAndElementSource(List.of())) {
+      final TypeElement string = tes.typeElement("java.lang.String");
+      // Inside guard(), library code that acquires the CompletionLock acquires this source's lock instead, so another
+      // thread may hold the global lock meanwhile.
+      final AtomicBoolean result = new AtomicBoolean();
+      final Thread t = Thread.ofVirtual().unstarted(() -> result.set(tes.guard(() -> {
+              CompletionLock.acquire(); // would block if it were the global lock
+              try {
+                return Equality.equalsIncludingAnnotations(string, ((DeclaredType)string.asType()).asElement());
+              } finally {
+                CompletionLock.release();
+              }
+            })));
+      CompletionLock.acquire();
+      try {
+        t.start();
+        assertTrue(t.join(Duration.ofSeconds(30L)));
+      } finally {
+        CompletionLock.release();
+      }
+      assertTrue(result.get());
+    }
+  }
+
+  @Test
+  final void testCompletedElementsAreKeptPerSource() {
+    final JavacTypeAndElementSource tes = new JavacTypeAndElementSource(List.of());
+    final TypeElement string = tes.typeElement("java.lang.String");
+    assertTrue(tes.guard(() -> CompletionLock.guard(string, () -> CompletionLock.completed(string))));
+    // The global record of completed elements never sees this source's symbols.
+    assertFalse(CompletionLock.completed(string));
+    tes.close();
+    assertFalse(tes.guard(() -> CompletionLock.completed(string)));
+  }
+
+  @Test
+  final void testVisitors() {
+    try (final JavacTypeAndElementSource tes = new JavacTypeAndElementSource(List.of())) {
+      final TypeMirror string = tes.typeElement("java.lang.String").asType();
+      final TypeMirror charSequence = tes.typeElement("java.lang.CharSequence").asType();
+      final RelationCache cache = new RelationCache();
+      final Visitors visitors = new Visitors(tes, false, true, cache);
+      assertTrue(visitors.subtype(string, charSequence));
+      assertFalse(visitors.subtype(charSequence, string));
+      assertTrue(visitors.assignable(string, charSequence));
+      final VisitorsPool pool = new VisitorsPool(tes, false, true, cache, 2);
+      assertTrue(pool.subtype(string, charSequence));
+      assertTrue(cache.hits() > 0L);
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.reflect.Method;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+
+import javax.lang.model.type.TypeKind;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class TestMemberIndex {
+
+  private TestMemberIndex() {
+    super();
+  }
+
+  @Test
+  final void testReflectiveLookups() throws ReflectiveOperationException {
+    final Method m = String.class.getMethod("regionMatches", boolean.class, int.class, String.class, int.class, int.class);
+    final ExecutableElement ee = Lang.executableElement(m);
+    assertNotNull(ee);
+    assertEquals(5, ee.getParameters().size());
+    assertSame(Lang.unwrap(ee), Lang.unwrap(Lang.executableElement(m)));
+
+    // Erased generic parameter: Map#put(Object, Object).
+    final ExecutableElement put = Lang.executableElement(Map.class.getMethod("put", Object.class, Object.class));
+    assertEquals("put", put.getSimpleName().toString());
+
+    assertEquals(ElementKind.CONSTRUCTOR, Lang.executableElement(String.class.getConstructor(char[].class)).getKind());
+    assertEquals(ElementKind.FIELD, Lang.variableElement(String.class.getField("CASE_INSENSITIVE_ORDER")).getKind());
+    assertEquals(ElementKind.ENUM_CONSTANT, Lang.variableElement(Thread.State.class.getField("NEW")).getKind());
+  }
+
+  @Test
+  final void testTypeMirrorLookups() {
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    final ExecutableElement indexOf = Lang.executableElement(string, "indexOf", Lang.primitiveType(TypeKind.INT));
+    assertEquals("(I)I", Lang.elementDescriptor(indexOf));
+    assertEquals(ElementKind.CONSTRUCTOR, Lang.executableElement(string, List.of(Lang.declaredType("java.lang.String"))).getKind());
+    assertEquals(ElementKind.CONSTRUCTOR, Lang.executableElement(string, "<init>").getKind());
+    assertNull(Lang.executableElement(string, "indexOf", Lang.primitiveType(TypeKind.BOOLEAN)));
+    assertNull(Lang.variableElement(string, "noSuchField"));
+
+    // Type variables match by erasure: List#add(E) is add(Object).
+    final TypeElement list = Lang.typeElement("java.util.List");
+    final ExecutableElement add = Lang.executableElement(list, "add", Lang.declaredType("java.lang.Object"));
+    assertEquals(TypeKind.TYPEVAR, add.getParameters().get(0).asType().getKind());
+  }
+
+  @Test
+  final void testUnfrozenTypeElementsAreNotIndexedForever() {
+    final org.microbean.lang.element.TypeElement foo = new org.microbean.lang.element.TypeElement(ElementKind.CLASS);
+    foo.setSimpleName("Foo");
+    assertNull(Lang.variableElement(foo, "x"));
+    final org.microbean.lang.element.VariableElement x = new org.microbean.lang.element.VariableElement(ElementKind.FIELD);
+    x.setSimpleName("x");
+    x.setType(Lang.primitiveType(TypeKind.INT));
+    foo.addEnclosedElement(x);
+    assertSame(x, Lang.unwrap(Lang.variableElement(foo, "x")));
+    foo.freeze();
+    assertSame(x, Lang.unwrap(Lang.variableElement(foo, "x")));
+  }
+
+  @Test
+  final void testKeys() {
+    final MemberIndex mi = new MemberIndex(Lang.unwrap(Lang.typeElement("java.lang.Thread.State")));
+    assertNotNull(mi.get("NEW"));
+    assertNotNull(mi.get("valueOf(Ljava/lang/String;)"));
+    assertNull(mi.get(null));
+    assertEquals("<init>(Ljava/lang/String;)", MemberIndex.key("<init>", new Class<?>[] { String.class }));
+  }
+
+}
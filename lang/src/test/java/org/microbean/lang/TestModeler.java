@@ -0,0 +1,266 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.NullType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.type.DeclaredType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class TestModeler {
+
+  private TestModeler() {
+    super();
+  }
+
+  @Test
+  final void testExactlyOnceUnderContention() throws Exception {
+    final CyclicModeler m = new CyclicModeler(null);
+    final List<Future<DeclaredType>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 64; i++) {
+        final String key = i % 2 == 0 ? "A" : "B";
+        futures.add(es.submit(() -> m.model(key)));
+      }
+    }
+    final DeclaredType a = m.model("A");
+    final DeclaredType b = m.model("B");
+    for (int i = 0; i < futures.size(); i++) {
+      assertSame(i % 2 == 0 ? a : b, futures.get(i).get());
+    }
+    assertSame(b, a.getTypeArguments().get(0));
+    assertSame(a, b.getTypeArguments().get(0));
+    assertEquals(1, m.creations.get("A").get());
+    assertEquals(1, m.creations.get("B").get());
+  }
+
+  @Test
+  final void testCrossThreadCycleDoesNotDeadlock() throws Exception {
+    // Each thread starts populating one half of the cycle, then needs the other half.
+    final CyclicModeler m = new CyclicModeler(new CyclicBarrier(2));
+    try (final ExecutorService es = Executors.newFixedThreadPool(2)) {
+      final Future<DeclaredType> fa = es.submit(() -> m.model("A"));
+      final Future<DeclaredType> fb = es.submit(() -> m.model("B"));
+      final DeclaredType a = fa.get(10L, TimeUnit.SECONDS);
+      final DeclaredType b = fb.get(10L, TimeUnit.SECONDS);
+      assertSame(b, a.getTypeArguments().get(0));
+      assertSame(a, b.getTypeArguments().get(0));
+    }
+  }
+
+  @Test
+  final void testFailureIsRetried() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final CyclicModeler m = new CyclicModeler(null);
+    assertThrows(IllegalStateException.class, () -> m.type("X", DeclaredType::new, (k, t) -> {
+          attempts.incrementAndGet();
+          throw new IllegalStateException();
+        }));
+    final DeclaredType x = m.type("X", DeclaredType::new, (k, t) -> attempts.incrementAndGet());
+    assertSame(x, m.type("X", DeclaredType::new, (k, t) -> attempts.incrementAndGet()));
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  final void testNullIsRejected() {
+    final CyclicModeler m = new CyclicModeler(null);
+    assertThrows(NullPointerException.class, () -> m.type("N", () -> null, (k, t) -> {}));
+    // The failed entry is gone, so nothing waits on it forever.
+    final DeclaredType n = m.type("N", DeclaredType::new, (k, t) -> {});
+    assertSame(n, m.type("N", DeclaredType::new, (k, t) -> {}));
+  }
+
+  @Test
+  final void testCrossThreadCycleThroughASupplier() throws Exception {
+    // One thread populates "X" and then needs "Y"; the other creates "Y" and, from within its Supplier, needs "X".
+    final CyclicModeler m = new CyclicModeler(null);
+    final CountDownLatch xCreated = new CountDownLatch(1);
+    try (final ExecutorService es = Executors.newFixedThreadPool(2)) {
+      final Future<DeclaredType> fx = es.submit(() -> m.type("X", DeclaredType::new, (k, x) -> {
+            xCreated.countDown();
+            try {
+              Thread.sleep(100L); // let the other thread start waiting on "X" first
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            x.addTypeArgument(m.type("Y", DeclaredType::new, (k2, y) -> {}));
+          }));
+      final Future<DeclaredType> fy = es.submit(() -> m.type("Y", () -> {
+            try {
+              xCreated.await();
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            final DeclaredType y = new DeclaredType();
+            y.addTypeArgument(m.type("X", DeclaredType::new, (k, x) -> {}));
+            return y;
+          }, (k, y) -> {}));
+      final DeclaredType x = fx.get(10L, TimeUnit.SECONDS);
+      final DeclaredType y = fy.get(10L, TimeUnit.SECONDS);
+      assertSame(y, x.getTypeArguments().get(0));
+      assertSame(x, y.getTypeArguments().get(0));
+    }
+  }
+
+  // Models "A" as a DeclaredType whose type argument is the model of "B", and vice versa.
+  private static final class CyclicModeler extends Modeler {
+
+    private final CyclicBarrier barrier;
+
+    private final Map<String, AtomicInteger> creations;
+
+    private CyclicModeler(final CyclicBarrier barrier) {
+      super();
+      this.barrier = barrier;
+      this.creations = new ConcurrentHashMap<>();
+    }
+
+    private final DeclaredType model(final String k) {
+      return this.type(k,
+                       () -> {
+                         this.creations.computeIfAbsent(k, x -> new AtomicInteger()).incrementAndGet();
+                         return new DeclaredType();
+                       },
+                       (key, t) -> {
+                         if (this.barrier != null) {
+                           try {
+                             this.barrier.await(10L, TimeUnit.SECONDS);
+                           } catch (final Exception e) {
+                             throw new IllegalStateException(e.getMessage(), e);
+                           }
+                         }
+                         t.addTypeArgument(this.model(key.equals("A") ? "B" : "A"));
+                       });
+    }
+
+    @Override
+    public final ArrayType arrayTypeOf(final TypeMirror componentType) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final boolean assignable(final TypeMirror payload, final TypeMirror receiver) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final boolean contains(final TypeMirror t, final TypeMirror s) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final javax.lang.model.type.DeclaredType declaredType(final javax.lang.model.type.DeclaredType enclosingType,
+                                                                 final TypeElement typeElement,
+                                                                 final TypeMirror... typeArguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final javax.lang.model.type.DeclaredType declaredType(final TypeElement typeElement,
+                                                                 final TypeMirror... typeArguments) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final List<? extends TypeMirror> directSupertypes(final TypeMirror t) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final <T extends TypeMirror> T erasure(final T t) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final ModuleElement moduleElement(final CharSequence canonicalName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final NoType noType(final TypeKind k) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final NullType nullType() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final PrimitiveType primitiveType(final TypeKind k) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final boolean sameType(final TypeMirror t, final TypeMirror s) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final boolean subtype(final TypeMirror t, final TypeMirror s) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final TypeElement typeElement(final CharSequence canonicalName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final TypeElement typeElement(final ModuleElement module, final CharSequence canonicalName) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final TypeVariable typeVariable(final java.lang.reflect.TypeVariable<?> t) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public final WildcardType wildcardType(final TypeMirror extendsBound, final TypeMirror superBound) {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+}
@@ -0,0 +1,73 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.element.Name;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestName {
+
+  private TestName() {
+    super();
+  }
+
+  @Test
+  final void testInterning() {
+    final Name get = Name.of("get");
+    assertSame(get, Name.of(new StringBuilder("get")));
+    assertSame(get, Name.of("xget").subSequence(1, 4));
+    assertSame(get, Name.ofSimple("com.foo.get"));
+    assertSame(Name.of(), Name.of(""));
+    assertEquals("get".hashCode(), get.hashCode());
+    assertNotEquals(get, Name.of("set"));
+    assertTrue(get.contentEquals("get"));
+    assertFalse(get.contentEquals(Name.of("set")));
+  }
+
+  @Test
+  final void testJavacNames() {
+    final Name object = Name.of(Lang.typeElement("java.lang.Object").getQualifiedName());
+    assertSame(Name.of("java.lang.Object"), object);
+    assertTrue(object.contentEquals(Lang.typeElement("java.lang.Object").getQualifiedName()));
+  }
+
+  @Test
+  final void testConcurrentInterning() throws Exception {
+    final List<Future<Name>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 64; i++) {
+        futures.add(es.submit(() -> Name.of(new StringBuilder("value"))));
+      }
+    }
+    final Name value = Name.of("value");
+    for (final Future<Name> f : futures) {
+      assertSame(value, f.get());
+    }
+  }
+
+}
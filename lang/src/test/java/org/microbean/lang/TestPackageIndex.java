@@ -0,0 +1,174 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.io.IOException;
+
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import java.util.stream.Stream;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestPackageIndex {
+
+  private TestPackageIndex() {
+    super();
+  }
+
+  @Test
+  final void testScan() throws IOException {
+    final PackageIndex pi = PackageIndex.scan(javaBase());
+    final List<String> resources = pi.resources("java.util.concurrent");
+    assertTrue(resources.contains("java/util/concurrent/ConcurrentHashMap.class"));
+    assertTrue(resources.stream().allMatch(r -> r.lastIndexOf('/') == "java/util/concurrent".length()));
+    final List<String> recursive = pi.resourcesRecursively("java.util.concurrent");
+    assertTrue(recursive.containsAll(resources));
+    assertTrue(recursive.contains("java/util/concurrent/atomic/LongAdder.class"));
+    assertTrue(pi.resources("no.such.package").isEmpty());
+    // Only genuine subpackages count.
+    assertTrue(recursive.stream().allMatch(r -> r.startsWith("java/util/concurrent/")));
+    assertTrue(pi.contains("java", true));
+    assertFalse(pi.contains("java", false));
+    assertFalse(pi.contains("java.util.conc", true));
+  }
+
+  @Test
+  final void testPersistence(@TempDir final Path tempDir) throws IOException {
+    final PackageIndex scanned = PackageIndex.of(javaBase(), tempDir);
+    final List<Path> files;
+    try (final Stream<Path> s = Files.list(tempDir)) {
+      files = s.toList();
+    }
+    assertEquals(1, files.size());
+    final Path f = files.get(0);
+
+    // A second request is served from the persisted file.
+    final PackageIndex persisted = PackageIndex.of(javaBase(), tempDir);
+    assertEquals(scanned.size(), persisted.size());
+    assertEquals(scanned.resources("java.lang"), persisted.resources("java.lang"));
+    assertEquals(scanned.resourcesRecursively(""), persisted.resourcesRecursively(""));
+
+    // Validation information that doesn't match means the persisted file is stale.
+    assertNull(PackageIndex.read(f, 0L, 0L));
+
+    // Truncated files are rejected.
+    final byte[] bytes = Files.readAllBytes(f);
+    Files.write(f, Arrays.copyOf(bytes, bytes.length / 2));
+    final Path modules = Path.of(System.getProperty("java.home"), "lib", "modules");
+    final long lastModified = Files.getLastModifiedTime(modules).toMillis();
+    final long size = Files.size(modules);
+    assertThrows(IOException.class, () -> PackageIndex.read(f, lastModified, size));
+    Files.write(f, bytes);
+
+    // Garbage is rejected, and transparently replaced.
+    Files.writeString(f, "garbage");
+    assertThrows(IOException.class, () -> PackageIndex.read(f, 0L, 0L));
+    assertNotNull(PackageIndex.of(javaBase(), tempDir));
+    assertEquals(scanned.size(), PackageIndex.of(javaBase(), tempDir).size());
+  }
+
+  @Test
+  final void testClassPath(@TempDir final Path tempDir) throws IOException {
+    final Path jar = tempDir.resolve("a.jar");
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("foo/"));
+      out.putNextEntry(new JarEntry("foo/Bar.class"));
+      out.write(new byte[] { 1, 2, 3 });
+      out.putNextEntry(new JarEntry("foo/Baz.java"));
+      out.write("package foo; class Baz {}".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new JarEntry("foo/baz/Qux.class"));
+      out.closeEntry();
+    }
+    final Path classes = tempDir.resolve("classes");
+    Files.write(Files.createDirectories(classes.resolve("foo")).resolve("Dir.class"), new byte[0]);
+
+    final StandardJavaFileManager sjfm = ToolProvider.getSystemJavaCompiler().getStandardFileManager(null, null, null);
+    sjfm.setLocationFromPaths(StandardLocation.CLASS_PATH, List.of(jar));
+    try (final Lang.ReadOnlyModularJavaFileManager fm = new Lang.ReadOnlyModularJavaFileManager(sjfm, null)) {
+      // Only the jar file is indexed.
+      assertEquals(1, fm.preindex());
+      // Nothing is indexed twice.
+      assertEquals(0, fm.preindex());
+      assertSame(fm.index(jar), fm.index(jar));
+      assertTrue(fm.index(jar).contains("foo", false));
+      assertTrue(fm.index(jar).contains("foo.baz", false));
+      assertFalse(fm.index(jar).contains("fo", true));
+      assertSame(fm.index(javaBase()), fm.index(javaBase()));
+
+      // Packages the index rules out are never listed.
+      assertFalse(fm.list(StandardLocation.CLASS_PATH, "no.such.package", Set.of(JavaFileObject.Kind.CLASS), true).iterator().hasNext());
+
+      // Everything else is javac's own listing, with real file objects.
+      final List<String> binaryNames = new ArrayList<>();
+      for (final JavaFileObject f : fm.list(StandardLocation.CLASS_PATH, "foo", Set.of(JavaFileObject.Kind.CLASS), true)) {
+        binaryNames.add(fm.inferBinaryName(StandardLocation.CLASS_PATH, f));
+      }
+      binaryNames.sort(null);
+      assertEquals(List.of("foo.Bar", "foo.baz.Qux"), binaryNames);
+      for (final JavaFileObject f : fm.list(StandardLocation.CLASS_PATH, "foo", Set.of(JavaFileObject.Kind.SOURCE), false)) {
+        assertEquals("package foo; class Baz {}", f.getCharContent(false).toString());
+        assertTrue(f.getLastModified() > 0L);
+      }
+
+      // A directory on the class path always defers to javac.
+      sjfm.setLocationFromPaths(StandardLocation.CLASS_PATH, List.of(jar, classes));
+      binaryNames.clear();
+      for (final JavaFileObject f : fm.list(StandardLocation.CLASS_PATH, "foo", Set.of(JavaFileObject.Kind.CLASS), false)) {
+        binaryNames.add(fm.inferBinaryName(StandardLocation.CLASS_PATH, f));
+      }
+      binaryNames.sort(null);
+      assertEquals(List.of("foo.Bar", "foo.Dir"), binaryNames);
+    }
+  }
+
+  @Test
+  final void testLangStillResolvesTypes() {
+    assertNotNull(Lang.typeElement("java.util.concurrent.atomic.LongAdder"));
+  }
+
+  private static final ModuleReference javaBase() {
+    return ModuleLayer.boot().configuration().findModule("java.base").map(ResolvedModule::reference).orElseThrow();
+  }
+
+}
@@ -0,0 +1,58 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.reflect.Method;
+
+import java.util.Map;
+
+import javax.lang.model.type.TypeKind;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class TestReflectionCache {
+
+  private TestReflectionCache() {
+    super();
+  }
+
+  @Test
+  final void testTypes() {
+    final TypeAndElementSource tes = Lang.typeAndElementSource();
+    assertSame(Lang.typeElement(Map.Entry.class), Lang.typeElement(Map.Entry.class));
+    assertSame(Lang.typeElement(Map.Entry.class), tes.typeElement(Map.Entry.class));
+    assertSame(Lang.declaredType(Map.Entry.class), Lang.declaredType(Map.Entry.class));
+    assertSame(Lang.declaredType(String.class), tes.type(String.class));
+    assertSame(Lang.type(String[].class), tes.type(String[].class));
+    assertSame(Lang.primitiveType(int.class), tes.primitiveType(int.class));
+    assertEquals(TypeKind.INT, Lang.primitiveType(int.class).getKind());
+    assertEquals(TypeKind.VOID, Lang.type(void.class).getKind());
+    assertThrows(IllegalArgumentException.class, () -> Lang.primitiveType(void.class));
+    assertThrows(IllegalArgumentException.class, () -> Lang.declaredType(int[].class));
+  }
+
+  @Test
+  final void testMembers() throws ReflectiveOperationException {
+    final Method m = Map.class.getMethod("get", Object.class);
+    assertSame(Lang.executableElement(m), Lang.executableElement(Map.class.getMethod("get", Object.class)));
+    assertSame(Lang.variableElement(String.class.getField("CASE_INSENSITIVE_ORDER")),
+               Lang.variableElement(String.class.getField("CASE_INSENSITIVE_ORDER")));
+    assertSame(Lang.executableElement(String.class.getConstructor()), Lang.executableElement(String.class.getConstructor()));
+  }
+
+}
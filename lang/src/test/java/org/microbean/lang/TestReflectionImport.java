@@ -0,0 +1,91 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestReflectionImport {
+
+  private TestReflectionImport() {
+    super();
+  }
+
+  @Test
+  final void testClosure() {
+    final ReflectionImport ri = ReflectionImport.of(List.of(HashMap.class, ArrayList[].class, int.class, Map.Entry.class));
+    for (final Class<?> c : List.of(HashMap.class, AbstractMap.class, Map.class, Object.class, ArrayList.class, Map.Entry.class)) {
+      final TypeElement te = ri.typeElement(c);
+      assertNotNull(te, c.getName());
+      assertEquals(c.getCanonicalName(), te.getQualifiedName().toString());
+      assertTrue(CompletionLock.completed(te) || !CompletionLock.readMostly());
+    }
+    assertNull(ri.typeElement(int.class));
+  }
+
+  @Test
+  final void testMembers() throws ReflectiveOperationException {
+    final ReflectionImport ri = ReflectionImport.of(List.of(String.class, Thread.State.class));
+    final Method m = String.class.getMethod("regionMatches", boolean.class, int.class, String.class, int.class, int.class);
+    final ExecutableElement ee = ri.executableElement(m);
+    assertNotNull(ee);
+    assertEquals("regionMatches", ee.getSimpleName().toString());
+    assertEquals(5, ee.getParameters().size());
+    assertEquals("(ZILjava/lang/String;II)Z", Lang.elementDescriptor(ee));
+    final Constructor<String> k = String.class.getConstructor(char[].class, int.class, int.class);
+    assertEquals(ElementKind.CONSTRUCTOR, ri.executableElement(k).getKind());
+    assertEquals(ElementKind.FIELD, ri.variableElement(String.class.getField("CASE_INSENSITIVE_ORDER")).getKind());
+    // Enum constructors carry two implicit parameters reflectively but none in the language model.
+    assertEquals(0, ri.executableElement(Thread.State.class.getDeclaredConstructors()[0]).getParameters().size());
+    assertEquals(ElementKind.ENUM_CONSTANT, ri.variableElement(Thread.State.class.getField("NEW")).getKind());
+  }
+
+  @Test
+  final void testCustomExecutor() throws InterruptedException {
+    final ExecutorService es = Executors.newFixedThreadPool(4);
+    try {
+      final ReflectionImport ri = ReflectionImport.of(List.of(java.util.concurrent.ConcurrentHashMap.class,
+                                                              java.util.TreeMap.class,
+                                                              java.util.LinkedHashMap.class),
+                                                      es);
+      assertNotNull(ri.typeElement(AbstractMap.class));
+      assertTrue(ri.elements().size() > 0);
+    } finally {
+      es.shutdown();
+      assertTrue(es.awaitTermination(10L, TimeUnit.SECONDS));
+    }
+  }
+
+}
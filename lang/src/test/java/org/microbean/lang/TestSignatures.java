@@ -0,0 +1,87 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.TypeKind;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class TestSignatures {
+
+  private TestSignatures() {
+    super();
+  }
+
+  @Test
+  final void testMemoization() {
+    final TypeElement list = Lang.typeElement("java.util.List");
+    final String s = Lang.elementSignature(list);
+    assertEquals("<E:Ljava/lang/Object;>Ljava/lang/Object;Ljava/util/SequencedCollection<TE;>;", s);
+    assertSame(s, Lang.elementSignature(list));
+    assertSame(s, Lang.elementSignature(Lang.unwrap(list)));
+
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    final ExecutableElement length = method(string, "length");
+    assertNull(Lang.elementSignature(length));
+    assertNull(Lang.elementSignature(length));
+    assertEquals("()I", Lang.elementDescriptor(length));
+    assertSame(Lang.elementDescriptor(length), Lang.elementDescriptor(length));
+    assertEquals("Ljava/lang/String;", Lang.elementDescriptor(string));
+  }
+
+  @Test
+  final void testUnfrozenElementsAreNotMemoized() {
+    final org.microbean.lang.element.ExecutableElement m = new org.microbean.lang.element.ExecutableElement(ElementKind.METHOD);
+    m.setSimpleName("m");
+    final org.microbean.lang.type.ExecutableType t = new org.microbean.lang.type.ExecutableType();
+    t.setReturnType(Lang.primitiveType(TypeKind.INT));
+    m.setType(t);
+    assertEquals("()I", Lang.elementDescriptor(m));
+    t.addParameterType(Lang.primitiveType(TypeKind.LONG));
+    assertEquals("(J)I", Lang.elementDescriptor(m));
+    m.freeze();
+    assertSame(Lang.elementDescriptor(m), Lang.elementDescriptor(m));
+  }
+
+  @Test
+  final void testWildcardsAndNestedTypes() {
+    final TypeElement collection = Lang.typeElement("java.util.Collection");
+    assertEquals("(Ljava/util/Collection<+TE;>;)Z", Lang.elementSignature(method(collection, "addAll")));
+    final TypeElement map = Lang.typeElement("java.util.Map");
+    assertEquals("()Ljava/util/Set<Ljava/util/Map.Entry<TK;TV;>;>;", Lang.elementSignature(method(map, "entrySet")));
+    assertEquals("()Ljava/util/Set;", Lang.elementDescriptor(method(map, "entrySet")));
+    assertEquals("Ljava/util/Map$Entry;", Lang.descriptor(Lang.typeElement("java.util.Map.Entry").asType()));
+  }
+
+  private static final ExecutableElement method(final TypeElement te, final String name) {
+    return CompletionLock.guard(() -> {
+        for (final Element e : te.getEnclosedElements()) {
+          if (e.getKind().isExecutable() && e.getSimpleName().contentEquals(name)) {
+            return (ExecutableElement)e;
+          }
+        }
+        throw new AssertionError(name);
+      });
+  }
+
+}
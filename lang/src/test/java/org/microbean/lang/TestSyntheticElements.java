@@ -0,0 +1,75 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.lang.model.element.Element;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.type.ArrayType;
+import org.microbean.lang.type.IntersectionType;
+import org.microbean.lang.type.PrimitiveType;
+import org.microbean.lang.type.Types;
+import org.microbean.lang.type.WildcardType;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class TestSyntheticElements {
+
+  private TestSyntheticElements() {
+    super();
+  }
+
+  @Test
+  final void testKindSingletons() {
+    assertSame(Types.asElement(new ArrayType(PrimitiveType.INT), true), Types.asElement(new ArrayType(PrimitiveType.LONG), true));
+    assertSame(Types.asElement(new WildcardType(), true), Types.asElement(new WildcardType(), true));
+    assertNotSame(Types.asElement(PrimitiveType.INT, true), Types.asElement(PrimitiveType.LONG, true));
+    assertNull(Types.asElement(PrimitiveType.INT, false));
+  }
+
+  @Test
+  final void testPerInstance() throws Exception {
+    final IntersectionType i1 = intersection();
+    final IntersectionType i2 = intersection();
+    final List<Future<Element>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 64; i++) {
+        futures.add(es.submit(() -> Types.asElement(i1, true)));
+      }
+    }
+    final Element e1 = Types.asElement(i1, true);
+    assertNotNull(e1);
+    assertSame(i1, e1.asType());
+    for (final Future<Element> f : futures) {
+      assertSame(e1, f.get());
+    }
+    assertNotSame(e1, Types.asElement(i2, true));
+  }
+
+  private static final IntersectionType intersection() {
+    return new IntersectionType(List.of(Lang.declaredType("java.lang.Object"), Lang.declaredType("java.io.Serializable")));
+  }
+
+}
@@ -0,0 +1,121 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.lang.model.element.TypeElement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestTypeElementCache {
+
+  private TestTypeElementCache() {
+    super();
+  }
+
+  @Test
+  final void testLangReturnsSameInstance() {
+    final TypeElementCache cache = Lang.typeElementCache();
+    final TypeElement e = Lang.typeElement("java.lang.CharSequence");
+    final long hits = cache.hits();
+    assertSame(e, Lang.typeElement("java.lang.CharSequence"));
+    assertTrue(cache.hits() > hits);
+    assertSame(Lang.typeElement(Lang.moduleElement("java.base"), "java.lang.CharSequence"),
+               Lang.typeElement(Lang.moduleElement("java.base"), "java.lang.CharSequence"));
+  }
+
+  @Test
+  final void testNullsAreNotCached() {
+    final TypeElementCache cache = new TypeElementCache();
+    assertNull(cache.computeIfAbsent(null, "no.such.Type", (m, n) -> null));
+    assertEquals(0, cache.size());
+    assertEquals(1L, cache.misses());
+  }
+
+  @Test
+  final void testLruEviction() {
+    final TypeElementCache cache = new TypeElementCache(8, TypeElementCache.Eviction.LRU);
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    for (final String name : List.of("a", "b", "c", "d", "e", "f", "g", "h")) {
+      cache.computeIfAbsent(null, name, (m, n) -> string);
+    }
+    assertEquals(8, cache.size());
+    cache.computeIfAbsent(null, "a", (m, n) -> string); // "a" is now the most recently used
+    cache.computeIfAbsent(null, "i", (m, n) -> string); // overflows; evicts down to 7 entries
+    assertEquals(7, cache.size());
+    assertEquals(2L, cache.evictions());
+    assertEquals(9L, cache.misses());
+    assertEquals(1L, cache.hits());
+    // "b" and "c" were the least recently used.
+    final long misses = cache.misses();
+    cache.computeIfAbsent(null, "a", (m, n) -> string);
+    cache.computeIfAbsent(null, "i", (m, n) -> string);
+    assertEquals(misses, cache.misses());
+    cache.computeIfAbsent(null, "b", (m, n) -> string);
+    assertEquals(misses + 1L, cache.misses());
+  }
+
+  @Test
+  final void testLfuEviction() {
+    final TypeElementCache cache = new TypeElementCache(8, TypeElementCache.Eviction.LFU);
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    for (final String name : List.of("a", "b", "c", "d", "e", "f", "g", "h")) {
+      cache.computeIfAbsent(null, name, (m, n) -> string);
+    }
+    for (final String name : List.of("a", "b", "c", "d", "e", "f", "g")) {
+      cache.computeIfAbsent(null, name, (m, n) -> string);
+    }
+    cache.computeIfAbsent(null, "i", (m, n) -> string); // overflows; evicts "h" and "i", the least frequently used
+    assertEquals(7, cache.size());
+    final long misses = cache.misses();
+    cache.computeIfAbsent(null, "a", (m, n) -> string);
+    assertEquals(misses, cache.misses());
+    cache.computeIfAbsent(null, "h", (m, n) -> string);
+    assertEquals(misses + 1L, cache.misses());
+  }
+
+  @Test
+  final void testConcurrentEviction() throws Exception {
+    final TypeElementCache cache = new TypeElementCache(64, TypeElementCache.Eviction.LFU);
+    final TypeElement string = Lang.typeElement("java.lang.String");
+    final List<Future<?>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 8; i++) {
+        final int seed = i;
+        futures.add(es.submit(() -> {
+              // Hits touch entries while other threads are evicting.
+              for (int j = 0; j < 20_000; j++) {
+                cache.computeIfAbsent(null, String.valueOf((j * (seed + 1)) % 256), (m, n) -> string);
+              }
+            }));
+      }
+    }
+    for (final Future<?> f : futures) {
+      f.get(); // throws if eviction failed
+    }
+    assertTrue(cache.evictions() > 0L);
+  }
+
+}
@@ -0,0 +1,134 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+
+import org.microbean.lang.type.TypeVariable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestRelationCache {
+
+  private TestRelationCache() {
+    super();
+  }
+
+  @Test
+  final void testMemoization() {
+    final RelationCache cache = new RelationCache();
+    final Visitors visitors = new Visitors(Lang.typeAndElementSource(), false, true, cache);
+    final DeclaredType listString =
+      Lang.declaredType(Lang.typeElement("java.util.List"), Lang.typeElement("java.lang.String").asType());
+    final DeclaredType listQuestionMark = Lang.declaredType(Lang.typeElement("java.util.List"), Lang.wildcardType());
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+
+    assertTrue(visitors.subtype(listString, listQuestionMark));
+    assertEquals(0L, cache.hits());
+    assertEquals(1L, cache.misses());
+    assertTrue(visitors.subtype(listString, listQuestionMark));
+    assertEquals(1L, cache.hits());
+
+    assertFalse(visitors.subtype(string, listQuestionMark));
+    assertFalse(visitors.subtype(string, listQuestionMark));
+    assertEquals(2L, cache.hits());
+
+    // Distinct relations do not share results.
+    assertTrue(visitors.assignable(listString, listQuestionMark));
+    assertFalse(visitors.sameType(listString, listQuestionMark));
+    assertEquals(2L, cache.hits());
+    assertEquals(4, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0L, cache.hits());
+  }
+
+  @Test
+  final void testSharingAcrossThreads() throws Exception {
+    final RelationCache cache = new RelationCache();
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final TypeMirror charSequence = Lang.typeElement("java.lang.CharSequence").asType();
+    final List<Future<Boolean>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newFixedThreadPool(4)) {
+      for (int i = 0; i < 4; i++) {
+        futures.add(es.submit(() -> {
+              // Visitors are not thread-safe, but a RelationCache is.
+              final Visitors visitors = new Visitors(Lang.typeAndElementSource(), false, true, cache);
+              boolean result = true;
+              for (int j = 0; j < 16; j++) {
+                result &= visitors.subtype(string, charSequence);
+              }
+              return result;
+            }));
+      }
+    }
+    for (final Future<Boolean> f : futures) {
+      assertTrue(f.get());
+    }
+    assertEquals(64L, cache.hits() + cache.misses());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  final void testUnfrozenTypesAreNotRetained() {
+    final RelationCache cache = new RelationCache();
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final TypeVariable t = new TypeVariable(Lang.typeAndElementSource(), string);
+    assertTrue(cache.test(RelationCache.Relation.SUBTYPE, t, string, (x, y) -> true));
+    assertTrue(cache.test(RelationCache.Relation.SUBTYPE, string, t, (x, y) -> true));
+    assertEquals(0, cache.size());
+    t.freeze();
+    assertTrue(cache.test(RelationCache.Relation.SUBTYPE, t, string, (x, y) -> true));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  final void testBound() {
+    final RelationCache cache = new RelationCache(2);
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final TypeMirror object = Lang.typeElement("java.lang.Object").asType();
+    cache.test(RelationCache.Relation.SUBTYPE, string, object, (x, y) -> true);
+    cache.test(RelationCache.Relation.SUBTYPE, object, string, (x, y) -> false);
+    assertEquals(2, cache.size());
+    cache.test(RelationCache.Relation.SUBTYPE, string, string, (x, y) -> true); // full; empties first
+    assertEquals(1, cache.size());
+    assertEquals(3L, cache.misses());
+    assertThrows(IllegalArgumentException.class, () -> new RelationCache(0));
+  }
+
+  @Test
+  final void testMismatchedConfigurationIsRejected() {
+    final RelationCache cache = new RelationCache();
+    new Visitors(Lang.typeAndElementSource(), false, true, cache);
+    new Visitors(Lang.typeAndElementSource(), false, true, cache);
+    assertThrows(IllegalArgumentException.class, () -> new Visitors(Lang.typeAndElementSource(), true, true, cache));
+  }
+
+}
@@ -0,0 +1,121 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.List;
+
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+
+import org.microbean.lang.type.TypeVariable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestSubstitution {
+
+  private TestSubstitution() {
+    super();
+  }
+
+  @Test
+  final void testIdentityPreservation() {
+    final Visitors visitors = new Visitors(Lang.typeAndElementSource());
+    final TypeElement list = Lang.typeElement("java.util.List");
+    final List<? extends TypeMirror> formals = ((DeclaredType)list.asType()).getTypeArguments();
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final SubstituteVisitor sv =
+      new SubstituteVisitor(Lang.typeAndElementSource(), null, visitors.supertypeVisitor(), formals, List.of(string));
+
+    // Nothing to substitute.
+    final TypeMirror integer = Lang.typeElement("java.lang.Integer").asType();
+    assertSame(integer, sv.visit(integer));
+    final DeclaredType listString = Lang.declaredType(list, string);
+    assertSame(listString, sv.visit(listString));
+    final List<? extends TypeMirror> typeArguments = listString.getTypeArguments();
+    assertSame(typeArguments, sv.visit(typeArguments, null));
+    final SubstituteVisitor empty =
+      new SubstituteVisitor(Lang.typeAndElementSource(), null, visitors.supertypeVisitor(), List.of(), List.of());
+    final TypeMirror listE = list.asType();
+    assertSame(listE, empty.visit(listE));
+
+    // Something to substitute.
+    final TypeMirror substituted = sv.visit(listE);
+    assertNotSame(listE, substituted);
+    assertTrue(visitors.sameType(listString, substituted));
+  }
+
+  @Test
+  final void testMemoization() {
+    final Visitors visitors = new Visitors(Lang.typeAndElementSource());
+    final SubstitutionCache cache = visitors.supertypeVisitor().substitutionCache();
+    final TypeElement map = Lang.typeElement("java.util.Map");
+    final List<? extends TypeMirror> formals = ((DeclaredType)map.asType()).getTypeArguments();
+    final List<TypeMirror> actuals =
+      List.of(Lang.typeElement("java.lang.String").asType(), Lang.typeElement("java.lang.Integer").asType());
+
+    final TypeMirror mapKV = map.asType();
+    final TypeMirror first =
+      new SubstituteVisitor(Lang.typeAndElementSource(), null, visitors.supertypeVisitor(), formals, actuals).visit(mapKV);
+    assertEquals(0L, cache.hits());
+    final long misses = cache.misses();
+    assertTrue(misses > 0L);
+
+    // A different visitor over the same types shares the result. (Entries are keyed by the identities of unwrapped types,
+    // so a different delegate for the same type hits too.)
+    final TypeMirror second =
+      new SubstituteVisitor(Lang.typeAndElementSource(), null, visitors.supertypeVisitor(), formals, actuals).visit(map.asType());
+    assertSame(first, second);
+    assertEquals(1L, cache.hits());
+    assertEquals(misses, cache.misses());
+  }
+
+  @Test
+  final void testUnfrozenTypesAreNotRetained() {
+    final SubstitutionCache cache = new SubstitutionCache();
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final TypeVariable t = new TypeVariable(Lang.typeAndElementSource(), string);
+    cache.substitute(t, List.of(), List.of(), false, x -> x);
+    cache.substitute(string, List.of(t), List.of(string), false, x -> x);
+    assertEquals(0, cache.size());
+    t.freeze();
+    cache.substitute(t, List.of(), List.of(), false, x -> x);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  final void testClearsWhenFull() {
+    final SubstitutionCache cache = new SubstitutionCache();
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    for (int i = 0; i < 4096; i++) {
+      final TypeVariable t = new TypeVariable(Lang.typeAndElementSource(), string);
+      t.freeze();
+      cache.substitute(t, List.of(), List.of(), false, x -> x);
+    }
+    assertEquals(4096, cache.size());
+    cache.substitute(string, List.of(), List.of(), false, x -> x); // full; empties first
+    assertEquals(1, cache.size());
+    assertSame(string, cache.substitute(string, List.of(), List.of(), false, x -> null));
+    assertEquals(1L, cache.hits());
+  }
+
+}
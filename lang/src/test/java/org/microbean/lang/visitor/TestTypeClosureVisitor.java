@@ -90,6 +90,43 @@ final class TestTypeClosureVisitor {
     assertTrue(contentsEqual(closure, visitorClosure));
   }
 
+  @Test
+  final void testParameterizedClosureIsDerivedFromDeclarationClosure() {
+    final DeclaredType arrayListString =
+      Lang.declaredType(Lang.typeElement("java.util.ArrayList"), Lang.declaredType("java.lang.String"));
+    final List<? extends TypeMirror> closure = javacCodeTypes.closure((Type)unwrap(arrayListString));
+    final List<? extends TypeMirror> visitorClosure = this.visitors.typeClosureVisitor().visit(arrayListString).toList();
+    assertEquals(closure.size(), visitorClosure.size());
+    for (int i = 0; i < closure.size(); i++) {
+      assertTrue(sameType(closure.get(i), visitorClosure.get(i)), closure.get(i) + " != " + visitorClosure.get(i));
+    }
+    // ArrayList's declaration closure, and those of its supertypes, were indexed along the way.
+    final TypeClosureIndex index = this.visitors.typeClosureVisitor().index();
+    final int size = index.size();
+    assertTrue(size > 1);
+
+    // A different parameterization does not grow the index, and is unaffected by callers mutating earlier results.
+    this.visitors.typeClosureVisitor().visit(arrayListString).union(Lang.declaredType("java.lang.Runnable"));
+    final DeclaredType arrayListInteger =
+      Lang.declaredType(Lang.typeElement("java.util.ArrayList"), Lang.declaredType("java.lang.Integer"));
+    final List<? extends TypeMirror> integerClosure = this.visitors.typeClosureVisitor().visit(arrayListInteger).toList();
+    assertEquals(size, index.size());
+    assertTrue(contentsEqual(javacCodeTypes.closure((Type)unwrap(arrayListInteger)), integerClosure));
+  }
+
+  @Test
+  final void testSharedIndex() {
+    final TypeClosureIndex index = new TypeClosureIndex();
+    final Visitors v1 = new Visitors(Lang.typeAndElementSource(), false, true, null, index);
+    final Visitors v2 = new Visitors(Lang.typeAndElementSource(), false, true, null, index);
+    final TypeMirror s = Lang.declaredType("java.lang.String");
+    final List<? extends TypeMirror> c1 = v1.typeClosureVisitor().visit(s).toList();
+    final int size = index.size();
+    final List<? extends TypeMirror> c2 = v2.typeClosureVisitor().visit(s).toList();
+    assertEquals(size, index.size());
+    assertTrue(contentsEqual(c1, c2));
+  }
+
   @Test
   final void testArrayTypeClosure() {
     final TypeMirror t = Lang.arrayTypeOf(Lang.declaredType("java.lang.Integer"));
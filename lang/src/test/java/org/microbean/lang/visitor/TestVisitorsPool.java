@@ -0,0 +1,102 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.lang.visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestVisitorsPool {
+
+  private TestVisitorsPool() {
+    super();
+  }
+
+  @Test
+  final void testAcquireAndRelease() {
+    final VisitorsPool pool = new VisitorsPool(Lang.typeAndElementSource(), false, true, null, 1);
+    assertEquals(1, pool.idle());
+    final Visitors v = pool.acquire();
+    assertEquals(0, pool.idle());
+    final Visitors other = pool.acquire();
+    assertNotSame(v, other);
+    pool.release(v);
+    pool.release(other); // discarded; the pool is full
+    assertEquals(1, pool.idle());
+    assertSame(v, pool.acquire());
+    pool.release(v);
+    assertThrows(IllegalArgumentException.class, () -> pool.release(new Visitors(Lang.typeAndElementSource())));
+  }
+
+  @Test
+  final void testReuseAfterReset() {
+    final VisitorsPool pool = new VisitorsPool(Lang.typeAndElementSource(), false, true, null, 1);
+    final DeclaredType listString =
+      Lang.declaredType(Lang.typeElement("java.util.List"), Lang.typeElement("java.lang.String").asType());
+    final DeclaredType listQuestionMark = Lang.declaredType(Lang.typeElement("java.util.List"), Lang.wildcardType());
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    // A visit that completes abruptly leaves the pooled instance usable.
+    assertThrows(NullPointerException.class, () -> pool.apply(v -> v.subtype(listString, null)));
+    assertTrue(pool.subtype(listString, listQuestionMark));
+    assertTrue(pool.assignable(listString, listQuestionMark));
+    assertFalse(pool.sameType(listString, listQuestionMark));
+    assertFalse(pool.subtype(string, listQuestionMark));
+    assertEquals(1, pool.idle());
+  }
+
+  @Test
+  final void testConcurrentUse() throws Exception {
+    final RelationCache cache = new RelationCache();
+    final VisitorsPool pool = new VisitorsPool(Lang.typeAndElementSource(), false, true, cache, 4);
+    final TypeMirror string = Lang.typeElement("java.lang.String").asType();
+    final TypeMirror charSequence = Lang.typeElement("java.lang.CharSequence").asType();
+    final List<Future<Boolean>> futures = new ArrayList<>();
+    try (final ExecutorService es = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 32; i++) {
+        futures.add(es.submit(() -> {
+              boolean result = true;
+              for (int j = 0; j < 16; j++) {
+                result &= pool.subtype(string, charSequence);
+                result &= !pool.subtype(charSequence, string);
+              }
+              return result;
+            }));
+      }
+    }
+    for (final Future<Boolean> f : futures) {
+      assertTrue(f.get());
+    }
+    assertSame(cache, pool.relationCache());
+    assertEquals(2, cache.size());
+    assertTrue(pool.idle() <= 4);
+  }
+
+}